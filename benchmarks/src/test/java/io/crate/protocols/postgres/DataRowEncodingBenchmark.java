@@ -0,0 +1,114 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of encoding DataRow messages using the text and the binary format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Fork(value = 2)
+@State(Scope.Benchmark)
+public class DataRowEncodingBenchmark {
+
+    private static final List<DataType<?>> COLUMN_TYPES = List.of(
+        DataTypes.INTEGER,
+        DataTypes.LONG,
+        DataTypes.DOUBLE,
+        DataTypes.STRING,
+        DataTypes.TIMESTAMPZ,
+        DataTypes.INTEGER_ARRAY,
+        DataTypes.UNTYPED_OBJECT
+    );
+
+    @Param({"TEXT", "BINARY"})
+    public FormatCodes.FormatCode formatCode;
+
+    private final List<Row> rows = new ArrayList<>();
+    private List<PGType<?>> columnTypes;
+    private FormatCodes.FormatCode[] formatCodes;
+    private ByteBuf buffer;
+
+    @Setup
+    public void setUp() {
+        columnTypes = new ArrayList<>(COLUMN_TYPES.size());
+        for (DataType<?> type : COLUMN_TYPES) {
+            columnTypes.add(PGTypes.get(type));
+        }
+        formatCodes = new FormatCodes.FormatCode[] { formatCode };
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new RowN(
+                i,
+                i * 1_000_000_000L,
+                i / 3.0,
+                "row-" + i,
+                1_600_000_000_000L + i,
+                Arrays.asList(i, null, i + 1),
+                Map.of("id", i, "name", "name-" + i, "tags", List.of("a", "b"))
+            ));
+        }
+        buffer = PooledByteBufAllocator.DEFAULT.buffer(1024 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public void measureWriteDataRow(Blackhole blackhole) {
+        buffer.clear();
+        for (int i = 0; i < rows.size(); i++) {
+            Messages.writeDataRow(buffer, rows.get(i), columnTypes, formatCodes);
+        }
+        blackhole.consume(buffer.writerIndex());
+    }
+}
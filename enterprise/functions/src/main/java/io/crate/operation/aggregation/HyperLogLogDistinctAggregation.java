@@ -24,7 +24,9 @@ import io.crate.Streamer;
 import io.crate.breaker.RamAccounting;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.impl.HyperLogLogPlusPlus;
+import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.module.EnterpriseFunctionsModule;
@@ -40,16 +42,24 @@ import io.crate.types.LongType;
 import io.crate.types.ShortType;
 import io.crate.types.StringType;
 import io.crate.types.TimestampType;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.hash.MurmurHash3;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.index.mapper.MappedFieldType;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLogLogDistinctAggregation.HllState, Long> {
 
@@ -146,6 +156,37 @@ public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLog
         return HllStateType.INSTANCE;
     }
 
+    @Nullable
+    @Override
+    public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes,
+                                                       List<MappedFieldType> fieldTypes,
+                                                       List<Literal<?>> literalArguments) {
+        if (fieldTypes.size() != 1 || literalArguments.size() > 1) {
+            return null;
+        }
+        int precision = HyperLogLogPlusPlus.DEFAULT_PRECISION;
+        if (literalArguments.size() == 1) {
+            precision = DataTypes.INTEGER.value(literalArguments.get(0).value());
+        }
+        String columnName = fieldTypes.get(0).name();
+        switch (dataType.id()) {
+            case LongType.ID:
+            case IntegerType.ID:
+            case ShortType.ID:
+            case ByteType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case DoubleType.ID:
+            case FloatType.ID:
+                return new HllNumericAggregator(columnName, dataType, precision);
+
+            case StringType.ID:
+                return new HllStringAggregator(columnName, dataType, precision);
+
+            default:
+                return null;
+        }
+    }
+
     @Override
     public Signature signature() {
         return signature;
@@ -202,6 +243,10 @@ public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLog
             hyperLogLogPlusPlus.collect(murmur3Hash.hash(value));
         }
 
+        void addHash(long hash) {
+            hyperLogLogPlusPlus.collect(hash);
+        }
+
         void merge(HllState state) {
             hyperLogLogPlusPlus.merge(state.hyperLogLogPlusPlus);
         }
@@ -235,6 +280,103 @@ public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLog
         }
     }
 
+    /**
+     * Base for the {@link DocValueAggregator}s; the hashes of the doc values must match the hashes
+     * of the row values computed by {@link Murmur3Hash}, so that the states can be merged.
+     */
+    private abstract static class HllDocValueAggregator implements DocValueAggregator<HllState> {
+
+        protected final String columnName;
+        private final DataType<?> dataType;
+        private final int precision;
+
+        HllDocValueAggregator(String columnName, DataType<?> dataType, int precision) {
+            this.columnName = columnName;
+            this.dataType = dataType;
+            this.precision = precision;
+        }
+
+        @Override
+        public HllState initialState(RamAccounting ramAccounting, MemoryManager memoryManager, Version minNodeVersion) {
+            HllState state = new HllState(dataType, minNodeVersion.onOrAfter(Version.V_4_1_0));
+            state.init(memoryManager, precision);
+            return state;
+        }
+
+        @Override
+        public Object partialResult(HllState state) {
+            return state;
+        }
+    }
+
+    private static class HllNumericAggregator extends HllDocValueAggregator {
+
+        private final boolean isDouble;
+        private final boolean isFloat;
+        private SortedNumericDocValues values;
+
+        HllNumericAggregator(String columnName, DataType<?> dataType, int precision) {
+            super(columnName, dataType, precision);
+            this.isDouble = dataType.id() == DoubleType.ID;
+            this.isFloat = dataType.id() == FloatType.ID;
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedNumeric(reader, columnName);
+        }
+
+        @Override
+        public void apply(HllState state, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                long value = values.nextValue();
+                if (isDouble) {
+                    double doubleValue = NumericUtils.sortableLongToDouble(value);
+                    state.addHash(BitMixer.mix64(java.lang.Double.doubleToLongBits(doubleValue)));
+                } else if (isFloat) {
+                    double floatValue = NumericUtils.sortableIntToFloat((int) value);
+                    state.addHash(BitMixer.mix64(java.lang.Double.doubleToLongBits(floatValue)));
+                } else {
+                    state.addHash(BitMixer.mix64(value));
+                }
+            }
+        }
+    }
+
+    private static class HllStringAggregator extends HllDocValueAggregator {
+
+        private SortedSetDocValues values;
+
+        HllStringAggregator(String columnName, DataType<?> dataType, int precision) {
+            super(columnName, dataType, precision);
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedSet(reader, columnName);
+        }
+
+        @Override
+        public void apply(HllState state, int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                long ord = values.nextOrd();
+                if (values.nextOrd() != SortedSetDocValues.NO_MORE_ORDS) {
+                    // multi valued; same as for numeric columns only single values are aggregated
+                    return;
+                }
+                BytesRef bytes = values.lookupOrd(ord);
+                if (state.allOn4_1) {
+                    byte[] utf8 = bytes.offset == 0 && bytes.length == bytes.bytes.length
+                        ? bytes.bytes
+                        : BytesRef.deepCopyOf(bytes).bytes;
+                    state.addHash(MurmurHash3.hash64(utf8, utf8.length));
+                } else {
+                    state.add(bytes.utf8ToString());
+                }
+            }
+        }
+    }
+
     public static class HllStateType extends DataType<HyperLogLogDistinctAggregation.HllState>
         implements Streamer<HyperLogLogDistinctAggregation.HllState> {
 
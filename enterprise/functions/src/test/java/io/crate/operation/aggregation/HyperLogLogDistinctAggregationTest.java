@@ -28,13 +28,19 @@ import io.crate.metadata.SearchPath;
 import io.crate.module.EnterpriseFunctionsModule;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.inject.ModulesBuilder;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Before;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -151,4 +157,41 @@ public class HyperLogLogDistinctAggregationTest extends AggregationTest {
         hllState2.add("127.0.0.1");
         assertThat(hllState2.value(), is(hllState1.value()));
     }
+
+    @Test
+    public void test_doc_value_aggregation_on_long_column_matches_row_aggregation() throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("x");
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 500;
+        }
+        Object result = executeDocValueAggregation(
+            HyperLogLogDistinctAggregation.NAME, DataTypes.LONG, fieldType, List.of(Literal.of(12)), numericDocs("x", values));
+
+        Object[][] data = new Object[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = new Object[]{values[i], 12};
+        }
+        assertThat(result, is(executeAggregationWithPrecision(DataTypes.LONG, data)));
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_string_column_matches_row_aggregation() throws Exception {
+        KeywordFieldMapper.KeywordFieldType fieldType = new KeywordFieldMapper.KeywordFieldType();
+        fieldType.setName("s");
+        List<Document> docs = new ArrayList<>();
+        Object[][] data = new Object[1000][];
+        for (int i = 0; i < data.length; i++) {
+            String value = "val_" + (i % 300);
+            Document doc = new Document();
+            doc.add(new SortedSetDocValuesField("s", new BytesRef(value)));
+            docs.add(doc);
+            data[i] = new Object[]{value};
+        }
+        Object result = executeDocValueAggregation(
+            HyperLogLogDistinctAggregation.NAME, DataTypes.STRING, fieldType, List.of(), docs);
+
+        assertThat(result, is(executeAggregation(DataTypes.STRING, data)));
+    }
 }
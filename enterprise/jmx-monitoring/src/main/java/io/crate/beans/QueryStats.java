@@ -20,6 +20,7 @@ package io.crate.beans;
 
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
+import io.crate.action.sql.StatementCache;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.metadata.sys.MetricsView;
 import io.crate.planner.Plan.StatementType;
@@ -77,8 +78,10 @@ public class QueryStats implements QueryStatsMBean {
         }
     };
     private final Supplier<Map<StatementType, Metric>> metricByStmtType;
+    private final StatementCache statementCache;
 
-    public QueryStats(JobsLogs jobsLogs) {
+    public QueryStats(JobsLogs jobsLogs, StatementCache statementCache) {
+        this.statementCache = statementCache;
         metricByStmtType = Suppliers.memoizeWithExpiration(
             () -> createMetricsMap(jobsLogs.metrics()),
             1,
@@ -228,4 +231,24 @@ public class QueryStats implements QueryStatsMBean {
     public long getUndefinedQueryFailedCount() {
         return metricByStmtType.get().getOrDefault(StatementType.UNDEFINED, DEFAULT_METRIC).failedCount();
     }
+
+    @Override
+    public long getStatementCacheHitCount() {
+        return statementCache.stats(StatementCache.Kind.STATEMENTS).hitCount();
+    }
+
+    @Override
+    public long getStatementCacheMissCount() {
+        return statementCache.stats(StatementCache.Kind.STATEMENTS).missCount();
+    }
+
+    @Override
+    public long getPlanCacheHitCount() {
+        return statementCache.stats(StatementCache.Kind.PLANS).hitCount();
+    }
+
+    @Override
+    public long getPlanCacheMissCount() {
+        return statementCache.stats(StatementCache.Kind.PLANS).missCount();
+    }
 }
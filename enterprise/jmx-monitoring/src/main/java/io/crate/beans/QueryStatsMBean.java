@@ -76,4 +76,12 @@ public interface QueryStatsMBean {
     long getCopyQueryFailedCount();
 
     long getUndefinedQueryFailedCount();
+
+    long getStatementCacheHitCount();
+
+    long getStatementCacheMissCount();
+
+    long getPlanCacheHitCount();
+
+    long getPlanCacheMissCount();
 }
@@ -38,6 +38,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import io.crate.action.sql.SQLOperations;
+import io.crate.action.sql.StatementCache;
 import io.crate.beans.CircuitBreakers;
 import io.crate.beans.Connections;
 import io.crate.beans.NodeInfo;
@@ -59,11 +60,12 @@ public class CrateMonitor {
                         @Nullable HttpServerTransport httpServerTransport,
                         TransportService transportService,
                         SQLOperations sqlOperations,
+                        StatementCache statementCache,
                         ClusterService clusterService,
                         ThreadPool threadPool,
                         CircuitBreakerService breakerService) {
         logger = LogManager.getLogger(CrateMonitor.class);
-        registerMBean(QueryStats.NAME, new QueryStats(jobsLogs));
+        registerMBean(QueryStats.NAME, new QueryStats(jobsLogs, statementCache));
         registerMBean(NodeStatus.NAME, new NodeStatus(sqlOperations::isEnabled));
         registerMBean(NodeInfo.NAME, new NodeInfo(clusterService::localNode, () -> clusterService.state().version()));
         registerMBean(Connections.NAME, new Connections(
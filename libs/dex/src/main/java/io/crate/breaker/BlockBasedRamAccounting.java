@@ -66,10 +66,22 @@ public final class BlockBasedRamAccounting implements RamAccounting {
         this.blockSizeInBytes = blockSizeInBytes;
     }
 
+    /**
+     * Accounts for the supplied number of bytes.
+     * Negative values free memory; if more than a block is reserved but unused afterwards,
+     * the reservation is shrunk to a single unused block and the rest is handed back.
+     */
     @Override
     public void addBytes(long bytes) {
         usedBytes += bytes;
-        if ((reservedBytes - usedBytes) < 0) {
+        if (bytes < 0) {
+            long unusedBytes = reservedBytes - usedBytes;
+            if (unusedBytes > 2L * blockSizeInBytes) {
+                long bytesToFree = unusedBytes - blockSizeInBytes;
+                reserveMemory.accept(-bytesToFree);
+                reservedBytes -= bytesToFree;
+            }
+        } else if ((reservedBytes - usedBytes) < 0) {
             long reserveBytes = bytes > blockSizeInBytes ? bytes : blockSizeInBytes;
             try {
                 reserveMemory.accept(reserveBytes);
@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.breaker;
+
+/**
+ * A RamAccounting for a single operator which shares the RamAccounting of its phase with other operators.
+ * <p>
+ * All bytes are forwarded to the parent, but {@link #totalBytes()} and {@link #release()} only cover the bytes
+ * added through this instance. This allows an operator to measure and free its own memory, e.g. once it moved
+ * rows to disk, without affecting the memory accounted by the other operators.
+ * This implementation should be used from a single thread only.
+ */
+public final class ChildRamAccounting implements RamAccounting {
+
+    private final RamAccounting parent;
+    private long usedBytes = 0;
+
+    public ChildRamAccounting(RamAccounting parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public void addBytes(long bytes) {
+        parent.addBytes(bytes);
+        usedBytes += bytes;
+    }
+
+    @Override
+    public long totalBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public void release() {
+        if (usedBytes != 0) {
+            parent.addBytes(-usedBytes);
+            usedBytes = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    @Override
+    public String toString() {
+        return "ChildRamAccounting{usedBytes=" + usedBytes + ", parent=" + parent + '}';
+    }
+}
@@ -61,4 +61,18 @@ public class BlockBasedRamAccountingTest {
         ramAccounting.addBytes(5432);
         assertThat(accountedBytes.get(), is(5432L));
     }
+
+    @Test
+    public void test_unused_blocks_are_returned_if_bytes_are_released() {
+        var requestedBytes = new AtomicLong(0L);
+        var ramAccounting = new BlockBasedRamAccounting(requestedBytes::addAndGet, 1024);
+
+        for (int i = 0; i < 10; i++) {
+            ramAccounting.addBytes(1024);
+        }
+        assertThat(requestedBytes.get(), is(10240L));
+        ramAccounting.addBytes(-9216);
+        assertThat(ramAccounting.totalBytes(), is(1024L));
+        assertThat(requestedBytes.get(), is(2048L));
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.breaker;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ChildRamAccountingTest {
+
+    @Test
+    public void test_release_of_child_only_frees_bytes_added_through_the_child() {
+        var requestedBytes = new AtomicLong(0L);
+        var parent = new BlockBasedRamAccounting(requestedBytes::addAndGet, 100);
+        var child = new ChildRamAccounting(parent);
+
+        parent.addBytes(500);
+        child.addBytes(300);
+        assertThat(child.totalBytes(), is(300L));
+        assertThat(parent.totalBytes(), is(800L));
+
+        child.release();
+        assertThat(child.totalBytes(), is(0L));
+        assertThat(parent.totalBytes(), is(500L));
+        assertThat(requestedBytes.get() < 800L, is(true));
+    }
+
+    @Test
+    public void test_release_of_empty_child_does_not_touch_parent() {
+        var parent = new BlockBasedRamAccounting(b -> { }, 100);
+        var child = new ChildRamAccounting(parent);
+        parent.addBytes(50);
+
+        child.close();
+        assertThat(parent.totalBytes(), is(50L));
+    }
+}
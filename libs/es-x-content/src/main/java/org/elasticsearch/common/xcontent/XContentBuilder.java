@@ -199,6 +199,16 @@ public final class XContentBuilder implements Closeable, Flushable {
         this.generator = xContent.createGenerator(bos, includes, excludes);
     }
 
+    /**
+     * Creates a new builder using the provided generator, which must write to the provided output stream.
+     * <p>
+     * Make sure to call {@link #close()} when the builder is done with.
+     */
+    public XContentBuilder(XContentGenerator generator, OutputStream os) {
+        this.bos = os;
+        this.generator = generator;
+    }
+
     public XContentType contentType() {
         return generator.contentType();
     }
@@ -0,0 +1,378 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.xcontent.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.elasticsearch.common.xcontent.XContentGenerator;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentParser.Token;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * A {@link XContentGenerator} which delegates to another generator and records the written tokens, so that the
+ * content can be parsed again using {@link XContentTokens#createParser} without decoding the generated bytes.
+ * <p>
+ * The recorded tokens represent the content as it is read back by a JSON parser. E.g. floating point numbers are
+ * exposed as doubles, binary values as base64 encoded strings and non-finite numbers as strings.
+ * Raw values and copied structures are not recorded, {@link #tokens()} returns null if any of them were written.
+ */
+public final class RecordingXContentGenerator implements XContentGenerator {
+
+    private final XContentGenerator delegate;
+    private final XContentTokens.Builder tokens = new XContentTokens.Builder();
+    private boolean complete = true;
+
+    public RecordingXContentGenerator(XContentGenerator delegate) {
+        assert delegate.contentType() == XContentType.JSON : "Only JSON content can be recorded";
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the recorded tokens, or null if the written content could not be recorded.
+     */
+    @Nullable
+    public XContentTokens tokens() {
+        return complete ? tokens.build() : null;
+    }
+
+    @Override
+    public XContentType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public void usePrettyPrint() {
+        delegate.usePrettyPrint();
+    }
+
+    @Override
+    public boolean isPrettyPrint() {
+        return delegate.isPrettyPrint();
+    }
+
+    @Override
+    public void usePrintLineFeedAtEnd() {
+        delegate.usePrintLineFeedAtEnd();
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        delegate.writeStartObject();
+        tokens.add(Token.START_OBJECT, null);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        delegate.writeEndObject();
+        tokens.add(Token.END_OBJECT, null);
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        delegate.writeStartArray();
+        tokens.add(Token.START_ARRAY, null);
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        delegate.writeEndArray();
+        tokens.add(Token.END_ARRAY, null);
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        delegate.writeFieldName(name);
+        tokens.add(Token.FIELD_NAME, name);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        delegate.writeNull();
+        tokens.add(Token.VALUE_NULL, null);
+    }
+
+    @Override
+    public void writeNullField(String name) throws IOException {
+        delegate.writeNullField(name);
+        tokens.add(Token.FIELD_NAME, name);
+        tokens.add(Token.VALUE_NULL, null);
+    }
+
+    @Override
+    public void writeBooleanField(String name, boolean value) throws IOException {
+        delegate.writeBooleanField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        tokens.add(Token.VALUE_BOOLEAN, value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        delegate.writeBoolean(value);
+        tokens.add(Token.VALUE_BOOLEAN, value);
+    }
+
+    @Override
+    public void writeNumberField(String name, double value) throws IOException {
+        delegate.writeNumberField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        delegate.writeNumber(value);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, float value) throws IOException {
+        delegate.writeNumberField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        delegate.writeNumber(value);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, int value) throws IOException {
+        delegate.writeNumberField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        tokens.add(Token.VALUE_NUMBER, value);
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        delegate.writeNumber(value);
+        tokens.add(Token.VALUE_NUMBER, value);
+    }
+
+    @Override
+    public void writeNumberField(String name, long value) throws IOException {
+        delegate.writeNumberField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        delegate.writeNumber(value);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumber(short value) throws IOException {
+        delegate.writeNumber(value);
+        tokens.add(Token.VALUE_NUMBER, (int) value);
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        delegate.writeNumber(value);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, BigInteger value) throws IOException {
+        delegate.writeNumberField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        delegate.writeNumber(value);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, BigDecimal value) throws IOException {
+        delegate.writeNumberField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        recordNumber(value);
+    }
+
+    @Override
+    public void writeStringField(String name, String value) throws IOException {
+        delegate.writeStringField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        recordString(value);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        delegate.writeString(value);
+        recordString(value);
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        delegate.writeString(text, offset, len);
+        tokens.add(Token.VALUE_STRING, new String(text, offset, len));
+    }
+
+    @Override
+    public void writeUTF8String(byte[] value, int offset, int length) throws IOException {
+        delegate.writeUTF8String(value, offset, length);
+        tokens.add(Token.VALUE_STRING, new String(value, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeBinaryField(String name, byte[] value) throws IOException {
+        delegate.writeBinaryField(name, value);
+        tokens.add(Token.FIELD_NAME, name);
+        tokens.add(Token.VALUE_STRING, Base64.getEncoder().encodeToString(value));
+    }
+
+    @Override
+    public void writeBinary(byte[] value) throws IOException {
+        delegate.writeBinary(value);
+        tokens.add(Token.VALUE_STRING, Base64.getEncoder().encodeToString(value));
+    }
+
+    @Override
+    public void writeBinary(byte[] value, int offset, int length) throws IOException {
+        delegate.writeBinary(value, offset, length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(value, offset, bytes, 0, length);
+        tokens.add(Token.VALUE_STRING, Base64.getEncoder().encodeToString(bytes));
+    }
+
+    @Override
+    @Deprecated
+    public void writeRawField(String name, InputStream value) throws IOException {
+        complete = false;
+        delegate.writeRawField(name, value);
+    }
+
+    @Override
+    public void writeRawField(String name, InputStream value, XContentType xContentType) throws IOException {
+        complete = false;
+        delegate.writeRawField(name, value, xContentType);
+    }
+
+    @Override
+    public void writeRawValue(InputStream value, XContentType xContentType) throws IOException {
+        complete = false;
+        delegate.writeRawValue(value, xContentType);
+    }
+
+    @Override
+    public void copyCurrentStructure(XContentParser parser) throws IOException {
+        complete = false;
+        delegate.copyCurrentStructure(parser);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void configure(JsonGenerator.Feature f, boolean state) {
+        delegate.configure(f, state);
+    }
+
+    @Override
+    public boolean isEnabled(JsonGenerator.Feature f) {
+        return delegate.isEnabled(f);
+    }
+
+    private void recordString(@Nullable String value) {
+        // Jackson writes a null String as JSON null
+        if (value == null) {
+            tokens.add(Token.VALUE_NULL, null);
+        } else {
+            tokens.add(Token.VALUE_STRING, value);
+        }
+    }
+
+    private void recordNumber(double value) {
+        // non-finite numbers are written as quoted strings
+        if (Double.isFinite(value)) {
+            tokens.add(Token.VALUE_NUMBER, value);
+        } else {
+            tokens.add(Token.VALUE_STRING, Double.toString(value));
+        }
+    }
+
+    private void recordNumber(float value) {
+        if (Float.isFinite(value)) {
+            // a JSON parser reads the textual representation of the float as double
+            tokens.add(Token.VALUE_NUMBER, Double.parseDouble(Float.toString(value)));
+        } else {
+            tokens.add(Token.VALUE_STRING, Float.toString(value));
+        }
+    }
+
+    private void recordNumber(long value) {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            tokens.add(Token.VALUE_NUMBER, (int) value);
+        } else {
+            tokens.add(Token.VALUE_NUMBER, value);
+        }
+    }
+
+    private void recordNumber(@Nullable BigInteger value) {
+        if (value == null) {
+            tokens.add(Token.VALUE_NULL, null);
+        } else if (value.bitLength() < Long.SIZE) {
+            recordNumber(value.longValue());
+        } else {
+            tokens.add(Token.VALUE_NUMBER, value);
+        }
+    }
+
+    private void recordNumber(@Nullable BigDecimal value) {
+        if (value == null) {
+            tokens.add(Token.VALUE_NULL, null);
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf('.') == -1 && text.indexOf('E') == -1) {
+            // written without fraction or exponent, so a JSON parser reads it as integer
+            recordNumber(value.toBigIntegerExact());
+        } else {
+            tokens.add(Token.VALUE_NUMBER, Double.parseDouble(text));
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.xcontent.support;
+
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentLocation;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The tokens of a JSON content recorded by {@link RecordingXContentGenerator}.
+ * Parsers created by {@link #createParser} replay the tokens and behave like a JSON parser reading the content.
+ */
+public final class XContentTokens {
+
+    private final XContentParser.Token[] tokens;
+    private final Object[] values;
+
+    private XContentTokens(XContentParser.Token[] tokens, Object[] values) {
+        this.tokens = tokens;
+        this.values = values;
+    }
+
+    public int size() {
+        return tokens.length;
+    }
+
+    public XContentParser createParser(NamedXContentRegistry xContentRegistry, DeprecationHandler deprecationHandler) {
+        return new ReplayingParser(xContentRegistry, deprecationHandler);
+    }
+
+    static final class Builder {
+
+        private final ArrayList<XContentParser.Token> tokens = new ArrayList<>();
+        private final ArrayList<Object> values = new ArrayList<>();
+
+        void add(XContentParser.Token token, Object value) {
+            tokens.add(token);
+            values.add(value);
+        }
+
+        XContentTokens build() {
+            return new XContentTokens(tokens.toArray(new XContentParser.Token[0]), values.toArray());
+        }
+    }
+
+    private final class ReplayingParser extends AbstractXContentParser {
+
+        /**
+         * Field names of the enclosing objects, the last element belongs to the innermost object or array.
+         * Arrays don't have a field name.
+         */
+        private String[] names = new String[8];
+        private int depth = 0;
+        private int position = -1;
+        private boolean closed = false;
+
+        ReplayingParser(NamedXContentRegistry xContentRegistry, DeprecationHandler deprecationHandler) {
+            super(xContentRegistry, deprecationHandler);
+        }
+
+        @Override
+        public XContentType contentType() {
+            return XContentType.JSON;
+        }
+
+        @Override
+        public Token nextToken() {
+            if (position >= tokens.length - 1) {
+                position = tokens.length;
+                return null;
+            }
+            position++;
+            switch (tokens[position]) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    if (depth + 1 == names.length) {
+                        names = Arrays.copyOf(names, names.length * 2);
+                    }
+                    depth++;
+                    names[depth] = null;
+                    break;
+
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+
+                case FIELD_NAME:
+                    names[depth] = (String) values[position];
+                    break;
+
+                default:
+                    break;
+            }
+            return tokens[position];
+        }
+
+        @Override
+        public void skipChildren() {
+            Token token = currentToken();
+            if (token != Token.START_OBJECT && token != Token.START_ARRAY) {
+                return;
+            }
+            int open = 1;
+            while (open > 0) {
+                Token next = nextToken();
+                if (next == null) {
+                    return;
+                }
+                if (next == Token.START_OBJECT || next == Token.START_ARRAY) {
+                    open++;
+                } else if (next == Token.END_OBJECT || next == Token.END_ARRAY) {
+                    open--;
+                }
+            }
+        }
+
+        @Override
+        public Token currentToken() {
+            if (position < 0 || position >= tokens.length) {
+                return null;
+            }
+            return tokens[position];
+        }
+
+        @Override
+        public String currentName() {
+            Token token = currentToken();
+            if (token == Token.START_OBJECT || token == Token.START_ARRAY) {
+                // same as Jackson: the name of the field this object or array is the value of
+                return names[depth - 1];
+            }
+            return names[depth];
+        }
+
+        @Override
+        public NumberType numberType() {
+            Object value = currentNumber();
+            if (value instanceof Integer) {
+                return NumberType.INT;
+            } else if (value instanceof Long) {
+                return NumberType.LONG;
+            } else if (value instanceof Double) {
+                return NumberType.DOUBLE;
+            }
+            throw new IllegalStateException("No matching token for number_type [BIG_INTEGER]");
+        }
+
+        @Override
+        protected boolean doBooleanValue() {
+            return (Boolean) values[position];
+        }
+
+        @Override
+        public String text() {
+            Token token = currentToken();
+            if (token != null && token.isValue()) {
+                return values[position].toString();
+            }
+            throw new IllegalStateException("Can't get text on a " + token + " at " + getTokenLocation());
+        }
+
+        @Override
+        public CharBuffer charBuffer() {
+            return CharBuffer.wrap(text());
+        }
+
+        @Override
+        public Object objectText() {
+            Token token = currentToken();
+            if (token == Token.VALUE_NUMBER || token == Token.VALUE_BOOLEAN) {
+                return values[position];
+            } else if (token == Token.VALUE_NULL) {
+                return null;
+            }
+            return text();
+        }
+
+        @Override
+        public boolean hasTextCharacters() {
+            return false;
+        }
+
+        @Override
+        public char[] textCharacters() {
+            return text().toCharArray();
+        }
+
+        @Override
+        public int textLength() {
+            return text().length();
+        }
+
+        @Override
+        public int textOffset() {
+            return 0;
+        }
+
+        @Override
+        public Number numberValue() {
+            return currentNumber();
+        }
+
+        @Override
+        protected short doShortValue() {
+            long value = doLongValue();
+            if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Numeric value (" + text() + ") out of range of short");
+            }
+            return (short) value;
+        }
+
+        @Override
+        protected int doIntValue() {
+            long value = doLongValue();
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Numeric value (" + text() + ") out of range of int");
+            }
+            return (int) value;
+        }
+
+        @Override
+        protected long doLongValue() {
+            Number value = currentNumber();
+            if (value instanceof BigInteger && ((BigInteger) value).bitLength() >= Long.SIZE) {
+                throw new IllegalArgumentException("Numeric value (" + text() + ") out of range of long");
+            }
+            return value.longValue();
+        }
+
+        @Override
+        protected float doFloatValue() {
+            return (float) doDoubleValue();
+        }
+
+        @Override
+        protected double doDoubleValue() {
+            return currentNumber().doubleValue();
+        }
+
+        @Override
+        public byte[] binaryValue() {
+            return Base64.getDecoder().decode(text());
+        }
+
+        @Override
+        public XContentLocation getTokenLocation() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        private Number currentNumber() {
+            if (currentToken() != Token.VALUE_NUMBER) {
+                throw new IllegalStateException("Current token (" + currentToken() + ") not numeric");
+            }
+            return (Number) values[position];
+        }
+    }
+}
@@ -76,6 +76,8 @@ statement
         onConflict?
         returning?                                                                   #insert
     | RESTORE SNAPSHOT qname (ALL | TABLE tableWithPartitions) withProperties?       #restore
+    | COPY qname ('(' ident (',' ident)* ')')? FROM STDIN copyOptions?               #copyFromStdin
+    | COPY (qname columns? where? | '(' query ')') TO STDOUT copyOptions?            #copyToStdout
     | COPY tableWithPartition FROM path=expr withProperties? (RETURN SUMMARY)?       #copyFrom
     | COPY tableWithPartition columns? where?
         TO DIRECTORY? path=expr withProperties?                                      #copyTo
@@ -585,6 +587,22 @@ genericProperties
     : genericProperty (',' genericProperty)*
     ;
 
+copyOptions
+    : WITH? '(' copyOption (',' copyOption)* ')'
+    ;
+
+copyOption
+    : name=ident value=copyOptionValue?
+    | NULL value=copyOptionValue
+    ;
+
+copyOptionValue
+    : ident
+    | stringLiteral
+    | booleanLiteral
+    | integerLiteral
+    ;
+
 genericProperty
     : ident EQ expr
     ;
@@ -677,7 +695,7 @@ nonReserved
     | WORK | SERIALIZABLE | REPEATABLE | COMMITTED | UNCOMMITTED | READ | WRITE | WINDOW | DEFERRABLE
     | STRING_TYPE | IP | DOUBLE | FLOAT | TIMESTAMP | LONG | INT | INTEGER | SHORT | BYTE | BOOLEAN | PRECISION
     | REPLACE | RETURNING | SWAP | GC | DANGLING | ARTIFACTS | DECOMMISSION | LEADING | TRAILING | BOTH | TRIM
-    | CURRENT_SCHEMA | PROMOTE | CHARACTER | VARYING
+    | CURRENT_SCHEMA | PROMOTE | CHARACTER | VARYING | STDIN | STDOUT
     | DISCARD | PLANS | SEQUENCES | TEMPORARY | TEMP
     ;
 
@@ -691,6 +709,8 @@ ANY: 'ANY';
 SOME: 'SOME';
 DEALLOCATE: 'DEALLOCATE';
 DIRECTORY: 'DIRECTORY';
+STDIN: 'STDIN';
+STDOUT: 'STDOUT';
 DISTINCT: 'DISTINCT';
 WHERE: 'WHERE';
 GROUP: 'GROUP';
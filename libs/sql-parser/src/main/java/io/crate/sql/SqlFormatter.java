@@ -36,6 +36,8 @@ import io.crate.sql.tree.ColumnDefinition;
 import io.crate.sql.tree.ColumnStorageDefinition;
 import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
@@ -194,6 +196,43 @@ public final class SqlFormatter {
             return null;
         }
 
+        @Override
+        public Void visitCopyFromStdin(CopyFromStdin node, Integer indent) {
+            append(indent, "COPY ");
+            builder.append(formatQualifiedName(node.table()));
+            if (!node.columns().isEmpty()) {
+                builder.append(" (");
+                builder.append(node.columns().stream()
+                    .map(Formatter::quoteIdentifierIfNeeded)
+                    .collect(Collectors.joining(", ")));
+                builder.append(')');
+            }
+            builder.append(" FROM STDIN");
+            appendCopyOptions(node.options());
+            return null;
+        }
+
+        @Override
+        public Void visitCopyToStdout(CopyToStdout node, Integer indent) {
+            append(indent, "COPY (");
+            node.query().accept(this, indent);
+            builder.append(") TO STDOUT");
+            appendCopyOptions(node.options());
+            return null;
+        }
+
+        private void appendCopyOptions(Map<String, String> options) {
+            if (options.isEmpty()) {
+                return;
+            }
+            builder.append(" WITH (");
+            builder.append(options.entrySet().stream()
+                .map(e -> ("null".equals(e.getKey()) ? "NULL" : quoteIdentifierIfNeeded(e.getKey()))
+                          + ' ' + Literals.quoteStringLiteral(e.getValue()))
+                .collect(Collectors.joining(", ")));
+            builder.append(')');
+        }
+
         @Override
         public Void visitRefreshStatement(RefreshStatement node, Integer indent) {
             append(indent, "REFRESH TABLE ");
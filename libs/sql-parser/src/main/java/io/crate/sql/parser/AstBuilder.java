@@ -86,7 +86,9 @@ import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
@@ -574,6 +576,69 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
             extractGenericProperties(context.withProperties()));
     }
 
+    @Override
+    public Node visitCopyFromStdin(SqlBaseParser.CopyFromStdinContext context) {
+        return new CopyFromStdin(
+            getQualifiedName(context.qname()),
+            identsToStrings(context.ident()),
+            getCopyOptions(context.copyOptions()));
+    }
+
+    @Override
+    public Node visitCopyToStdout(SqlBaseParser.CopyToStdoutContext context) {
+        Query query;
+        if (context.query() != null) {
+            query = (Query) visit(context.query());
+        } else {
+            List<SelectItem> selectItems;
+            if (context.columns() == null) {
+                selectItems = List.of(new AllColumns());
+            } else {
+                selectItems = Lists2.map(
+                    visitCollection(context.columns().primaryExpression(), Expression.class), SingleColumn::new);
+            }
+            query = new Query(
+                new QuerySpecification(
+                    new Select(false, selectItems),
+                    List.of(new Table<>(getQualifiedName(context.qname()), false)),
+                    visitIfPresent(context.where(), Expression.class),
+                    List.of(),
+                    Optional.empty(),
+                    Map.of(),
+                    List.of(),
+                    Optional.empty(),
+                    Optional.empty()),
+                List.of(),
+                Optional.empty(),
+                Optional.empty());
+        }
+        return new CopyToStdout(query, getCopyOptions(context.copyOptions()));
+    }
+
+    private Map<String, String> getCopyOptions(@Nullable SqlBaseParser.CopyOptionsContext context) {
+        if (context == null) {
+            return Map.of();
+        }
+        LinkedHashMap<String, String> options = new LinkedHashMap<>();
+        for (SqlBaseParser.CopyOptionContext option : context.copyOption()) {
+            String name = option.NULL() == null ? getIdentText(option.name).toLowerCase(Locale.ENGLISH) : "null";
+            String value;
+            if (option.value == null) {
+                value = "true";
+            } else if (option.value.ident() != null) {
+                value = getIdentText(option.value.ident());
+            } else if (option.value.stringLiteral() != null) {
+                value = ((StringLiteral) visit(option.value.stringLiteral())).getValue();
+            } else {
+                value = option.value.getText().toLowerCase(Locale.ENGLISH);
+            }
+            if (options.put(name, value) != null) {
+                throw new IllegalArgumentException("COPY option '" + name + "' is specified more than once");
+            }
+        }
+        return options;
+    }
+
     @Override
     public Node visitInsert(SqlBaseParser.InsertContext context) {
         List<String> columns = identsToStrings(context.ident());
@@ -456,6 +456,14 @@ public abstract class AstVisitor<R, C> {
         return visitStatement(node, context);
     }
 
+    public R visitCopyFromStdin(CopyFromStdin node, C context) {
+        return visitStatement(node, context);
+    }
+
+    public R visitCopyToStdout(CopyToStdout node, C context) {
+        return visitStatement(node, context);
+    }
+
     public R visitPartitionedBy(PartitionedBy node, C context) {
         return visitNode(node, context);
     }
@@ -0,0 +1,97 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.sql.tree;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code COPY table [(column, ...)] FROM STDIN [WITH (option [value], ...)]}
+ * <p>
+ * The rows are streamed by the client using the copy sub-protocol of the PostgreSQL wire protocol.
+ */
+public final class CopyFromStdin extends Statement {
+
+    private final QualifiedName table;
+    private final List<String> columns;
+    private final Map<String, String> options;
+
+    public CopyFromStdin(QualifiedName table, List<String> columns, Map<String, String> options) {
+        this.table = table;
+        this.columns = columns;
+        this.options = options;
+    }
+
+    public QualifiedName table() {
+        return table;
+    }
+
+    /**
+     * @return the target columns, empty if all columns of the table are targeted.
+     */
+    public List<String> columns() {
+        return columns;
+    }
+
+    /**
+     * @return the options with lower case names. Options without a value are mapped to {@code "true"}.
+     */
+    public Map<String, String> options() {
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CopyFromStdin that = (CopyFromStdin) o;
+        return table.equals(that.table) &&
+               columns.equals(that.columns) &&
+               options.equals(that.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, columns, options);
+    }
+
+    @Override
+    public String toString() {
+        return "CopyFromStdin{" +
+               "table=" + table +
+               ", columns=" + columns +
+               ", options=" + options +
+               '}';
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitCopyFromStdin(this, context);
+    }
+}
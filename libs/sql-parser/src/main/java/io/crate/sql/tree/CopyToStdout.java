@@ -0,0 +1,87 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.sql.tree;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code COPY table [(column, ...)] [WHERE condition] TO STDOUT [WITH (option [value], ...)]}
+ * or {@code COPY (query) TO STDOUT [WITH (option [value], ...)]}
+ * <p>
+ * The table variant is represented by the equivalent {@code SELECT} query.
+ * The rows are streamed to the client using the copy sub-protocol of the PostgreSQL wire protocol.
+ */
+public final class CopyToStdout extends Statement {
+
+    private final Query query;
+    private final Map<String, String> options;
+
+    public CopyToStdout(Query query, Map<String, String> options) {
+        this.query = query;
+        this.options = options;
+    }
+
+    public Query query() {
+        return query;
+    }
+
+    /**
+     * @return the options with lower case names. Options without a value are mapped to {@code "true"}.
+     */
+    public Map<String, String> options() {
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CopyToStdout that = (CopyToStdout) o;
+        return query.equals(that.query) &&
+               options.equals(that.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, options);
+    }
+
+    @Override
+    public String toString() {
+        return "CopyToStdout{" +
+               "query=" + query +
+               ", options=" + options +
+               '}';
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitCopyToStdout(this, context);
+    }
+}
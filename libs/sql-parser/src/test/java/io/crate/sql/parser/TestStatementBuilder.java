@@ -30,6 +30,8 @@ import io.crate.sql.tree.ArrayLiteral;
 import io.crate.sql.tree.Assignment;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
@@ -76,6 +78,8 @@ import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.crate.sql.parser.TreeAssertions.assertFormattedSql;
@@ -1060,6 +1064,31 @@ public class TestStatementBuilder {
         printStatement("copy foo partition (a=?) to DIRECTORY '/folder' with (some_param=4)");
 
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
+
+        printStatement("copy foo from stdin");
+        printStatement("copy doc.foo (a, b) from stdin with (format csv, header, delimiter ';', null '')");
+        printStatement("copy foo from stdin (format binary)");
+        printStatement("copy foo to stdout");
+        printStatement("copy foo (a, o['x']) where a > 10 to stdout with (format csv, header true)");
+        printStatement("copy (select a, count(*) from foo group by a) to stdout (format text)");
+    }
+
+    @Test
+    public void testCopyStdinOptions() {
+        CopyFromStdin copyFrom = (CopyFromStdin) SqlParser.createStatement(
+            "copy foo (a, b) from stdin with (FORMAT CSV, HEADER, DELIMITER '|', NULL 'n/a', \"Quote\" '\"')");
+        assertThat(copyFrom.table(), is(QualifiedName.of("foo")));
+        assertThat(copyFrom.columns(), is(List.of("a", "b")));
+        assertThat(copyFrom.options(), is(Map.of(
+            "format", "csv",
+            "header", "true",
+            "delimiter", "|",
+            "null", "n/a",
+            "quote", "\"")));
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("COPY option 'format' is specified more than once");
+        SqlParser.createStatement("copy foo to stdout with (format csv, format text)");
     }
 
     @Test
@@ -1683,6 +1712,8 @@ public class TestStatementBuilder {
         if (statement instanceof Query ||
             statement instanceof CreateTable ||
             statement instanceof CopyFrom ||
+            statement instanceof CopyFromStdin ||
+            statement instanceof CopyToStdout ||
             statement instanceof SwapTable ||
             statement instanceof GCDanglingArtifacts ||
             statement instanceof CreateFunction ||
@@ -0,0 +1,197 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.action.sql;
+
+import io.crate.breaker.RowAccounting;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@link ResultReceiver} for a read-only statement which is executed while the results of a preceding
+ * statement of the same sync window are still being sent to the client.
+ * <p>
+ * The results are buffered until {@link #forwardToDelegate()} is called, so that they're emitted in protocol order.
+ * The buffered rows are accounted using the given {@link RowAccounting} and released once they're forwarded or dropped.
+ * Once {@code maxBufferedRows} rows are buffered, the consumption is paused until the results are forwarded.
+ * The paused consumption is resumed on the {@code resumeExecutor} and not on the thread which forwards the results,
+ * which is usually the event loop that finished sending the results of the preceding statement.
+ * After that, all calls are passed through to the delegate.
+ * <p>
+ * If the preceding statement fails, the results must be dropped using {@link #discard()}.
+ */
+final class PipelinedResultReceiver<T> implements ResultReceiver<T> {
+
+    private final ResultReceiver<T> delegate;
+    private final int maxBufferedRows;
+    private final RowAccounting<Row> rowAccounting;
+    private final Executor resumeExecutor;
+    private final List<Object[]> bufferedRows = new ArrayList<>();
+
+    private boolean forwarding = false;
+    private boolean discarded = false;
+
+    @Nullable
+    private Runnable pendingFinish;
+
+    @Nullable
+    private CompletableFuture<?> paused;
+
+    PipelinedResultReceiver(ResultReceiver<T> delegate,
+                            int maxBufferedRows,
+                            RowAccounting<Row> rowAccounting,
+                            Executor resumeExecutor) {
+        this.delegate = delegate;
+        this.maxBufferedRows = maxBufferedRows;
+        this.rowAccounting = rowAccounting;
+        this.resumeExecutor = resumeExecutor;
+    }
+
+    @Override
+    public synchronized void setNextRow(Row row) {
+        if (discarded) {
+            return;
+        }
+        if (forwarding) {
+            delegate.setNextRow(row);
+        } else {
+            rowAccounting.accountForAndMaybeBreak(row);
+            bufferedRows.add(row.materialize());
+        }
+    }
+
+    @Nullable
+    @Override
+    public synchronized CompletableFuture<?> pauseConsumption() {
+        if (discarded) {
+            // stops the execution, nobody is interested in the results anymore
+            return CompletableFuture.failedFuture(new CancellationException("Results of pipelined statement are discarded"));
+        }
+        if (forwarding) {
+            return delegate.pauseConsumption();
+        }
+        if (bufferedRows.size() >= maxBufferedRows) {
+            paused = new CompletableFuture<>();
+            return paused;
+        }
+        return null;
+    }
+
+    @Override
+    public void batchFinished() {
+        finish(delegate::batchFinished);
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        finish(() -> delegate.allFinished(interrupted));
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        finish(() -> delegate.fail(t));
+    }
+
+    private synchronized void finish(Runnable finish) {
+        if (discarded) {
+            return;
+        }
+        if (forwarding) {
+            finish.run();
+        } else {
+            pendingFinish = finish;
+        }
+    }
+
+    /**
+     * Emit the buffered results to the delegate and pass through all further calls.
+     */
+    void forwardToDelegate() {
+        CompletableFuture<?> toResume;
+        synchronized (this) {
+            if (discarded || forwarding) {
+                return;
+            }
+            for (Object[] cells : bufferedRows) {
+                delegate.setNextRow(new RowN(cells));
+            }
+            bufferedRows.clear();
+            rowAccounting.release();
+            forwarding = true;
+            if (pendingFinish != null) {
+                pendingFinish.run();
+                pendingFinish = null;
+            }
+            toResume = paused;
+            paused = null;
+        }
+        if (toResume != null) {
+            resume(() -> toResume.complete(null));
+        }
+    }
+
+    /**
+     * Drop the results and stop the execution. The delegate is finished as interrupted.
+     */
+    void discard() {
+        CompletableFuture<?> toResume;
+        synchronized (this) {
+            if (discarded || forwarding) {
+                return;
+            }
+            discarded = true;
+            bufferedRows.clear();
+            rowAccounting.release();
+            pendingFinish = null;
+            toResume = paused;
+            paused = null;
+        }
+        if (toResume != null) {
+            resume(() -> toResume.completeExceptionally(
+                new CancellationException("Results of pipelined statement are discarded")));
+        }
+        delegate.allFinished(true);
+    }
+
+    private void resume(Runnable completePaused) {
+        try {
+            resumeExecutor.execute(completePaused);
+        } catch (RejectedExecutionException e) {
+            completePaused.run();
+        }
+    }
+
+    @Override
+    public CompletableFuture<T> completionFuture() {
+        return delegate.completionFuture();
+    }
+}
@@ -35,17 +35,28 @@ public class PreparedStmt {
     private final ParamTypeHints paramTypeHints;
     private final Statement parsedStatement;
     private final String rawStatement;
+    private final long metadataVersion;
+    @Nullable
+    private final StatementCache.PlanKey planKey;
     @Nullable
     private DataType[] describedParameterTypes;
 
+    /**
+     * @param metadataVersion version of the cluster metadata that was used to analyze the statement
+     * @param planKey the key to cache the plan of this statement, or null if the plan must not be cached
+     */
     PreparedStmt(Statement parsedStatement,
                  AnalyzedStatement analyzedStatement,
                  String query,
-                 ParamTypeHints paramTypeHints) {
+                 ParamTypeHints paramTypeHints,
+                 long metadataVersion,
+                 @Nullable StatementCache.PlanKey planKey) {
         this.parsedStatement = parsedStatement;
         this.analyzedStatement = analyzedStatement;
         this.paramTypeHints = paramTypeHints;
         this.rawStatement = query;
+        this.metadataVersion = metadataVersion;
+        this.planKey = planKey;
     }
 
     public AnalyzedStatement analyzedStatement() {
@@ -82,4 +93,13 @@ public class PreparedStmt {
     public String rawStatement() {
         return rawStatement;
     }
+
+    long metadataVersion() {
+        return metadataVersion;
+    }
+
+    @Nullable
+    StatementCache.PlanKey planKey() {
+        return planKey;
+    }
 }
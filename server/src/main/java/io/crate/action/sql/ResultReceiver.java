@@ -26,6 +26,8 @@ import io.crate.concurrent.CompletionListenable;
 import io.crate.data.Row;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Used via {@link RowConsumerToResultReceiver} to receive results from the execution of a plan
@@ -34,6 +36,17 @@ public interface ResultReceiver<T> extends CompletionListenable<T> {
 
     void setNextRow(Row row);
 
+    /**
+     * Called after each row. A receiver which can't keep up with the rows, e.g. because a client reads them slower
+     * than they are produced, can return a future to pause the consumption until the future completes.
+     *
+     * @return a future completed once more rows can be received, or null to continue without pausing.
+     */
+    @Nullable
+    default CompletableFuture<?> pauseConsumption() {
+        return null;
+    }
+
     void batchFinished();
 
     /**
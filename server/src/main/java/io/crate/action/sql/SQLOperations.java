@@ -34,6 +34,8 @@ import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.transport.NodeDisconnectedException;
 
 import javax.annotation.Nullable;
@@ -50,28 +52,34 @@ public class SQLOperations {
 
     private final Analyzer analyzer;
     private final Planner planner;
+    private final StatementCache statementCache;
     private final Provider<DependencyCarrier> executorProvider;
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
     private final UserManager userManager;
     private final boolean isReadOnly;
+    private final CircuitBreakerService circuitBreakerService;
     private volatile boolean disabled;
 
     @Inject
     public SQLOperations(Analyzer analyzer,
                          Planner planner,
+                         StatementCache statementCache,
                          Provider<DependencyCarrier> executorProvider,
                          JobsLogs jobsLogs,
                          Settings settings,
                          ClusterService clusterService,
-                         Provider<UserManager> userManagerProvider) {
+                         Provider<UserManager> userManagerProvider,
+                         CircuitBreakerService circuitBreakerService) {
         this.analyzer = analyzer;
         this.planner = planner;
+        this.statementCache = statementCache;
         this.executorProvider = executorProvider;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
         this.userManager = userManagerProvider.get();
         this.isReadOnly = NODE_READ_ONLY_SETTING.get(settings);
+        this.circuitBreakerService = circuitBreakerService;
     }
 
     private Session createSession(SessionContext sessionContext) {
@@ -81,11 +89,13 @@ public class SQLOperations {
         return new Session(
             analyzer,
             planner,
+            statementCache,
             jobsLogs,
             isReadOnly,
             executorProvider.get(),
             userManager.getAccessControl(sessionContext),
-            sessionContext);
+            sessionContext,
+            circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY));
     }
 
     public Session newSystemSession() {
@@ -37,6 +37,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.Randomness;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import io.crate.analyze.AnalyzedBegin;
 import io.crate.analyze.AnalyzedCommit;
@@ -46,7 +48,10 @@ import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.Analyzer;
 import io.crate.analyze.ParamTypeHints;
 import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.auth.user.AccessControl;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.RowAccountingWithEstimators;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
@@ -113,6 +118,14 @@ public class Session implements AutoCloseable {
     private static final Statement EMPTY_STMT = SqlParser.createStatement("select '' from sys.cluster limit 0");
 
     public static final String UNNAMED = "";
+
+    // Maximum number of rows a pipelined query buffers before it pauses, see PipelinedResultReceiver
+    private static final int MAX_PIPELINED_BUFFERED_ROWS = 1000;
+
+    // Maximum number of queries started ahead within a sync window, further queries wait for their predecessors
+    @VisibleForTesting
+    static final int MAX_PIPELINED_QUERIES = 16;
+
     private final DependencyCarrier executor;
     private final AccessControl accessControl;
     private final SessionContext sessionContext;
@@ -129,36 +142,49 @@ public class Session implements AutoCloseable {
     @Nullable
     CompletableFuture<?> activeExecution;
 
+    /**
+     * true while all executions chained in {@link #activeExecution} are queries,
+     * which allows to start further queries without waiting for the previous ones.
+     */
+    private boolean pipelineQueries = false;
+    private int numPipelinedQueries = 0;
+
     private final Analyzer analyzer;
     private final Planner planner;
+    private final StatementCache statementCache;
     private final JobsLogs jobsLogs;
     private final boolean isReadOnly;
     private final ParameterTypeExtractor parameterTypeExtractor;
+    private final CircuitBreaker queryBreaker;
 
     private TransactionState currentTransactionState = TransactionState.IDLE;
 
     public Session(Analyzer analyzer,
                    Planner planner,
+                   StatementCache statementCache,
                    JobsLogs jobsLogs,
                    boolean isReadOnly,
                    DependencyCarrier executor,
                    AccessControl accessControl,
-                   SessionContext sessionContext) {
+                   SessionContext sessionContext,
+                   CircuitBreaker queryBreaker) {
         this.analyzer = analyzer;
         this.planner = planner;
+        this.statementCache = statementCache;
         this.jobsLogs = jobsLogs;
         this.isReadOnly = isReadOnly;
         this.executor = executor;
         this.accessControl = accessControl;
         this.sessionContext = sessionContext;
         this.parameterTypeExtractor = new ParameterTypeExtractor();
+        this.queryBreaker = queryBreaker;
     }
 
     /**
      * See {@link #quickExec(String, Function, ResultReceiver, Row)}
      */
     public void quickExec(String statement, ResultReceiver<?> resultReceiver, Row params) {
-        quickExec(statement, SqlParser::createStatement, resultReceiver, params);
+        quickExec(statement, statementCache::parse, resultReceiver, params);
     }
 
     /**
@@ -256,7 +282,7 @@ public class Session implements AutoCloseable {
 
         Statement statement;
         try {
-            statement = SqlParser.createStatement(query);
+            statement = statementCache.parse(query);
         } catch (Throwable t) {
             if ("".equals(query)) {
                 statement = EMPTY_STMT;
@@ -265,8 +291,20 @@ public class Session implements AutoCloseable {
                 throw SQLExceptions.createSQLActionException(t, accessControl::ensureMaySee);
             }
         }
+        parse(statementName, statement, query, paramTypes);
+    }
 
+    /**
+     * Like {@link #parse(String, String, List)} but for a statement which has already been parsed.
+     * Used for statements which are embedded into others, like the query of a {@code COPY (query) TO STDOUT}.
+     *
+     * @param query the raw statement, used for the jobs log and as part of the plan cache key
+     */
+    public void parse(String statementName, Statement statement, String query, List<DataType> paramTypes) {
         var paramTypeHints = new ParamTypeHints(paramTypes);
+        // Retrieved before the analysis so that a concurrent metadata change can only
+        // result in a cache miss but never in a plan that is based on outdated metadata
+        long metadataVersion = planner.currentClusterState().metadata().version();
         AnalyzedStatement analyzedStatement;
         try {
             analyzedStatement = analyzer.analyze(
@@ -281,9 +319,12 @@ public class Session implements AutoCloseable {
                 sessionContext.user());
             throw t;
         }
+        StatementCache.PlanKey planKey = statementCache.isEnabled() && StatementCache.isCacheable(analyzedStatement)
+            ? new StatementCache.PlanKey(query, paramTypes, sessionContext)
+            : null;
         preparedStatements.put(
             statementName,
-            new PreparedStmt(statement, analyzedStatement, query, paramTypeHints));
+            new PreparedStmt(statement, analyzedStatement, query, paramTypeHints, metadataVersion, planKey));
     }
 
     public void bind(String portalName,
@@ -391,7 +432,8 @@ public class Session implements AutoCloseable {
             resultReceiver.allFinished(false);
         } else if (analyzedStmt instanceof AnalyzedDiscard) {
             AnalyzedDiscard discard = (AnalyzedDiscard) analyzedStmt;
-            // We don't cache plans, don't have sequences or temporary tables
+            // Plans are cached per node (See StatementCache) and not per session,
+            // we don't have sequences or temporary tables
             // See https://www.postgresql.org/docs/current/sql-discard.html
             if (discard.target() == Target.ALL) {
                 close();
@@ -429,18 +471,66 @@ public class Session implements AutoCloseable {
                 throw new UnsupportedOperationException(
                     "Only write operations are allowed in Batch statements");
             }
+            boolean isPipelinable = analyzedStmt instanceof AnalyzedRelation
+                                    && maxRows == 0
+                                    && portal.activeConsumer() == null;
             if (activeExecution == null) {
                 activeExecution = singleExec(portal, resultReceiver, maxRows);
+                pipelineQueries = isPipelinable;
+                numPipelinedQueries = 0;
+            } else if (pipelineQueries && isPipelinable && numPipelinedQueries < MAX_PIPELINED_QUERIES) {
+                activeExecution = pipelinedExec(activeExecution, portal, resultReceiver);
+                numPipelinedQueries++;
             } else {
                 activeExecution = activeExecution
                     .thenCompose(ignored -> singleExec(portal, resultReceiver, maxRows));
+                pipelineQueries = false;
             }
             return activeExecution;
         }
         return null;
     }
 
+    /**
+     * Starts the execution of a query while the preceding queries of the same sync window are still running.
+     * The results are buffered and emitted to the resultReceiver once the preceding queries finished,
+     * or dropped if one of them failed. The buffered rows are accounted on the query circuit breaker.
+     */
+    private <T> CompletableFuture<?> pipelinedExec(CompletableFuture<?> previous,
+                                                   Portal portal,
+                                                   ResultReceiver<T> resultReceiver) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("method=pipelinedExec portalName={}", portal.name());
+        }
+        var rowAccounting = new RowAccountingWithEstimators(
+            Symbols.typeView(((AnalyzedRelation) portal.analyzedStatement()).outputs()),
+            ConcurrentRamAccounting.forCircuitBreaker("pipelined-result", queryBreaker)
+        );
+        var pipelinedReceiver = new PipelinedResultReceiver<>(
+            resultReceiver,
+            MAX_PIPELINED_BUFFERED_ROWS,
+            rowAccounting,
+            executor.threadPool().executor(ThreadPool.Names.GENERIC)
+        );
+        try {
+            singleExec(portal, pipelinedReceiver, 0);
+        } catch (Throwable t) {
+            return previous.thenCompose(ignored -> CompletableFuture.failedFuture(t));
+        }
+        return previous
+            .whenComplete((ignored, failure) -> {
+                if (failure == null) {
+                    pipelinedReceiver.forwardToDelegate();
+                } else {
+                    pipelinedReceiver.discard();
+                }
+            })
+            .thenCompose(ignored -> resultReceiver.completionFuture());
+    }
+
     public CompletableFuture<?> sync() {
+        pipelineQueries = false;
+        numPipelinedQueries = 0;
         if (activeExecution == null) {
             return triggerDeferredExecutions();
         } else {
@@ -576,7 +666,7 @@ public class Session implements AutoCloseable {
         }
         Plan plan;
         try {
-            plan = planner.plan(analyzedStmt, plannerContext);
+            plan = plan(portal.preparedStmt(), plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionContext.user());
             throw t;
@@ -610,6 +700,19 @@ public class Session implements AutoCloseable {
         return resultReceiver.completionFuture();
     }
 
+    private Plan plan(PreparedStmt preparedStmt, PlannerContext plannerContext) {
+        StatementCache.PlanKey planKey = preparedStmt.planKey();
+        if (planKey == null) {
+            return planner.plan(preparedStmt.analyzedStatement(), plannerContext);
+        }
+        Plan plan = statementCache.getPlan(planKey, preparedStmt.metadataVersion());
+        if (plan == null) {
+            plan = planner.plan(preparedStmt.analyzedStatement(), plannerContext);
+            statementCache.putPlan(planKey, preparedStmt.metadataVersion(), plan);
+        }
+        return plan;
+    }
+
     @Nullable
     public List<? extends DataType> getOutputTypes(String portalName) {
         Portal portal = getSafePortal(portalName);
@@ -698,6 +801,7 @@ public class Session implements AutoCloseable {
         currentTransactionState = TransactionState.IDLE;
         resetDeferredExecutions();
         activeExecution = null;
+        pipelineQueries = false;
         for (Portal portal : portals.values()) {
             portal.closeActiveConsumer();
         }
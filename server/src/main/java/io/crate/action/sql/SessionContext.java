@@ -38,6 +38,7 @@ public class SessionContext {
 
     private SearchPath searchPath;
     private boolean hashJoinEnabled = true;
+    private String workloadClass = "";
 
     /**
      * Creates a new SessionContext suitable to use as system SessionContext
@@ -83,6 +84,17 @@ public class SessionContext {
         this.hashJoinEnabled = hashJoinEnabled;
     }
 
+    /**
+     * @return the name of the workload class set for the session, empty if the class of the user should be used.
+     */
+    public String workloadClass() {
+        return workloadClass;
+    }
+
+    public void setWorkloadClass(String workloadClass) {
+        this.workloadClass = workloadClass;
+    }
+
     public User user() {
         return user;
     }
@@ -90,5 +102,6 @@ public class SessionContext {
     public void resetToDefaults() {
         resetSchema();
         hashJoinEnabled = true;
+        workloadClass = "";
     }
 }
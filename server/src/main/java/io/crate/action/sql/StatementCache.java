@@ -0,0 +1,328 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.SearchPath;
+import io.crate.planner.Plan;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+
+/**
+ * Node level cache for parsed statements and logical plans.
+ *
+ * <p>
+ * Parsed statements only depend on the statement text and are cached unconditionally.
+ * Plans are only cached for read-only statements which are free of sub-queries and non-deterministic functions,
+ * see {@link #isCacheable(AnalyzedStatement)}. Parameters are bound when the plan is executed, so a
+ * cached plan can be re-used for any parameter values as long as the parameter types match.
+ * </p>
+ *
+ * <p>
+ * Cached plans are tagged with the version of the cluster metadata they were created for and
+ * dropped whenever the metadata changes.
+ * </p>
+ *
+ * <p>
+ * Both caches are bounded by the number of entries and by the estimated heap usage of the entries.
+ * </p>
+ */
+@Singleton
+public class StatementCache implements ClusterStateListener {
+
+    public static final Setting<Integer> NODE_PLAN_CACHE_SIZE_SETTING = Setting.intSetting(
+        "node.sql.plan_cache.size",
+        1000,
+        0,
+        Setting.Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> NODE_PLAN_CACHE_MAX_MEMORY_SETTING = Setting.memorySizeSetting(
+        "node.sql.plan_cache.max_memory",
+        "1%",
+        Setting.Property.NodeScope);
+
+    public static final StatementCache DISABLED = new StatementCache(0, 0L);
+
+    // Rough estimates of the heap used per character of the statement text.
+    // The parsed statement and the plan both grow with the length of the statement.
+    private static final int STATEMENT_BYTES_PER_CHAR = 32;
+    private static final int PLAN_BYTES_PER_CHAR = 128;
+
+    public enum Kind {
+        STATEMENTS,
+        PLANS
+    }
+
+    private final boolean enabled;
+    private final Cache<String, Statement> statements;
+    private final Cache<PlanKey, CachedPlan> plans;
+
+    @Inject
+    public StatementCache(Settings settings, ClusterService clusterService) {
+        this(NODE_PLAN_CACHE_SIZE_SETTING.get(settings), NODE_PLAN_CACHE_MAX_MEMORY_SETTING.get(settings).getBytes());
+        if (enabled) {
+            clusterService.addListener(this);
+        }
+    }
+
+    /**
+     * @param maxSize the maximum number of entries per cache
+     * @param maxBytes the maximum estimated heap usage of the entries per cache
+     */
+    @VisibleForTesting
+    StatementCache(int maxSize, long maxBytes) {
+        this.enabled = maxSize > 0 && maxBytes > 0;
+        // Each entry weighs at least maxBytes / maxSize, so that the weight also bounds the number of entries
+        long minWeight = enabled ? Math.max(1L, maxBytes / maxSize) : 1L;
+        this.statements = CacheBuilder.newBuilder()
+            .maximumWeight(enabled ? maxBytes : 0L)
+            .weigher(weigher(minWeight, (String query, Statement statement) ->
+                RamUsageEstimator.sizeOf(query) + (long) query.length() * STATEMENT_BYTES_PER_CHAR))
+            .recordStats()
+            .build();
+        this.plans = CacheBuilder.newBuilder()
+            .maximumWeight(enabled ? maxBytes : 0L)
+            .weigher(weigher(minWeight, (PlanKey key, CachedPlan plan) ->
+                RamUsageEstimator.sizeOf(key.query) + (long) key.query.length() * PLAN_BYTES_PER_CHAR))
+            .recordStats()
+            .build();
+    }
+
+    private interface SizeEstimate<K, V> {
+        long bytes(K key, V value);
+    }
+
+    private static <K, V> Weigher<K, V> weigher(long minWeight, SizeEstimate<K, V> sizeEstimate) {
+        return (key, value) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minWeight, sizeEstimate.bytes(key, value)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Parses the given query or returns a previously parsed instance of the same query.
+     * Parse errors are not cached.
+     */
+    public Statement parse(String query) {
+        if (!enabled) {
+            return SqlParser.createStatement(query);
+        }
+        String key = normalize(query);
+        Statement statement = statements.getIfPresent(key);
+        if (statement == null) {
+            statement = SqlParser.createStatement(query);
+            statements.put(key, statement);
+        }
+        return statement;
+    }
+
+    @Nullable
+    public Plan getPlan(PlanKey key, long metadataVersion) {
+        if (!enabled) {
+            return null;
+        }
+        CachedPlan cachedPlan = plans.getIfPresent(key);
+        if (cachedPlan == null) {
+            return null;
+        }
+        if (cachedPlan.metadataVersion != metadataVersion) {
+            plans.invalidate(key);
+            return null;
+        }
+        return cachedPlan.plan;
+    }
+
+    public void putPlan(PlanKey key, long metadataVersion, Plan plan) {
+        if (enabled) {
+            plans.put(key, new CachedPlan(metadataVersion, plan));
+        }
+    }
+
+    public void invalidatePlans() {
+        plans.invalidateAll();
+    }
+
+    public Stats stats(Kind kind) {
+        switch (kind) {
+            case STATEMENTS:
+                return new Stats(kind, statements.size(), statements.stats());
+            case PLANS:
+                return new Stats(kind, plans.size(), plans.stats());
+            default:
+                throw new AssertionError("Unsupported cache kind: " + kind);
+        }
+    }
+
+    public List<Stats> stats() {
+        return List.of(stats(Kind.STATEMENTS), stats(Kind.PLANS));
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.metadataChanged()) {
+            invalidatePlans();
+        }
+    }
+
+    /**
+     * @return true if the plan of the statement only depends on the statement text, the parameter types,
+     *         the session settings and the cluster metadata.
+     */
+    public static boolean isCacheable(AnalyzedStatement analyzedStatement) {
+        if (!(analyzedStatement instanceof AnalyzedRelation) || analyzedStatement.isWriteOperation()) {
+            return false;
+        }
+        boolean[] cacheable = new boolean[] { true };
+        Relations.traverseDeepSymbols(analyzedStatement, symbol -> {
+            if (cacheable[0] && SymbolVisitors.any(StatementCache::preventsCaching, symbol)) {
+                cacheable[0] = false;
+            }
+        });
+        return cacheable[0];
+    }
+
+    private static boolean preventsCaching(Symbol symbol) {
+        return symbol instanceof SelectSymbol
+               || (symbol instanceof Function && !((Function) symbol).isDeterministic());
+    }
+
+    private static String normalize(String query) {
+        return query.strip();
+    }
+
+    public static final class Stats {
+
+        private final Kind kind;
+        private final long size;
+        private final CacheStats cacheStats;
+
+        Stats(Kind kind, long size, CacheStats cacheStats) {
+            this.kind = kind;
+            this.size = size;
+            this.cacheStats = cacheStats;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public long hitCount() {
+            return cacheStats.hitCount();
+        }
+
+        public long missCount() {
+            return cacheStats.missCount();
+        }
+
+        public long evictionCount() {
+            return cacheStats.evictionCount();
+        }
+    }
+
+    private static final class CachedPlan {
+
+        private final long metadataVersion;
+        private final Plan plan;
+
+        CachedPlan(long metadataVersion, Plan plan) {
+            this.metadataVersion = metadataVersion;
+            this.plan = plan;
+        }
+    }
+
+    public static final class PlanKey {
+
+        private final String query;
+        private final List<DataType> paramTypes;
+        private final String userName;
+        private final SearchPath searchPath;
+        private final Set<Option> options;
+        private final boolean hashJoinEnabled;
+
+        public PlanKey(String query, List<DataType> paramTypes, SessionContext sessionContext) {
+            this.query = normalize(query);
+            this.paramTypes = paramTypes;
+            this.userName = sessionContext.user().name();
+            this.searchPath = sessionContext.searchPath();
+            this.options = sessionContext.options();
+            this.hashJoinEnabled = sessionContext.isHashJoinEnabled();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanKey planKey = (PlanKey) o;
+            return hashJoinEnabled == planKey.hashJoinEnabled &&
+                   query.equals(planKey.query) &&
+                   paramTypes.equals(planKey.paramTypes) &&
+                   userName.equals(planKey.userName) &&
+                   searchPath.equals(planKey.searchPath) &&
+                   options.equals(planKey.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, paramTypes, userName, searchPath, options, hashJoinEnabled);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.elasticsearch.index.analysis.AnalysisRegistry;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.relations.RelationAnalyzer;
 import io.crate.auth.user.UserManager;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.ddl.RepositoryService;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.FulltextAnalyzerResolver;
@@ -48,7 +49,9 @@ import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.BeginStatement;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
@@ -318,6 +321,18 @@ public class Analyzer {
                 context.transactionContext());
         }
 
+        @Override
+        public AnalyzedStatement visitCopyFromStdin(CopyFromStdin node, Analysis context) {
+            throw new UnsupportedFeatureException(
+                "COPY FROM STDIN is only supported using the simple query protocol of the PostgreSQL wire protocol");
+        }
+
+        @Override
+        public AnalyzedStatement visitCopyToStdout(CopyToStdout node, Analysis context) {
+            throw new UnsupportedFeatureException(
+                "COPY TO STDOUT is only supported using the simple query protocol of the PostgreSQL wire protocol");
+        }
+
         @Override
         public AnalyzedStatement visitCreateAnalyzer(CreateAnalyzer<?> node, Analysis context) {
             return createAnalyzerStatementAnalyzer.analyze(
@@ -23,6 +23,7 @@ package io.crate.analyze;
 
 import com.google.common.collect.ImmutableMap;
 import io.crate.blob.v2.BlobIndicesService;
+import io.crate.execution.engine.sort.IndexSort;
 import io.crate.metadata.settings.NumberOfReplicasSetting;
 import io.crate.metadata.settings.Validators;
 import io.crate.metadata.table.ColumnPolicies;
@@ -102,6 +103,7 @@ public class TableParameters {
             EngineConfig.INDEX_CODEC_SETTING,
             IndexModule.INDEX_STORE_TYPE_SETTING,
             MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
+            IndexSort.SETTING,
 
                 // this setting is needed for tests and is not documented. see ClusterDisruptionIT for usages.
                 IndexService.GLOBAL_CHECKPOINT_SYNC_INTERVAL_SETTING
@@ -114,7 +116,8 @@ public class TableParameters {
         IndexMetadata.INDEX_NUMBER_OF_ROUTING_SHARDS_SETTING,
         IndexSettings.INDEX_WARMER_ENABLED_SETTING,
         IndexService.GLOBAL_CHECKPOINT_SYNC_INTERVAL_SETTING,
-        MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING
+        MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
+        IndexSort.SETTING
     );
 
     private static final Map<String, Setting<?>> SUPPORTED_SETTINGS_DEFAULT
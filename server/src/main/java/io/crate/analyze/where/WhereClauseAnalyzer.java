@@ -28,20 +28,33 @@ import io.crate.analyze.relations.AbstractTableRelation;
 import io.crate.analyze.relations.DocTableRelation;
 import io.crate.common.collections.Lists2;
 import io.crate.expression.eval.EvaluatingNormalizer;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.expression.operator.any.AnyOperators;
 import io.crate.expression.reference.partitioned.PartitionExpression;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Functions;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.PartitionReferenceResolver;
 import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.doc.PartitionIndex;
 import io.crate.common.collections.Tuple;
+import io.crate.types.ArrayType;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -110,10 +123,54 @@ public class WhereClauseAnalyzer {
         EvaluatingNormalizer normalizer = new EvaluatingNormalizer(
             functions, RowGranularity.PARTITION, partitionReferenceResolver, null);
 
+        // Equality, range and IN predicates on partition columns are answered using the partition index.
+        // Only if other predicates reference partition columns the query is evaluated against each remaining partition.
+        List<PartitionName> partitions = tableInfo.partitions();
+        PartitionIndex partitionIndex = tableInfo.partitionIndex();
+        BitSet candidates = null;
+        List<Symbol> remainingConjunctions = new ArrayList<>();
+        for (Symbol conjunction : AndOperator.split(query)) {
+            BitSet matches = lookupPartitions(conjunction, tableInfo.partitionedByColumns(), partitionIndex);
+            if (matches == null) {
+                remainingConjunctions.add(conjunction);
+            } else if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.and(matches);
+            }
+        }
+        if (candidates == null) {
+            return resolvePartitions(query, partitions, partitionReferenceResolver, normalizer, coordinatorTxnCtx);
+        }
+        if (candidates.isEmpty()) {
+            return new PartitionResult(Literal.BOOLEAN_FALSE, Collections.emptyList());
+        }
+        List<PartitionName> candidatePartitions = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            candidatePartitions.add(partitions.get(i));
+        }
+        Symbol remainingQuery = AndOperator.join(remainingConjunctions);
+        if (SymbolVisitors.any(WhereClauseAnalyzer::isPartitionReference, remainingQuery)) {
+            return resolvePartitions(
+                query, candidatePartitions, partitionReferenceResolver, normalizer, coordinatorTxnCtx);
+        }
+        // The remaining query doesn't depend on the partition values, it normalizes to the same query for all partitions
+        Symbol normalized = normalizer.normalize(remainingQuery, coordinatorTxnCtx);
+        if (!WhereClause.canMatch(normalized)) {
+            return new PartitionResult(Literal.BOOLEAN_FALSE, Collections.emptyList());
+        }
+        return new PartitionResult(normalized, Lists2.map(candidatePartitions, PartitionName::asIndexName));
+    }
+
+    private static PartitionResult resolvePartitions(Symbol query,
+                                                     List<PartitionName> partitions,
+                                                     PartitionReferenceResolver partitionReferenceResolver,
+                                                     EvaluatingNormalizer normalizer,
+                                                     CoordinatorTxnCtx coordinatorTxnCtx) {
         Symbol normalized;
         Map<Symbol, List<Literal>> queryPartitionMap = new HashMap<>();
 
-        for (PartitionName partitionName : tableInfo.partitions()) {
+        for (PartitionName partitionName : partitions) {
             for (PartitionExpression partitionExpression : partitionReferenceResolver.expressions()) {
                 partitionExpression.setNextRow(partitionName);
             }
@@ -145,13 +202,113 @@ public class WhereClauseAnalyzer {
             return partitionResult == null
                 // if partitionResult is null we can't narrow the partitions and keep the full query + use all partitions
                 // the query will then be evaluated correctly within each partition to see whether it matches or not
-                ? new PartitionResult(query, Lists2.map(tableInfo.partitions(), PartitionName::asIndexName))
+                ? new PartitionResult(query, Lists2.map(partitions, PartitionName::asIndexName))
                 : partitionResult;
         } else {
             return new PartitionResult(Literal.BOOLEAN_FALSE, Collections.emptyList());
         }
     }
 
+    private static boolean isPartitionReference(Symbol symbol) {
+        return symbol instanceof Reference && ((Reference) symbol).granularity() == RowGranularity.PARTITION;
+    }
+
+    /**
+     * @return the positions of the partitions matching the predicate, or null if the predicate can't be
+     *         answered using the partition index.
+     *         Supported are comparisons of a partition column with a literal and {@code partitionColumn = ANY(literals)}.
+     */
+    @Nullable
+    private static BitSet lookupPartitions(Symbol predicate, List<Reference> partitionColumns, PartitionIndex index) {
+        if (!(predicate instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) predicate;
+        List<Symbol> args = function.arguments();
+        if (args.size() != 2) {
+            return null;
+        }
+        String name = function.name();
+        Symbol column = args.get(0);
+        Symbol value = args.get(1);
+        if (name.equals(AnyOperators.Type.EQ.opName())) {
+            int columnIdx = partitionColumnIdx(column, partitionColumns);
+            if (columnIdx < 0
+                || !(value instanceof Literal)
+                || !value.valueType().equals(new ArrayType<>(column.valueType()))) {
+                return null;
+            }
+            BitSet matches = new BitSet();
+            Object values = ((Literal<?>) value).value();
+            if (values != null) {
+                for (Object item : AnyOperators.collectionValueToIterable(values)) {
+                    if (item != null) {
+                        matches.or(index.equalTo(columnIdx, item));
+                    }
+                }
+            }
+            return matches;
+        }
+        if (column instanceof Literal) {
+            column = args.get(1);
+            value = args.get(0);
+            name = swapComparison(name);
+        }
+        int columnIdx = partitionColumnIdx(column, partitionColumns);
+        if (columnIdx < 0 || !(value instanceof Literal) || !value.valueType().equals(column.valueType())) {
+            return null;
+        }
+        Object literalValue = ((Literal<?>) value).value();
+        switch (name) {
+            case EqOperator.NAME:
+                return literalValue == null ? new BitSet() : index.equalTo(columnIdx, literalValue);
+            case GtOperator.NAME:
+                return literalValue == null ? new BitSet() : index.range(columnIdx, literalValue, false, null, false);
+            case GteOperator.NAME:
+                return literalValue == null ? new BitSet() : index.range(columnIdx, literalValue, true, null, false);
+            case LtOperator.NAME:
+                return literalValue == null ? new BitSet() : index.range(columnIdx, null, false, literalValue, false);
+            case LteOperator.NAME:
+                return literalValue == null ? new BitSet() : index.range(columnIdx, null, false, literalValue, true);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the position of the column within the partition columns, or -1 if it isn't a partition column
+     */
+    private static int partitionColumnIdx(Symbol symbol, List<Reference> partitionColumns) {
+        if (!isPartitionReference(symbol)) {
+            return -1;
+        }
+        ReferenceIdent ident = ((Reference) symbol).ident();
+        for (int i = 0; i < partitionColumns.size(); i++) {
+            if (partitionColumns.get(i).ident().equals(ident)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@code literal < column} is the same as {@code column > literal}
+     */
+    private static String swapComparison(String name) {
+        switch (name) {
+            case GtOperator.NAME:
+                return LtOperator.NAME;
+            case GteOperator.NAME:
+                return LteOperator.NAME;
+            case LtOperator.NAME:
+                return GtOperator.NAME;
+            case LteOperator.NAME:
+                return GteOperator.NAME;
+            default:
+                return name;
+        }
+    }
+
     @Nullable
     private static PartitionResult tieBreakPartitionQueries(EvaluatingNormalizer normalizer,
                                                             Map<Symbol, List<Literal>> queryPartitionMap,
@@ -58,6 +58,18 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
                                          Executor executor,
                                          Streamer<?>[] streamers,
                                          int upstreamsCount) {
+        this(collector, rowConsumer, executor, streamers, upstreamsCount, () -> {});
+    }
+
+    /**
+     * @param onClose invoked once the consumer closes the result, e.g. to release resources held by the collector
+     */
+    public IncrementalPageBucketReceiver(Collector<Row, T, Iterable<Row>> collector,
+                                         RowConsumer rowConsumer,
+                                         Executor executor,
+                                         Streamer<?>[] streamers,
+                                         int upstreamsCount,
+                                         Runnable onClose) {
         this.state = collector.supplier().get();
         this.accumulator = collector.accumulator();
         this.finisher = collector.finisher();
@@ -65,7 +77,7 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
         this.streamers = streamers;
         this.remainingUpstreams = new AtomicInteger(upstreamsCount);
         lazyBatchIterator = CollectingBatchIterator.newInstance(
-            () -> {},
+            onClose,
             t -> {},
             () -> processingFuture,
             true);
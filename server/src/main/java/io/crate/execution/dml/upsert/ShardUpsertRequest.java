@@ -36,6 +36,7 @@ import org.elasticsearch.common.lucene.uid.Versions;
 import io.crate.common.unit.TimeValue;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.Translog;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -76,6 +77,14 @@ public final class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, S
     @Nullable
     private Symbol[] returnValues;
 
+    /**
+     * Timestamp of the creation of the request on the coordinator, used by the engine to detect if an append-only
+     * document may have been indexed before. {@link Translog#UNSET_AUTO_GENERATED_TIMESTAMP} if the items
+     * of the request can't be indexed as append-only operations.
+     */
+    private long autoGeneratedIdTimestamp;
+    private boolean isRetry = false;
+
     public ShardUpsertRequest(
         ShardId shardId,
         UUID jobId,
@@ -95,6 +104,7 @@ public final class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, S
         this.updateColumns = updateColumns;
         this.insertColumns = insertColumns;
         this.returnValues = returnValues;
+        this.autoGeneratedIdTimestamp = Math.max(0, System.currentTimeMillis());
     }
 
     public ShardUpsertRequest(StreamInput in) throws IOException {
@@ -134,6 +144,12 @@ public final class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, S
                 }
             }
         }
+        if (in.getVersion().onOrAfter(Version.V_4_3_0)) {
+            autoGeneratedIdTimestamp = in.readLong();
+            isRetry = in.readBoolean();
+        } else {
+            autoGeneratedIdTimestamp = Translog.UNSET_AUTO_GENERATED_TIMESTAMP;
+        }
     }
 
     @Override
@@ -179,6 +195,10 @@ public final class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, S
                 out.writeVInt(0);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_4_3_0)) {
+            out.writeLong(autoGeneratedIdTimestamp);
+            out.writeBoolean(isRetry);
+        }
     }
 
     @Nullable
@@ -213,6 +233,27 @@ public final class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, S
         return duplicateKeyAction;
     }
 
+    public long autoGeneratedIdTimestamp() {
+        return autoGeneratedIdTimestamp;
+    }
+
+    /**
+     * Disables the append-only optimization for the items of this request,
+     * e.g. because the ids of the items aren't auto generated.
+     */
+    public void disableAutoGeneratedIdOptimization() {
+        autoGeneratedIdTimestamp = Translog.UNSET_AUTO_GENERATED_TIMESTAMP;
+    }
+
+    public boolean isRetry() {
+        return isRetry;
+    }
+
+    @Override
+    public void onRetry() {
+        isRetry = true;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -49,12 +49,15 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
-import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.common.xcontent.support.RecordingXContentGenerator;
+import org.elasticsearch.common.xcontent.support.XContentTokens;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.index.engine.DocumentSourceMissingException;
@@ -73,7 +76,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -147,6 +152,13 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             ? null
             : new ReturnValueGen(functions, txnCtx, tableInfo, request.returnValues());
 
+        if (request.items().size() > 1 && isAppendOnly(request, tableInfo) && killed.get() == false) {
+            Translog.Location translogLocation = indexAppendOnlyItems(request, indexShard, insertSourceGen, shardResponse);
+            return new WritePrimaryResult<>(request, shardResponse, translogLocation, null, indexShard);
+        }
+        // the replicas must not index the items as append-only operations either
+        request.disableAutoGeneratedIdOptimization();
+
         Translog.Location translogLocation = null;
         for (ShardUpsertRequest.Item item : request.items()) {
             int location = item.location();
@@ -176,36 +188,154 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                     }
                 }
             } catch (Exception e) {
-                if (retryPrimaryException(e)) {
-                    if (e instanceof RuntimeException) {
-                        throw (RuntimeException) e;
-                    }
-                    throw new RuntimeException(e);
-                }
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Failed to execute upsert shardId={} id={} error={}", request.shardId(), item.id(), e);
+                if (onItemFailure(request, item, e, shardResponse) == false) {
+                    break;
                 }
+            }
+        }
+        return new WritePrimaryResult<>(request, shardResponse, translogLocation, null, indexShard);
+    }
+
+    /**
+     * @return false if the processing of the remaining items must be stopped
+     */
+    private boolean onItemFailure(ShardUpsertRequest request,
+                                  ShardUpsertRequest.Item item,
+                                  Exception e,
+                                  ShardResponse shardResponse) {
+        if (retryPrimaryException(e)) {
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RuntimeException(e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Failed to execute upsert shardId={} id={} error={}", request.shardId(), item.id(), e);
+        }
 
-                // *mark* the item as failed by setting the source to null
-                // to prevent the replica operation from processing this concrete item
-                item.source(null);
+        // *mark* the item as failed by setting the source to null
+        // to prevent the replica operation from processing this concrete item
+        item.source(null);
 
-                if (!request.continueOnError()) {
-                    shardResponse.failure(e);
-                    break;
+        if (!request.continueOnError()) {
+            shardResponse.failure(e);
+            return false;
+        }
+        shardResponse.add(item.location(),
+            new ShardResponse.Failure(
+                item.id(),
+                userFriendlyCrateExceptionTopOnly(e),
+                (e instanceof VersionConflictEngineException)));
+        return true;
+    }
+
+    /**
+     * Plain inserts into a table with auto generated ids can't conflict with existing documents,
+     * so the documents can be appended without looking up their version.
+     * Requests which stop on the first failure are excluded as the items of a batch are indexed together.
+     */
+    private static boolean isAppendOnly(ShardUpsertRequest request, DocTableInfo tableInfo) {
+        return request.updateColumns() == null
+               && request.insertColumns() != null
+               && request.returnValues() == null
+               && request.continueOnError()
+               && (tableInfo.primaryKey().isEmpty() || tableInfo.hasAutoGeneratedPrimaryKey());
+    }
+
+    /**
+     * Indexes the items as one batch using {@link IndexShard#applyIndexOperationsOnPrimary(List, long, boolean)}.
+     * Items which require a mapping update are indexed one by one afterwards.
+     */
+    @Nullable
+    private Translog.Location indexAppendOnlyItems(ShardUpsertRequest request,
+                                                   IndexShard indexShard,
+                                                   InsertSourceGen insertSourceGen,
+                                                   ShardResponse shardResponse) {
+        String indexName = indexShard.shardId().getIndexName();
+        List<ShardUpsertRequest.Item> batchItems = new ArrayList<>(request.items().size());
+        List<SourceToParse> sources = new ArrayList<>(request.items().size());
+        for (ShardUpsertRequest.Item item : request.items()) {
+            try {
+                BytesReference rawSource;
+                XContentTokens sourceTokens = null;
+                if (insertSourceGen instanceof FromRawInsertSource) {
+                    rawSource = insertSourceGen.generateSourceAndCheckConstraintsAsBytesReference(item.insertValues());
+                } else {
+                    Map<String, Object> source = insertSourceGen.generateSourceAndCheckConstraints(item.insertValues());
+                    BytesStreamOutput out = new BytesStreamOutput();
+                    sourceTokens = writeSource(source, out);
+                    rawSource = out.bytes();
                 }
-                shardResponse.add(location,
-                    new ShardResponse.Failure(
-                        item.id(),
-                        userFriendlyCrateExceptionTopOnly(e),
-                        (e instanceof VersionConflictEngineException)));
+                item.source(rawSource);
+                sources.add(new SourceToParse(indexName, item.id(), rawSource, XContentType.JSON, null, sourceTokens));
+                batchItems.add(item);
+            } catch (Exception e) {
+                onItemFailure(request, item, e, shardResponse);
             }
         }
-        return new WritePrimaryResult<>(request, shardResponse, translogLocation, null, indexShard);
+        Translog.Location translogLocation = null;
+        List<ShardUpsertRequest.Item> mappingUpdateItems = new ArrayList<>();
+        if (sources.isEmpty() == false) {
+            List<Engine.IndexResult> results;
+            try {
+                results = indexShard.applyIndexOperationsOnPrimary(
+                    sources,
+                    request.autoGeneratedIdTimestamp(),
+                    request.isRetry()
+                );
+            } catch (IOException e) {
+                throw ExceptionsHelper.convertToElastic(e);
+            }
+            for (int i = 0; i < results.size(); i++) {
+                ShardUpsertRequest.Item item = batchItems.get(i);
+                Engine.IndexResult indexResult = results.get(i);
+                switch (indexResult.getResultType()) {
+                    case SUCCESS:
+                        // update the seqNo and version on request for the replicas
+                        item.seqNo(indexResult.getSeqNo());
+                        item.version(indexResult.getVersion());
+                        shardResponse.add(item.location());
+                        translogLocation = maxLocation(translogLocation, indexResult.getTranslogLocation());
+                        break;
+
+                    case FAILURE:
+                        onItemFailure(request, item, indexResult.getFailure(), shardResponse);
+                        break;
+
+                    case MAPPING_UPDATE_REQUIRED:
+                    default:
+                        mappingUpdateItems.add(item);
+                        break;
+                }
+            }
+        }
+        for (ShardUpsertRequest.Item item : mappingUpdateItems) {
+            try {
+                IndexItemResponse indexItemResponse = indexItem(request, item, indexShard, null, insertSourceGen, null);
+                if (indexItemResponse != null && indexItemResponse.translog != null) {
+                    shardResponse.add(item.location());
+                    translogLocation = maxLocation(translogLocation, indexItemResponse.translog);
+                }
+            } catch (Exception e) {
+                onItemFailure(request, item, e, shardResponse);
+            }
+        }
+        return translogLocation;
+    }
+
+    @Nullable
+    private static Translog.Location maxLocation(@Nullable Translog.Location current, @Nullable Translog.Location location) {
+        if (current == null || (location != null && location.compareTo(current) > 0)) {
+            return location;
+        }
+        return current;
     }
 
     @Override
     protected WriteReplicaResult<ShardUpsertRequest> processRequestItemsOnReplica(IndexShard indexShard, ShardUpsertRequest request) throws IOException {
+        if (request.autoGeneratedIdTimestamp() != Translog.UNSET_AUTO_GENERATED_TIMESTAMP) {
+            return processAppendOnlyItemsOnReplica(indexShard, request);
+        }
         Translog.Location location = null;
         for (ShardUpsertRequest.Item item : request.items()) {
             if (item.source() == null) {
@@ -246,6 +376,44 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         return new WriteReplicaResult<>(request, location, null, indexShard, logger);
     }
 
+    private WriteReplicaResult<ShardUpsertRequest> processAppendOnlyItemsOnReplica(IndexShard indexShard,
+                                                                                   ShardUpsertRequest request) throws IOException {
+        String indexName = indexShard.shardId().getIndexName();
+        List<SourceToParse> sources = new ArrayList<>(request.items().size());
+        long[] seqNos = new long[request.items().size()];
+        long[] versions = new long[request.items().size()];
+        for (ShardUpsertRequest.Item item : request.items()) {
+            if (item.source() == null) {
+                // primary operation failed
+                continue;
+            }
+            seqNos[sources.size()] = item.seqNo();
+            versions[sources.size()] = item.version();
+            sources.add(new SourceToParse(indexName, item.id(), item.source(), XContentType.JSON));
+        }
+        if (sources.isEmpty()) {
+            return new WriteReplicaResult<>(request, null, null, indexShard, logger);
+        }
+        List<Engine.IndexResult> results = indexShard.applyIndexOperationsOnReplica(
+            sources,
+            seqNos,
+            versions,
+            request.autoGeneratedIdTimestamp(),
+            request.isRetry()
+        );
+        Translog.Location location = null;
+        for (Engine.IndexResult indexResult : results) {
+            if (indexResult.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
+                // See processRequestItemsOnReplica. The retry marks the request as retried,
+                // so the documents indexed by this attempt aren't appended twice.
+                throw new TransportReplicationAction.RetryOnReplicaException(indexShard.shardId(),
+                    "Mappings are not available on the replica yet, triggered update: " + indexResult.getRequiredMappingUpdate());
+            }
+            location = maxLocation(location, indexResult.getTranslogLocation());
+        }
+        return new WriteReplicaResult<>(request, location, null, indexShard, logger);
+    }
+
     @Nullable
     private IndexItemResponse indexItem(ShardUpsertRequest request,
                                         ShardUpsertRequest.Item item,
@@ -315,6 +483,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         assert insertSourceGen != null : "InsertSourceGen must not be null";
         BytesReference rawSource;
         Map<String, Object> source = null;
+        XContentTokens sourceTokens = null;
         try {
             // This optimizes for the case where the insert value is already string-based, so we can take directly
             // the rawSource
@@ -322,7 +491,9 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                 rawSource = insertSourceGen.generateSourceAndCheckConstraintsAsBytesReference(item.insertValues());
             } else {
                 source = insertSourceGen.generateSourceAndCheckConstraints(item.insertValues());
-                rawSource = BytesReference.bytes(XContentFactory.jsonBuilder().map(source));
+                BytesStreamOutput out = new BytesStreamOutput();
+                sourceTokens = writeSource(source, out);
+                rawSource = out.bytes();
             }
         } catch (IOException e) {
             throw ExceptionsHelper.convertToElastic(e);
@@ -333,7 +504,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
         long primaryTerm = SequenceNumbers.UNASSIGNED_PRIMARY_TERM;
 
-        Engine.IndexResult indexResult = index(item, indexShard, isRetry, seqNo, primaryTerm, version);
+        Engine.IndexResult indexResult = index(item, indexShard, isRetry, seqNo, primaryTerm, version, sourceTokens);
         Object[] returnvalues = null;
         if (returnGen != null) {
             // This optimizes for the case where the insert value is already string-based, so only parse the source
@@ -374,13 +545,15 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             item.updateAssignments(),
             item.insertValues()
         );
-        BytesReference rawSource = BytesReference.bytes(XContentFactory.jsonBuilder().map(source));
+        BytesStreamOutput out = new BytesStreamOutput();
+        XContentTokens sourceTokens = writeSource(source, out);
+        BytesReference rawSource = out.bytes();
         item.source(rawSource);
         long seqNo = item.seqNo();
         long primaryTerm = item.primaryTerm();
         long version = Versions.MATCH_ANY;
 
-        Engine.IndexResult indexResult = index(item, indexShard, isRetry, seqNo, primaryTerm, version);
+        Engine.IndexResult indexResult = index(item, indexShard, isRetry, seqNo, primaryTerm, version, sourceTokens);
         Object[] returnvalues = null;
         if (returnGen != null) {
             returnvalues = returnGen.generateReturnValues(
@@ -404,12 +577,15 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                                      boolean isRetry,
                                      long seqNo,
                                      long primaryTerm,
-                                     long version) throws Exception {
+                                     long version,
+                                     @Nullable XContentTokens sourceTokens) throws Exception {
         SourceToParse sourceToParse = new SourceToParse(
             indexShard.shardId().getIndexName(),
             item.id(),
             item.source(),
-            XContentType.JSON
+            XContentType.JSON,
+            null,
+            sourceTokens
         );
 
         Engine.IndexResult indexResult = executeOnPrimaryHandlingMappingUpdate(
@@ -456,6 +632,22 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         }
     }
 
+    /**
+     * Writes the source as JSON into {@code out}.
+     *
+     * @return the recorded tokens of the source. They are used to build the Lucene document on the primary
+     *         without parsing the JSON again. The replicas still parse the JSON.
+     */
+    @Nullable
+    private static XContentTokens writeSource(Map<String, Object> source, BytesStreamOutput out) throws IOException {
+        RecordingXContentGenerator generator = new RecordingXContentGenerator(
+            JsonXContent.JSON_XCONTENT.createGenerator(out, Collections.emptySet(), Collections.emptySet()));
+        try (XContentBuilder builder = new XContentBuilder(generator, out)) {
+            builder.map(source);
+        }
+        return generator.tokens();
+    }
+
     private static Doc getDocument(IndexShard indexShard, String id, long version, long seqNo, long primaryTerm) {
         // when sequence versioning is used, this lookup will throw VersionConflictEngineException
         Doc doc = PKLookupOperation.lookupDoc(indexShard, id, Versions.MATCH_ANY, VersionType.INTERNAL, seqNo, primaryTerm);
@@ -22,6 +22,7 @@
 
 package io.crate.execution.engine;
 
+import io.crate.common.annotations.VisibleForTesting;
 import io.crate.concurrent.CompletableFutures;
 import io.crate.data.CollectingRowConsumer;
 import io.crate.data.RowConsumer;
@@ -42,10 +43,13 @@ import io.crate.execution.jobs.TasksService;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.transport.JobRequest;
 import io.crate.execution.jobs.transport.TransportJobAction;
+import io.crate.execution.workload.WorkloadClass;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.metadata.TransactionContext;
 import io.crate.profile.ProfilingContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import io.crate.common.collections.Tuple;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.search.profile.query.QueryProfiler;
 
@@ -109,6 +113,7 @@ public final class JobLauncher {
     private final IndicesService indicesService;
     private final boolean enableProfiling;
     private final Executor executor;
+    private final WorkloadClasses workloadClasses;
 
     private boolean hasDirectResponse;
 
@@ -121,7 +126,8 @@ public final class JobLauncher {
                 TransportKillJobsNodeAction transportKillJobsNodeAction,
                 List<NodeOperationTree> nodeOperationTrees,
                 boolean enableProfiling,
-                Executor executor) {
+                Executor executor,
+                WorkloadClasses workloadClasses) {
         this.jobId = jobId;
         this.clusterService = clusterService;
         this.jobSetup = jobSetup;
@@ -132,6 +138,7 @@ public final class JobLauncher {
         this.nodeOperationTrees = nodeOperationTrees;
         this.enableProfiling = enableProfiling;
         this.executor = executor;
+        this.workloadClasses = workloadClasses;
 
         for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
             for (NodeOperation nodeOperation : nodeOperationTree.nodeOperations()) {
@@ -150,11 +157,7 @@ public final class JobLauncher {
 
         List<ExecutionPhase> handlerPhases = Collections.singletonList(nodeOperationTree.leaf());
         List<RowConsumer> handlerConsumers = Collections.singletonList(consumer);
-        try {
-            setupTasks(txnCtx, operationByServer, handlerPhases, handlerConsumers);
-        } catch (Throwable throwable) {
-            consumer.accept(null, throwable);
-        }
+        admitAndSetupTasks(txnCtx, operationByServer, handlerPhases, handlerConsumers);
     }
 
     public List<CompletableFuture<Long>> executeBulk(TransactionContext txnCtx) {
@@ -173,12 +176,69 @@ public final class JobLauncher {
             results.add(consumer.completionFuture());
             handlerPhases.add(nodeOperationTree.leaf());
         }
+        admitAndSetupTasks(txnCtx, operationByServer, handlerPhases, handlerConsumers);
+        return results;
+    }
+
+    /**
+     * Sets up the tasks once the job is admitted by its {@link WorkloadClass}.
+     */
+    private void admitAndSetupTasks(TransactionContext txnCtx,
+                                    Map<String, Collection<NodeOperation>> operationByServer,
+                                    List<ExecutionPhase> handlerPhases,
+                                    List<RowConsumer> handlerConsumers) {
+        admit(
+            workloadClasses.resolve(txnCtx.sessionSettings()),
+            jobId,
+            txnCtx.sessionSettings().userName(),
+            handlerConsumers,
+            () -> setupTasks(txnCtx, operationByServer, handlerPhases, handlerConsumers)
+        );
+    }
+
+    /**
+     * Runs {@code setup} once the job is admitted by the workload class.
+     * The job is accounted as running in the workload class until all handlerConsumers have completed.
+     * Failures, including rejections and cancellations by the workload class, are propagated to the handlerConsumers.
+     */
+    @VisibleForTesting
+    static void admit(WorkloadClass workloadClass,
+                      UUID jobId,
+                      String userName,
+                      List<RowConsumer> handlerConsumers,
+                      TaskSetup setup) {
         try {
-            setupTasks(txnCtx, operationByServer, handlerPhases, handlerConsumers);
-        } catch (Throwable throwable) {
-            return Collections.singletonList(CompletableFuture.failedFuture(throwable));
+            workloadClass.admit(
+                jobId,
+                userName,
+                () -> {
+                    CompletableFuture<?>[] completionFutures = new CompletableFuture[handlerConsumers.size()];
+                    for (int i = 0; i < completionFutures.length; i++) {
+                        completionFutures[i] = handlerConsumers.get(i).completionFuture();
+                    }
+                    CompletableFuture.allOf(completionFutures).whenComplete((result, error) -> workloadClass.release());
+                    try {
+                        setup.run();
+                    } catch (Throwable throwable) {
+                        failConsumers(handlerConsumers, throwable);
+                    }
+                },
+                error -> failConsumers(handlerConsumers, error)
+            );
+        } catch (EsRejectedExecutionException e) {
+            failConsumers(handlerConsumers, e);
+        }
+    }
+
+    @FunctionalInterface
+    interface TaskSetup {
+        void run() throws Throwable;
+    }
+
+    private static void failConsumers(List<RowConsumer> consumers, Throwable failure) {
+        for (RowConsumer consumer : consumers) {
+            consumer.accept(null, failure);
         }
-        return results;
     }
 
     private void setupTasks(TransactionContext txnCtx,
@@ -27,6 +27,7 @@ import io.crate.execution.jobs.JobSetup;
 import io.crate.execution.jobs.TasksService;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.transport.TransportJobAction;
+import io.crate.execution.workload.WorkloadClasses;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -47,6 +48,7 @@ public final class PhasesTaskFactory {
     private final TransportJobAction jobAction;
     private final TransportKillJobsNodeAction killJobsNodeAction;
     private final Executor searchExecutor;
+    private final WorkloadClasses workloadClasses;
 
     @Inject
     public PhasesTaskFactory(ClusterService clusterService,
@@ -55,7 +57,8 @@ public final class PhasesTaskFactory {
                              TasksService tasksService,
                              IndicesService indicesService,
                              TransportJobAction jobAction,
-                             TransportKillJobsNodeAction killJobsNodeAction) {
+                             TransportKillJobsNodeAction killJobsNodeAction,
+                             WorkloadClasses workloadClasses) {
         this.clusterService = clusterService;
         this.jobSetup = jobSetup;
         this.tasksService = tasksService;
@@ -63,6 +66,7 @@ public final class PhasesTaskFactory {
         this.jobAction = jobAction;
         this.killJobsNodeAction = killJobsNodeAction;
         this.searchExecutor = threadPool.executor(ThreadPool.Names.SEARCH);
+        this.workloadClasses = workloadClasses;
     }
 
     public JobLauncher create(UUID jobId, List<NodeOperationTree> nodeOperationTreeList) {
@@ -80,7 +84,8 @@ public final class PhasesTaskFactory {
             killJobsNodeAction,
             nodeOperationTreeList,
             enableProfiling,
-            searchExecutor
+            searchExecutor,
+            workloadClasses
         );
     }
 }
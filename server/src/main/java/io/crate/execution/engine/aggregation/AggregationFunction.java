@@ -24,6 +24,7 @@ package io.crate.execution.engine.aggregation;
 
 import io.crate.breaker.RamAccounting;
 import io.crate.data.Input;
+import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.types.DataType;
@@ -114,8 +115,32 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
                                                 "not removable cumulative");
     }
 
+    /**
+     * Create a {@link DocValueAggregator} which aggregates the doc values of the columns directly,
+     * instead of iterating over the rows.
+     *
+     * @param argumentTypes the types of all arguments of the aggregation
+     * @param fieldTypes the field types of the column arguments
+     * @return the aggregator or null if the aggregation cannot operate on doc values.
+     */
     @Nullable
     public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes, List<MappedFieldType> fieldTypes) {
         return null;
     }
+
+    /**
+     * Like {@link #getDocValueAggregator(List, List)} but for aggregations with
+     * literal arguments following the column arguments, like the fraction of {@code percentile(x, 0.95)}.
+     *
+     * @param literalArguments the literal arguments; {@code fieldTypes} only contains the column arguments.
+     */
+    @Nullable
+    public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes,
+                                                       List<MappedFieldType> fieldTypes,
+                                                       List<Literal<?>> literalArguments) {
+        if (literalArguments.isEmpty()) {
+            return getDocValueAggregator(argumentTypes, fieldTypes);
+        }
+        return null;
+    }
 }
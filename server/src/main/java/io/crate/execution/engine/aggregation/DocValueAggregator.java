@@ -27,13 +27,32 @@ import java.io.IOException;
 import javax.annotation.Nullable;
 
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.Version;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.memory.MemoryManager;
 
 public interface DocValueAggregator<T> {
 
-    public T initialState();
+    /**
+     * Create the state for an aggregation.
+     * Same as {@link AggregationFunction#newState(RamAccounting, Version, Version, MemoryManager)}, the
+     * memory of states which grow while aggregating should be accounted using the {@code ramAccounting}
+     * or be allocated using the {@code memoryManager}.
+     */
+    public T initialState(RamAccounting ramAccounting, MemoryManager memoryManager, Version minNodeVersion);
 
     public void loadDocValues(LeafReader reader) throws IOException;
 
+    /**
+     * Called once per segment before {@link #apply(Object, int)} is called for the documents of the segment.
+     * Aggregators which need more than the {@link LeafReader}, e.g. to evaluate a query per segment, can override this.
+     */
+    public default void loadDocValues(LeafReaderContext context) throws IOException {
+        loadDocValues(context.reader());
+    }
+
     public void apply(T state, int doc) throws IOException;
 
     // Aggregations are executed on shard level,
@@ -23,6 +23,9 @@
 package io.crate.execution.engine.aggregation;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import io.crate.Streamer;
+import io.crate.breaker.ChildRamAccounting;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.SizeEstimator;
 import io.crate.breaker.SizeEstimatorFactory;
@@ -30,18 +33,30 @@ import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
+import io.crate.settings.CrateSetting;
 import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -52,10 +67,22 @@ import java.util.stream.Collector;
 /**
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
+ * <p>
+ * If a spill threshold is set and the memory accounted since the last spill exceeds it, the keys and the partial
+ * aggregation states are moved into {@link SpillFile}s, partitioned by the hash of the key, and the in-memory groups
+ * are cleared. The finisher then reduces the groups of one partition at a time, so that only a fraction of all
+ * groups has to be held in memory while emitting the result.
+ * <p>
+ * A spilling instance must only be used for a single collect operation and must be closed to remove the files.
  *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>>, Closeable {
+
+    public static final CrateSetting<ByteSizeValue> SPILL_THRESHOLD_SETTING = CrateSetting.of(Setting.memorySizeSetting(
+        "group_by.spill.threshold", "10%", Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.STRING);
+
+    static final int NUM_SPILL_PARTITIONS = 32;
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -72,6 +99,15 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final BiConsumer<Map<K, Object[]>, Row> accumulator;
     private final Supplier<Map<K, Object[]>> supplier;
     private final Version minNodeVersion;
+    private final Function<Object[], K> keyFromCells;
+    private final Streamer<?>[] spillStreamers;
+    private final long spillThresholdInBytes;
+    @Nullable
+    private final Path spillDirectory;
+    private final SpillStats spillStats;
+
+    @Nullable
+    private SpillFile[] partitions;
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -84,25 +120,63 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                Input<?> keyInput,
                                                DataType keyType,
                                                Version indexVersionCreated) {
+        return singleKey(
+            expressions,
+            mode,
+            aggregations,
+            inputs,
+            filters,
+            ramAccounting,
+            memoryManager,
+            minNodeVersion,
+            keyInput,
+            keyType,
+            indexVersionCreated,
+            0L,
+            null,
+            new SpillStats()
+        );
+    }
+
+    static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
+                                               AggregateMode mode,
+                                               AggregationFunction[] aggregations,
+                                               Input[][] inputs,
+                                               Input<Boolean>[] filters,
+                                               RamAccounting ramAccounting,
+                                               MemoryManager memoryManager,
+                                               Version minNodeVersion,
+                                               Input<?> keyInput,
+                                               DataType keyType,
+                                               Version indexVersionCreated,
+                                               long spillThresholdInBytes,
+                                               @Nullable Path spillDirectory,
+                                               SpillStats spillStats) {
+        RamAccounting groupsRamAccounting = groupsRamAccounting(ramAccounting, spillThresholdInBytes);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccounting,
+            groupsRamAccounting,
             memoryManager,
             minNodeVersion,
             (key, cells) -> cells[0] = key,
             1,
             GroupByMaps.accountForNewEntry(
-                ramAccounting,
+                groupsRamAccounting,
                 SizeEstimatorFactory.create(keyType),
                 keyType
             ),
             row -> keyInput.value(),
             indexVersionCreated,
-            GroupByMaps.mapForType(keyType)
+            GroupByMaps.mapForType(keyType),
+            cells -> cells[0],
+            spillStreamers(List.of(keyType), aggregations),
+            spillThresholdInBytes,
+            spillDirectory,
+            spillStats
         );
     }
 
@@ -117,28 +191,75 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     List<Input<?>> keyInputs,
                                                     List<? extends DataType> keyTypes,
                                                     Version indexVersionCreated) {
+        return manyKeys(
+            expressions,
+            mode,
+            aggregations,
+            inputs,
+            filters,
+            ramAccountingContext,
+            memoryManager,
+            minNodeVersion,
+            keyInputs,
+            keyTypes,
+            indexVersionCreated,
+            0L,
+            null,
+            new SpillStats()
+        );
+    }
+
+    static GroupingCollector<List<Object>> manyKeys(CollectExpression<Row, ?>[] expressions,
+                                                    AggregateMode mode,
+                                                    AggregationFunction[] aggregations,
+                                                    Input[][] inputs,
+                                                    Input<Boolean>[] filters,
+                                                    RamAccounting ramAccountingContext,
+                                                    MemoryManager memoryManager,
+                                                    Version minNodeVersion,
+                                                    List<Input<?>> keyInputs,
+                                                    List<? extends DataType> keyTypes,
+                                                    Version indexVersionCreated,
+                                                    long spillThresholdInBytes,
+                                                    @Nullable Path spillDirectory,
+                                                    SpillStats spillStats) {
+        int numKeys = keyInputs.size();
+        RamAccounting groupsRamAccounting = groupsRamAccounting(ramAccountingContext, spillThresholdInBytes);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccountingContext,
+            groupsRamAccounting,
             memoryManager,
             minNodeVersion,
             GroupingCollector::applyKeysToCells,
             keyInputs.size(),
             GroupByMaps.accountForNewEntry(
-                ramAccountingContext,
+                groupsRamAccounting,
                 new MultiSizeEstimator(keyTypes),
                 null
             ),
             row -> evalKeyInputs(keyInputs),
             indexVersionCreated,
-            HashMap::new
+            HashMap::new,
+            cells -> new ArrayList<>(Arrays.asList(cells).subList(0, numKeys)),
+            spillStreamers(keyTypes, aggregations),
+            spillThresholdInBytes,
+            spillDirectory,
+            spillStats
         );
     }
 
+    /**
+     * The RamAccounting of a phase is shared with other operators. If spilling is enabled the groups are accounted
+     * separately, so that the spill threshold only considers the groups and a spill only releases their memory.
+     */
+    private static RamAccounting groupsRamAccounting(RamAccounting ramAccounting, long spillThresholdInBytes) {
+        return spillThresholdInBytes > 0 ? new ChildRamAccounting(ramAccounting) : ramAccounting;
+    }
+
     private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
         List<Object> key = new ArrayList<>(keyInputs.size());
         for (Input<?> keyInput : keyInputs) {
@@ -153,6 +274,21 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
+    /**
+     * Streamers for the spilled rows: The key columns followed by the partial states of the aggregations.
+     */
+    private static Streamer<?>[] spillStreamers(List<? extends DataType> keyTypes, AggregationFunction[] aggregations) {
+        Streamer<?>[] streamers = new Streamer[keyTypes.size() + aggregations.length];
+        int i = 0;
+        for (DataType<?> keyType : keyTypes) {
+            streamers[i++] = keyType.streamer();
+        }
+        for (AggregationFunction<?, ?> aggregation : aggregations) {
+            streamers[i++] = aggregation.partialType().streamer();
+        }
+        return streamers;
+    }
+
     private GroupingCollector(CollectExpression<Row, ?>[] expressions,
                               AggregationFunction[] aggregations,
                               AggregateMode mode,
@@ -166,7 +302,13 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
                               Function<Row, K> keyExtractor,
                               Version indexVersionCreated,
-                              Supplier<Map<K, Object[]>> supplier) {
+                              Supplier<Map<K, Object[]>> supplier,
+                              Function<Object[], K> keyFromCells,
+                              Streamer<?>[] spillStreamers,
+                              long spillThresholdInBytes,
+                              @Nullable Path spillDirectory,
+                              SpillStats spillStats) {
+        assert spillThresholdInBytes <= 0 || spillDirectory != null : "spillDirectory is required if spilling is enabled";
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -182,6 +324,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
         this.supplier = supplier;
         this.minNodeVersion = minNodeVersion;
+        this.keyFromCells = keyFromCells;
+        this.spillStreamers = spillStreamers;
+        this.spillThresholdInBytes = spillThresholdInBytes;
+        this.spillDirectory = spillDirectory;
+        this.spillStats = spillStats;
     }
 
     @Override
@@ -191,6 +338,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
 
     @Override
     public BiConsumer<Map<K, Object[]>, Row> accumulator() {
+        if (spillThresholdInBytes > 0) {
+            return this::accumulateAndMaybeSpill;
+        }
         return accumulator;
     }
 
@@ -203,7 +353,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
 
     @Override
     public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+        return this::finish;
     }
 
     @Override
@@ -270,6 +420,113 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         addWithAccounting(statesByKey, key, states);
     }
 
+    private void accumulateAndMaybeSpill(Map<K, Object[]> statesByKey, Row row) {
+        accumulator.accept(statesByKey, row);
+        if (ramAccounting.totalBytes() >= spillThresholdInBytes) {
+            spill(statesByKey);
+        }
+    }
+
+    /**
+     * Write the keys and the partial states of all in-memory groups into the partition files,
+     * then clear the groups and stop accounting for them.
+     */
+    private void spill(Map<K, Object[]> statesByKey) {
+        assert spillDirectory != null : "spill must only be called if spilling is enabled";
+        if (partitions == null) {
+            partitions = new SpillFile[NUM_SPILL_PARTITIONS];
+        }
+        long bytesBefore = bytesWritten();
+        Object[] cells = new Object[numKeyColumns + aggregations.length];
+        for (Map.Entry<K, Object[]> entry : statesByKey.entrySet()) {
+            K key = entry.getKey();
+            applyKeyToCells.accept(key, cells);
+            Object[] states = entry.getValue();
+            System.arraycopy(states, 0, cells, numKeyColumns, states.length);
+            int partition = partition(key);
+            SpillFile file = partitions[partition];
+            if (file == null) {
+                file = SpillFile.create(spillDirectory, "group-by-", spillStreamers);
+                partitions[partition] = file;
+            }
+            file.write(cells);
+        }
+        statesByKey.clear();
+        releaseRun();
+        spillStats.onSpill(bytesWritten() - bytesBefore);
+    }
+
+    private static int partition(Object key) {
+        int h = Objects.hashCode(key);
+        return (h ^ (h >>> 16)) & (NUM_SPILL_PARTITIONS - 1);
+    }
+
+    private long bytesWritten() {
+        long bytes = 0;
+        for (SpillFile file : partitions) {
+            if (file != null) {
+                bytes += file.bytesWritten();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Release the memory of the groups; only used if spilling is enabled, so the groups have their own accounting.
+     */
+    private void releaseRun() {
+        ramAccounting.release();
+    }
+
+    private Iterable<Row> finish(Map<K, Object[]> statesByKey) {
+        if (partitions == null) {
+            return mapToRows(statesByKey);
+        }
+        if (statesByKey.isEmpty() == false) {
+            spill(statesByKey);
+        }
+        List<SpillFile> spilledPartitions = new ArrayList<>(NUM_SPILL_PARTITIONS);
+        for (SpillFile file : partitions) {
+            if (file != null) {
+                file.finishWriting();
+                spilledPartitions.add(file);
+            }
+        }
+        // Each call re-reads the partitions, so the result can be consumed multiple times
+        return () -> Iterators.concat(Iterators.transform(spilledPartitions.iterator(), this::reducePartition));
+    }
+
+    /**
+     * Reduce the groups of a spilled partition. The memory used by the groups of the previously
+     * reduced partition is released first.
+     */
+    private Iterator<Row> reducePartition(SpillFile partition) {
+        releaseRun();
+        Map<K, Object[]> statesByKey = supplier.get();
+        Iterator<Object[]> rows = partition.rows();
+        while (rows.hasNext()) {
+            Object[] cells = rows.next();
+            K key = keyFromCells.apply(cells);
+            Object[] states = statesByKey.get(key);
+            if (states == null) {
+                addWithAccounting(statesByKey, key, Arrays.copyOfRange(cells, numKeyColumns, cells.length));
+            } else {
+                for (int i = 0; i < aggregations.length; i++) {
+                    states[i] = aggregations[i].reduce(ramAccounting, states[i], cells[numKeyColumns + i]);
+                }
+            }
+        }
+        return mapToRows(statesByKey).iterator();
+    }
+
+    @Override
+    public void close() {
+        if (partitions != null) {
+            IOUtils.closeWhileHandlingException(partitions);
+            partitions = null;
+        }
+    }
+
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
         return Iterables.transform(statesByKey.entrySet(), new com.google.common.base.Function<>() {
 
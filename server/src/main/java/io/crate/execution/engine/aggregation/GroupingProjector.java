@@ -24,11 +24,13 @@ package io.crate.execution.engine.aggregation;
 
 import io.crate.breaker.RamAccounting;
 import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Symbol;
 import io.crate.memory.MemoryManager;
@@ -37,14 +39,15 @@ import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.stream.Collector;
 
 import static io.crate.expression.symbol.Symbols.typeView;
 
 public class GroupingProjector implements Projector {
 
-    private final Collector<Row, ?, Iterable<Row>> collector;
+    private final GroupingCollector<?> collector;
 
 
     public GroupingProjector(List<? extends Symbol> keys,
@@ -56,6 +59,28 @@ public class GroupingProjector implements Projector {
                              MemoryManager memoryManager,
                              Version minNodeVersion,
                              Version indexVersionCreated) {
+        this(keys, keyInputs, collectExpressions, mode, aggregations, ramAccounting, memoryManager,
+            minNodeVersion, indexVersionCreated, 0L, null, new SpillStats());
+    }
+
+    /**
+     * @param spillThresholdInBytes number of bytes the groups may occupy before they're moved into temporary files.
+     *                              A value of 0 or less disables spilling.
+     * @param spillDirectory        the directory for the temporary files, created on the first spill
+     * @param spillStats            updated on each spill
+     */
+    public GroupingProjector(List<? extends Symbol> keys,
+                             List<Input<?>> keyInputs,
+                             CollectExpression<Row, ?>[] collectExpressions,
+                             AggregateMode mode,
+                             AggregationContext[] aggregations,
+                             RamAccounting ramAccounting,
+                             MemoryManager memoryManager,
+                             Version minNodeVersion,
+                             Version indexVersionCreated,
+                             long spillThresholdInBytes,
+                             @Nullable Path spillDirectory,
+                             SpillStats spillStats) {
         assert keys.size() == keyInputs.size() : "number of key types must match with number of key inputs";
         ensureAllTypesSupported(keys);
 
@@ -81,11 +106,13 @@ public class GroupingProjector implements Projector {
                 minNodeVersion,
                 keyInputs.get(0),
                 key.valueType(),
-                indexVersionCreated
+                indexVersionCreated,
+                spillThresholdInBytes,
+                spillDirectory,
+                spillStats
             );
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            collector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
@@ -96,7 +123,10 @@ public class GroupingProjector implements Projector {
                 minNodeVersion,
                 keyInputs,
                 typeView(keys),
-                indexVersionCreated
+                indexVersionCreated,
+                spillThresholdInBytes,
+                spillDirectory,
+                spillStats
             );
         }
     }
@@ -112,10 +142,21 @@ public class GroupingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                collector.close();
+            },
+            batchIterator::kill,
+            () -> BatchIterators.collect(batchIterator, collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
-    public Collector<Row, ?, Iterable<Row>> getCollector() {
+    /**
+     * The collector must be closed once its result has been consumed to remove any temporary files.
+     */
+    public GroupingCollector<?> getCollector() {
         return collector;
     }
 
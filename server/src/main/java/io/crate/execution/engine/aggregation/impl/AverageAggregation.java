@@ -282,7 +282,9 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
         }
 
         @Override
-        public AverageState initialState() {
+        public AverageState initialState(RamAccounting ramAccounting,
+                                         MemoryManager memoryManager,
+                                         Version minNodeVersion) {
             return new AverageAggregation.AverageState();
         }
 
@@ -317,7 +319,9 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
         }
 
         @Override
-        public AverageState initialState() {
+        public AverageState initialState(RamAccounting ramAccounting,
+                                         MemoryManager memoryManager,
+                                         Version minNodeVersion) {
             return new AverageAggregation.AverageState();
         }
 
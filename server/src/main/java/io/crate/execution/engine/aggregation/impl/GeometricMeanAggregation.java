@@ -27,6 +27,7 @@ import io.crate.breaker.RamAccounting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataType;
@@ -38,6 +39,7 @@ import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.index.mapper.MappedFieldType;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -250,6 +252,25 @@ public class GeometricMeanAggregation extends AggregationFunction<GeometricMeanA
         return GeometricMeanStateType.INSTANCE;
     }
 
+    @Nullable
+    @Override
+    public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes,
+                                                       List<MappedFieldType> fieldTypes) {
+        DataType<?> arg = argumentTypes.get(0);
+        if (!NumericDocValueAggregator.supports(arg)) {
+            return null;
+        }
+        return new NumericDocValueAggregator<>(
+            fieldTypes.get(0).name(),
+            arg,
+            ramAccounting -> {
+                ramAccounting.addBytes(GeometricMeanStateType.INSTANCE.fixedSize());
+                return new GeometricMeanState();
+            },
+            GeometricMeanState::addValue
+        );
+    }
+
     @Override
     public Signature signature() {
         return signature;
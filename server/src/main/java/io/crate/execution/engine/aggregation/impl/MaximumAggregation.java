@@ -29,6 +29,8 @@ import javax.annotation.Nullable;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -36,7 +38,6 @@ import org.elasticsearch.index.mapper.MappedFieldType;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.SizeEstimator;
 import io.crate.breaker.SizeEstimatorFactory;
-import io.crate.common.MutableDouble;
 import io.crate.common.MutableLong;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
@@ -57,6 +58,8 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
 
     public static final String NAME = "max";
 
+    private static final long MUTABLE_LONG_SIZE = RamUsageEstimator.shallowSizeOfInstance(MutableLong.class);
+
     public static void register(AggregationImplModule mod) {
         for (var supportedType : DataTypes.PRIMITIVE_TYPES) {
             var fixedWidthType = supportedType instanceof FixedWidthType;
@@ -86,7 +89,10 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
         }
 
         @Override
-        public MutableLong initialState() {
+        public MutableLong initialState(RamAccounting ramAccounting,
+                                        MemoryManager memoryManager,
+                                        Version minNodeVersion) {
+            ramAccounting.addBytes(MUTABLE_LONG_SIZE);
             return new MutableLong();
         }
 
@@ -99,7 +105,7 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
         public void apply(MutableLong state, int doc) throws IOException {
             if (values.advanceExact(doc) && values.docValueCount() == 1) {
                 long value = values.nextValue();
-                if (value > state.value()) {
+                if (!state.hasValue() || value > state.value()) {
                     state.setValue(value);
                 }
             }
@@ -116,7 +122,11 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
     }
 
 
-    private static class DoubleMax implements DocValueAggregator<MutableDouble> {
+    /**
+     * Floating point values are stored as sortable longs (or ints in case of float),
+     * so the encoded values can be compared directly and only the result needs to be decoded.
+     */
+    private static class DoubleMax implements DocValueAggregator<MutableLong> {
 
         private final String columnName;
         private final DataType<?> partialType;
@@ -128,8 +138,11 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
         }
 
         @Override
-        public MutableDouble initialState() {
-            return new MutableDouble();
+        public MutableLong initialState(RamAccounting ramAccounting,
+                                        MemoryManager memoryManager,
+                                        Version minNodeVersion) {
+            ramAccounting.addBytes(MUTABLE_LONG_SIZE);
+            return new MutableLong();
         }
 
         @Override
@@ -138,19 +151,22 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
         }
 
         @Override
-        public void apply(MutableDouble state, int doc) throws IOException {
+        public void apply(MutableLong state, int doc) throws IOException {
             if (values.advanceExact(doc) && values.docValueCount() == 1) {
                 long value = values.nextValue();
-                if (value > state.value()) {
+                if (!state.hasValue() || value > state.value()) {
                     state.setValue(value);
                 }
             }
         }
 
         @Override
-        public Object partialResult(MutableDouble state) {
+        public Object partialResult(MutableLong state) {
             if (state.hasValue()) {
-                return partialType.value(state.value());
+                if (partialType.id() == FloatType.ID) {
+                    return NumericUtils.sortableIntToFloat((int) state.value());
+                }
+                return NumericUtils.sortableLongToDouble(state.value());
             } else {
                 return null;
             }
@@ -24,22 +24,40 @@ package io.crate.execution.engine.aggregation.impl;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.SizeEstimator;
 import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.common.MutableLong;
 import io.crate.data.Input;
 import io.crate.exceptions.CircuitBreakingException;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
 import io.crate.types.FixedWidthType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.Version;
+import org.elasticsearch.index.mapper.MappedFieldType;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
 
 public abstract class MinimumAggregation extends AggregationFunction<Comparable, Comparable> {
 
     public static final String NAME = "min";
 
+    private static final long MUTABLE_LONG_SIZE = RamUsageEstimator.shallowSizeOfInstance(MutableLong.class);
+
     public static void register(AggregationImplModule mod) {
         for (var supportedType : DataTypes.PRIMITIVE_TYPES) {
             var fixedWidthType = supportedType instanceof FixedWidthType;
@@ -56,6 +74,62 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
         }
     }
 
+    /**
+     * Aggregates the raw doc values. Floating point values are stored as sortable longs (or ints in case of float),
+     * so they can be compared without decoding them; only the result is decoded.
+     */
+    private static class MinDocValueAggregator implements DocValueAggregator<MutableLong> {
+
+        private final String columnName;
+        private final DataType<?> partialType;
+        private SortedNumericDocValues values;
+
+        MinDocValueAggregator(String columnName, DataType<?> partialType) {
+            this.columnName = columnName;
+            this.partialType = partialType;
+        }
+
+        @Override
+        public MutableLong initialState(RamAccounting ramAccounting,
+                                        MemoryManager memoryManager,
+                                        Version minNodeVersion) {
+            ramAccounting.addBytes(MUTABLE_LONG_SIZE);
+            return new MutableLong();
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedNumeric(reader, columnName);
+        }
+
+        @Override
+        public void apply(MutableLong state, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                long value = values.nextValue();
+                if (!state.hasValue() || value < state.value()) {
+                    state.setValue(value);
+                }
+            }
+        }
+
+        @Override
+        public Object partialResult(MutableLong state) {
+            if (!state.hasValue()) {
+                return null;
+            }
+            switch (partialType.id()) {
+                case FloatType.ID:
+                    return NumericUtils.sortableIntToFloat((int) state.value());
+
+                case DoubleType.ID:
+                    return NumericUtils.sortableLongToDouble(state.value());
+
+                default:
+                    return partialType.value(state.value());
+            }
+        }
+    }
+
     private static class VariableMinimumAggregation extends MinimumAggregation {
 
         private final SizeEstimator<Object> estimator;
@@ -102,6 +176,26 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
             size = ((FixedWidthType) partialType()).fixedSize();
         }
 
+        @Nullable
+        @Override
+        public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes,
+                                                           List<MappedFieldType> fieldTypes) {
+            DataType<?> arg = argumentTypes.get(0);
+            switch (arg.id()) {
+                case ShortType.ID:
+                case IntegerType.ID:
+                case LongType.ID:
+                case TimestampType.ID_WITH_TZ:
+                case TimestampType.ID_WITHOUT_TZ:
+                case FloatType.ID:
+                case DoubleType.ID:
+                    return new MinDocValueAggregator(fieldTypes.get(0).name(), arg);
+
+                default:
+                    return null;
+            }
+        }
+
         @Nullable
         @Override
         public Comparable newState(RamAccounting ramAccounting,
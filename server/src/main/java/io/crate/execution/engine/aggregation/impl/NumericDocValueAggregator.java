@@ -0,0 +1,123 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.memory.MemoryManager;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.Version;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * A {@link DocValueAggregator} for aggregations which consume the values of a numeric column as double,
+ * and whose partial result is the state itself.
+ */
+final class NumericDocValueAggregator<T> implements DocValueAggregator<T> {
+
+    private final String columnName;
+    private final boolean isFloat;
+    private final boolean isDouble;
+    private final Function<RamAccounting, T> newState;
+    private final ObjDoubleConsumer<T> applyValue;
+    private SortedNumericDocValues values;
+
+    /**
+     * @param columnName    the name of the column with doc values
+     * @param type          the type of the column, must be {@link #supports(DataType) supported}
+     * @param newState      creates the initial state and accounts for its memory
+     * @param applyValue    adds a value to the state
+     */
+    NumericDocValueAggregator(String columnName,
+                              DataType<?> type,
+                              Function<RamAccounting, T> newState,
+                              ObjDoubleConsumer<T> applyValue) {
+        assert supports(type) : "Type " + type + " is not supported by NumericDocValueAggregator";
+        this.columnName = columnName;
+        this.isFloat = type.id() == FloatType.ID;
+        this.isDouble = type.id() == DoubleType.ID;
+        this.newState = newState;
+        this.applyValue = applyValue;
+    }
+
+    static boolean supports(DataType<?> type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+            case FloatType.ID:
+            case DoubleType.ID:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public T initialState(RamAccounting ramAccounting, MemoryManager memoryManager, Version minNodeVersion) {
+        return newState.apply(ramAccounting);
+    }
+
+    @Override
+    public void loadDocValues(LeafReader reader) throws IOException {
+        values = DocValues.getSortedNumeric(reader, columnName);
+    }
+
+    @Override
+    public void apply(T state, int doc) throws IOException {
+        if (values.advanceExact(doc) && values.docValueCount() == 1) {
+            long value = values.nextValue();
+            if (isDouble) {
+                applyValue.accept(state, NumericUtils.sortableLongToDouble(value));
+            } else if (isFloat) {
+                applyValue.accept(state, NumericUtils.sortableIntToFloat((int) value));
+            } else {
+                applyValue.accept(state, value);
+            }
+        }
+    }
+
+    @Override
+    public Object partialResult(T state) {
+        return state;
+    }
+}
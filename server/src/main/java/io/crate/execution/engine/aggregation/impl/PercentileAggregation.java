@@ -25,12 +25,15 @@ import io.crate.breaker.RamAccounting;
 import io.crate.data.Input;
 import io.crate.exceptions.CircuitBreakingException;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.ArrayType;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
+import org.elasticsearch.index.mapper.MappedFieldType;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -110,7 +113,7 @@ class PercentileAggregation extends AggregationFunction<TDigestState, Object> {
         return state;
     }
 
-    private void initState(TDigestState state, Object argValue) {
+    private static void initState(TDigestState state, Object argValue) {
         if (argValue != null) {
             if (argValue instanceof List) {
                 List values = (List) argValue;
@@ -175,4 +178,28 @@ class PercentileAggregation extends AggregationFunction<TDigestState, Object> {
     public DataType<?> partialType() {
         return TDigestStateType.INSTANCE;
     }
+
+    @Nullable
+    @Override
+    public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes,
+                                                       List<MappedFieldType> fieldTypes,
+                                                       List<Literal<?>> literalArguments) {
+        DataType<?> arg = argumentTypes.get(0);
+        if (fieldTypes.size() != 1 || literalArguments.size() != 1 || !NumericDocValueAggregator.supports(arg)) {
+            return null;
+        }
+        Object fractionValue = literalArguments.get(0).value();
+        return new NumericDocValueAggregator<>(
+            fieldTypes.get(0).name(),
+            arg,
+            ramAccounting -> TDigestState.createEmptyState(),
+            (state, value) -> {
+                // Same as in iterate, the fractions are set once the first row is aggregated
+                if (state.isEmpty()) {
+                    initState(state, fractionValue);
+                }
+                state.add(value);
+            }
+        );
+    }
 }
@@ -26,6 +26,7 @@ import io.crate.breaker.RamAccounting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.statistics.StandardDeviation;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
@@ -36,6 +37,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.mapper.MappedFieldType;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -198,4 +200,23 @@ public class StandardDeviationAggregation extends AggregationFunction<StandardDe
     public DataType<?> partialType() {
         return StdDevStateType.INSTANCE;
     }
+
+    @Nullable
+    @Override
+    public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes,
+                                                       List<MappedFieldType> fieldTypes) {
+        DataType<?> arg = argumentTypes.get(0);
+        if (!NumericDocValueAggregator.supports(arg)) {
+            return null;
+        }
+        return new NumericDocValueAggregator<>(
+            fieldTypes.get(0).name(),
+            arg,
+            ramAccounting -> {
+                ramAccounting.addBytes(StdDevStateType.INSTANCE.fixedSize());
+                return new StandardDeviation();
+            },
+            StandardDeviation::increment
+        );
+    }
 }
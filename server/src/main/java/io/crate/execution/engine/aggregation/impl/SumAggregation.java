@@ -211,7 +211,9 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         }
 
         @Override
-        public SumLongState initialState() {
+        public SumLongState initialState(RamAccounting ramAccounting,
+                                         MemoryManager memoryManager,
+                                         Version minNodeVersion) {
             return new SumLongState();
         }
 
@@ -250,7 +252,9 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         }
 
         @Override
-        public SumDoubleState initialState() {
+        public SumDoubleState initialState(RamAccounting ramAccounting,
+                                           MemoryManager memoryManager,
+                                           Version minNodeVersion) {
             return new SumDoubleState();
         }
 
@@ -32,6 +32,7 @@ import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.engine.collect.collectors.BlobOrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.InputFactory;
@@ -59,6 +60,7 @@ public class BlobShardCollectorProvider extends ShardCollectorProvider {
                                       Functions functions,
                                       ThreadPool threadPool,
                                       Settings settings,
+                                      SpillThresholds spillThresholds,
                                       TransportActionProvider transportActionProvider) {
         super(
             clusterService,
@@ -67,6 +69,7 @@ public class BlobShardCollectorProvider extends ShardCollectorProvider {
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             blobShard.indexShard(),
             new ShardRowContext(blobShard, clusterService)
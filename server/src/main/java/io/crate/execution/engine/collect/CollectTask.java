@@ -43,6 +43,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 public class CollectTask extends AbstractTask {
@@ -50,6 +51,7 @@ public class CollectTask extends AbstractTask {
     private final CollectPhase collectPhase;
     private final TransactionContext txnCtx;
     private final MapSideDataCollectOperation collectOperation;
+    private final Executor searchExecutor;
     private final RamAccounting ramAccounting;
     private final Function<RamAccounting, MemoryManager> memoryManagerFactory;
     private final SharedShardContexts sharedShardContexts;
@@ -67,6 +69,7 @@ public class CollectTask extends AbstractTask {
     public CollectTask(final CollectPhase collectPhase,
                        TransactionContext txnCtx,
                        MapSideDataCollectOperation collectOperation,
+                       Executor searchExecutor,
                        RamAccounting ramAccounting,
                        Function<RamAccounting, MemoryManager> memoryManagerFactory,
                        RowConsumer consumer,
@@ -77,6 +80,7 @@ public class CollectTask extends AbstractTask {
         this.collectPhase = collectPhase;
         this.txnCtx = txnCtx;
         this.collectOperation = collectOperation;
+        this.searchExecutor = searchExecutor;
         this.ramAccounting = ramAccounting;
         this.memoryManagerFactory = memoryManagerFactory;
         this.sharedShardContexts = sharedShardContexts;
@@ -167,7 +171,13 @@ public class CollectTask extends AbstractTask {
     @Override
     protected void innerStart() {
         String threadPoolName = threadPoolName(collectPhase, batchIterator.hasLazyResultSet());
-        collectOperation.launch(() -> consumer.accept(batchIterator, null), threadPoolName);
+        Runnable runnable = () -> consumer.accept(batchIterator, null);
+        if (ThreadPool.Names.SEARCH.equals(threadPoolName)) {
+            // the search executor depends on the workload class of the job
+            searchExecutor.execute(runnable);
+        } else {
+            collectOperation.launch(runnable, threadPoolName);
+        }
     }
 
     public TransactionContext txnCtx() {
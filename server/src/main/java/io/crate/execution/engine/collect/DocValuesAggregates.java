@@ -22,7 +22,6 @@
 
 package io.crate.execution.engine.collect;
 
-import io.crate.common.collections.Lists2;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Row;
@@ -34,8 +33,10 @@ import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.collect.collectors.LeafSlices;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.symbol.Aggregation;
+import io.crate.expression.symbol.FunctionCopyVisitor;
 import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -66,32 +67,39 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 public class DocValuesAggregates {
 
+    /**
+     * @param maxSlices the segments of the shard are split onto up to {@code maxSlices} iterators,
+     *                  each emitting the partial aggregation states of its segments.
+     *                  Must be 1 unless the aggregation states are merged by a later projection.
+     * @return the iterators or null if the aggregations cannot operate on doc values.
+     */
     @Nullable
-    public static BatchIterator<Row> tryOptimize(Functions functions,
-                                                 IndexShard indexShard,
-                                                 DocTableInfo table,
-                                                 LuceneQueryBuilder luceneQueryBuilder,
-                                                 FieldTypeLookup fieldTypeLookup,
-                                                 RoutedCollectPhase phase,
-                                                 CollectTask collectTask) {
+    public static List<BatchIterator<Row>> tryOptimize(Functions functions,
+                                                       IndexShard indexShard,
+                                                       DocTableInfo table,
+                                                       LuceneQueryBuilder luceneQueryBuilder,
+                                                       FieldTypeLookup fieldTypeLookup,
+                                                       RoutedCollectPhase phase,
+                                                       CollectTask collectTask,
+                                                       int maxSlices) {
         var shardProjections = Projections.shardProjections(phase.projections());
         AggregationProjection aggregateProjection = aggregateProjection(shardProjections);
         if (aggregateProjection == null) {
             return null;
         }
+        SearchPath searchPath = collectTask.txnCtx().sessionSettings().searchPath();
         var aggregators = createAggregators(
             functions,
-            aggregateProjection,
+            aggregateProjection.aggregations(),
             fieldTypeLookup,
             phase.toCollect(),
-            collectTask.txnCtx().sessionSettings().searchPath()
+            searchPath
         );
         if (aggregators == null) {
             return null;
@@ -100,36 +108,54 @@ public class DocValuesAggregates {
         SharedShardContext shardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
         Searcher searcher = shardContext.acquireSearcher(LuceneShardCollectorProvider.formatSource(phase));
         try {
-            QueryShardContext queryShardContext = shardContext.indexService().newQueryShardContext();
             collectTask.addSearcher(shardContext.readerId(), searcher);
-            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
-                phase.where(),
-                collectTask.txnCtx(),
-                indexShard.mapperService(),
-                indexShard.shardId().getIndexName(),
-                queryShardContext,
-                table,
-                shardContext.indexService().cache()
+            List<List<LeafReaderContext>> slices = LeafSlices.slice(
+                searcher.searcher().getTopReaderContext().leaves(),
+                maxSlices,
+                LeafSlices.MIN_DOCS_PER_SLICE
             );
+            ArrayList<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+            for (List<LeafReaderContext> slice : slices) {
+                // The aggregators, the queries and the QueryShardContext hold state, each slice needs its own instances
+                var sliceAggregators = iterators.isEmpty()
+                    ? aggregators
+                    : createAggregators(
+                        functions, aggregateProjection.aggregations(), fieldTypeLookup, phase.toCollect(), searchPath);
+                QueryShardContext queryShardContext = shardContext.indexService().newQueryShardContext();
+                Function<Symbol, Query> toQuery = symbol -> luceneQueryBuilder.convert(
+                    symbol,
+                    collectTask.txnCtx(),
+                    indexShard.mapperService(),
+                    indexShard.shardId().getIndexName(),
+                    queryShardContext,
+                    table,
+                    shardContext.indexService().cache()
+                ).query();
+                Query query = toQuery.apply(phase.where());
 
-            AtomicReference<Throwable> killed = new AtomicReference<>();
-            return CollectingBatchIterator.newInstance(
-                () -> killed.set(BatchIterator.CLOSED),
-                killed::set,
-                () -> {
-                    try {
-                        return CompletableFuture.completedFuture(getRow(
-                            killed,
-                            searcher,
-                            queryContext.query(),
-                            aggregators
-                        ));
-                    } catch (Throwable t) {
-                        return CompletableFuture.failedFuture(t);
-                    }
-                },
-                true
-            );
+                AtomicReference<Throwable> killed = new AtomicReference<>();
+                iterators.add(CollectingBatchIterator.newInstance(
+                    () -> killed.set(BatchIterator.CLOSED),
+                    killed::set,
+                    () -> {
+                        try {
+                            return CompletableFuture.completedFuture(getRow(
+                                killed,
+                                searcher,
+                                slice,
+                                query,
+                                toQuery,
+                                sliceAggregators,
+                                collectTask
+                            ));
+                        } catch (Throwable t) {
+                            return CompletableFuture.failedFuture(t);
+                        }
+                    },
+                    true
+                ));
+            }
+            return iterators;
         } catch (Throwable t) {
             searcher.close();
             throw t;
@@ -155,26 +181,45 @@ public class DocValuesAggregates {
     }
 
     @Nullable
-    @SuppressWarnings("rawtypes")
-    private static List<DocValueAggregator> createAggregators(Functions functions,
-                                                              AggregationProjection aggregateProjection,
-                                                              FieldTypeLookup fieldTypeLookup,
-                                                              List<Symbol> toCollect,
-                                                              SearchPath searchPath) {
-        List<Aggregation> aggregations = aggregateProjection.aggregations();
-        ArrayList<DocValueAggregator> aggregator = new ArrayList<>(aggregations.size());
-        Function<Symbol, MappedFieldType> resolveFieldType =
-            symbol -> resolveInputToFieldType(fieldTypeLookup, toCollect, symbol);
+    private static Literal<?> resolveInputToLiteral(List<Symbol> toCollect, Symbol input) {
+        if (input instanceof InputColumn) {
+            input = toCollect.get(((InputColumn) input).index());
+        }
+        return input instanceof Literal ? (Literal<?>) input : null;
+    }
 
+    /**
+     * Create the {@link DocValueAggregator}s for the aggregations.
+     * <p>
+     * Aggregations with a filter are wrapped into a {@link FilteredDocValueAggregator};
+     * {@link #createFilterWeights(List, IndexSearcher, Function)} must be used before aggregating.
+     *
+     * @return the aggregators or null if any of the aggregations cannot operate on doc values.
+     */
+    @Nullable
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static List<DocValueAggregator> createAggregators(Functions functions,
+                                                      List<Aggregation> aggregations,
+                                                      FieldTypeLookup fieldTypeLookup,
+                                                      List<Symbol> toCollect,
+                                                      SearchPath searchPath) {
+        ArrayList<DocValueAggregator> aggregator = new ArrayList<>(aggregations.size());
         for (int i = 0; i < aggregations.size(); i++) {
             Aggregation aggregation = aggregations.get(i);
-            if (!aggregation.filter().equals(Literal.BOOLEAN_TRUE)) {
-                return null;
-            }
-            List<MappedFieldType> fieldTypes = Lists2.map(aggregation.inputs(), resolveFieldType);
-            if (fieldTypes.stream().anyMatch(Objects::isNull)) {
-                // We can extend this to instead return an adapter to the normal aggregation implementation
-                return null;
+            List<MappedFieldType> fieldTypes = new ArrayList<>(aggregation.inputs().size());
+            List<Literal<?>> literalArguments = new ArrayList<>();
+            for (Symbol input : aggregation.inputs()) {
+                Literal<?> literal = resolveInputToLiteral(toCollect, input);
+                if (literal != null) {
+                    literalArguments.add(literal);
+                    continue;
+                }
+                MappedFieldType fieldType = resolveInputToFieldType(fieldTypeLookup, toCollect, input);
+                if (fieldType == null || !literalArguments.isEmpty()) {
+                    // We can extend this to instead return an adapter to the normal aggregation implementation
+                    return null;
+                }
+                fieldTypes.add(fieldType);
             }
 
             FunctionImplementation func = functions.getQualified(aggregation, searchPath);
@@ -184,29 +229,57 @@ public class DocValuesAggregates {
             }
             DocValueAggregator<?> docValueAggregator = ((AggregationFunction<?, ?>) func).getDocValueAggregator(
                 Symbols.typeView(aggregation.inputs()),
-                fieldTypes
+                fieldTypes,
+                literalArguments
             );
             if (docValueAggregator == null) {
                 return null;
-            } else {
+            }
+            Symbol filter = aggregation.filter();
+            if (filter.equals(Literal.BOOLEAN_TRUE)) {
                 aggregator.add(docValueAggregator);
+            } else {
+                aggregator.add(new FilteredDocValueAggregator(
+                    docValueAggregator,
+                    filter.accept(ResolveInputColumns.INSTANCE, toCollect)
+                ));
             }
         }
         return aggregator;
     }
 
+    /**
+     * Converts the filters of {@link FilteredDocValueAggregator}s into Lucene queries using {@code toQuery}.
+     */
+    @SuppressWarnings("rawtypes")
+    static void createFilterWeights(List<DocValueAggregator> aggregators,
+                                    IndexSearcher searcher,
+                                    Function<Symbol, Query> toQuery) throws IOException {
+        for (DocValueAggregator aggregator : aggregators) {
+            if (aggregator instanceof FilteredDocValueAggregator) {
+                ((FilteredDocValueAggregator<?>) aggregator).createWeight(searcher, toQuery);
+            }
+        }
+    }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static Iterable<Row> getRow(AtomicReference<Throwable> killed,
                                         Searcher searcher,
+                                        List<LeafReaderContext> leaves,
                                         Query query,
-                                        List<DocValueAggregator> aggregators) throws IOException {
+                                        Function<Symbol, Query> toQuery,
+                                        List<DocValueAggregator> aggregators,
+                                        CollectTask collectTask) throws IOException {
         IndexSearcher indexSearcher = searcher.searcher();
         Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
-        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        createFilterWeights(aggregators, indexSearcher, toQuery);
         Object[] cells = new Object[aggregators.size()];
         for (int i = 0; i < aggregators.size(); i++) {
-            cells[i] = aggregators.get(i).initialState();
+            cells[i] = aggregators.get(i).initialState(
+                collectTask.getRamAccounting(),
+                collectTask.memoryManager(),
+                collectTask.minNodeVersion()
+            );
         }
         for (var leaf : leaves) {
             Scorer scorer = weight.scorer(leaf);
@@ -214,7 +287,7 @@ public class DocValuesAggregates {
                 continue;
             }
             for (int i = 0; i < aggregators.size(); i++) {
-                aggregators.get(i).loadDocValues(leaf.reader());
+                aggregators.get(i).loadDocValues(leaf);
             }
             DocIdSetIterator docs = scorer.iterator();
             Bits liveDocs = leaf.reader().getLiveDocs();
@@ -238,6 +311,19 @@ public class DocValuesAggregates {
     }
 
 
+    /**
+     * Replaces the {@link InputColumn}s of a symbol with the symbols they point to.
+     */
+    private static final class ResolveInputColumns extends FunctionCopyVisitor<List<Symbol>> {
+
+        private static final ResolveInputColumns INSTANCE = new ResolveInputColumns();
+
+        @Override
+        public Symbol visitInputColumn(InputColumn inputColumn, List<Symbol> toCollect) {
+            return toCollect.get(inputColumn.index());
+        }
+    }
+
     @Nullable
     private static AggregationProjection aggregateProjection(Collection<? extends Projection> shardProjections) {
         if (shardProjections.size() != 1) {
@@ -0,0 +1,894 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import static io.crate.execution.dsl.projection.Projections.shardProjections;
+import static io.crate.execution.engine.collect.LuceneShardCollectorProvider.formatSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.Version;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.exceptions.Exceptions;
+import io.crate.exceptions.GroupByOnArrayUnsupportedException;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.collect.collectors.LeafSlices;
+import io.crate.execution.jobs.SharedShardContext;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.lucene.FieldTypeLookup;
+import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.memory.MemoryManager;
+import io.crate.metadata.DocReferences;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.TransactionContext;
+import io.crate.metadata.doc.DocSysColumns;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import io.netty.util.collection.LongObjectHashMap;
+
+/**
+ * Shard level GROUP BY on numeric, string and composite keys which reads the keys and the aggregation
+ * inputs directly from the doc values, without evaluating {@link CollectExpression}s or creating rows per document.
+ * <p>
+ * Requirements:
+ * <ul>
+ *     <li>Every key is a column with doc values of a numeric or string type, or a deterministic scalar
+ *     (like {@code date_trunc('hour', ts)}) with a single numeric column argument and otherwise literals,
+ *     returning an integral type.</li>
+ *     <li>Every aggregation supports {@link DocValueAggregator}s.</li>
+ * </ul>
+ * <p>
+ * Each key is converted to a segment local {@code long} (the value, or the ordinal for strings).
+ * A primitive keyed map per segment resolves these to the aggregation states, the lookup of the global key
+ * (and the conversion of ordinals to strings) only happens once per segment and group.
+ */
+final class DocValuesGroupByOptimizedIterator {
+
+    private static final long HASH_MAP_ENTRY_OVERHEAD = 36;
+
+    /**
+     * {@link LongObjectHashMap} stores keys and values in arrays which are kept at most half full.
+     */
+    private static final long LONG_OBJECT_HASH_MAP_ENTRY_OVERHEAD =
+        2 * (Long.BYTES + RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+
+    /**
+     * @param maxSlices the segments of the shard are split onto up to {@code maxSlices} iterators,
+     *                  each emitting the groups and partial aggregation states of its segments.
+     * @return the iterators or null if the GROUP BY cannot operate on doc values.
+     */
+    @Nullable
+    static List<BatchIterator<Row>> tryOptimize(Functions functions,
+                                                IndexShard indexShard,
+                                                DocTableInfo table,
+                                                LuceneQueryBuilder luceneQueryBuilder,
+                                                FieldTypeLookup fieldTypeLookup,
+                                                RoutedCollectPhase collectPhase,
+                                                CollectTask collectTask,
+                                                int maxSlices) {
+        GroupProjection groupProjection = getPartialGroupProjection(shardProjections(collectPhase.projections()));
+        if (groupProjection == null) {
+            return null;
+        }
+        if (Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE)
+            || Symbols.containsColumn(collectPhase.where(), DocSysColumns.SCORE)) {
+            return null;
+        }
+        TransactionContext txnCtx = collectTask.txnCtx();
+        SearchPath searchPath = txnCtx.sessionSettings().searchPath();
+        List<KeyColumn> keyColumns = createKeyColumns(
+            functions, fieldTypeLookup, txnCtx, searchPath, collectPhase.toCollect(), groupProjection.keys());
+        if (keyColumns == null) {
+            return null;
+        }
+        @SuppressWarnings("rawtypes")
+        List<DocValueAggregator> aggregators = DocValuesAggregates.createAggregators(
+            functions,
+            groupProjection.values(),
+            fieldTypeLookup,
+            collectPhase.toCollect(),
+            searchPath
+        );
+        if (aggregators == null) {
+            return null;
+        }
+
+        ShardId shardId = indexShard.shardId();
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
+        Engine.Searcher searcher = sharedShardContext.acquireSearcher(formatSource(collectPhase));
+        try {
+            collectTask.addSearcher(sharedShardContext.readerId(), searcher);
+            List<List<LeafReaderContext>> slices = LeafSlices.slice(
+                searcher.searcher().getTopReaderContext().leaves(),
+                maxSlices,
+                LeafSlices.MIN_DOCS_PER_SLICE
+            );
+            List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+            for (List<LeafReaderContext> slice : slices) {
+                // The key columns, aggregators, queries and the QueryShardContext hold state,
+                // each slice needs its own instances
+                if (iterators.isEmpty() == false) {
+                    keyColumns = createKeyColumns(
+                        functions, fieldTypeLookup, txnCtx, searchPath, collectPhase.toCollect(), groupProjection.keys());
+                    aggregators = DocValuesAggregates.createAggregators(
+                        functions, groupProjection.values(), fieldTypeLookup, collectPhase.toCollect(), searchPath);
+                }
+                QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
+                java.util.function.Function<Symbol, Query> toQuery = symbol -> luceneQueryBuilder.convert(
+                    symbol,
+                    txnCtx,
+                    indexShard.mapperService(),
+                    shardId.getIndexName(),
+                    queryShardContext,
+                    table,
+                    sharedShardContext.indexService().cache()
+                ).query();
+                iterators.add(getIterator(
+                    searcher.searcher(),
+                    slice,
+                    toQuery.apply(collectPhase.where()),
+                    toQuery,
+                    keyColumns,
+                    aggregators,
+                    collectTask.getRamAccounting(),
+                    collectTask.memoryManager(),
+                    collectTask.minNodeVersion()
+                ));
+            }
+            return iterators;
+        } catch (Throwable t) {
+            searcher.close();
+            throw t;
+        }
+    }
+
+    @Nullable
+    private static List<KeyColumn> createKeyColumns(Functions functions,
+                                                    FieldTypeLookup fieldTypeLookup,
+                                                    TransactionContext txnCtx,
+                                                    SearchPath searchPath,
+                                                    List<Symbol> toCollect,
+                                                    List<Symbol> keys) {
+        List<KeyColumn> keyColumns = new ArrayList<>(keys.size());
+        for (Symbol key : keys) {
+            KeyColumn keyColumn = createKeyColumn(functions, fieldTypeLookup, txnCtx, searchPath, toCollect, key);
+            if (keyColumn == null) {
+                return null;
+            }
+            keyColumns.add(keyColumn);
+        }
+        return keyColumns;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static BatchIterator<Row> getIterator(IndexSearcher indexSearcher,
+                                          List<LeafReaderContext> leaves,
+                                          Query query,
+                                          java.util.function.Function<Symbol, Query> filterToQuery,
+                                          List<KeyColumn> keyColumns,
+                                          List<DocValueAggregator> aggregators,
+                                          RamAccounting ramAccounting,
+                                          MemoryManager memoryManager,
+                                          Version minNodeVersion) {
+        AtomicReference<Throwable> killed = new AtomicReference<>();
+        return CollectingBatchIterator.newInstance(
+            () -> killed.set(BatchIterator.CLOSED),
+            killed::set,
+            () -> {
+                try {
+                    DocValuesAggregates.createFilterWeights(aggregators, indexSearcher, filterToQuery);
+                    StateFactory stateFactory = new StateFactory(
+                        aggregators, ramAccounting, memoryManager, minNodeVersion);
+                    Map<Object, Object[]> statesByKey = keyColumns.size() == 1
+                        ? applyAggregatesGroupedBySingleKey(
+                            indexSearcher, leaves, query, keyColumns.get(0), aggregators, stateFactory,
+                            ramAccounting, killed)
+                        : applyAggregatesGroupedByKeys(
+                            indexSearcher, leaves, query, keyColumns, aggregators, stateFactory,
+                            ramAccounting, killed);
+                    return CompletableFuture.completedFuture(getRows(statesByKey, keyColumns.size(), aggregators));
+                } catch (Throwable t) {
+                    return CompletableFuture.failedFuture(t);
+                }
+            },
+            true
+        );
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Iterable<Row> getRows(Map<Object, Object[]> statesByKey,
+                                         int numKeys,
+                                         List<DocValueAggregator> aggregators) {
+        return () -> statesByKey.entrySet().stream()
+            .map(new java.util.function.Function<Map.Entry<Object, Object[]>, Row>() {
+
+                final Object[] cells = new Object[numKeys + aggregators.size()];
+                final RowN row = new RowN(cells);
+
+                @Override
+                public Row apply(Map.Entry<Object, Object[]> entry) {
+                    if (numKeys == 1) {
+                        cells[0] = entry.getKey();
+                    } else {
+                        List<?> keys = (List<?>) entry.getKey();
+                        for (int i = 0; i < numKeys; i++) {
+                            cells[i] = keys.get(i);
+                        }
+                    }
+                    Object[] states = entry.getValue();
+                    for (int i = 0, c = numKeys; i < states.length; i++, c++) {
+                        cells[c] = aggregators.get(i).partialResult(states[i]);
+                    }
+                    return row;
+                }
+            })
+            .iterator();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Map<Object, Object[]> applyAggregatesGroupedBySingleKey(IndexSearcher indexSearcher,
+                                                                           List<LeafReaderContext> leaves,
+                                                                           Query query,
+                                                                           KeyColumn keyColumn,
+                                                                           List<DocValueAggregator> aggregators,
+                                                                           StateFactory stateFactory,
+                                                                           RamAccounting ramAccounting,
+                                                                           AtomicReference<Throwable> killed) throws IOException {
+        HashMap<Object, Object[]> statesByKey = new HashMap<>();
+        Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        for (LeafReaderContext leaf : leaves) {
+            raiseIfClosedOrKilled(killed);
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer == null) {
+                continue;
+            }
+            LeafReader reader = leaf.reader();
+            keyColumn.loadDocValues(reader);
+            loadDocValues(aggregators, leaf);
+
+            LongObjectHashMap<Object[]> statesByLocalKey = new LongObjectHashMap<>();
+            long localKeysBytes = 0L;
+            Object[] nullStates = null;
+            DocIdSetIterator docs = scorer.iterator();
+            Bits liveDocs = reader.getLiveDocs();
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                raiseIfClosedOrKilled(killed);
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                Object[] states;
+                if (keyColumn.advanceExact(doc)) {
+                    long localKey = keyColumn.localKey();
+                    states = statesByLocalKey.get(localKey);
+                    if (states == null) {
+                        Object key = keyColumn.toKey(localKey);
+                        states = stateFactory.getOrCreateStates(
+                            statesByKey, key, keyColumn.sizeEstimator().estimateSize(key));
+                        statesByLocalKey.put(localKey, states);
+                        ramAccounting.addBytes(LONG_OBJECT_HASH_MAP_ENTRY_OVERHEAD);
+                        localKeysBytes += LONG_OBJECT_HASH_MAP_ENTRY_OVERHEAD;
+                    }
+                } else {
+                    if (nullStates == null) {
+                        nullStates = stateFactory.getOrCreateStates(statesByKey, null, 0L);
+                    }
+                    states = nullStates;
+                }
+                apply(aggregators, states, doc);
+            }
+            // The segment local map is discarded once the segment is processed
+            ramAccounting.addBytes(-localKeysBytes);
+        }
+        return statesByKey;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Map<Object, Object[]> applyAggregatesGroupedByKeys(IndexSearcher indexSearcher,
+                                                                      List<LeafReaderContext> leaves,
+                                                                      Query query,
+                                                                      List<KeyColumn> keyColumns,
+                                                                      List<DocValueAggregator> aggregators,
+                                                                      StateFactory stateFactory,
+                                                                      RamAccounting ramAccounting,
+                                                                      AtomicReference<Throwable> killed) throws IOException {
+        HashMap<Object, Object[]> statesByKey = new HashMap<>();
+        int numKeys = keyColumns.size();
+        long localKeyEntrySize = RamUsageEstimator.alignObjectSize(
+            HASH_MAP_ENTRY_OVERHEAD
+            + RamUsageEstimator.shallowSizeOfInstance(LocalKey.class)
+            + RamUsageEstimator.sizeOf(new long[numKeys])
+            + RamUsageEstimator.sizeOf(new boolean[numKeys]));
+        Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        for (LeafReaderContext leaf : leaves) {
+            raiseIfClosedOrKilled(killed);
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer == null) {
+                continue;
+            }
+            LeafReader reader = leaf.reader();
+            for (int i = 0; i < numKeys; i++) {
+                keyColumns.get(i).loadDocValues(reader);
+            }
+            loadDocValues(aggregators, leaf);
+
+            HashMap<LocalKey, Object[]> statesByLocalKey = new HashMap<>();
+            long localKeysBytes = 0L;
+            LocalKey probe = new LocalKey(numKeys);
+            DocIdSetIterator docs = scorer.iterator();
+            Bits liveDocs = reader.getLiveDocs();
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                raiseIfClosedOrKilled(killed);
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                for (int i = 0; i < numKeys; i++) {
+                    KeyColumn keyColumn = keyColumns.get(i);
+                    if (keyColumn.advanceExact(doc)) {
+                        probe.set(i, keyColumn.localKey());
+                    } else {
+                        probe.setNull(i);
+                    }
+                }
+                Object[] states = statesByLocalKey.get(probe);
+                if (states == null) {
+                    Object[] keys = new Object[numKeys];
+                    long keysSize = RamUsageEstimator.shallowSizeOf(keys);
+                    for (int i = 0; i < numKeys; i++) {
+                        if (!probe.isNull(i)) {
+                            KeyColumn keyColumn = keyColumns.get(i);
+                            keys[i] = keyColumn.toKey(probe.values[i]);
+                            keysSize += keyColumn.sizeEstimator().estimateSize(keys[i]);
+                        }
+                    }
+                    states = stateFactory.getOrCreateStates(statesByKey, Arrays.asList(keys), keysSize);
+                    statesByLocalKey.put(probe.copy(), states);
+                    ramAccounting.addBytes(localKeyEntrySize);
+                    localKeysBytes += localKeyEntrySize;
+                }
+                apply(aggregators, states, doc);
+            }
+            // The segment local map is discarded once the segment is processed
+            ramAccounting.addBytes(-localKeysBytes);
+        }
+        return statesByKey;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final class StateFactory {
+
+        private final List<DocValueAggregator> aggregators;
+        private final RamAccounting ramAccounting;
+        private final MemoryManager memoryManager;
+        private final Version minNodeVersion;
+
+        StateFactory(List<DocValueAggregator> aggregators,
+                     RamAccounting ramAccounting,
+                     MemoryManager memoryManager,
+                     Version minNodeVersion) {
+            this.aggregators = aggregators;
+            this.ramAccounting = ramAccounting;
+            this.memoryManager = memoryManager;
+            this.minNodeVersion = minNodeVersion;
+        }
+
+        Object[] getOrCreateStates(Map<Object, Object[]> statesByKey, @Nullable Object key, long keySize) {
+            Object[] states = statesByKey.get(key);
+            if (states == null) {
+                states = new Object[aggregators.size()];
+                for (int i = 0; i < aggregators.size(); i++) {
+                    states[i] = aggregators.get(i).initialState(ramAccounting, memoryManager, minNodeVersion);
+                }
+                ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(
+                    keySize + HASH_MAP_ENTRY_OVERHEAD + RamUsageEstimator.shallowSizeOf(states)));
+                statesByKey.put(key, states);
+            }
+            return states;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void loadDocValues(List<DocValueAggregator> aggregators, LeafReaderContext leaf) throws IOException {
+        for (int i = 0; i < aggregators.size(); i++) {
+            aggregators.get(i).loadDocValues(leaf);
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void apply(List<DocValueAggregator> aggregators, Object[] states, int doc) throws IOException {
+        for (int i = 0; i < aggregators.size(); i++) {
+            aggregators.get(i).apply(states[i], doc);
+        }
+    }
+
+    @Nullable
+    private static GroupProjection getPartialGroupProjection(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.size() != 1) {
+            return null;
+        }
+        Projection shardProjection = shardProjections.iterator().next();
+        if (!(shardProjection instanceof GroupProjection)) {
+            return null;
+        }
+        GroupProjection groupProjection = (GroupProjection) shardProjection;
+        // DocValueAggregators only produce partial results
+        if (groupProjection.mode() != AggregateMode.ITER_PARTIAL) {
+            return null;
+        }
+        return groupProjection;
+    }
+
+    @Nullable
+    private static KeyColumn createKeyColumn(Functions functions,
+                                             FieldTypeLookup fieldTypeLookup,
+                                             TransactionContext txnCtx,
+                                             SearchPath searchPath,
+                                             List<Symbol> toCollect,
+                                             Symbol key) {
+        if (!(key instanceof InputColumn)) {
+            return null;
+        }
+        Symbol keySymbol = toCollect.get(((InputColumn) key).index());
+        if (keySymbol instanceof Reference) {
+            return createColumnKey(fieldTypeLookup, (Reference) keySymbol);
+        }
+        if (keySymbol instanceof Function) {
+            return createScalarKey(functions, fieldTypeLookup, txnCtx, searchPath, (Function) keySymbol);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static KeyColumn createColumnKey(FieldTypeLookup fieldTypeLookup, Reference ref) {
+        ref = (Reference) DocReferences.inverseSourceLookup(ref);
+        MappedFieldType fieldType = fieldTypeLookup.get(ref.column().fqn());
+        if (fieldType == null || !fieldType.hasDocValues()) {
+            return null;
+        }
+        DataType<?> type = ref.valueType();
+        if (type.id() == StringType.ID) {
+            return new StringKeyColumn(fieldType.name());
+        }
+        if (NumericKeyColumn.supports(type)) {
+            return new NumericKeyColumn(fieldType.name(), type);
+        }
+        return null;
+    }
+
+    @Nullable
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static KeyColumn createScalarKey(Functions functions,
+                                             FieldTypeLookup fieldTypeLookup,
+                                             TransactionContext txnCtx,
+                                             SearchPath searchPath,
+                                             Function function) {
+        if (!NumericKeyColumn.supports(function.valueType())) {
+            return null;
+        }
+        List<Symbol> arguments = function.arguments();
+        Input[] inputs = new Input[arguments.size()];
+        NumericKeyColumn source = null;
+        int sourceIdx = -1;
+        for (int i = 0; i < arguments.size(); i++) {
+            Symbol argument = arguments.get(i);
+            if (argument instanceof Literal) {
+                inputs[i] = (Literal<?>) argument;
+            } else if (argument instanceof Reference && source == null) {
+                KeyColumn columnKey = createColumnKey(fieldTypeLookup, (Reference) argument);
+                if (!(columnKey instanceof NumericKeyColumn)) {
+                    return null;
+                }
+                source = (NumericKeyColumn) columnKey;
+                sourceIdx = i;
+            } else {
+                return null;
+            }
+        }
+        if (source == null) {
+            return null;
+        }
+        FunctionImplementation implementation = functions.getQualified(function, searchPath);
+        if (!(implementation instanceof Scalar) || !implementation.info().isDeterministic()) {
+            return null;
+        }
+        Scalar scalar = ((Scalar) implementation).compile(arguments);
+        return new ScalarKeyColumn(source, sourceIdx, scalar, inputs, txnCtx, function.valueType());
+    }
+
+    private static void raiseIfClosedOrKilled(AtomicReference<Throwable> killed) {
+        Throwable killedException = killed.get();
+        if (killedException != null) {
+            Exceptions.rethrowUnchecked(killedException);
+        }
+    }
+
+    /**
+     * A GROUP BY key which can be represented as segment local {@code long}
+     */
+    abstract static class KeyColumn {
+
+        abstract void loadDocValues(LeafReader reader) throws IOException;
+
+        /**
+         * @return false if the document has no value for the key
+         */
+        abstract boolean advanceExact(int doc) throws IOException;
+
+        /**
+         * The segment local representation of the key of the current document.
+         * Only valid if {@link #advanceExact(int)} returned true.
+         */
+        abstract long localKey() throws IOException;
+
+        /**
+         * Converts a segment local key into the key value
+         */
+        abstract Object toKey(long localKey) throws IOException;
+
+        abstract SizeEstimator<Object> sizeEstimator();
+    }
+
+    static final class NumericKeyColumn extends KeyColumn {
+
+        private final String columnName;
+        private final DataType<?> type;
+        private final SizeEstimator<Object> sizeEstimator;
+        private SortedNumericDocValues values;
+
+        NumericKeyColumn(String columnName, DataType<?> type) {
+            assert supports(type) : "NumericKeyColumn doesn't support type " + type;
+            this.columnName = columnName;
+            this.type = type;
+            this.sizeEstimator = SizeEstimatorFactory.create(type);
+        }
+
+        static boolean supports(DataType<?> type) {
+            switch (type.id()) {
+                case ByteType.ID:
+                case ShortType.ID:
+                case IntegerType.ID:
+                case LongType.ID:
+                case TimestampType.ID_WITH_TZ:
+                case TimestampType.ID_WITHOUT_TZ:
+                case FloatType.ID:
+                case DoubleType.ID:
+                    return true;
+
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedNumeric(reader, columnName);
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                if (values.docValueCount() > 1) {
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        long localKey() throws IOException {
+            return values.nextValue();
+        }
+
+        @Override
+        Object toKey(long localKey) {
+            return fromLong(type, localKey);
+        }
+
+        @Override
+        SizeEstimator<Object> sizeEstimator() {
+            return sizeEstimator;
+        }
+
+        /**
+         * Converts the doc values representation of a numeric value to the value
+         */
+        static Object fromLong(DataType<?> type, long value) {
+            switch (type.id()) {
+                case ByteType.ID:
+                    return (byte) value;
+                case ShortType.ID:
+                    return (short) value;
+                case IntegerType.ID:
+                    return (int) value;
+                case FloatType.ID:
+                    return NumericUtils.sortableIntToFloat((int) value);
+                case DoubleType.ID:
+                    return NumericUtils.sortableLongToDouble(value);
+                default:
+                    return value;
+            }
+        }
+
+        /**
+         * Inverse of {@link #fromLong(DataType, long)}
+         */
+        static long toLong(DataType<?> type, Object value) {
+            switch (type.id()) {
+                case FloatType.ID:
+                    return NumericUtils.floatToSortableInt(((Number) value).floatValue());
+                case DoubleType.ID:
+                    return NumericUtils.doubleToSortableLong(((Number) value).doubleValue());
+                default:
+                    return ((Number) value).longValue();
+            }
+        }
+    }
+
+    static final class StringKeyColumn extends KeyColumn {
+
+        private final String columnName;
+        private final SizeEstimator<Object> sizeEstimator = SizeEstimatorFactory.create(DataTypes.STRING);
+        private SortedSetDocValues values;
+
+        StringKeyColumn(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedSet(reader, columnName);
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            return values.advanceExact(doc);
+        }
+
+        @Override
+        long localKey() throws IOException {
+            long ord = values.nextOrd();
+            if (values.nextOrd() != SortedSetDocValues.NO_MORE_ORDS) {
+                throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+            return ord;
+        }
+
+        @Override
+        Object toKey(long localKey) throws IOException {
+            return values.lookupOrd(localKey).utf8ToString();
+        }
+
+        @Override
+        SizeEstimator<Object> sizeEstimator() {
+            return sizeEstimator;
+        }
+    }
+
+    /**
+     * A scalar applied to a numeric column.
+     * The scalar is only evaluated if the value differs from the value of the previous document,
+     * which is cheap for (mostly) sorted data like timestamps of time series.
+     */
+    static final class ScalarKeyColumn extends KeyColumn {
+
+        private final NumericKeyColumn source;
+        private final Scalar<?, ?> scalar;
+        private final Input<?>[] inputs;
+        private final TransactionContext txnCtx;
+        private final DataType<?> returnType;
+        private final SizeEstimator<Object> sizeEstimator;
+        private final MutableInput sourceInput = new MutableInput();
+
+        private boolean hasPrevious = false;
+        private long previousSourceValue;
+        @Nullable
+        private Object previousResult;
+
+        ScalarKeyColumn(NumericKeyColumn source,
+                        int sourceIdx,
+                        Scalar<?, ?> scalar,
+                        Input<?>[] inputs,
+                        TransactionContext txnCtx,
+                        DataType<?> returnType) {
+            this.source = source;
+            this.scalar = scalar;
+            this.inputs = inputs;
+            this.inputs[sourceIdx] = sourceInput;
+            this.txnCtx = txnCtx;
+            this.returnType = returnType;
+            this.sizeEstimator = SizeEstimatorFactory.create(returnType);
+        }
+
+        @Override
+        void loadDocValues(LeafReader reader) throws IOException {
+            source.loadDocValues(reader);
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            if (!source.advanceExact(doc)) {
+                // Scalars are evaluated with a null argument as it's not guaranteed that they return null
+                return evaluate(null) != null;
+            }
+            long value = source.localKey();
+            if (!hasPrevious || value != previousSourceValue) {
+                hasPrevious = true;
+                previousSourceValue = value;
+                previousResult = evaluate(source.toKey(value));
+            }
+            return previousResult != null;
+        }
+
+        @Nullable
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private Object evaluate(@Nullable Object sourceValue) {
+            sourceInput.value = sourceValue;
+            Object result = ((Scalar) scalar).evaluate(txnCtx, (Input[]) inputs);
+            if (sourceValue == null) {
+                // the result for null isn't cached, the cache is keyed by the source value
+                hasPrevious = false;
+                previousResult = result;
+            }
+            return result;
+        }
+
+        @Override
+        long localKey() {
+            assert previousResult != null : "localKey must only be called if advanceExact returned true";
+            return NumericKeyColumn.toLong(returnType, previousResult);
+        }
+
+        @Override
+        Object toKey(long localKey) {
+            return NumericKeyColumn.fromLong(returnType, localKey);
+        }
+
+        @Override
+        SizeEstimator<Object> sizeEstimator() {
+            return sizeEstimator;
+        }
+    }
+
+    private static final class MutableInput implements Input<Object> {
+
+        private Object value;
+
+        @Override
+        public Object value() {
+            return value;
+        }
+    }
+
+    /**
+     * Composite of segment local keys
+     */
+    static final class LocalKey {
+
+        private final long[] values;
+        private final boolean[] nulls;
+
+        LocalKey(int numKeys) {
+            this.values = new long[numKeys];
+            this.nulls = new boolean[numKeys];
+        }
+
+        private LocalKey(long[] values, boolean[] nulls) {
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        void set(int idx, long value) {
+            values[idx] = value;
+            nulls[idx] = false;
+        }
+
+        void setNull(int idx) {
+            values[idx] = 0L;
+            nulls[idx] = true;
+        }
+
+        boolean isNull(int idx) {
+            return nulls[idx];
+        }
+
+        LocalKey copy() {
+            return new LocalKey(values.clone(), nulls.clone());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            LocalKey that = (LocalKey) o;
+            return Arrays.equals(values, that.values) && Arrays.equals(nulls, that.nulls);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(values) + Arrays.hashCode(nulls);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.expression.symbol.Symbol;
+import io.crate.memory.MemoryManager;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.Version;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Applies the {@code FILTER (WHERE ...)} clause of an aggregation.
+ * <p>
+ * The filter is converted into a Lucene query and only documents matching the query are passed on to the delegate.
+ * As documents are visited in order within a segment, the matching documents are found by advancing an iterator
+ * of the filter query alongside.
+ * <p>
+ * {@link #createWeight(IndexSearcher, Function)} must be called before the aggregator is used.
+ */
+final class FilteredDocValueAggregator<T> implements DocValueAggregator<T> {
+
+    private final DocValueAggregator<T> delegate;
+    private final Symbol filter;
+
+    private Weight weight;
+    @Nullable
+    private DocIdSetIterator matchingDocs;
+
+    /**
+     * @param filter the filter of the aggregation, must be bound to the references of the collected table
+     */
+    FilteredDocValueAggregator(DocValueAggregator<T> delegate, Symbol filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    void createWeight(IndexSearcher searcher, Function<Symbol, Query> toQuery) throws IOException {
+        Query query = toQuery.apply(filter);
+        weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+    }
+
+    @Override
+    public T initialState(RamAccounting ramAccounting, MemoryManager memoryManager, Version minNodeVersion) {
+        return delegate.initialState(ramAccounting, memoryManager, minNodeVersion);
+    }
+
+    @Override
+    public void loadDocValues(LeafReader reader) {
+        throw new UnsupportedOperationException(
+            "FilteredDocValueAggregator requires the LeafReaderContext to evaluate the filter");
+    }
+
+    @Override
+    public void loadDocValues(LeafReaderContext context) throws IOException {
+        assert weight != null : "createWeight must be called before loading the doc values";
+        delegate.loadDocValues(context);
+        Scorer scorer = weight.scorer(context);
+        matchingDocs = scorer == null ? null : scorer.iterator();
+    }
+
+    @Override
+    public void apply(T state, int doc) throws IOException {
+        if (matchingDocs == null) {
+            return;
+        }
+        int matchingDoc = matchingDocs.docID();
+        if (matchingDoc < doc) {
+            matchingDoc = matchingDocs.advance(doc);
+        }
+        if (matchingDoc == doc) {
+            delegate.apply(state, doc);
+        }
+    }
+
+    @Override
+    public Object partialResult(T state) {
+        return delegate.partialResult(state);
+    }
+}
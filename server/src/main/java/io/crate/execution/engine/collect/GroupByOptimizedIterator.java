@@ -26,6 +26,7 @@ import static io.crate.execution.dsl.projection.Projections.shardProjections;
 import static io.crate.execution.engine.collect.LuceneShardCollectorProvider.formatSource;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -72,6 +73,7 @@ import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.engine.aggregation.AggregationContext;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.collect.collectors.LeafSlices;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.InputCondition;
 import io.crate.expression.InputFactory;
@@ -110,16 +112,21 @@ final class GroupByOptimizedIterator {
     private static final double CARDINALITY_RATIO_THRESHOLD = 0.5;
     private static final long HASH_MAP_ENTRY_OVERHEAD = 32; // see private RamUsageEstimator.shallowSizeOfInstance(HashMap.Node.class)
 
+    /**
+     * @param maxSlices the segments of the shard are split onto up to {@code maxSlices} iterators.
+     *                  Must be 1 unless the aggregation states are merged by a later projection.
+     */
     @Nullable
-    static BatchIterator<Row> tryOptimizeSingleStringKey(IndexShard indexShard,
-                                                         DocTableInfo table,
-                                                         LuceneQueryBuilder luceneQueryBuilder,
-                                                         FieldTypeLookup fieldTypeLookup,
-                                                         BigArrays bigArrays,
-                                                         InputFactory inputFactory,
-                                                         DocInputFactory docInputFactory,
-                                                         RoutedCollectPhase collectPhase,
-                                                         CollectTask collectTask) {
+    static List<BatchIterator<Row>> tryOptimizeSingleStringKey(IndexShard indexShard,
+                                                               DocTableInfo table,
+                                                               LuceneQueryBuilder luceneQueryBuilder,
+                                                               FieldTypeLookup fieldTypeLookup,
+                                                               BigArrays bigArrays,
+                                                               InputFactory inputFactory,
+                                                               DocInputFactory docInputFactory,
+                                                               RoutedCollectPhase collectPhase,
+                                                               CollectTask collectTask,
+                                                               int maxSlices) {
         Collection<? extends Projection> shardProjections = shardProjections(collectPhase.projections());
         GroupProjection groupProjection = getSingleStringKeyGroupProjection(shardProjections);
         if (groupProjection == null) {
@@ -150,49 +157,58 @@ final class GroupByOptimizedIterator {
         Engine.Searcher searcher = sharedShardContext.acquireSearcher(formatSource(collectPhase));
 
         try {
-            final QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
             collectTask.addSearcher(sharedShardContext.readerId(), searcher);
             IndexSearcher indexSearcher = searcher.searcher();
-
-            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx = docInputFactory.getCtx(collectTask.txnCtx());
-            docCtx.add(collectPhase.toCollect().stream()::iterator);
-
-            InputFactory.Context<CollectExpression<Row, ?>> ctxForAggregations = inputFactory.ctxForAggregations(collectTask.txnCtx());
-            ctxForAggregations.add(groupProjection.values());
-            final List<CollectExpression<Row, ?>> aggExpressions = ctxForAggregations.expressions();
-
-            List<AggregationContext> aggregations = ctxForAggregations.aggregations();
-            List<? extends LuceneCollectorExpression<?>> expressions = docCtx.expressions();
-
             RamAccounting ramAccounting = collectTask.getRamAccounting();
-
-            CollectorContext collectorContext = new CollectorContext(sharedShardContext.readerId());
-            InputRow inputRow = new InputRow(docCtx.topLevelInputs());
-
-            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
-                collectPhase.where(),
-                collectTask.txnCtx(),
-                indexShard.mapperService(),
-                indexShard.shardId().getIndexName(),
-                queryShardContext,
-                table,
-                sharedShardContext.indexService().cache()
+            List<List<LeafReaderContext>> slices = LeafSlices.slice(
+                indexSearcher.getTopReaderContext().leaves(),
+                maxSlices,
+                LeafSlices.MIN_DOCS_PER_SLICE
             );
-
-            return getIterator(
-                bigArrays,
-                indexSearcher,
-                keyRef.column().fqn(),
-                aggregations,
-                expressions,
-                aggExpressions,
-                ramAccounting,
-                collectTask.memoryManager(),
-                collectTask.minNodeVersion(),
-                inputRow,
-                queryContext.query(),
-                collectorContext,
-                groupProjection.mode());
+            List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+            for (List<LeafReaderContext> slice : slices) {
+                // The expressions, the query and the QueryShardContext hold state, each slice needs its own instances
+                final QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
+                InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx = docInputFactory.getCtx(collectTask.txnCtx());
+                docCtx.add(collectPhase.toCollect().stream()::iterator);
+
+                InputFactory.Context<CollectExpression<Row, ?>> ctxForAggregations = inputFactory.ctxForAggregations(collectTask.txnCtx());
+                ctxForAggregations.add(groupProjection.values());
+                final List<CollectExpression<Row, ?>> aggExpressions = ctxForAggregations.expressions();
+
+                List<AggregationContext> aggregations = ctxForAggregations.aggregations();
+                List<? extends LuceneCollectorExpression<?>> expressions = docCtx.expressions();
+
+                CollectorContext collectorContext = new CollectorContext(sharedShardContext.readerId());
+                InputRow inputRow = new InputRow(docCtx.topLevelInputs());
+
+                LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+                    collectPhase.where(),
+                    collectTask.txnCtx(),
+                    indexShard.mapperService(),
+                    indexShard.shardId().getIndexName(),
+                    queryShardContext,
+                    table,
+                    sharedShardContext.indexService().cache()
+                );
+
+                iterators.add(getIterator(
+                    bigArrays,
+                    indexSearcher,
+                    slice,
+                    keyRef.column().fqn(),
+                    aggregations,
+                    expressions,
+                    aggExpressions,
+                    ramAccounting,
+                    collectTask.memoryManager(),
+                    collectTask.minNodeVersion(),
+                    inputRow,
+                    queryContext.query(),
+                    collectorContext,
+                    groupProjection.mode()));
+            }
+            return iterators;
         } catch (Throwable t) {
             searcher.close();
             throw t;
@@ -201,6 +217,7 @@ final class GroupByOptimizedIterator {
 
     static BatchIterator<Row> getIterator(BigArrays bigArrays,
                                           IndexSearcher indexSearcher,
+                                          List<LeafReaderContext> leaves,
                                           String keyColumnName,
                                           List<AggregationContext> aggregations,
                                           List<? extends LuceneCollectorExpression<?>> expressions,
@@ -227,6 +244,7 @@ final class GroupByOptimizedIterator {
                             applyAggregatesGroupedByKey(
                                 bigArrays,
                                 indexSearcher,
+                                leaves,
                                 keyColumnName,
                                 aggregations,
                                 expressions,
@@ -278,6 +296,7 @@ final class GroupByOptimizedIterator {
 
     private static Map<BytesRef, Object[]> applyAggregatesGroupedByKey(BigArrays bigArrays,
                                                                        IndexSearcher indexSearcher,
+                                                                       List<LeafReaderContext> leaves,
                                                                        String keyColumnName,
                                                                        List<AggregationContext> aggregations,
                                                                        List<? extends LuceneCollectorExpression<?>> expressions,
@@ -290,7 +309,6 @@ final class GroupByOptimizedIterator {
                                                                        AtomicReference<Throwable> killed) throws IOException {
         final HashMap<BytesRef, Object[]> statesByKey = new HashMap<>();
         final Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
-        final List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
         Object[] nullStates = null;
 
         for (LeafReaderContext leaf: leaves) {
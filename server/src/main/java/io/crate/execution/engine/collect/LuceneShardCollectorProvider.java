@@ -25,11 +25,13 @@ import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.engine.collect.collectors.LeafSlices;
 import io.crate.execution.engine.collect.collectors.LuceneBatchIterator;
 import io.crate.execution.engine.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.sort.LuceneSortGenerator;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.InputFactory;
@@ -48,6 +50,7 @@ import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.Operation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
@@ -59,6 +62,8 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 public class LuceneShardCollectorProvider extends ShardCollectorProvider {
@@ -81,6 +86,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         Functions functions,
                                         ThreadPool threadPool,
                                         Settings settings,
+                                        SpillThresholds spillThresholds,
                                         TransportActionProvider transportActionProvider,
                                         IndexShard indexShard,
                                         BigArrays bigArrays) {
@@ -91,6 +97,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             indexShard,
             new ShardRowContext(indexShard, clusterService)
@@ -118,34 +125,53 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     protected BatchIterator<Row> getUnorderedIterator(RoutedCollectPhase collectPhase,
                                                       boolean requiresScroll,
                                                       CollectTask collectTask) {
+        return getUnorderedIterators(collectPhase, requiresScroll, collectTask, 1).get(0);
+    }
+
+    @Override
+    protected List<BatchIterator<Row>> getUnorderedIterators(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             CollectTask collectTask,
+                                                             int maxSlices) {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
         Engine.Searcher searcher = sharedShardContext.acquireSearcher(formatSource(collectPhase));
         IndexShard indexShard = sharedShardContext.indexShard();
         try {
-            QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
-            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
-                collectPhase.where(),
-                collectTask.txnCtx(),
-                indexShard.mapperService(),
-                indexShard.shardId().getIndexName(),
-                queryShardContext,
-                table,
-                sharedShardContext.indexService().cache()
+            List<List<LeafReaderContext>> slices = LeafSlices.slice(
+                searcher.searcher().getTopReaderContext().leaves(),
+                maxSlices,
+                LeafSlices.MIN_DOCS_PER_SLICE
             );
+            QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
+            boolean doScores = Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE);
+            ArrayList<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+            for (List<LeafReaderContext> slice : slices) {
+                // The query and the expressions hold per-leaf state, each slice needs its own instances
+                LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+                    collectPhase.where(),
+                    collectTask.txnCtx(),
+                    indexShard.mapperService(),
+                    indexShard.shardId().getIndexName(),
+                    queryShardContext,
+                    table,
+                    sharedShardContext.indexService().cache()
+                );
+                InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                    docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+                iterators.add(new LuceneBatchIterator(
+                    searcher.searcher(),
+                    slice,
+                    queryContext.query(),
+                    queryContext.minScore(),
+                    doScores,
+                    new CollectorContext(sharedShardContext.readerId()),
+                    docCtx.topLevelInputs(),
+                    docCtx.expressions()
+                ));
+            }
             collectTask.addSearcher(sharedShardContext.readerId(), searcher);
-            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-                docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
-
-            return new LuceneBatchIterator(
-                searcher.searcher(),
-                queryContext.query(),
-                queryContext.minScore(),
-                Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
-                new CollectorContext(sharedShardContext.readerId()),
-                docCtx.topLevelInputs(),
-                docCtx.expressions()
-            );
+            return iterators;
         } catch (Throwable t) {
             searcher.close();
             throw t;
@@ -155,7 +181,29 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     @Nullable
     @Override
     protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
-        var it = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
+        List<BatchIterator<Row>> iterators = getProjectionFusedIterators(normalizedPhase, collectTask, 1);
+        return iterators == null ? null : iterators.get(0);
+    }
+
+    @Nullable
+    @Override
+    protected List<BatchIterator<Row>> getProjectionFusedIterators(RoutedCollectPhase normalizedPhase,
+                                                                   CollectTask collectTask,
+                                                                   int maxSlices) {
+        var iterators = DocValuesGroupByOptimizedIterator.tryOptimize(
+            functions,
+            indexShard,
+            table,
+            luceneQueryBuilder,
+            fieldTypeLookup,
+            normalizedPhase,
+            collectTask,
+            maxSlices
+        );
+        if (iterators != null) {
+            return iterators;
+        }
+        iterators = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
             indexShard,
             table,
             luceneQueryBuilder,
@@ -164,10 +212,11 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             new InputFactory(functions),
             docInputFactory,
             normalizedPhase,
-            collectTask
+            collectTask,
+            maxSlices
         );
-        if (it != null) {
-            return it;
+        if (iterators != null) {
+            return iterators;
         }
         return DocValuesAggregates.tryOptimize(
             functions,
@@ -176,7 +225,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             luceneQueryBuilder,
             fieldTypeLookup,
             normalizedPhase,
-            collectTask
+            collectTask,
+            maxSlices
         );
     }
 
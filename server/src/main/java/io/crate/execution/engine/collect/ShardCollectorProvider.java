@@ -34,6 +34,7 @@ import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.engine.pipeline.Projectors;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.InputFactory;
@@ -49,6 +50,8 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class ShardCollectorProvider {
 
@@ -62,6 +65,7 @@ public abstract class ShardCollectorProvider {
                            Functions functions,
                            ThreadPool threadPool,
                            Settings settings,
+                           SpillThresholds spillThresholds,
                            TransportActionProvider transportActionProvider,
                            IndexShard indexShard,
                            ShardRowContext shardRowContext) {
@@ -78,6 +82,7 @@ public abstract class ShardCollectorProvider {
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             new InputFactory(functions),
             shardNormalizer,
@@ -95,31 +100,50 @@ public abstract class ShardCollectorProvider {
     public BatchIterator<Row> getIterator(RoutedCollectPhase collectPhase,
                                           boolean requiresScroll,
                                           CollectTask collectTask) throws Exception {
+        List<BatchIterator<Row>> iterators = getIterators(collectPhase, requiresScroll, collectTask, 1);
+        assert iterators.size() == 1 : "Must return a single iterator if maxSlices is 1";
+        return iterators.get(0);
+    }
+
+    /**
+     * Like {@link #getIterator(RoutedCollectPhase, boolean, CollectTask)}, but the documents of the shard may be
+     * split onto up to {@code maxSlices} iterators which can be consumed concurrently.
+     * The shard projections are applied to each iterator individually, so they must be able to operate on
+     * a subset of the documents of a shard.
+     */
+    public List<BatchIterator<Row>> getIterators(RoutedCollectPhase collectPhase,
+                                                 boolean requiresScroll,
+                                                 CollectTask collectTask,
+                                                 int maxSlices) throws Exception {
         assert collectPhase.orderBy() == null
             : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
         assert collectPhase.maxRowGranularity() == RowGranularity.DOC :
             "granularity must be DOC";
 
         RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, collectTask.txnCtx());
-        BatchIterator<Row> fusedIterator = getProjectionFusedIterator(normalizedCollectNode, collectTask);
-        if (fusedIterator != null) {
-            return fusedIterator;
+        List<BatchIterator<Row>> fusedIterators = getProjectionFusedIterators(normalizedCollectNode, collectTask, maxSlices);
+        if (fusedIterators != null) {
+            return fusedIterators;
         }
-        final BatchIterator<Row> iterator;
+        final List<BatchIterator<Row>> iterators;
         if (WhereClause.canMatch(normalizedCollectNode.where())) {
-            iterator = getUnorderedIterator(normalizedCollectNode, requiresScroll, collectTask);
+            iterators = getUnorderedIterators(normalizedCollectNode, requiresScroll, collectTask, maxSlices);
         } else {
-            iterator = InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
+            iterators = List.of(InMemoryBatchIterator.empty(SentinelRow.SENTINEL));
         }
-        return Projectors.wrap(
-            Projections.shardProjections(collectPhase.projections()),
-            collectPhase.jobId(),
-            collectTask.txnCtx(),
-            collectTask.getRamAccounting(),
-            collectTask.memoryManager(),
-            projectorFactory,
-            iterator
-        );
+        ArrayList<BatchIterator<Row>> result = new ArrayList<>(iterators.size());
+        for (BatchIterator<Row> iterator : iterators) {
+            result.add(Projectors.wrap(
+                Projections.shardProjections(collectPhase.projections()),
+                collectPhase.jobId(),
+                collectTask.txnCtx(),
+                collectTask.getRamAccounting(),
+                collectTask.memoryManager(),
+                projectorFactory,
+                iterator
+            ));
+        }
+        return result;
     }
 
     /**
@@ -131,10 +155,34 @@ public abstract class ShardCollectorProvider {
     protected abstract BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase,
                                                                      CollectTask collectTask);
 
+    /**
+     * Like {@link #getProjectionFusedIterator(RoutedCollectPhase, CollectTask)}, but the documents of the shard may be
+     * split onto up to {@code maxSlices} iterators, each applying the shard projections to its part of the shard.
+     * By default the shard isn't split.
+     */
+    @Nullable
+    protected List<BatchIterator<Row>> getProjectionFusedIterators(RoutedCollectPhase normalizedPhase,
+                                                                   CollectTask collectTask,
+                                                                   int maxSlices) {
+        BatchIterator<Row> fusedIterator = getProjectionFusedIterator(normalizedPhase, collectTask);
+        return fusedIterator == null ? null : List.of(fusedIterator);
+    }
+
     protected abstract BatchIterator<Row> getUnorderedIterator(RoutedCollectPhase collectPhase,
                                                                boolean requiresScroll,
                                                                CollectTask collectTask);
 
+    /**
+     * @return iterators for disjoint parts of the shard, at most {@code maxSlices}.
+     *         By default the shard isn't split.
+     */
+    protected List<BatchIterator<Row>> getUnorderedIterators(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             CollectTask collectTask,
+                                                             int maxSlices) {
+        return List.of(getUnorderedIterator(collectPhase, requiresScroll, collectTask));
+    }
+
 
     public abstract OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
                                                             SharedShardContext sharedShardContext,
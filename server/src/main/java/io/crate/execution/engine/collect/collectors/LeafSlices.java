@@ -0,0 +1,83 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.collect.collectors;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits the segments of a shard into slices which can be scanned concurrently.
+ */
+public final class LeafSlices {
+
+    /**
+     * Slices with less documents aren't worth the overhead of an additional thread.
+     */
+    public static final int MIN_DOCS_PER_SLICE = 250_000;
+
+    private LeafSlices() {
+    }
+
+    /**
+     * Distributes the leaves onto at most {@code maxSlices} slices with a similar number of documents.
+     * The largest leaves are assigned first, each to the slice with the least documents so far.
+     *
+     * @return the slices, or a single slice containing all leaves if splitting isn't worthwhile.
+     */
+    public static List<List<LeafReaderContext>> slice(List<LeafReaderContext> leaves, int maxSlices, int minDocsPerSlice) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        int numSlices = (int) Math.min(Math.min(maxSlices, leaves.size()), totalDocs / Math.max(1, minDocsPerSlice));
+        if (numSlices <= 1) {
+            return List.of(leaves);
+        }
+        ArrayList<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
+        sortedLeaves.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+        ArrayList<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        long[] docsPerSlice = new long[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (LeafReaderContext leaf : sortedLeaves) {
+            int smallest = 0;
+            for (int i = 1; i < numSlices; i++) {
+                if (docsPerSlice[i] < docsPerSlice[smallest]) {
+                    smallest = i;
+                }
+            }
+            slices.get(smallest).add(leaf);
+            docsPerSlice[smallest] += leaf.reader().maxDoc();
+        }
+        for (List<LeafReaderContext> slice : slices) {
+            // keep the segment order within a slice
+            slice.sort(Comparator.comparingInt(leaf -> leaf.ord));
+        }
+        return slices;
+    }
+}
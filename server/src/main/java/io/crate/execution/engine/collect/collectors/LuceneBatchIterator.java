@@ -78,6 +78,31 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
                                CollectorContext collectorContext,
                                List<? extends Input<?>> inputs,
                                Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(
+            indexSearcher,
+            indexSearcher.getTopReaderContext().leaves(),
+            query,
+            minScore,
+            doScores,
+            collectorContext,
+            inputs,
+            expressions
+        );
+    }
+
+    /**
+     * Creates a BatchIterator which only exposes the documents of the given {@code leaves}.
+     * This can be used to scan disjoint slices of the segments of a shard concurrently,
+     * each slice needs its own {@code query} and {@code expressions} instances as they are stateful.
+     */
+    public LuceneBatchIterator(IndexSearcher indexSearcher,
+                               List<LeafReaderContext> leaves,
+                               Query query,
+                               @Nullable Float minScore,
+                               boolean doScores,
+                               CollectorContext collectorContext,
+                               List<? extends Input<?>> inputs,
+                               Collection<? extends LuceneCollectorExpression<?>> expressions) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -85,7 +110,7 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         this.collectorContext = collectorContext;
         this.row = new InputRow(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
-        leaves = indexSearcher.getTopReaderContext().leaves();
+        this.leaves = leaves;
         leavesIt = leaves.iterator();
     }
 
@@ -165,7 +165,7 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
             batchSize,
             0 // do not process any hits
         );
-        return doSearch(topFieldCollector, minScore, query);
+        return doSearch(topFieldCollector, minScore, query, true);
     }
 
     private KeyIterable<ShardId, Row> searchMore() throws IOException {
@@ -183,18 +183,23 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
             lastDoc,
             0 // do not process any hits
         );
-        return doSearch(topFieldCollector, minScore, query(lastDoc));
+        return doSearch(topFieldCollector, minScore, query(lastDoc), false);
     }
 
     private KeyIterable<ShardId, Row> doSearch(TopFieldCollector topFieldCollector,
                                                Float minScore,
-                                               Query query) throws IOException {
+                                               Query query,
+                                               boolean pruneSegments) throws IOException {
         Collector collector = topFieldCollector;
         if (minScore != null) {
             collector = new MinimumScoreCollector(collector, minScore);
         }
         collector = new KillableCollector(collector, this::raiseIfKilled);
-        searcher.search(query, collector);
+        // Segments are only pruned on the initial search; on subsequent searches the collector also skips the hits
+        // up to `lastDoc`, which aren't accounted for when the bound for the pruning is determined.
+        if (!pruneSegments || !SegmentPruning.search(searcher, query, sort, batchSize, minScore, collector)) {
+            searcher.search(query, collector);
+        }
         ScoreDoc[] scoreDocs = topFieldCollector.topDocs().scoreDocs;
         if (doDocsScores) {
             TopFieldCollector.populateScores(scoreDocs, searcher, query);
@@ -0,0 +1,226 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.common.lucene.MinimumScoreCollector;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Searches the top hits of an `ORDER BY <numeric column> LIMIT n` while skipping segments which can't contain
+ * any competitive hits.
+ * <p>
+ * The minimum and maximum value of the sort column per segment is known from its points index.
+ * In a first pass the segments are counted in the order of their best value until at least {@code n} hits are found.
+ * All these hits are at least as good as the worst bound of the counted segments,
+ * so any segment whose values are all worse than that bound can be skipped in the second pass,
+ * which collects the remaining segments in their regular order to keep the tie-breaking on the doc id intact.
+ * <p>
+ * This is most effective if the segments cover distinct value ranges, e.g. for time-series data
+ * or for tables using an index sort, see {@link io.crate.execution.engine.sort.IndexSort}.
+ */
+final class SegmentPruning {
+
+    private SegmentPruning() {
+    }
+
+    /**
+     * @return false if the segments can't be pruned for the given sort. In that case nothing has been collected
+     *         and the caller should fall back to a regular search.
+     */
+    static boolean search(IndexSearcher searcher,
+                          Query query,
+                          Sort sort,
+                          int numHits,
+                          @Nullable Float minScore,
+                          Collector collector) throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        SortField sortField = sort.getSort()[0];
+        if (leaves.size() < 2 || numHits <= 0 || !(sortField instanceof SortedNumericSortField)) {
+            return false;
+        }
+        SortField.Type numericType = ((SortedNumericSortField) sortField).getNumericType();
+        long[] mins = new long[leaves.size()];
+        long[] maxs = new long[leaves.size()];
+        for (LeafReaderContext leaf : leaves) {
+            PointValues pointValues = leaf.reader().getPointValues(sortField.getField());
+            // Every document must have a value, otherwise the missing value (nulls) could be competitive
+            if (pointValues == null
+                || pointValues.getNumDimensions() != 1
+                || pointValues.getDocCount() != leaf.reader().maxDoc()) {
+                return false;
+            }
+            byte[] minPackedValue = pointValues.getMinPackedValue();
+            byte[] maxPackedValue = pointValues.getMaxPackedValue();
+            if (!isSupported(numericType, minPackedValue.length)) {
+                return false;
+            }
+            mins[leaf.ord] = toSortableLong(numericType, minPackedValue);
+            maxs[leaf.ord] = toSortableLong(numericType, maxPackedValue);
+        }
+        boolean reverse = sortField.getReverse();
+        Query rewrittenQuery = searcher.rewrite(query);
+
+        ArrayList<LeafReaderContext> bestLeavesFirst = new ArrayList<>(leaves);
+        if (reverse) {
+            bestLeavesFirst.sort(Comparator.comparingLong((LeafReaderContext leaf) -> maxs[leaf.ord]).reversed());
+        } else {
+            bestLeavesFirst.sort(Comparator.comparingLong(leaf -> mins[leaf.ord]));
+        }
+        HitCounter hitCounter = new HitCounter(numHits);
+        Collector countCollector = minScore == null ? hitCounter : new MinimumScoreCollector(hitCounter, minScore);
+        Weight countWeight = searcher.createWeight(rewrittenQuery, countCollector.scoreMode(), 1f);
+        long bound = reverse ? Long.MAX_VALUE : Long.MIN_VALUE;
+        for (LeafReaderContext leaf : bestLeavesFirst) {
+            collectLeaf(countWeight, countCollector, leaf);
+            bound = reverse ? Math.min(bound, mins[leaf.ord]) : Math.max(bound, maxs[leaf.ord]);
+            if (hitCounter.count >= numHits) {
+                break;
+            }
+        }
+        if (hitCounter.count < numHits) {
+            return false;
+        }
+
+        Weight weight = searcher.createWeight(rewrittenQuery, collector.scoreMode(), 1f);
+        for (LeafReaderContext leaf : leaves) {
+            boolean canCompete = reverse ? maxs[leaf.ord] >= bound : mins[leaf.ord] <= bound;
+            if (canCompete) {
+                collectLeaf(weight, collector, leaf);
+            }
+        }
+        return true;
+    }
+
+    private static void collectLeaf(Weight weight, Collector collector, LeafReaderContext leaf) throws IOException {
+        LeafCollector leafCollector;
+        try {
+            leafCollector = collector.getLeafCollector(leaf);
+        } catch (CollectionTerminatedException e) {
+            return;
+        }
+        BulkScorer scorer = weight.bulkScorer(leaf);
+        if (scorer != null) {
+            try {
+                scorer.score(leafCollector, leaf.reader().getLiveDocs());
+            } catch (CollectionTerminatedException e) {
+                // collection was terminated prematurely, continue with the next leaf
+            }
+        }
+    }
+
+    private static boolean isSupported(SortField.Type numericType, int bytesPerDim) {
+        switch (numericType) {
+            case INT:
+            case LONG:
+                return bytesPerDim == Integer.BYTES || bytesPerDim == Long.BYTES;
+            case FLOAT:
+                return bytesPerDim == Float.BYTES;
+            case DOUBLE:
+                return bytesPerDim == Double.BYTES;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Decodes a packed point value into a long which has the same order as the values of the sort column.
+     */
+    private static long toSortableLong(SortField.Type numericType, byte[] packedValue) {
+        switch (numericType) {
+            case INT:
+            case LONG:
+                return packedValue.length == Integer.BYTES
+                    ? IntPoint.decodeDimension(packedValue, 0)
+                    : LongPoint.decodeDimension(packedValue, 0);
+            case FLOAT:
+                return NumericUtils.floatToSortableInt(FloatPoint.decodeDimension(packedValue, 0));
+            case DOUBLE:
+                return NumericUtils.doubleToSortableLong(DoublePoint.decodeDimension(packedValue, 0));
+            default:
+                throw new IllegalArgumentException("Unsupported numeric type: " + numericType);
+        }
+    }
+
+    /**
+     * Counts the hits until the limit is reached.
+     */
+    private static final class HitCounter implements Collector {
+
+        private final int limit;
+        private int count = 0;
+
+        HitCounter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) {
+            if (count >= limit) {
+                throw new CollectionTerminatedException();
+            }
+            return new LeafCollector() {
+
+                @Override
+                public void setScorer(Scorable scorer) {
+                }
+
+                @Override
+                public void collect(int doc) {
+                    count++;
+                    if (count >= limit) {
+                        throw new CollectionTerminatedException();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+}
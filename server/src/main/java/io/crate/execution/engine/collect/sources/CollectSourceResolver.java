@@ -37,6 +37,7 @@ import io.crate.execution.dsl.phases.TableFunctionCollectPhase;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -75,6 +76,7 @@ public class CollectSourceResolver {
                                  NodeJobsCounter nodeJobsCounter,
                                  Functions functions,
                                  Settings settings,
+                                 SpillThresholds spillThresholds,
                                  ThreadPool threadPool,
                                  TransportActionProvider transportActionProvider,
                                  InformationSchemaInfo informationSchemaInfo,
@@ -94,6 +96,7 @@ public class CollectSourceResolver {
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             new InputFactory(functions),
             normalizer,
@@ -37,6 +37,9 @@ import io.crate.exceptions.UnhandledServerException;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.RemoteCollectorFactory;
@@ -48,6 +51,7 @@ import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.engine.pipeline.Projectors;
 import io.crate.execution.engine.sort.OrderingByPosition;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
@@ -55,6 +59,7 @@ import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.reference.StaticTableReferenceResolver;
 import io.crate.expression.reference.sys.shard.ShardRowContext;
+import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Symbols;
 import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.metadata.Functions;
@@ -96,6 +101,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -137,6 +143,13 @@ import static io.crate.execution.support.ThreadPools.numIdleThreads;
  *                     (with concurrent/ loadNextBatch of sources)
  * </pre>
  *
+ * <p>
+ *     If the shard projections produce partial aggregation states and there are more idle threads than shards,
+ *     the segments of a shard are additionally split into slices, each consumed by its own BatchIterator.
+ *     This also applies to the iterators which fuse the shard projections into the collect, like
+ *     {@link io.crate.execution.engine.collect.DocValuesAggregates}: Each slice emits its own partial states.
+ * </p>
+ *
  * In other cases multiple shards are simply processed sequentially by concatenating the BatchIterators
  */
 @Singleton
@@ -159,6 +172,7 @@ public class ShardCollectSource implements CollectSource {
 
     @Inject
     public ShardCollectSource(Settings settings,
+                              SpillThresholds spillThresholds,
                               Schemas schemas,
                               IndicesService indicesService,
                               Functions functions,
@@ -187,6 +201,7 @@ public class ShardCollectSource implements CollectSource {
         this.shardCollectorProviderFactory = new ShardCollectorProviderFactory(
             clusterService,
             settings,
+            spillThresholds,
             schemas,
             threadPool,
             transportActionProvider,
@@ -207,6 +222,7 @@ public class ShardCollectSource implements CollectSource {
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             inputFactory,
             nodeNormalizer,
@@ -292,9 +308,18 @@ public class ShardCollectSource implements CollectSource {
 
         boolean hasShardProjections = Projections.hasAnyShardProjections(collectPhase.projections());
         Map<String, IntIndexedContainer> indexShards = collectPhase.routing().locations().get(localNodeId);
-        List<BatchIterator<Row>> iterators = indexShards == null
-            ? Collections.emptyList()
-            : getIterators(collectTask, collectPhase, requireMoveToStartSupport, indexShards);
+        List<BatchIterator<Row>> iterators;
+        if (indexShards == null) {
+            iterators = Collections.emptyList();
+        } else {
+            int maxSlicesPerShard = 1;
+            if (hasShardProjections
+                && requireMoveToStartSupport == false
+                && canSplitShards(Projections.shardProjections(collectPhase.projections()))) {
+                maxSlicesPerShard = Math.max(1, availableThreads.getAsInt() / numShards(indexShards));
+            }
+            iterators = getIterators(collectTask, collectPhase, requireMoveToStartSupport, indexShards, maxSlicesPerShard);
+        }
 
         final BatchIterator<Row> result;
         switch (iterators.size()) {
@@ -325,6 +350,47 @@ public class ShardCollectSource implements CollectSource {
         return projectors.wrap(result);
     }
 
+    /**
+     * The documents of a shard can be split onto multiple concurrently consumed iterators
+     * if the shard projections produce partial aggregation states which are merged by a later projection.
+     */
+    static boolean canSplitShards(Collection<? extends Projection> shardProjections) {
+        boolean hasPartialAggregation = false;
+        for (Projection projection : shardProjections) {
+            switch (projection.projectionType()) {
+                case FILTER:
+                case EVAL:
+                    break;
+
+                case AGGREGATION:
+                    if (((AggregationProjection) projection).mode() != AggregateMode.ITER_PARTIAL) {
+                        return false;
+                    }
+                    hasPartialAggregation = true;
+                    break;
+
+                case GROUP:
+                    if (((GroupProjection) projection).mode() != AggregateMode.ITER_PARTIAL) {
+                        return false;
+                    }
+                    hasPartialAggregation = true;
+                    break;
+
+                default:
+                    return false;
+            }
+        }
+        return hasPartialAggregation;
+    }
+
+    private static int numShards(Map<String, IntIndexedContainer> indexShards) {
+        int numShards = 0;
+        for (IntIndexedContainer shards : indexShards.values()) {
+            numShards += shards.size();
+        }
+        return Math.max(1, numShards);
+    }
+
     private BatchIterator<Row> createMultiShardScoreDocCollector(RoutedCollectPhase collectPhase,
                                                                  boolean supportMoveToStart,
                                                                  CollectTask collectTask,
@@ -398,7 +464,8 @@ public class ShardCollectSource implements CollectSource {
     private List<BatchIterator<Row>> getIterators(CollectTask collectTask,
                                                   RoutedCollectPhase collectPhase,
                                                   boolean requiresScroll,
-                                                  Map<String, IntIndexedContainer> indexShards) {
+                                                  Map<String, IntIndexedContainer> indexShards,
+                                                  int maxSlicesPerShard) {
 
         Metadata metadata = clusterService.state().metadata();
         List<BatchIterator<Row>> iterators = new ArrayList<>();
@@ -424,12 +491,12 @@ public class ShardCollectSource implements CollectSource {
                 ShardId shardId = new ShardId(index, shardCursor.value);
                 try {
                     ShardCollectorProvider shardCollectorProvider = getCollectorProviderSafe(shardId);
-                    BatchIterator<Row> iterator = shardCollectorProvider.getIterator(
+                    iterators.addAll(shardCollectorProvider.getIterators(
                         collectPhase,
                         requiresScroll,
-                        collectTask
-                    );
-                    iterators.add(iterator);
+                        collectTask,
+                        maxSlicesPerShard
+                    ));
                 } catch (ShardNotFoundException | IllegalIndexShardStateException e) {
                     // If toCollect contains a docId it means that this is a QueryThenFetch operation.
                     // In such a case RemoteCollect cannot be used because on that node the FetchTask is missing
@@ -28,6 +28,7 @@ import io.crate.execution.TransportActionProvider;
 import io.crate.execution.engine.collect.BlobShardCollectorProvider;
 import io.crate.execution.engine.collect.LuceneShardCollectorProvider;
 import io.crate.execution.engine.collect.ShardCollectorProvider;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.metadata.Functions;
@@ -53,9 +54,11 @@ public class ShardCollectorProviderFactory {
     private final NodeJobsCounter nodeJobsCounter;
     private final BigArrays bigArrays;
     private final Settings settings;
+    private final SpillThresholds spillThresholds;
 
     ShardCollectorProviderFactory(ClusterService clusterService,
                                   Settings settings,
+                                  SpillThresholds spillThresholds,
                                   Schemas schemas,
                                   ThreadPool threadPool,
                                   TransportActionProvider transportActionProvider,
@@ -65,6 +68,7 @@ public class ShardCollectorProviderFactory {
                                   NodeJobsCounter nodeJobsCounter,
                                   BigArrays bigArrays) {
         this.settings = settings;
+        this.spillThresholds = spillThresholds;
         this.schemas = schemas;
         this.clusterService = clusterService;
         this.threadPool = threadPool;
@@ -87,6 +91,7 @@ public class ShardCollectorProviderFactory {
                 functions,
                 threadPool,
                 settings,
+                spillThresholds,
                 transportActionProvider
             );
         } else {
@@ -98,6 +103,7 @@ public class ShardCollectorProviderFactory {
                 functions,
                 threadPool,
                 settings,
+                spillThresholds,
                 transportActionProvider,
                 indexShard,
                 bigArrays);
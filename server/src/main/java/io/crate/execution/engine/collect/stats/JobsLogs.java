@@ -23,6 +23,7 @@
 package io.crate.execution.engine.collect.stats;
 
 import io.crate.auth.user.User;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.expression.reference.sys.job.JobContext;
 import io.crate.expression.reference.sys.job.JobContextLog;
 import io.crate.expression.reference.sys.operation.OperationContext;
@@ -162,10 +163,18 @@ public class JobsLogs {
     }
 
     public void operationStarted(int operationId, UUID jobId, String name, LongSupplier bytesUsed) {
+        operationStarted(operationId, jobId, name, bytesUsed, new SpillStats());
+    }
+
+    public void operationStarted(int operationId,
+                                 UUID jobId,
+                                 String name,
+                                 LongSupplier bytesUsed,
+                                 SpillStats spillStats) {
         if (isEnabled()) {
             operationsTable.put(
                 uniqueOperationId(operationId, jobId),
-                new OperationContext(operationId, jobId, name, System.currentTimeMillis(), bytesUsed));
+                new OperationContext(operationId, jobId, name, System.currentTimeMillis(), bytesUsed, spillStats));
         }
     }
 
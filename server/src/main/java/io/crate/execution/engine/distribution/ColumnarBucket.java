@@ -0,0 +1,494 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-major encoding of the rows of a {@link StreamBucket}.
+ * <p>
+ * Each column is encoded depending on its {@link Streamer}:
+ * <ul>
+ *     <li>numeric columns are written as a sequence of primitive values preceded by a null bitmap,
+ *     they're decoded into primitive arrays</li>
+ *     <li>text columns use dictionary encoding as long as the number of distinct values stays below
+ *     {@link #MAX_DICTIONARY_SIZE}, otherwise the plain values are written</li>
+ *     <li>all other columns are written value by value using their {@link Streamer}</li>
+ * </ul>
+ * Pages larger than {@link #COMPRESSION_THRESHOLD_IN_BYTES} are compressed with LZ4 if that reduces their size.
+ */
+final class ColumnarBucket {
+
+    static final int MAX_DICTIONARY_SIZE = 1024;
+    static final int COMPRESSION_THRESHOLD_IN_BYTES = 16 * 1024;
+
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte LZ4_COMPRESSED = 1;
+
+    private static final byte GENERIC = 0;
+    private static final byte LONG = 1;
+    private static final byte INT = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte STRING = 5;
+    private static final byte STRING_DICTIONARY = 6;
+
+    private ColumnarBucket() {
+    }
+
+    static final class Writer {
+
+        private final Streamer<?>[] streamers;
+        private final ColumnWriter[] columns;
+        private int numRows = 0;
+
+        Writer(Streamer<?>[] streamers) {
+            this.streamers = streamers;
+            this.columns = new ColumnWriter[streamers.length];
+            reset();
+        }
+
+        void add(Row row) {
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i].add(numRows, row.get(i));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            numRows++;
+        }
+
+        /**
+         * @return the approximate number of bytes used by the encoded columns
+         */
+        long sizeInBytes() {
+            long size = 0;
+            for (ColumnWriter column : columns) {
+                size += column.sizeInBytes();
+            }
+            return size;
+        }
+
+        BytesReference finish() {
+            try {
+                BytesStreamOutput page = new BytesStreamOutput((int) sizeInBytes() + columns.length * 8);
+                for (ColumnWriter column : columns) {
+                    column.writeTo(page);
+                }
+                return compress(page.bytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < streamers.length; i++) {
+                columns[i] = newColumnWriter(streamers[i]);
+            }
+            numRows = 0;
+        }
+    }
+
+    private static BytesReference compress(BytesReference page) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput(page.length() + 1);
+        if (page.length() >= COMPRESSION_THRESHOLD_IN_BYTES) {
+            byte[] uncompressed = BytesReference.toBytes(page);
+            ByteBuffersDataOutput compressed = new ByteBuffersDataOutput();
+            LZ4.compress(uncompressed, 0, uncompressed.length, compressed, new LZ4.FastCompressionHashTable());
+            if (compressed.size() < uncompressed.length) {
+                out.writeByte(LZ4_COMPRESSED);
+                out.writeVInt(uncompressed.length);
+                out.writeBytes(compressed.toArrayCopy());
+                return out.bytes();
+            }
+        }
+        out.writeByte(UNCOMPRESSED);
+        page.writeTo(out);
+        return out.bytes();
+    }
+
+    /**
+     * Decode all columns of an encoded page.
+     */
+    static ColumnarRow decode(BytesReference bytes, Streamer<?>[] streamers, int numRows) {
+        try {
+            StreamInput in = bytes.streamInput();
+            if (in.readByte() == LZ4_COMPRESSED) {
+                int uncompressedLength = in.readVInt();
+                byte[] uncompressed = new byte[uncompressedLength];
+                LZ4.decompress(new InputStreamDataInput(in), uncompressedLength, uncompressed, 0);
+                in = new BytesArray(uncompressed).streamInput();
+            }
+            Column[] columns = new Column[streamers.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = readColumn(in, streamers[i], numRows);
+            }
+            return new ColumnarRow(columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A row which reads the values of the decoded columns at the current position.
+     * Use {@link #newRow()} to get another row with its own position on top of the same decoded columns.
+     */
+    static final class ColumnarRow extends Row {
+
+        private final Column[] columns;
+        private int position = -1;
+
+        private ColumnarRow(Column[] columns) {
+            this.columns = columns;
+        }
+
+        ColumnarRow newRow() {
+            return new ColumnarRow(columns);
+        }
+
+        void position(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public int numColumns() {
+            return columns.length;
+        }
+
+        @Override
+        public Object get(int index) {
+            return columns[index].get(position);
+        }
+    }
+
+    private static ColumnWriter newColumnWriter(Streamer<?> streamer) {
+        if (streamer instanceof LongType || streamer instanceof TimestampType) {
+            return new LongColumnWriter(LONG);
+        } else if (streamer instanceof IntegerType) {
+            return new LongColumnWriter(INT);
+        } else if (streamer instanceof DoubleType) {
+            return new DoubleColumnWriter();
+        } else if (streamer instanceof FloatType) {
+            return new FloatColumnWriter();
+        } else if (streamer instanceof StringType) {
+            return new StringColumnWriter();
+        }
+        return new GenericColumnWriter(streamer);
+    }
+
+    private abstract static class ColumnWriter {
+
+        final BytesStreamOutput values = new BytesStreamOutput();
+
+        abstract void add(int row, Object value) throws IOException;
+
+        long sizeInBytes() {
+            return values.size();
+        }
+
+        abstract void writeTo(StreamOutput out) throws IOException;
+    }
+
+    private static final class GenericColumnWriter extends ColumnWriter {
+
+        private final Streamer<?> streamer;
+
+        GenericColumnWriter(Streamer<?> streamer) {
+            this.streamer = streamer;
+        }
+
+        @Override
+        void add(int row, Object value) throws IOException {
+            //noinspection unchecked
+            ((Streamer) streamer).writeValueTo(values, value);
+        }
+
+        @Override
+        void writeTo(StreamOutput out) throws IOException {
+            out.writeByte(GENERIC);
+            values.bytes().writeTo(out);
+        }
+    }
+
+    /**
+     * Writes a bitmap of the rows which are null followed by the non-null values
+     */
+    private abstract static class NullableColumnWriter extends ColumnWriter {
+
+        private final byte encoding;
+        final BitSet nulls = new BitSet();
+
+        NullableColumnWriter(byte encoding) {
+            this.encoding = encoding;
+        }
+
+        @Override
+        final void add(int row, Object value) throws IOException {
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                addValue(value);
+            }
+        }
+
+        abstract void addValue(Object value) throws IOException;
+
+        byte encoding() {
+            return encoding;
+        }
+
+        @Override
+        final void writeTo(StreamOutput out) throws IOException {
+            out.writeByte(encoding());
+            long[] words = nulls.toLongArray();
+            out.writeVInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            writeValues(out);
+        }
+
+        void writeValues(StreamOutput out) throws IOException {
+            values.bytes().writeTo(out);
+        }
+    }
+
+    private static final class LongColumnWriter extends NullableColumnWriter {
+
+        LongColumnWriter(byte encoding) {
+            super(encoding);
+        }
+
+        @Override
+        void addValue(Object value) throws IOException {
+            values.writeZLong(((Number) value).longValue());
+        }
+    }
+
+    private static final class DoubleColumnWriter extends NullableColumnWriter {
+
+        DoubleColumnWriter() {
+            super(DOUBLE);
+        }
+
+        @Override
+        void addValue(Object value) throws IOException {
+            values.writeDouble(((Number) value).doubleValue());
+        }
+    }
+
+    private static final class FloatColumnWriter extends NullableColumnWriter {
+
+        FloatColumnWriter() {
+            super(FLOAT);
+        }
+
+        @Override
+        void addValue(Object value) throws IOException {
+            values.writeFloat(((Number) value).floatValue());
+        }
+    }
+
+    /**
+     * Writes dictionary ids as long as the number of distinct values is at most {@link #MAX_DICTIONARY_SIZE},
+     * afterwards it falls back to writing the plain values.
+     */
+    private static final class StringColumnWriter extends NullableColumnWriter {
+
+        private Map<String, Integer> idsByValue = new HashMap<>();
+        private List<String> dictionary = new ArrayList<>();
+        private long dictionaryBytes = 0;
+        private int numValues = 0;
+
+        StringColumnWriter() {
+            super(STRING_DICTIONARY);
+        }
+
+        @Override
+        void addValue(Object value) throws IOException {
+            numValues++;
+            String str = (String) value;
+            if (dictionary == null) {
+                values.writeString(str);
+                return;
+            }
+            Integer id = idsByValue.get(str);
+            if (id == null) {
+                if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+                    switchToPlainValues();
+                    values.writeString(str);
+                    return;
+                }
+                id = dictionary.size();
+                idsByValue.put(str, id);
+                dictionary.add(str);
+                // object headers, the map entry and the chars of the value
+                dictionaryBytes += 64 + str.length() * 2L;
+            }
+            values.writeVInt(id);
+        }
+
+        private void switchToPlainValues() throws IOException {
+            StreamInput ids = values.bytes().streamInput();
+            BytesStreamOutput plainValues = new BytesStreamOutput(values.size() * 4);
+            for (int i = 0; i < numValues - 1; i++) {
+                plainValues.writeString(dictionary.get(ids.readVInt()));
+            }
+            values.reset();
+            plainValues.bytes().writeTo(values);
+            idsByValue = null;
+            dictionary = null;
+            dictionaryBytes = 0;
+        }
+
+        @Override
+        byte encoding() {
+            return dictionary == null ? STRING : STRING_DICTIONARY;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return super.sizeInBytes() + dictionaryBytes;
+        }
+
+        @Override
+        void writeValues(StreamOutput out) throws IOException {
+            if (dictionary != null) {
+                out.writeVInt(dictionary.size());
+                for (String value : dictionary) {
+                    out.writeString(value);
+                }
+            }
+            super.writeValues(out);
+        }
+    }
+
+    private static Column readColumn(StreamInput in, Streamer<?> streamer, int numRows) throws IOException {
+        byte encoding = in.readByte();
+        if (encoding == GENERIC) {
+            Object[] values = new Object[numRows];
+            for (int i = 0; i < numRows; i++) {
+                values[i] = streamer.readValueFrom(in);
+            }
+            return row -> values[row];
+        }
+        long[] words = new long[in.readVInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        BitSet nulls = BitSet.valueOf(words);
+        switch (encoding) {
+            case LONG: {
+                long[] values = new long[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls.get(i) == false) {
+                        values[i] = in.readZLong();
+                    }
+                }
+                return row -> nulls.get(row) ? null : values[row];
+            }
+            case INT: {
+                int[] values = new int[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls.get(i) == false) {
+                        values[i] = (int) in.readZLong();
+                    }
+                }
+                return row -> nulls.get(row) ? null : values[row];
+            }
+            case DOUBLE: {
+                double[] values = new double[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls.get(i) == false) {
+                        values[i] = in.readDouble();
+                    }
+                }
+                return row -> nulls.get(row) ? null : values[row];
+            }
+            case FLOAT: {
+                float[] values = new float[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls.get(i) == false) {
+                        values[i] = in.readFloat();
+                    }
+                }
+                return row -> nulls.get(row) ? null : values[row];
+            }
+            case STRING: {
+                String[] values = new String[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls.get(i) == false) {
+                        values[i] = in.readString();
+                    }
+                }
+                return row -> values[row];
+            }
+            case STRING_DICTIONARY: {
+                String[] dictionary = new String[in.readVInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = in.readString();
+                }
+                int[] ids = new int[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls.get(i) == false) {
+                        ids[i] = in.readVInt();
+                    }
+                }
+                return row -> nulls.get(row) ? null : dictionary[ids[row]];
+            }
+            default:
+                throw new IllegalArgumentException("Unknown column encoding: " + encoding);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Column {
+
+        Object get(int row);
+    }
+}
@@ -28,6 +28,7 @@ import io.crate.data.Paging;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.exceptions.SQLExceptions;
+import io.crate.profile.OperatorStats;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -64,6 +65,8 @@ public class DistributingConsumer implements RowConsumer {
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
     private final CompletableFuture<Void> completionFuture;
+    @Nullable
+    private final OperatorStats stats;
 
     @VisibleForTesting
     final MultiBucketBuilder multiBucketBuilder;
@@ -80,6 +83,36 @@ public class DistributingConsumer implements RowConsumer {
                                 Collection<String> downstreamNodeIds,
                                 TransportDistributedResultAction distributedResultAction,
                                 int pageSize) {
+        this(
+            logger,
+            responseExecutor,
+            jobId,
+            multiBucketBuilder,
+            targetPhaseId,
+            inputId,
+            bucketIdx,
+            downstreamNodeIds,
+            distributedResultAction,
+            pageSize,
+            null
+        );
+    }
+
+    /**
+     * @param stats if not null, records the rows and bytes sent to the downstreams
+     *              and the time spent consuming the source and building the buckets.
+     */
+    public DistributingConsumer(Logger logger,
+                                Executor responseExecutor,
+                                UUID jobId,
+                                MultiBucketBuilder multiBucketBuilder,
+                                int targetPhaseId,
+                                byte inputId,
+                                int bucketIdx,
+                                Collection<String> downstreamNodeIds,
+                                TransportDistributedResultAction distributedResultAction,
+                                int pageSize,
+                                @Nullable OperatorStats stats) {
         this.traceEnabled = logger.isTraceEnabled();
         this.logger = logger;
         this.responseExecutor = responseExecutor;
@@ -92,6 +125,7 @@ public class DistributingConsumer implements RowConsumer {
         this.pageSize = pageSize;
         this.buckets = new StreamBucket[downstreamNodeIds.size()];
         this.completionFuture = new CompletableFuture<>();
+        this.stats = stats;
         downstreams = new ArrayList<>(downstreamNodeIds.size());
         for (String downstreamNodeId : downstreamNodeIds) {
             downstreams.add(new Downstream(downstreamNodeId));
@@ -113,14 +147,27 @@ public class DistributingConsumer implements RowConsumer {
     }
 
     private void consumeIt(BatchIterator<Row> it) {
+        long startTime = 0L;
+        long startCpuTime = 0L;
+        if (stats != null) {
+            startTime = OperatorStats.startTime();
+            startCpuTime = OperatorStats.startCpuTime();
+        }
         try {
             while (it.moveNext()) {
                 multiBucketBuilder.add(it.currentElement());
                 if (multiBucketBuilder.size() >= pageSize || multiBucketBuilder.ramBytesUsed() >= Paging.MAX_PAGE_BYTES) {
+                    if (stats != null) {
+                        stats.stop(startTime, startCpuTime);
+                    }
                     forwardResults(it, false);
                     return;
                 }
             }
+            // Stop before continuing, the continuation may run on this thread and is timed on its own
+            if (stats != null) {
+                stats.stop(startTime, startCpuTime);
+            }
             if (it.allLoaded()) {
                 forwardResults(it, true);
             } else {
@@ -188,7 +235,23 @@ public class DistributingConsumer implements RowConsumer {
     }
 
     private void forwardResults(BatchIterator<Row> it, boolean isLast) {
+        long startTime = 0L;
+        long startCpuTime = 0L;
+        if (stats != null) {
+            startTime = OperatorStats.startTime();
+            startCpuTime = OperatorStats.startCpuTime();
+        }
         multiBucketBuilder.build(buckets);
+        if (stats != null) {
+            stats.stop(startTime, startCpuTime);
+            stats.onBatch();
+            for (int i = 0; i < downstreams.size(); i++) {
+                if (downstreams.get(i).needsMoreData) {
+                    stats.onRows(buckets[i].size());
+                    stats.onNetworkBytes(buckets[i].sizeInBytes());
+                }
+            }
+        }
 
         AtomicInteger numActiveRequests = new AtomicInteger(downstreams.size());
         for (int i = 0; i < downstreams.size(); i++) {
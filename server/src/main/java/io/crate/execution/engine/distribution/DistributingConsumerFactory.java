@@ -30,13 +30,16 @@ import io.crate.execution.dsl.phases.NodeOperation;
 import io.crate.execution.jobs.PageBucketReceiver;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.StreamerVisitor;
+import io.crate.profile.OperatorStats;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.UUID;
@@ -67,6 +70,18 @@ public class DistributingConsumerFactory {
                               DistributionInfo distributionInfo,
                               UUID jobId,
                               int pageSize) {
+        return create(nodeOperation, ramAccounting, distributionInfo, jobId, pageSize, null);
+    }
+
+    /**
+     * @param stats if not null, records the rows and bytes sent to the downstream nodes
+     */
+    public RowConsumer create(NodeOperation nodeOperation,
+                              RamAccounting ramAccounting,
+                              DistributionInfo distributionInfo,
+                              UUID jobId,
+                              int pageSize,
+                              @Nullable OperatorStats stats) {
         Streamer<?>[] streamers = StreamerVisitor.streamersFromOutputs(nodeOperation.executionPhase());
         assert !ExecutionPhases.hasDirectResponseDownstream(nodeOperation.downstreamNodes())
             : "trying to build a DistributingDownstream but nodeOperation has a directResponse downstream";
@@ -75,6 +90,8 @@ public class DistributingConsumerFactory {
         byte phaseInputId = nodeOperation.downstreamExecutionPhaseInputId();
         int bucketIdx = getBucketIdx(nodeOperation.executionPhase().nodeIds(), phaseInputId);
 
+        // The columnar bucket format can only be decoded by nodes on or after 4.3.0
+        boolean columnar = clusterService.state().nodes().getMinNodeVersion().onOrAfter(Version.V_4_3_0);
         MultiBucketBuilder multiBucketBuilder;
         switch (distributionInfo.distributionType()) {
             case MODULO:
@@ -82,14 +99,16 @@ public class DistributingConsumerFactory {
                     multiBucketBuilder = new BroadcastingBucketBuilder(
                         streamers,
                         nodeOperation.downstreamNodes().size(),
-                        ramAccounting
+                        ramAccounting,
+                        columnar
                     );
                 } else {
                     multiBucketBuilder = new ModuloBucketBuilder(
                         streamers,
                         nodeOperation.downstreamNodes().size(),
                         distributionInfo.distributeByColumn(),
-                        ramAccounting
+                        ramAccounting,
+                        columnar
                     );
                 }
                 break;
@@ -97,7 +116,8 @@ public class DistributingConsumerFactory {
                 multiBucketBuilder = new BroadcastingBucketBuilder(
                     streamers,
                     nodeOperation.downstreamNodes().size(),
-                    ramAccounting
+                    ramAccounting,
+                    columnar
                 );
                 break;
             default:
@@ -114,7 +134,8 @@ public class DistributingConsumerFactory {
             bucketIdx,
             nodeOperation.downstreamNodes(),
             transportDistributedResultAction,
-            pageSize
+            pageSize,
+            stats
         );
     }
 
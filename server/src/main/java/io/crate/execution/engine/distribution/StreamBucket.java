@@ -28,6 +28,7 @@ import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -43,33 +44,66 @@ import java.util.Iterator;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * A bucket of rows serialized using the column {@link Streamer}s.
+ * <p>
+ * Rows are either encoded row by row, or, if the bucket is built {@code columnar}, column-major using
+ * {@link ColumnarBucket}. The columnar format can only be read by nodes on or after {@link Version#V_4_3_0};
+ * it's converted to the row format when sent to older nodes.
+ */
 public class StreamBucket implements Bucket, Writeable {
 
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
+    private boolean columnar = false;
+
+    @Nullable
+    private ColumnarBucket.ColumnarRow decodedColumns;
 
     public static class Builder implements Accountable {
 
         private static final int INITIAL_PAGE_SIZE = 1024;
         private final RamAccounting ramAccounting;
         private final Streamer<?>[] streamers;
+        @Nullable
+        private final ColumnarBucket.Writer columnarWriter;
 
         private int size = 0;
         private BytesStreamOutput out;
-        private int prevOutSize = 0;
+        private long prevOutSize = 0;
 
         public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting) {
+            this(streamers, ramAccounting, false);
+        }
+
+        /**
+         * @param columnar if true the rows are encoded column-major, see {@link ColumnarBucket}.
+         *                 Must only be used if all nodes which receive the bucket are on or after {@link Version#V_4_3_0}
+         */
+        public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting, boolean columnar) {
             this.ramAccounting = requireNonNull(ramAccounting, "RamAccounting must not be null");
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
-            out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+            if (columnar) {
+                columnarWriter = new ColumnarBucket.Writer(streamers);
+            } else {
+                columnarWriter = null;
+                out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+            }
         }
 
         public void add(Row row) {
             assert streamers.length == row.numColumns() : "number of streamer must match row size";
 
             size++;
+            if (columnarWriter != null) {
+                columnarWriter.add(row);
+                long outSize = columnarWriter.sizeInBytes();
+                ramAccounting.addBytes(outSize - prevOutSize);
+                prevOutSize = outSize;
+                return;
+            }
             for (int i = 0; i < row.numColumns(); i++) {
                 try {
                     //noinspection unchecked
@@ -85,12 +119,21 @@ public class StreamBucket implements Bucket, Writeable {
         public StreamBucket build() {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
-            sb.bytes = out.bytes();
+            if (columnarWriter == null) {
+                sb.bytes = out.bytes();
+            } else {
+                sb.bytes = columnarWriter.finish();
+                sb.columnar = true;
+            }
             return sb;
         }
 
         public void reset() {
-            out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            if (columnarWriter == null) {
+                out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            } else {
+                columnarWriter.reset();
+            }
             size = 0;
         }
 
@@ -114,6 +157,13 @@ public class StreamBucket implements Bucket, Writeable {
         return size;
     }
 
+    /**
+     * @return the number of bytes of the serialized rows
+     */
+    public long sizeInBytes() {
+        return bytes == null ? 0L : bytes.length();
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
@@ -171,6 +221,30 @@ public class StreamBucket implements Bucket, Writeable {
         }
     }
 
+    private static class ColumnarRowIterator implements Iterator<Row> {
+
+        private final ColumnarBucket.ColumnarRow row;
+        private final int size;
+        private int pos = 0;
+
+        private ColumnarRowIterator(ColumnarBucket.ColumnarRow row, int size) {
+            this.row = row;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < size;
+        }
+
+        @Override
+        public Row next() {
+            row.position(pos);
+            pos++;
+            return row;
+        }
+    }
+
     @Override
     @Nonnull
     public Iterator<Row> iterator() {
@@ -178,6 +252,16 @@ public class StreamBucket implements Bucket, Writeable {
             return Collections.emptyIterator();
         }
         assert streamers != null : "streamers must not be null";
+        if (columnar) {
+            // Columns are decoded once into arrays; each iterator gets its own row so that
+            // concurrent or nested iterations over the same bucket don't move each other's position
+            ColumnarBucket.ColumnarRow decoded = decodedColumns;
+            if (decoded == null) {
+                decoded = ColumnarBucket.decode(bytes, streamers, size);
+                decodedColumns = decoded;
+            }
+            return new ColumnarRowIterator(decoded.newRow(), size);
+        }
         try {
             return new RowIterator(bytes.streamInput(), streamers, size);
         } catch (IOException e) {
@@ -185,6 +269,10 @@ public class StreamBucket implements Bucket, Writeable {
         }
     }
 
+    public boolean isColumnar() {
+        return columnar;
+    }
+
     /**
      * Create a StreamBucket by reading from an input stream.
      * The created buckets rows are lazily de-serialized using the provided streamers
@@ -201,6 +289,9 @@ public class StreamBucket implements Bucket, Writeable {
     public StreamBucket(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
+            if (in.getVersion().onOrAfter(Version.V_4_3_0)) {
+                columnar = in.readBoolean();
+            }
             bytes = in.readBytesReference();
         }
     }
@@ -209,6 +300,7 @@ public class StreamBucket implements Bucket, Writeable {
     public String toString() {
         return "StreamBucket{" +
                "size=" + size +
+               ", columnar=" + columnar +
                '}';
     }
 
@@ -217,7 +309,24 @@ public class StreamBucket implements Bucket, Writeable {
         assert size > -1 : "size must be > -1";
         out.writeVInt(size);
         if (size > 0) {
-            out.writeBytesReference(bytes);
+            if (out.getVersion().onOrAfter(Version.V_4_3_0)) {
+                out.writeBoolean(columnar);
+                out.writeBytesReference(bytes);
+            } else {
+                out.writeBytesReference(columnar ? toRowFormat() : bytes);
+            }
+        }
+    }
+
+    private BytesReference toRowFormat() throws IOException {
+        assert streamers != null : "streamers must be set to convert a columnar bucket";
+        BytesStreamOutput rowsOut = new BytesStreamOutput(bytes.length());
+        for (Row row : this) {
+            for (int i = 0; i < streamers.length; i++) {
+                //noinspection unchecked
+                ((Streamer) streamers[i]).writeValueTo(rowsOut, row.get(i));
+            }
         }
+        return rowsOut.bytes();
     }
 }
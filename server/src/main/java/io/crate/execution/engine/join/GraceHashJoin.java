@@ -0,0 +1,656 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.data.join.CombinedRow;
+import io.crate.exceptions.Exceptions;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.planner.node.dql.join.JoinType;
+import io.netty.util.collection.IntObjectHashMap;
+import org.apache.lucene.util.IOUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * A hash join which supports all join types that have an equi-join condition and which moves rows to disk
+ * if they don't fit into memory (Grace hash join).
+ *
+ * <pre>
+ *     Partition Phase:
+ *     for (row in left, then in right if a partition has been moved to disk) {
+ *         add row to partition[hash(row) % NUM_PARTITIONS] of its side
+ *         if (memory used by the in-memory partitions > memory budget) {
+ *             move the largest in-memory partition (both sides) to disk
+ *         }
+ *     }
+ *
+ *     Join Phase:
+ *     for (partition in partitions) {
+ *         build a hash map with the left rows of the partition
+ *         for (rightRow in partition) {
+ *             emit the matching left rows (unmatched rightRow for RIGHT/FULL)
+ *         }
+ *         emit unmatched left rows for LEFT/FULL/ANTI
+ *     }
+ * </pre>
+ * <p>
+ * Rows with equal join keys always end up in the same partition, so each pair of partitions can be joined on its own
+ * and each row is read only once per join phase.
+ * Partitions which have been moved to disk are loaded one at a time.
+ * <p>
+ * If all left rows fit into the memory budget, no partition is moved to disk and the right side is not buffered:
+ * Its rows are streamed and probed against all left rows, like in {@link HashInnerJoinBatchIterator}.
+ * Otherwise the right side is partitioned as well and is fully consumed before the first row is emitted.
+ * <p>
+ * For SEMI and ANTI joins only the left columns are relevant; the right columns of the emitted rows are null.
+ */
+public final class GraceHashJoin implements Closeable {
+
+    static final int NUM_PARTITIONS = 32;
+
+    private final BatchIterator<Row> left;
+    private final BatchIterator<Row> right;
+    private final JoinType joinType;
+    private final CombinedRow combiner;
+    private final Predicate<Row> joinCondition;
+    private final ToIntFunction<Row> hashBuilderForLeft;
+    private final ToIntFunction<Row> hashBuilderForRight;
+    private final RamAccounting ramAccounting;
+    private final RowAccounting<Object[]> leftRowAccounting;
+    private final RowAccounting<Object[]> rightRowAccounting;
+    private final LongUnaryOperator memoryBudgetInBytes;
+    private final Streamer<?>[] leftStreamers;
+    private final Streamer<?>[] rightStreamers;
+    @Nullable
+    private final Path spillDirectory;
+
+    private final List<List<Object[]>> leftPartitions = new ArrayList<>(NUM_PARTITIONS);
+    private final List<List<Object[]>> rightPartitions = new ArrayList<>(NUM_PARTITIONS);
+    private final SpillFile[] leftSpillFiles = new SpillFile[NUM_PARTITIONS];
+    private final SpillFile[] rightSpillFiles = new SpillFile[NUM_PARTITIONS];
+    private final long[] bytesPerPartition = new long[NUM_PARTITIONS];
+    private final UnsafeArrayRow unsafeArrayRow = new UnsafeArrayRow();
+
+    private long inMemoryBytes = 0;
+    private int numSpilledPartitions = 0;
+
+    /**
+     * @param ramAccounting       used by {@code leftRowAccounting} and {@code rightRowAccounting}.
+     *                            Must not be shared with other operations.
+     * @param memoryBudgetInBytes returns the number of bytes the in-memory partitions may occupy before partitions
+     *                            are moved to disk, given the number of bytes they currently occupy.
+     *                            See {@link RamBlockSizeCalculator#memoryBudgetInBytes(long)}
+     * @param spillDirectory      directory for the files of partitions moved to disk. null disables spilling.
+     */
+    public GraceHashJoin(BatchIterator<Row> left,
+                         BatchIterator<Row> right,
+                         JoinType joinType,
+                         CombinedRow combiner,
+                         Predicate<Row> joinCondition,
+                         ToIntFunction<Row> hashBuilderForLeft,
+                         ToIntFunction<Row> hashBuilderForRight,
+                         RamAccounting ramAccounting,
+                         RowAccounting<Object[]> leftRowAccounting,
+                         RowAccounting<Object[]> rightRowAccounting,
+                         LongUnaryOperator memoryBudgetInBytes,
+                         Streamer<?>[] leftStreamers,
+                         Streamer<?>[] rightStreamers,
+                         @Nullable Path spillDirectory) {
+        this.left = left;
+        this.right = right;
+        this.joinType = joinType;
+        this.combiner = combiner;
+        this.joinCondition = joinCondition;
+        this.hashBuilderForLeft = hashBuilderForLeft;
+        this.hashBuilderForRight = hashBuilderForRight;
+        this.ramAccounting = ramAccounting;
+        this.leftRowAccounting = leftRowAccounting;
+        this.rightRowAccounting = rightRowAccounting;
+        this.memoryBudgetInBytes = memoryBudgetInBytes;
+        this.leftStreamers = leftStreamers;
+        this.rightStreamers = rightStreamers;
+        this.spillDirectory = spillDirectory;
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            leftPartitions.add(new ArrayList<>());
+            rightPartitions.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Create a BatchIterator emitting the joined rows.
+     * The left side is partitioned by the first {@link BatchIterator#loadNextBatch()} call.
+     * Closing the BatchIterator closes both sides and removes the files of partitions that have been moved to disk.
+     */
+    public BatchIterator<Row> batchIterator() {
+        return new PartitioningBatchIterator();
+    }
+
+    int numSpilledPartitions() {
+        return numSpilledPartitions;
+    }
+
+    private CompletableFuture<BatchIterator<Row>> partitionLeft() {
+        return BatchIterators.collect(left, partitioning(true))
+            .thenApply(ignored -> {
+                if (numSpilledPartitions == 0) {
+                    return new StreamingProbe();
+                }
+                return CollectingBatchIterator.newInstance(() -> { }, t -> { }, this::partitionRight, true);
+            });
+    }
+
+    private CompletableFuture<Iterable<Row>> partitionRight() {
+        return BatchIterators.collect(right, partitioning(false))
+            .thenApply(ignored -> {
+                finishPartitioning();
+                Iterable<Row> joinedRows = JoinedRowsIterator::new;
+                return joinedRows;
+            });
+    }
+
+    private void finishPartitioning() {
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            if (leftSpillFiles[i] != null) {
+                leftSpillFiles[i].finishWriting();
+                rightSpillFiles[i].finishWriting();
+            }
+        }
+    }
+
+    private Collector<Row, GraceHashJoin, GraceHashJoin> partitioning(boolean isLeft) {
+        return Collector.of(
+            () -> this,
+            (join, row) -> join.addRow(row.materialize(), isLeft),
+            (join1, join2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            }
+        );
+    }
+
+    private static int partition(int hash) {
+        return (hash ^ (hash >>> 16)) & (NUM_PARTITIONS - 1);
+    }
+
+    private void addRow(Object[] row, boolean isLeft) {
+        ToIntFunction<Row> hashBuilder = isLeft ? hashBuilderForLeft : hashBuilderForRight;
+        int partition = partition(hashBuilder.applyAsInt(unsafeArrayRow.cells(row)));
+        SpillFile spillFile = isLeft ? leftSpillFiles[partition] : rightSpillFiles[partition];
+        if (spillFile != null) {
+            spillFile.write(row);
+            return;
+        }
+        long bytesBefore = ramAccounting.totalBytes();
+        (isLeft ? leftRowAccounting : rightRowAccounting).accountForAndMaybeBreak(row);
+        long rowBytes = ramAccounting.totalBytes() - bytesBefore;
+        bytesPerPartition[partition] += rowBytes;
+        inMemoryBytes += rowBytes;
+        (isLeft ? leftPartitions : rightPartitions).get(partition).add(row);
+        while (inMemoryBytes > memoryBudgetInBytes.applyAsLong(inMemoryBytes)) {
+            if (spillLargestPartition() == false) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Moves the largest in-memory partition of both sides to disk.
+     * Subsequent rows of the partition are written to disk directly.
+     *
+     * @return false if there was no partition that could be moved to disk.
+     */
+    private boolean spillLargestPartition() {
+        if (spillDirectory == null) {
+            return false;
+        }
+        int largest = -1;
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            if (leftSpillFiles[i] == null && (largest == -1 || bytesPerPartition[i] > bytesPerPartition[largest])) {
+                largest = i;
+            }
+        }
+        if (largest == -1 || bytesPerPartition[largest] == 0) {
+            return false;
+        }
+        leftSpillFiles[largest] = spill(leftPartitions.get(largest), leftStreamers);
+        rightSpillFiles[largest] = spill(rightPartitions.get(largest), rightStreamers);
+        leftPartitions.set(largest, Collections.emptyList());
+        rightPartitions.set(largest, Collections.emptyList());
+        ramAccounting.addBytes(-bytesPerPartition[largest]);
+        inMemoryBytes -= bytesPerPartition[largest];
+        bytesPerPartition[largest] = 0;
+        numSpilledPartitions++;
+        return true;
+    }
+
+    private SpillFile spill(List<Object[]> rows, Streamer<?>[] streamers) {
+        assert spillDirectory != null : "spillDirectory must be available to spill partitions";
+        SpillFile spillFile = SpillFile.create(spillDirectory, "hash-join-", streamers);
+        for (Object[] row : rows) {
+            spillFile.write(row);
+        }
+        return spillFile;
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(leftSpillFiles);
+        IOUtils.closeWhileHandlingException(rightSpillFiles);
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            leftPartitions.set(i, Collections.emptyList());
+            rightPartitions.set(i, Collections.emptyList());
+            leftSpillFiles[i] = null;
+            rightSpillFiles[i] = null;
+        }
+        ramAccounting.close();
+    }
+
+    private static final class LeftRow {
+
+        private final Object[] cells;
+        private boolean matched = false;
+
+        LeftRow(Object[] cells) {
+            this.cells = cells;
+        }
+    }
+
+    /**
+     * Partitions the left side on the first {@link #loadNextBatch()} call and then delegates to
+     * a {@link StreamingProbe} or, if partitions have been moved to disk, to the {@link JoinedRowsIterator}.
+     */
+    private final class PartitioningBatchIterator implements BatchIterator<Row> {
+
+        @Nullable
+        private BatchIterator<Row> joinedRows;
+        @Nullable
+        private CompletableFuture<?> leftPartitioned;
+        private volatile Throwable killed;
+
+        @Override
+        public Row currentElement() {
+            return combiner.currentElement();
+        }
+
+        @Override
+        public void moveToStart() {
+            raiseIfKilled();
+            if (joinedRows != null) {
+                joinedRows.moveToStart();
+            }
+        }
+
+        @Override
+        public boolean moveNext() {
+            raiseIfKilled();
+            return joinedRows != null && joinedRows.moveNext();
+        }
+
+        @Override
+        public void close() {
+            left.close();
+            right.close();
+            GraceHashJoin.this.close();
+            killed = BatchIterator.CLOSED;
+        }
+
+        @Override
+        public CompletionStage<?> loadNextBatch() throws Exception {
+            if (joinedRows != null) {
+                return joinedRows.loadNextBatch();
+            }
+            if (leftPartitioned != null) {
+                throw new IllegalStateException("BatchIterator is already loading");
+            }
+            leftPartitioned = partitionLeft().thenAccept(it -> joinedRows = it);
+            return leftPartitioned;
+        }
+
+        @Override
+        public boolean allLoaded() {
+            return joinedRows != null && joinedRows.allLoaded();
+        }
+
+        @Override
+        public void kill(@Nonnull Throwable throwable) {
+            left.kill(throwable);
+            right.kill(throwable);
+            if (joinedRows != null) {
+                joinedRows.kill(throwable);
+            }
+            killed = throwable;
+        }
+
+        @Override
+        public boolean hasLazyResultSet() {
+            return true;
+        }
+
+        private void raiseIfKilled() {
+            if (killed != null) {
+                Exceptions.rethrowUnchecked(killed);
+            }
+        }
+    }
+
+    /**
+     * Matches right rows against a hash table of left rows and tracks which rows have been matched,
+     * see the "Join Phase" in the class documentation.
+     */
+    private abstract class Probe {
+
+        private final UnsafeArrayRow leftRow = new UnsafeArrayRow();
+        private final IntObjectHashMap<List<LeftRow>> buffer = new IntObjectHashMap<>();
+        final List<LeftRow> leftRows = new ArrayList<>();
+
+        private Iterator<LeftRow> leftCandidates = Collections.emptyIterator();
+        private Iterator<LeftRow> unmatchedLeftCandidates = null;
+        private boolean currentRightMatched;
+
+        void addLeftRow(Object[] cells) {
+            LeftRow row = new LeftRow(cells);
+            leftRows.add(row);
+            int hash = hashBuilderForLeft.applyAsInt(leftRow.cells(cells));
+            List<LeftRow> rowsWithSameHash = buffer.get(hash);
+            if (rowsWithSameHash == null) {
+                rowsWithSameHash = new ArrayList<>();
+                buffer.put(hash, rowsWithSameHash);
+            }
+            rowsWithSameHash.add(row);
+        }
+
+        void clearLeftRows() {
+            buffer.clear();
+            leftRows.clear();
+            resetProbe();
+        }
+
+        void resetProbe() {
+            leftCandidates = Collections.emptyIterator();
+            unmatchedLeftCandidates = null;
+        }
+
+        void startProbe(Row right) {
+            currentRightMatched = false;
+            List<LeftRow> matchingRows = buffer.get(hashBuilderForRight.applyAsInt(right));
+            leftCandidates = matchingRows == null ? Collections.emptyIterator() : matchingRows.iterator();
+        }
+
+        boolean matchCurrentRight(Row right) {
+            boolean skipMatchedRows = joinType == JoinType.SEMI || joinType == JoinType.ANTI;
+            while (leftCandidates.hasNext()) {
+                LeftRow candidate = leftCandidates.next();
+                if (skipMatchedRows && candidate.matched) {
+                    continue;
+                }
+                combiner.setLeft(leftRow.cells(candidate.cells));
+                combiner.setRight(right);
+                if (joinCondition.test(combiner.currentElement())) {
+                    candidate.matched = true;
+                    currentRightMatched = true;
+                    if (joinType == JoinType.SEMI) {
+                        combiner.nullRight();
+                        return true;
+                    } else if (joinType != JoinType.ANTI) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean emitUnmatchedRight(Row right) {
+            if (currentRightMatched == false && emitsUnmatchedRightRows()) {
+                combiner.nullLeft();
+                combiner.setRight(right);
+                return true;
+            }
+            return false;
+        }
+
+        boolean emitNextUnmatchedLeft() {
+            if (unmatchedLeftCandidates == null) {
+                boolean emitsUnmatchedLeftRows =
+                    joinType == JoinType.LEFT || joinType == JoinType.FULL || joinType == JoinType.ANTI;
+                unmatchedLeftCandidates = emitsUnmatchedLeftRows ? leftRows.iterator() : Collections.emptyIterator();
+            }
+            while (unmatchedLeftCandidates.hasNext()) {
+                LeftRow candidate = unmatchedLeftCandidates.next();
+                if (candidate.matched == false) {
+                    combiner.setLeft(leftRow.cells(candidate.cells));
+                    combiner.nullRight();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean emitsUnmatchedRightRows() {
+            return joinType == JoinType.RIGHT || joinType == JoinType.FULL;
+        }
+    }
+
+    /**
+     * Probes the rows of the right side as they are loaded against all left rows, which are held in memory.
+     */
+    private final class StreamingProbe extends Probe implements BatchIterator<Row> {
+
+        private final boolean skipRight;
+        private boolean hasCurrentRight = false;
+
+        StreamingProbe() {
+            for (List<Object[]> partition : leftPartitions) {
+                for (Object[] cells : partition) {
+                    addLeftRow(cells);
+                }
+            }
+            // None of the right rows can be part of the result
+            skipRight = leftRows.isEmpty() && emitsUnmatchedRightRows() == false;
+        }
+
+        @Override
+        public Row currentElement() {
+            return combiner.currentElement();
+        }
+
+        @Override
+        public void moveToStart() {
+            if (skipRight == false) {
+                right.moveToStart();
+            }
+            for (LeftRow row : leftRows) {
+                row.matched = false;
+            }
+            hasCurrentRight = false;
+            resetProbe();
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (skipRight) {
+                return false;
+            }
+            while (true) {
+                if (hasCurrentRight) {
+                    if (matchCurrentRight(right.currentElement())) {
+                        return true;
+                    }
+                    hasCurrentRight = false;
+                    if (emitUnmatchedRight(right.currentElement())) {
+                        return true;
+                    }
+                }
+                if (right.moveNext()) {
+                    hasCurrentRight = true;
+                    startProbe(right.currentElement());
+                    continue;
+                }
+                return right.allLoaded() && emitNextUnmatchedLeft();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public CompletionStage<?> loadNextBatch() throws Exception {
+            if (skipRight) {
+                throw new IllegalStateException("BatchIterator already fully loaded");
+            }
+            return right.loadNextBatch();
+        }
+
+        @Override
+        public boolean allLoaded() {
+            return skipRight || right.allLoaded();
+        }
+
+        @Override
+        public void kill(@Nonnull Throwable throwable) {
+        }
+
+        @Override
+        public boolean hasLazyResultSet() {
+            return right.hasLazyResultSet();
+        }
+    }
+
+    /**
+     * Joins the partitions one after another, see the "Join Phase" in the class documentation.
+     */
+    private final class JoinedRowsIterator extends Probe implements Iterator<Row> {
+
+        private final UnsafeArrayRow rightRow = new UnsafeArrayRow();
+
+        private int partition = -1;
+        private long loadedBytes = 0;
+        private Iterator<Object[]> rightRows = Collections.emptyIterator();
+        @Nullable
+        private Object[] currentRight;
+        private boolean hasNext;
+        private boolean hasNextComputed = false;
+
+        @Override
+        public boolean hasNext() {
+            if (hasNextComputed == false) {
+                hasNext = moveNext();
+                hasNextComputed = true;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Row next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException("All joined rows have been emitted");
+            }
+            hasNextComputed = false;
+            return combiner.currentElement();
+        }
+
+        private boolean moveNext() {
+            while (true) {
+                if (currentRight != null) {
+                    if (matchCurrentRight(rightRow)) {
+                        return true;
+                    }
+                    currentRight = null;
+                    if (emitUnmatchedRight(rightRow)) {
+                        return true;
+                    }
+                }
+                if (rightRows.hasNext()) {
+                    currentRight = rightRows.next();
+                    startProbe(rightRow.cells(currentRight));
+                    continue;
+                }
+                if (emitNextUnmatchedLeft()) {
+                    return true;
+                }
+                if (loadNextPartition() == false) {
+                    return false;
+                }
+            }
+        }
+
+        private boolean loadNextPartition() {
+            ramAccounting.addBytes(-loadedBytes);
+            loadedBytes = 0;
+            clearLeftRows();
+            partition++;
+            if (partition >= NUM_PARTITIONS) {
+                rightRows = Collections.emptyIterator();
+                return false;
+            }
+            SpillFile leftSpillFile = leftSpillFiles[partition];
+            Iterator<Object[]> leftPartition;
+            if (leftSpillFile == null) {
+                leftPartition = leftPartitions.get(partition).iterator();
+            } else {
+                leftPartition = leftSpillFile.rows();
+            }
+            while (leftPartition.hasNext()) {
+                Object[] cells = leftPartition.next();
+                if (leftSpillFile != null) {
+                    long bytesBefore = ramAccounting.totalBytes();
+                    leftRowAccounting.accountForAndMaybeBreak(cells);
+                    loadedBytes += ramAccounting.totalBytes() - bytesBefore;
+                }
+                addLeftRow(cells);
+            }
+            if (leftRows.isEmpty() && emitsUnmatchedRightRows() == false) {
+                // None of the right rows can be part of the result
+                rightRows = Collections.emptyIterator();
+            } else {
+                SpillFile rightSpillFile = rightSpillFiles[partition];
+                rightRows = rightSpillFile == null
+                    ? rightPartitions.get(partition).iterator()
+                    : rightSpillFile.rows();
+            }
+            return true;
+        }
+    }
+}
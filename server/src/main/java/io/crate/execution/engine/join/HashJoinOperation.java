@@ -22,7 +22,9 @@
 
 package io.crate.execution.engine.join;
 
+import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowAccounting;
+import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
 import io.crate.data.CapturingRowConsumer;
@@ -34,8 +36,14 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
@@ -50,15 +58,19 @@ public class HashJoinOperation implements CompletionListenable {
     public HashJoinOperation(int numLeftCols,
                              int numRightCols,
                              RowConsumer nlResultConsumer,
+                             JoinType joinType,
                              Predicate<Row> joinPredicate,
                              List<Symbol> joinLeftInputs,
                              List<Symbol> joinRightInputs,
-                             RowAccounting<Object[]> rowAccounting,
+                             RamAccounting ramAccounting,
+                             Collection<DataType<?>> leftOutputTypes,
+                             @Nullable Collection<DataType<?>> rightOutputTypes,
                              TransactionContext txnCtx,
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
                              long estimatedRowSizeForLeft,
-                             long numberOfRowsForLeft) {
+                             long numberOfRowsForLeft,
+                             @Nullable Path spillDirectory) {
 
         this.resultConsumer = nlResultConsumer;
         this.leftConsumer = new CapturingRowConsumer(false, nlResultConsumer.completionFuture());
@@ -68,22 +80,57 @@ public class HashJoinOperation implements CompletionListenable {
                 if (failure == null) {
                     BatchIterator<Row> joinIterator;
                     try {
-                        joinIterator = createHashJoinIterator(
-                            leftConsumer.capturedBatchIterator().join(),
-                            numLeftCols,
-                            rightConsumer.capturedBatchIterator().join(),
-                            numRightCols,
-                            joinPredicate,
-                            getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
-                            getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
-                            rowAccounting,
-                            new RamBlockSizeCalculator(
-                                Paging.PAGE_SIZE,
-                                circuitBreaker,
-                                estimatedRowSizeForLeft,
-                                numberOfRowsForLeft
-                            )
+                        RamBlockSizeCalculator blockSizeCalculator = new RamBlockSizeCalculator(
+                            Paging.PAGE_SIZE,
+                            circuitBreaker,
+                            estimatedRowSizeForLeft,
+                            numberOfRowsForLeft
                         );
+                        // 110 extra bytes per row =
+                        //    96 bytes for each ArrayList +
+                        //    7 bytes per key for the IntHashObjectHashMap  (should be 4 but the map pre-allocates more)
+                        //    7 bytes perv value (pointer from the map to the list) (should be 4 but the map pre-allocates more)
+                        var leftRowAccounting = new RowCellsAccountingWithEstimators(leftOutputTypes, ramAccounting, 110);
+                        // Inner joins stream the right side with the HashInnerJoinBatchIterator, unless the left side
+                        // is expected to exceed the memory budget and would require re-scanning the right side.
+                        // The GraceHashJoin also streams the right side if the left side fits into the budget.
+                        boolean useGraceHashJoin = rightOutputTypes != null
+                            && (joinType != JoinType.INNER
+                                || (spillDirectory != null && blockSizeCalculator.leftSideExceedsMemoryBudget()));
+                        if (useGraceHashJoin == false) {
+                            // rightOutputTypes is null if the phase was created by a node which only supports
+                            // inner joins without spilling
+                            assert joinType == JoinType.INNER : "Only INNER joins can use the HashInnerJoinBatchIterator";
+                            joinIterator = createHashJoinIterator(
+                                leftConsumer.capturedBatchIterator().join(),
+                                numLeftCols,
+                                rightConsumer.capturedBatchIterator().join(),
+                                numRightCols,
+                                joinPredicate,
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
+                                leftRowAccounting,
+                                blockSizeCalculator
+                            );
+                        } else {
+                            joinIterator = new GraceHashJoin(
+                                leftConsumer.capturedBatchIterator().join(),
+                                rightConsumer.capturedBatchIterator().join(),
+                                joinType,
+                                new CombinedRow(numLeftCols, numRightCols),
+                                joinPredicate,
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
+                                ramAccounting,
+                                leftRowAccounting,
+                                // 32 extra bytes per row for the partition lists
+                                new RowCellsAccountingWithEstimators(rightOutputTypes, ramAccounting, 32),
+                                blockSizeCalculator::memoryBudgetInBytes,
+                                DataTypes.getStreamers(leftOutputTypes),
+                                DataTypes.getStreamers(rightOutputTypes),
+                                spillDirectory
+                            ).batchIterator();
+                        }
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
                         nlResultConsumer.accept(null, e);
@@ -71,6 +71,38 @@ public class RamBlockSizeCalculator implements IntSupplier {
         return blockSize <= 0 ? 10 : blockSize;
     }
 
+    /**
+     * The number of bytes an operation which currently holds {@code bytesInUse} may keep in memory before it should
+     * move data to disk: Half of the memory that would be available in the circuit breaker without those bytes.
+     * <p>
+     * The budget must be re-evaluated while the operation grows. Operations running concurrently then shrink each
+     * others budget, instead of each claiming half of the memory that was available when they started.
+     */
+    public long memoryBudgetInBytes(long bytesInUse) {
+        long limit = circuitBreaker.getLimit();
+        if (limit == -1) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max((limit - circuitBreaker.getUsed() + bytesInUse) / 2, 0);
+    }
+
+    /**
+     * @return true if the statistics indicate that the left side does not fit into the {@link #memoryBudgetInBytes(long)}.
+     *         false if it fits or if statistics are unavailable.
+     */
+    public boolean leftSideExceedsMemoryBudget() {
+        if (statisticsUnavailable(circuitBreaker, estimatedRowSizeForLeft, numberOfRowsForLeft)) {
+            return false;
+        }
+        long estimatedBytesForLeft;
+        try {
+            estimatedBytesForLeft = Math.multiplyExact(estimatedRowSizeForLeft, numberOfRowsForLeft);
+        } catch (ArithmeticException e) {
+            return true;
+        }
+        return estimatedBytesForLeft > memoryBudgetInBytes(0);
+    }
+
     private static boolean statisticsUnavailable(CircuitBreaker circuitBreaker,
                                                  long estimatedRowSizeForLeft,
                                                  long numberOfRowsForLeft) {
@@ -27,8 +27,10 @@ import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
+import io.crate.profile.PhaseProfiler;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 
 import javax.annotation.Nullable;
@@ -85,10 +87,55 @@ public class ProjectingRowConsumer implements RowConsumer {
                                      RamAccounting ramAccounting,
                                      MemoryManager memoryManager,
                                      ProjectorFactory projectorFactory) {
-        if (projections.isEmpty()) {
-            return lastConsumer;
+        return create(
+            lastConsumer, projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, new SpillStats());
+    }
+
+    /**
+     * @param spillStats updated by projectors which move rows into temporary files
+     * @see #create(RowConsumer, Collection, UUID, TransactionContext, RamAccounting, MemoryManager, ProjectorFactory)
+     */
+    public static RowConsumer create(RowConsumer lastConsumer,
+                                     Collection<? extends Projection> projections,
+                                     UUID jobId,
+                                     TransactionContext txnCtx,
+                                     RamAccounting ramAccounting,
+                                     MemoryManager memoryManager,
+                                     ProjectorFactory projectorFactory,
+                                     SpillStats spillStats) {
+        return create(
+            lastConsumer, projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, spillStats, null);
+    }
+
+    /**
+     * @param profiler if not null, the rows received on accept are recorded as the rows of the phase source
+     *                 and each projector is recorded as an operator of the phase
+     * @see #create(RowConsumer, Collection, UUID, TransactionContext, RamAccounting, MemoryManager, ProjectorFactory)
+     */
+    public static RowConsumer create(RowConsumer lastConsumer,
+                                     Collection<? extends Projection> projections,
+                                     UUID jobId,
+                                     TransactionContext txnCtx,
+                                     RamAccounting ramAccounting,
+                                     MemoryManager memoryManager,
+                                     ProjectorFactory projectorFactory,
+                                     SpillStats spillStats,
+                                     @Nullable PhaseProfiler profiler) {
+        RowConsumer consumer = lastConsumer;
+        if (!projections.isEmpty()) {
+            consumer = new ProjectingRowConsumer(
+                lastConsumer,
+                projections,
+                jobId,
+                txnCtx,
+                ramAccounting,
+                memoryManager,
+                projectorFactory,
+                spillStats,
+                profiler
+            );
         }
-        return new ProjectingRowConsumer(lastConsumer, projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory);
+        return profiler == null ? consumer : profiler.instrumentSource(consumer);
     }
 
     private ProjectingRowConsumer(RowConsumer consumer,
@@ -97,9 +144,12 @@ public class ProjectingRowConsumer implements RowConsumer {
                                   TransactionContext txnCtx,
                                   RamAccounting ramAccounting,
                                   MemoryManager memoryManager,
-                                  ProjectorFactory projectorFactory) {
+                                  ProjectorFactory projectorFactory,
+                                  SpillStats spillStats,
+                                  @Nullable PhaseProfiler profiler) {
         this.consumer = consumer;
-        this.projectors = new Projectors(projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory);
+        this.projectors = new Projectors(
+            projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, spillStats, profiler);
     }
 
     @Override
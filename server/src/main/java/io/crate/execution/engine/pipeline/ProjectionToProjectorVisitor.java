@@ -23,8 +23,10 @@
 package io.crate.execution.engine.pipeline;
 
 import com.google.common.collect.Iterables;
+import io.crate.Streamer;
 import io.crate.analyze.NumberOfReplicas;
 import io.crate.analyze.SymbolEvaluator;
+import io.crate.breaker.ChildRamAccounting;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.common.collections.Lists2;
@@ -72,9 +74,13 @@ import io.crate.execution.engine.indexing.IndexWriterProjector;
 import io.crate.execution.engine.indexing.ShardDMLExecutor;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.engine.indexing.UpsertResultContext;
+import io.crate.execution.engine.sort.ExternalSorter;
 import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.SortingTopNProjector;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillStats;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.engine.window.WindowProjector;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.support.ThreadPools;
@@ -111,6 +117,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -143,6 +150,7 @@ public class ProjectionToProjectorVisitor
     private final Functions functions;
     private final ThreadPool threadPool;
     private final Settings settings;
+    private final SpillThresholds spillThresholds;
     private final TransportActionProvider transportActionProvider;
     private final InputFactory inputFactory;
     private final EvaluatingNormalizer normalizer;
@@ -158,6 +166,7 @@ public class ProjectionToProjectorVisitor
                                         Functions functions,
                                         ThreadPool threadPool,
                                         Settings settings,
+                                        SpillThresholds spillThresholds,
                                         TransportActionProvider transportActionProvider,
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
@@ -170,6 +179,7 @@ public class ProjectionToProjectorVisitor
         this.functions = functions;
         this.threadPool = threadPool;
         this.settings = settings;
+        this.spillThresholds = spillThresholds;
         this.transportActionProvider = transportActionProvider;
         this.inputFactory = inputFactory;
         this.normalizer = normalizer;
@@ -185,6 +195,7 @@ public class ProjectionToProjectorVisitor
                                         Functions functions,
                                         ThreadPool threadPool,
                                         Settings settings,
+                                        SpillThresholds spillThresholds,
                                         TransportActionProvider transportActionProvider,
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
@@ -195,6 +206,7 @@ public class ProjectionToProjectorVisitor
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             inputFactory,
             normalizer,
@@ -238,21 +250,35 @@ public class ProjectionToProjectorVisitor
         }
 
         int rowMemoryOverhead = 32; // priority queues implementation are backed by an arrayList
+        // The ExternalSorter releases the memory of the rows on spill, which must not affect other operators
+        RamAccounting sortRamAccounting = new ChildRamAccounting(context.ramAccounting);
         RowCellsAccountingWithEstimators rowAccounting = new RowCellsAccountingWithEstimators(
             Symbols.typeView(Lists2.concat(projection.outputs(), projection.orderBy())),
-            context.ramAccounting,
+            sortRamAccounting,
             rowMemoryOverhead
         );
+        Comparator<Object[]> ordering = OrderingByPosition.arrayOrdering(
+            orderByIndices, projection.reverseFlags(), projection.nullsFirst());
+        Streamer<?>[] streamers = Symbols.streamerArray(Lists2.concat(projection.outputs(), projection.orderBy()));
+        long spillThreshold = spillThresholds.sortThresholdInBytes();
+        Supplier<ExternalSorter> externalSorterFactory = () -> new ExternalSorter(
+            streamers,
+            ordering,
+            sortRamAccounting,
+            spillThreshold,
+            SpillFile.directory(settings, "sort")
+        );
         if (projection.limit() > TopN.NO_LIMIT) {
             return new SortingTopNProjector(
                 rowAccounting,
                 inputs,
                 ctx.expressions(),
                 numOutputs,
-                OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
+                ordering,
                 projection.limit(),
                 projection.offset(),
-                UNBOUNDED_COLLECTOR_THRESHOLD
+                UNBOUNDED_COLLECTOR_THRESHOLD,
+                externalSorterFactory
             );
         }
         return new SortingProjector(
@@ -260,8 +286,9 @@ public class ProjectionToProjectorVisitor
             inputs,
             ctx.expressions(),
             numOutputs,
-            OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            ordering,
+            projection.offset(),
+            externalSorterFactory
         );
     }
 
@@ -284,6 +311,16 @@ public class ProjectionToProjectorVisitor
     @Override
     public Projector visitEvalProjection(EvalProjection projection, Context context) {
         InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(context.txnCtx, projection.outputs());
+        VectorizedEvalProjector vectorizedProjector = VectorizedEvalProjector.create(
+            context.txnCtx,
+            functions,
+            projection.outputs(),
+            ctx.topLevelInputs(),
+            ctx.expressions()
+        );
+        if (vectorizedProjector != null) {
+            return vectorizedProjector;
+        }
         return new InputRowProjector(ctx.topLevelInputs(), ctx.expressions());
     }
 
@@ -295,6 +332,7 @@ public class ProjectionToProjectorVisitor
         ctx.add(projection.values());
 
         List<Input<?>> keyInputs = ctx.topLevelInputs();
+        long spillThreshold = spillThresholds.groupByThresholdInBytes();
         return new GroupingProjector(
             projection.keys(),
             keyInputs,
@@ -304,7 +342,10 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().getNodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            spillThreshold,
+            SpillFile.directory(settings, "group_by"),
+            context.spillStats
         );
     }
 
@@ -495,6 +536,16 @@ public class ProjectionToProjectorVisitor
     @Override
     public Projector visitFilterProjection(FilterProjection projection, Context context) {
         Predicate<Row> rowFilter = RowFilter.create(context.txnCtx, inputFactory, projection.query());
+        VectorizedFilterProjector vectorizedProjector = VectorizedFilterProjector.create(
+            context.txnCtx,
+            functions,
+            projection.query(),
+            projection.outputs(),
+            rowFilter
+        );
+        if (vectorizedProjector != null) {
+            return vectorizedProjector;
+        }
         return new FilterProjector(rowFilter);
     }
 
@@ -677,8 +728,9 @@ public class ProjectionToProjectorVisitor
                             TransactionContext txnCtx,
                             RamAccounting ramAccounting,
                             MemoryManager memoryManager,
-                            UUID jobId) {
-        return process(projection, new Context(txnCtx, ramAccounting, memoryManager, jobId));
+                            UUID jobId,
+                            SpillStats spillStats) {
+        return process(projection, new Context(txnCtx, ramAccounting, memoryManager, jobId, spillStats));
     }
 
     @Override
@@ -692,15 +744,18 @@ public class ProjectionToProjectorVisitor
         private final MemoryManager memoryManager;
         private final UUID jobId;
         private final TransactionContext txnCtx;
+        private final SpillStats spillStats;
 
         public Context(TransactionContext txnCtx,
                        RamAccounting ramAccounting,
                        MemoryManager memoryManager,
-                       UUID jobId) {
+                       UUID jobId,
+                       SpillStats spillStats) {
             this.txnCtx = txnCtx;
             this.ramAccounting = ramAccounting;
             this.memoryManager = memoryManager;
             this.jobId = jobId;
+            this.spillStats = spillStats;
         }
     }
 }
@@ -25,6 +25,7 @@ package io.crate.execution.engine.pipeline;
 import io.crate.breaker.RamAccounting;
 import io.crate.data.Projector;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.TransactionContext;
@@ -33,11 +34,23 @@ import java.util.UUID;
 
 public interface ProjectorFactory {
 
+    default Projector create(Projection projection,
+                             TransactionContext txnCtx,
+                             RamAccounting ramAccounting,
+                             MemoryManager memoryManager,
+                             UUID jobId) {
+        return create(projection, txnCtx, ramAccounting, memoryManager, jobId, new SpillStats());
+    }
+
+    /**
+     * @param spillStats updated by projectors which move rows into temporary files
+     */
     Projector create(Projection projection,
                      TransactionContext txnCtx,
                      RamAccounting ramAccounting,
                      MemoryManager memoryManager,
-                     UUID jobId);
+                     UUID jobId,
+                     SpillStats spillStats);
 
     RowGranularity supportedGranularity();
 }
@@ -28,9 +28,15 @@ import io.crate.data.BatchIterator;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
+import io.crate.profile.OperatorStats;
+import io.crate.profile.PhaseProfiler;
+import io.crate.profile.ProfilingBatchIterator;
+import io.crate.profile.ProfilingRamAccounting;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.UUID;
@@ -43,6 +49,11 @@ public final class Projectors {
     @VisibleForTesting
     final ArrayList<Projector> projectors;
 
+    /**
+     * The stats of each projector, in the same order as {@link #projectors}; empty if profiling is disabled
+     */
+    private final ArrayList<OperatorStats> projectorStats;
+
     private final boolean independentScroll;
 
     public Projectors(Collection<? extends Projection> projections,
@@ -51,13 +62,45 @@ public final class Projectors {
                       RamAccounting ramAccounting,
                       MemoryManager memoryManager,
                       ProjectorFactory projectorFactory) {
+        this(projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, new SpillStats());
+    }
+
+    public Projectors(Collection<? extends Projection> projections,
+                      UUID jobId,
+                      TransactionContext txnCtx,
+                      RamAccounting ramAccounting,
+                      MemoryManager memoryManager,
+                      ProjectorFactory projectorFactory,
+                      SpillStats spillStats) {
+        this(projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, spillStats, null);
+    }
+
+    /**
+     * @param profiler if not null, the rows, time and memory of each projector are recorded as an operator of the phase
+     */
+    public Projectors(Collection<? extends Projection> projections,
+                      UUID jobId,
+                      TransactionContext txnCtx,
+                      RamAccounting ramAccounting,
+                      MemoryManager memoryManager,
+                      ProjectorFactory projectorFactory,
+                      SpillStats spillStats,
+                      @Nullable PhaseProfiler profiler) {
         boolean independentScroll = false;
         this.projectors = new ArrayList<>(projections.size());
+        this.projectorStats = new ArrayList<>(profiler == null ? 0 : projections.size());
         for (Projection projection : projections) {
             if (projection.requiredGranularity().ordinal() > projectorFactory.supportedGranularity().ordinal()) {
                 continue;
             }
-            Projector projector = projectorFactory.create(projection, txnCtx, ramAccounting, memoryManager, jobId);
+            RamAccounting projectorRamAccounting = ramAccounting;
+            if (profiler != null) {
+                OperatorStats stats = profiler.projector(projection.getClass().getSimpleName());
+                projectorStats.add(stats);
+                projectorRamAccounting = new ProfilingRamAccounting(ramAccounting, stats);
+            }
+            Projector projector = projectorFactory.create(
+                projection, txnCtx, projectorRamAccounting, memoryManager, jobId, spillStats);
             projectors.add(projector);
             independentScroll = independentScroll || projector.providesIndependentScroll();
         }
@@ -87,8 +130,11 @@ public final class Projectors {
 
     public BatchIterator<Row> wrap(BatchIterator<Row> source) {
         BatchIterator<Row> result = source;
-        for (Projector projector : projectors) {
-            result = projector.apply(result);
+        for (int i = 0; i < projectors.size(); i++) {
+            result = projectors.get(i).apply(result);
+            if (!projectorStats.isEmpty()) {
+                result = new ProfilingBatchIterator<>(result, projectorStats.get(i));
+            }
         }
         return result;
     }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorExpression;
+import io.crate.metadata.Functions;
+import io.crate.metadata.TransactionContext;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the values of the {@link InputColumn}s used by {@link VectorExpression}s
+ * for a batch of rows into {@link ColumnVector}s.
+ * Only input columns which are stored unboxed can be used, see {@link ColumnVector#isPrimitive}.
+ */
+final class RowVectors {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final List<InputColumn> columns = new ArrayList<>();
+    private ColumnVector[] vectors;
+    private int[] columnIndices;
+
+    /**
+     * Compile the symbol using the input columns of this instance. Must be called before {@link #setRow(int, Row)}.
+     */
+    @Nullable
+    VectorExpression compile(Symbol symbol, Functions functions, TransactionContext txnCtx) {
+        assert vectors == null : "compile must not be called after setRow";
+        return VectorExpression.compile(symbol, functions, txnCtx, BATCH_SIZE, this::inputIndex);
+    }
+
+    /**
+     * Add the input column to the columns which are collected into vectors.
+     * Must be called before {@link #setRow(int, Row)}.
+     *
+     * @return false if the symbol can't be collected into a vector.
+     */
+    boolean addInput(Symbol symbol) {
+        assert vectors == null : "addInput must not be called after setRow";
+        return inputIndex(symbol) >= 0;
+    }
+
+    private int inputIndex(Symbol symbol) {
+        if (!(symbol instanceof InputColumn) || !ColumnVector.isPrimitive(symbol.valueType())) {
+            return -1;
+        }
+        InputColumn column = (InputColumn) symbol;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).index() == column.index()) {
+                return i;
+            }
+        }
+        columns.add(column);
+        return columns.size() - 1;
+    }
+
+    void setRow(int position, Row row) {
+        if (vectors == null) {
+            vectors = new ColumnVector[columns.size()];
+            columnIndices = new int[columns.size()];
+            for (int i = 0; i < vectors.length; i++) {
+                InputColumn column = columns.get(i);
+                vectors[i] = ColumnVector.forType(column.valueType(), BATCH_SIZE);
+                columnIndices[i] = column.index();
+            }
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].set(position, row.get(columnIndices[i]));
+        }
+    }
+
+    ColumnVector[] vectors() {
+        return vectors;
+    }
+
+    /**
+     * @return a row which provides the values of the input columns at the given position, other columns are null.
+     */
+    Row rowAt(int position) {
+        int numColumns = Arrays.stream(columnIndices).max().orElse(-1) + 1;
+        Object[] cells = new Object[numColumns];
+        fillRow(position, cells);
+        return new RowN(cells);
+    }
+
+    /**
+     * Copy the values of the input columns at the given position into {@code cells}, indexed by the input column index.
+     */
+    void fillRow(int position, Object[] cells) {
+        for (int i = 0; i < vectors.length; i++) {
+            cells[columnIndices[i]] = vectors[i].get(position);
+        }
+    }
+}
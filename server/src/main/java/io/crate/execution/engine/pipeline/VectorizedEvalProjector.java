@@ -0,0 +1,181 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.MappedForwardingBatchIterator;
+import io.crate.data.Projector;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorExpression;
+import io.crate.metadata.Functions;
+import io.crate.metadata.TransactionContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Variant of the {@link InputRowProjector} which evaluates the scalars for a batch of rows at once,
+ * see {@link VectorExpression}.
+ * <p>
+ * Only used if all input columns are of a primitive type (as read from doc-values), see {@link ColumnVector#isPrimitive}.
+ * Other values would have to be copied into the vectors as objects, which costs more than the vectorized evaluation saves.
+ */
+class VectorizedEvalProjector implements Projector {
+
+    private final TransactionContext txnCtx;
+    private final VectorExpression[] outputs;
+    private final RowVectors rowVectors;
+    private final MapRowUsingInputs mapRow;
+
+    /**
+     * @param inputs the row by row variant of the outputs, used if the vectorized evaluation fails.
+     * @return the projector or null if any of the outputs can't be evaluated vectorized, if any input column isn't
+     *         of a primitive type or if there is nothing to evaluate.
+     */
+    @Nullable
+    static VectorizedEvalProjector create(TransactionContext txnCtx,
+                                          Functions functions,
+                                          List<Symbol> outputs,
+                                          List<Input<?>> inputs,
+                                          List<? extends CollectExpression<Row, ?>> collectExpressions) {
+        if (outputs.stream().noneMatch(s -> s instanceof Function)) {
+            return null;
+        }
+        RowVectors rowVectors = new RowVectors();
+        VectorExpression[] vectorOutputs = new VectorExpression[outputs.size()];
+        for (int i = 0; i < vectorOutputs.length; i++) {
+            VectorExpression output = rowVectors.compile(outputs.get(i), functions, txnCtx);
+            if (output == null) {
+                return null;
+            }
+            vectorOutputs[i] = output;
+        }
+        return new VectorizedEvalProjector(
+            txnCtx,
+            vectorOutputs,
+            rowVectors,
+            new MapRowUsingInputs(inputs, collectExpressions)
+        );
+    }
+
+    private VectorizedEvalProjector(TransactionContext txnCtx,
+                                    VectorExpression[] outputs,
+                                    RowVectors rowVectors,
+                                    MapRowUsingInputs mapRow) {
+        this.txnCtx = txnCtx;
+        this.outputs = outputs;
+        this.rowVectors = rowVectors;
+        this.mapRow = mapRow;
+    }
+
+    @Override
+    public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        return new VectorizedEvalBatchIterator(batchIterator);
+    }
+
+    @Override
+    public boolean providesIndependentScroll() {
+        return false;
+    }
+
+    /**
+     * Reads the input values of all rows available from the source until the next {@link #loadNextBatch()},
+     * evaluates the outputs for them and then emits the results.
+     */
+    private class VectorizedEvalBatchIterator extends MappedForwardingBatchIterator<Row, Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final ColumnVector[] results = new ColumnVector[outputs.length];
+        private final Object[] cells = new Object[outputs.length];
+        private final RowN vectorRow = new RowN(cells);
+        private Row current;
+        private boolean vectorized;
+        private int size = 0;
+        private int position = -1;
+
+        VectorizedEvalBatchIterator(BatchIterator<Row> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public Row currentElement() {
+            return current;
+        }
+
+        @Override
+        public void moveToStart() {
+            delegate.moveToStart();
+            size = 0;
+            position = -1;
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (++position >= size && !evaluateNextRows()) {
+                return false;
+            }
+            if (vectorized) {
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = results[i].get(position);
+                }
+                current = vectorRow;
+            } else {
+                current = mapRow.apply(rowVectors.rowAt(position));
+            }
+            return true;
+        }
+
+        private boolean evaluateNextRows() {
+            size = 0;
+            position = 0;
+            while (size < RowVectors.BATCH_SIZE && delegate.moveNext()) {
+                rowVectors.setRow(size, delegate.currentElement());
+                size++;
+            }
+            if (size == 0) {
+                return false;
+            }
+            try {
+                for (int i = 0; i < outputs.length; i++) {
+                    results[i] = outputs[i].evaluate(txnCtx, rowVectors.vectors(), size);
+                }
+                vectorized = true;
+            } catch (RuntimeException e) {
+                // evaluate row by row to get the same results and errors as the InputRowProjector
+                vectorized = false;
+            }
+            return true;
+        }
+    }
+}
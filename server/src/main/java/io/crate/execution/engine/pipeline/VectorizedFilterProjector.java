@@ -0,0 +1,184 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.MappedForwardingBatchIterator;
+import io.crate.data.Projector;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorExpression;
+import io.crate.metadata.Functions;
+import io.crate.metadata.TransactionContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Variant of the {@link FilterProjector} which evaluates the filter condition for a batch of rows at once,
+ * see {@link VectorExpression}.
+ * <p>
+ * Only used if all columns of the incoming rows are of a primitive type (as read from doc-values),
+ * see {@link ColumnVector#isPrimitive}. The rows are then buffered in the column vectors instead of being materialized,
+ * other values would have to be copied as objects which costs more than the vectorized evaluation saves.
+ */
+class VectorizedFilterProjector implements Projector {
+
+    private final TransactionContext txnCtx;
+    private final VectorExpression condition;
+    private final RowVectors rowVectors;
+    private final int numColumns;
+    private final Predicate<Row> rowFilter;
+
+    /**
+     * @param rowColumns the columns of the incoming rows.
+     * @param rowFilter the row by row variant of the condition, used if the vectorized evaluation fails.
+     * @return the projector or null if the condition can't be evaluated vectorized
+     *         or if any of the row columns isn't of a primitive type.
+     */
+    @Nullable
+    static VectorizedFilterProjector create(TransactionContext txnCtx,
+                                            Functions functions,
+                                            @Nullable Symbol filterSymbol,
+                                            List<? extends Symbol> rowColumns,
+                                            Predicate<Row> rowFilter) {
+        if (!(filterSymbol instanceof Function)) {
+            return null;
+        }
+        RowVectors rowVectors = new RowVectors();
+        for (int i = 0; i < rowColumns.size(); i++) {
+            Symbol column = rowColumns.get(i);
+            if (!(column instanceof InputColumn) || ((InputColumn) column).index() != i || !rowVectors.addInput(column)) {
+                return null;
+            }
+        }
+        VectorExpression condition = rowVectors.compile(filterSymbol, functions, txnCtx);
+        if (condition == null) {
+            return null;
+        }
+        return new VectorizedFilterProjector(txnCtx, condition, rowVectors, rowColumns.size(), rowFilter);
+    }
+
+    private VectorizedFilterProjector(TransactionContext txnCtx,
+                                      VectorExpression condition,
+                                      RowVectors rowVectors,
+                                      int numColumns,
+                                      Predicate<Row> rowFilter) {
+        this.txnCtx = txnCtx;
+        this.condition = condition;
+        this.rowVectors = rowVectors;
+        this.numColumns = numColumns;
+        this.rowFilter = rowFilter;
+    }
+
+    @Override
+    public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        return new VectorizedFilteringBatchIterator(batchIterator);
+    }
+
+    @Override
+    public boolean providesIndependentScroll() {
+        return false;
+    }
+
+    /**
+     * Reads the values of the rows available from the source until the next {@link #loadNextBatch()} into the
+     * column vectors, evaluates the condition for them and then emits the matching rows.
+     */
+    private class VectorizedFilteringBatchIterator extends MappedForwardingBatchIterator<Row, Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final boolean[] matches = new boolean[RowVectors.BATCH_SIZE];
+        private final Object[] cells = new Object[numColumns];
+        private final RowN current = new RowN(cells);
+        private int size = 0;
+        private int position = -1;
+
+        VectorizedFilteringBatchIterator(BatchIterator<Row> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public Row currentElement() {
+            return current;
+        }
+
+        @Override
+        public void moveToStart() {
+            delegate.moveToStart();
+            size = 0;
+            position = -1;
+        }
+
+        @Override
+        public boolean moveNext() {
+            while (true) {
+                while (++position < size) {
+                    if (matches[position]) {
+                        rowVectors.fillRow(position, cells);
+                        return true;
+                    }
+                }
+                if (!filterNextRows()) {
+                    return false;
+                }
+            }
+        }
+
+        private boolean filterNextRows() {
+            size = 0;
+            position = -1;
+            while (size < RowVectors.BATCH_SIZE && delegate.moveNext()) {
+                rowVectors.setRow(size, delegate.currentElement());
+                size++;
+            }
+            if (size == 0) {
+                return false;
+            }
+            try {
+                BooleanVector result = (BooleanVector) condition.evaluate(txnCtx, rowVectors.vectors(), size);
+                for (int i = 0; i < size; i++) {
+                    matches[i] = result.isTrue(i);
+                }
+            } catch (RuntimeException e) {
+                // re-evaluate row by row to get the same results and errors as the FilterProjector
+                for (int i = 0; i < size; i++) {
+                    rowVectors.fillRow(i, cells);
+                    matches[i] = rowFilter.test(current);
+                }
+            }
+            return true;
+        }
+    }
+}
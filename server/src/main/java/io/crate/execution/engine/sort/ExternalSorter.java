@@ -0,0 +1,251 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.sort;
+
+import com.google.common.collect.Iterators;
+import io.crate.Streamer;
+import io.crate.breaker.ChildRamAccounting;
+import io.crate.breaker.RamAccounting;
+import io.crate.data.Bucket;
+import io.crate.data.Buckets;
+import io.crate.data.Row;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.settings.CrateSetting;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Enables sorting more rows than fit into memory.
+ * <p>
+ * Sort operations keep their rows in memory as usual, but once the memory accounted for the current in-memory run
+ * exceeds the spill threshold, the caller sorts the run and hands it to {@link #spill(Iterator)}.
+ * The run is then serialized using the column {@link Streamer}s into a {@link SpillFile} and the memory is released.
+ * <p>
+ * The rows must be accounted using a RamAccounting dedicated to the sort operation, e.g. a {@link ChildRamAccounting}
+ * of the RamAccounting shared by the operators of a phase; the size of the run and the memory released on spill
+ * are taken from it.
+ * <p>
+ * The final result is produced by lazily merging all spilled runs and the remaining in-memory run,
+ * see {@link #merge(Iterator)}.
+ * <p>
+ * Instances are not thread-safe and must be closed to remove the temporary files.
+ */
+public final class ExternalSorter implements Closeable {
+
+    public static final CrateSetting<ByteSizeValue> SPILL_THRESHOLD_SETTING = CrateSetting.of(Setting.memorySizeSetting(
+        "sort.spill.threshold", "10%", Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.STRING);
+
+    private final Streamer<?>[] streamers;
+    private final Comparator<Object[]> comparator;
+    private final RamAccounting ramAccounting;
+    private final long spillThresholdInBytes;
+    @Nullable
+    private final Path spillDirectory;
+    private final List<SpillFile> runs = new ArrayList<>();
+
+    private long numSpilledRows = 0;
+
+    /**
+     * @param streamers             used to serialize the row cells, one per column
+     * @param comparator            ordering of the rows, must match the ordering of the spilled runs
+     * @param ramAccounting         the {@link RamAccounting} used to account for the rows of the in-memory run,
+     *                              it must not be used by other operations. Released on each spill.
+     * @param spillThresholdInBytes number of bytes the in-memory run may occupy before it should be spilled.
+     *                              A value of 0 or less disables spilling.
+     * @param spillDirectory        the directory for the temporary run files, created on the first spill
+     */
+    public ExternalSorter(Streamer<?>[] streamers,
+                          Comparator<Object[]> comparator,
+                          RamAccounting ramAccounting,
+                          long spillThresholdInBytes,
+                          @Nullable Path spillDirectory) {
+        assert spillThresholdInBytes <= 0 || spillDirectory != null : "spillDirectory is required if spilling is enabled";
+        this.streamers = streamers;
+        this.comparator = comparator;
+        this.ramAccounting = ramAccounting;
+        this.spillThresholdInBytes = spillThresholdInBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Create an instance which never spills; all rows are sorted in memory.
+     */
+    public static ExternalSorter inMemory(Comparator<Object[]> comparator) {
+        return new ExternalSorter(new Streamer[0], comparator, RamAccounting.NO_ACCOUNTING, 0L, null);
+    }
+
+    /**
+     * @return true if the rows accounted for since the last spill (or since the creation of this instance)
+     *         exceed the spill threshold.
+     */
+    public boolean shouldSpill() {
+        return spillThresholdInBytes > 0 && ramAccounting.totalBytes() >= spillThresholdInBytes;
+    }
+
+    public boolean hasSpilled() {
+        return runs.isEmpty() == false;
+    }
+
+    public long numSpilledRows() {
+        return numSpilledRows;
+    }
+
+    /**
+     * Write the rows of the in-memory run to a temporary file and stop accounting for them.
+     * The caller must drop the references to the spilled rows afterwards.
+     *
+     * @param sortedRows the rows of the current in-memory run, sorted by the comparator of this instance.
+     */
+    public void spill(Iterator<Object[]> sortedRows) {
+        assert spillDirectory != null : "spill must only be called if spilling is enabled";
+        SpillFile run = SpillFile.create(spillDirectory, "run-", streamers);
+        runs.add(run);
+        while (sortedRows.hasNext()) {
+            run.write(sortedRows.next());
+        }
+        run.finishWriting();
+        numSpilledRows += run.numRows();
+        ramAccounting.release();
+    }
+
+    /**
+     * Lazily merge the spilled runs with the remaining in-memory run.
+     * Each call re-reads the spilled runs, so the result can be consumed multiple times.
+     *
+     * @param sortedInMemoryRun rows which haven't been spilled, sorted by the comparator of this instance.
+     */
+    public Iterator<Object[]> merge(Iterator<Object[]> sortedInMemoryRun) {
+        if (runs.isEmpty()) {
+            return sortedInMemoryRun;
+        }
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+            runs.size() + 1, (c1, c2) -> comparator.compare(c1.current, c2.current));
+        for (SpillFile run : runs) {
+            Cursor cursor = new Cursor(run.rows());
+            if (cursor.moveNext()) {
+                queue.add(cursor);
+            }
+        }
+        Cursor inMemoryCursor = new Cursor(sortedInMemoryRun);
+        if (inMemoryCursor.moveNext()) {
+            queue.add(inMemoryCursor);
+        }
+        return new MergingIterator(queue);
+    }
+
+    /**
+     * Create a bucket with the sorted rows, with offset and limit applied.
+     *
+     * @param sortedInMemoryRun rows which haven't been spilled, sorted by the comparator of this instance.
+     * @param numOutputs        number of columns of a row that are part of the result, starting from index 0.
+     */
+    public Bucket createBucket(List<Object[]> sortedInMemoryRun, int numOutputs, int offset, int limit) {
+        long numRows = numSpilledRows + sortedInMemoryRun.size();
+        int size = (int) Math.max(Math.min(limit, numRows - offset), 0);
+        return new Bucket() {
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Row> iterator() {
+                Iterator<Object[]> rows = merge(sortedInMemoryRun.iterator());
+                Iterators.advance(rows, offset);
+                return Iterators.transform(Iterators.limit(rows, size), Buckets.arrayToSharedRow(numOutputs)::apply);
+            }
+
+            @Override
+            public String toString() {
+                return "Bucket{numRows=" + size + ", spilledRuns=" + runs.size() + '}';
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(runs);
+        runs.clear();
+        numSpilledRows = 0;
+    }
+
+    private static final class Cursor {
+
+        private final Iterator<Object[]> it;
+        private Object[] current;
+
+        Cursor(Iterator<Object[]> it) {
+            this.it = it;
+        }
+
+        boolean moveNext() {
+            if (it.hasNext()) {
+                current = it.next();
+                return true;
+            }
+            current = null;
+            return false;
+        }
+    }
+
+    private static final class MergingIterator implements Iterator<Object[]> {
+
+        private final PriorityQueue<Cursor> queue;
+
+        MergingIterator(PriorityQueue<Cursor> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return queue.isEmpty() == false;
+        }
+
+        @Override
+        public Object[] next() {
+            Cursor cursor = queue.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException("Iterator is exhausted");
+            }
+            Object[] row = cursor.current;
+            if (cursor.moveNext()) {
+                queue.add(cursor);
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.NullValueOrder;
+import org.elasticsearch.index.mapper.MappedFieldType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The order of the documents within the segments of a table, configured using the `sort.columns` table setting.
+ * <p>
+ * The value is a comma separated list of columns, each optionally followed by `ASC` or `DESC` and
+ * `NULLS FIRST` or `NULLS LAST`, e.g.: `ts DESC, device_id`.
+ * <p>
+ * The sort fields are created like those of an `ORDER BY`, see {@link SortSymbolVisitor}.
+ * If an `ORDER BY` uses the same leading columns, directions and null ordering as the index sort,
+ * Lucene can stop collecting a segment as soon as it found enough hits.
+ */
+public final class IndexSort {
+
+    public static final Setting<String> SETTING = Setting.simpleString(
+        "index.sort.columns",
+        IndexSort::parse,
+        Setting.Property.IndexScope,
+        Setting.Property.Final
+    );
+
+    private static final Set<Integer> SUPPORTED_TYPES = Set.of(
+        StringType.ID,
+        BooleanType.ID,
+        ByteType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ,
+        FloatType.ID,
+        DoubleType.ID
+    );
+
+    private IndexSort() {
+    }
+
+    static final class Column {
+
+        final String name;
+        final boolean reverse;
+        final NullValueOrder nullValueOrder;
+
+        Column(String name, boolean reverse, NullValueOrder nullValueOrder) {
+            this.name = name;
+            this.reverse = reverse;
+            this.nullValueOrder = nullValueOrder;
+        }
+    }
+
+    /**
+     * Parses the value of {@link #SETTING}.
+     * Like in an `ORDER BY`, nulls are sorted last for ascending and first for descending columns if not specified.
+     */
+    static List<Column> parse(String value) {
+        ArrayList<Column> columns = new ArrayList<>();
+        if (value.isBlank()) {
+            return columns;
+        }
+        for (String part : value.split(",")) {
+            String[] tokens = part.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                throw new IllegalArgumentException("Invalid value for setting '" + SETTING.getKey() + "': " + value);
+            }
+            String name = tokens[0];
+            boolean reverse = false;
+            int pos = 1;
+            if (pos < tokens.length) {
+                String direction = tokens[pos].toUpperCase(Locale.ENGLISH);
+                if (direction.equals("DESC")) {
+                    reverse = true;
+                    pos++;
+                } else if (direction.equals("ASC")) {
+                    pos++;
+                }
+            }
+            NullValueOrder nullValueOrder = NullValueOrder.fromFlag(reverse);
+            if (pos < tokens.length) {
+                if (pos + 2 != tokens.length || !tokens[pos].equalsIgnoreCase("NULLS")) {
+                    throw new IllegalArgumentException(
+                        "Invalid value for setting '" + SETTING.getKey() + "': " + value);
+                }
+                String nullOrder = tokens[pos + 1].toUpperCase(Locale.ENGLISH);
+                if (nullOrder.equals("FIRST")) {
+                    nullValueOrder = NullValueOrder.FIRST;
+                } else if (nullOrder.equals("LAST")) {
+                    nullValueOrder = NullValueOrder.LAST;
+                } else {
+                    throw new IllegalArgumentException(
+                        "Invalid value for setting '" + SETTING.getKey() + "': " + value);
+                }
+            }
+            columns.add(new Column(name, reverse, nullValueOrder));
+        }
+        return columns;
+    }
+
+    /**
+     * @param fieldTypeLookup resolves the mapped field type of a column by its fully qualified name
+     * @return the index sort or null if {@link #SETTING} isn't set.
+     * @throws IllegalArgumentException if a column doesn't exist or can't be used to sort the index.
+     */
+    @Nullable
+    public static Sort build(Settings indexSettings, Function<String, MappedFieldType> fieldTypeLookup) {
+        List<Column> columns = parse(SETTING.get(indexSettings));
+        if (columns.isEmpty()) {
+            return null;
+        }
+        SortField[] sortFields = new SortField[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            MappedFieldType fieldType = fieldTypeLookup.apply(column.name);
+            if (fieldType == null) {
+                throw new IllegalArgumentException(
+                    "Column '" + column.name + "' used in setting '" + SETTING.getKey() + "' does not exist");
+            }
+            DataType<?> type = DataTypes.ofMappingName(fieldType.typeName());
+            if (type == null || !SUPPORTED_TYPES.contains(type.id()) || !fieldType.hasDocValues()) {
+                throw new IllegalArgumentException(
+                    "Column '" + column.name + "' of type '" + fieldType.typeName() + "' used in setting '" +
+                    SETTING.getKey() + "' must be a primitive type with the column store enabled");
+            }
+            sortFields[i] = SortSymbolVisitor.mappedSortField(column.name, type, column.reverse, column.nullValueOrder);
+        }
+        return new Sort(sortFields);
+    }
+}
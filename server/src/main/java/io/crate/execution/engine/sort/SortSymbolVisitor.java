@@ -148,21 +148,25 @@ public class SortSymbolVisitor extends SymbolVisitor<SortSymbolVisitor.SortSymbo
             return customSortField(symbol.toString(), symbol, context);
         } else {
             return mappedSortField(
-                symbol,
-                fieldType,
+                columnIdent.fqn(),
+                symbol.valueType(),
                 context.reverseFlag,
                 NullValueOrder.fromFlag(context.nullFirst)
             );
         }
     }
 
-    private static SortField mappedSortField(Reference symbol,
-                                             MappedFieldType fieldType,
-                                             boolean reverse,
-                                             NullValueOrder nullValueOrder) {
-        String fieldName = symbol.column().fqn();
+    /**
+     * Create a SortField for a column which is stored using doc values.
+     * This is also used to create the index sort, see {@link IndexSort}, which must be equal to the SortField
+     * of an `ORDER BY` for Lucene to be able to terminate the collection early.
+     */
+    static SortField mappedSortField(String fieldName,
+                                     DataType<?> valueType,
+                                     boolean reverse,
+                                     NullValueOrder nullValueOrder) {
         MultiValueMode sortMode = reverse ? MultiValueMode.MAX : MultiValueMode.MIN;
-        switch (symbol.valueType().id()) {
+        switch (valueType.id()) {
             case StringType.ID: {
                 SortField sortField = new SortedSetSortField(
                     fieldName,
@@ -220,7 +224,7 @@ public class SortSymbolVisitor extends SymbolVisitor<SortSymbolVisitor.SortSymbo
                         "can't sort on geo_point field without using specific sorting feature, like geo_distance");
 
             default:
-                throw new UnsupportedOperationException("Cannot order on " + symbol + "::" + symbol.valueType());
+                throw new UnsupportedOperationException("Cannot order on " + fieldName + "::" + valueType);
         }
     }
 
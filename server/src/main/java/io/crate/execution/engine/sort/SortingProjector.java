@@ -24,6 +24,7 @@ package io.crate.execution.engine.sort;
 
 import io.crate.breaker.RowAccounting;
 import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
@@ -32,17 +33,21 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If the rows exceed the spill threshold of the {@link ExternalSorter} they're sorted in runs which are written to
+ * disk and merged when emitting.
  */
 public class SortingProjector implements Projector {
 
@@ -53,6 +58,7 @@ public class SortingProjector implements Projector {
     private final int offset;
     private final int numOutputs;
     private final RowAccounting<Object[]> rowAccounting;
+    private final Supplier<ExternalSorter> externalSorterFactory;
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -68,6 +74,21 @@ public class SortingProjector implements Projector {
                             int numOutputs,
                             Comparator<Object[]> comparator,
                             int offset) {
+        this(rowAccounting, inputs, collectExpressions, numOutputs, comparator, offset,
+            () -> ExternalSorter.inMemory(comparator));
+    }
+
+    /**
+     * @param externalSorterFactory creates the {@link ExternalSorter} used to spill rows to disk, invoked once per
+     *                              {@link #apply(BatchIterator)}
+     */
+    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int offset,
+                            Supplier<ExternalSorter> externalSorterFactory) {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
@@ -77,15 +98,29 @@ public class SortingProjector implements Projector {
         this.collectExpressions = collectExpressions;
         this.comparator = comparator;
         this.offset = offset;
+        this.externalSorterFactory = externalSorterFactory;
     }
 
-
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        ExternalSorter sorter = externalSorterFactory.get();
+        Collector<Row, List<Object[]>, Bucket> collector = Collector.of(
+            ArrayList::new,
+            (rows, row) -> onNextRow(sorter, rows, row),
+            (rows1, rows2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            rows -> sortAndCreateBucket(sorter, rows)
+        );
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                sorter.close();
+            },
+            batchIterator::kill,
+            () -> BatchIterators.collect(batchIterator, collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -93,6 +128,15 @@ public class SortingProjector implements Projector {
         return true;
     }
 
+    private void onNextRow(ExternalSorter sorter, List<Object[]> rows, Row row) {
+        rows.add(getCells(row));
+        if (sorter.shouldSpill()) {
+            rows.sort(comparator);
+            sorter.spill(rows.iterator());
+            rows.clear();
+        }
+    }
+
     private Object[] getCells(Row row) {
         for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
             collectExpression.setNextRow(row);
@@ -106,8 +150,11 @@ public class SortingProjector implements Projector {
         return newRow;
     }
 
-    private Bucket sortAndCreateBucket(List<Object[]> rows) {
+    private Bucket sortAndCreateBucket(ExternalSorter sorter, List<Object[]> rows) {
         rows.sort(comparator);
+        if (sorter.hasSpilled()) {
+            return sorter.createBucket(rows, numOutputs, offset, Integer.MAX_VALUE);
+        }
         if (offset == 0) {
             return new CollectionBucket(rows, numOutputs);
         }
@@ -24,6 +24,7 @@ package io.crate.execution.engine.sort;
 
 import io.crate.breaker.RowAccounting;
 import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
@@ -31,13 +32,17 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 
 public class SortingTopNProjector implements Projector {
 
     private final Collector<Row, ?, Bucket> collector;
+    @Nullable
+    private final ExternalSorter sorter;
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -58,6 +63,23 @@ public class SortingTopNProjector implements Projector {
                                 int limit,
                                 int offset,
                                 int unboundedCollectorThreshold) {
+        this(rowAccounting, inputs, collectExpressions, numOutputs, ordering, limit, offset, unboundedCollectorThreshold,
+            () -> ExternalSorter.inMemory(ordering));
+    }
+
+    /**
+     * @param externalSorterFactory creates the {@link ExternalSorter} used by the unbounded collector
+     *                              to spill rows to disk
+     */
+    public SortingTopNProjector(RowAccounting<Object[]> rowAccounting,
+                                Collection<? extends Input<?>> inputs,
+                                Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                                int numOutputs,
+                                Comparator<Object[]> ordering,
+                                int limit,
+                                int offset,
+                                int unboundedCollectorThreshold,
+                                Supplier<ExternalSorter> externalSorterFactory) {
         /**
          * We'll use an unbounded queue with the initial capacity of {@link unboundedCollectorThreshold}
          * if the maximum number of rows we have to accommodate in the queue in order to maintain correctness is
@@ -67,6 +89,7 @@ public class SortingTopNProjector implements Projector {
          * will never be filled.
          */
         if ((limit + offset) > unboundedCollectorThreshold) {
+            sorter = externalSorterFactory.get();
             collector = new UnboundedSortingTopNCollector(
                 rowAccounting,
                 inputs,
@@ -75,9 +98,11 @@ public class SortingTopNProjector implements Projector {
                 ordering,
                 unboundedCollectorThreshold,
                 limit,
-                offset
+                offset,
+                sorter
             );
         } else {
+            sorter = null;
             collector = new BoundedSortingTopNCollector(
                 rowAccounting,
                 inputs,
@@ -92,7 +117,18 @@ public class SortingTopNProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        if (sorter == null) {
+            return CollectingBatchIterator.newInstance(batchIterator, collector);
+        }
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                sorter.close();
+            },
+            batchIterator::kill,
+            () -> BatchIterators.collect(batchIterator, collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -30,6 +30,7 @@ import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 import org.apache.lucene.util.ArrayUtil;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -46,6 +47,9 @@ import java.util.stream.Collector;
  * Collector implementation which collects rows into an unbounded priorityQueue in order to sort the rows and apply a
  * limit + offset.
  * The final result is a sorted bucket with limit and offset applied.
+ * <p>
+ * If the accounted memory exceeds the spill threshold of the {@link ExternalSorter}, the content of the queue is
+ * written to disk as a sorted run. The runs are merged with the remaining rows of the queue in the final result.
  */
 public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQueue<Object[]>, Bucket> {
 
@@ -57,6 +61,7 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
     private final int offset;
     private final int maxNumberOfRowsInQueue;
     private final RowAccounting<Object[]> rowAccounting;
+    private final ExternalSorter sorter;
 
     /**
      * @param rowAccounting   sorting is a pipeline breaker so account for the used memory
@@ -76,6 +81,23 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
                                          int initialCapacity,
                                          int limit,
                                          int offset) {
+        this(rowAccounting, inputs, expressions, numOutputs, comparator, initialCapacity, limit, offset,
+            ExternalSorter.inMemory(comparator));
+    }
+
+    /**
+     * @param sorter used to spill the queue to disk if the memory threshold is exceeded.
+     *               The caller is responsible for closing it once the result has been consumed.
+     */
+    public UnboundedSortingTopNCollector(RowAccounting<Object[]> rowAccounting,
+                                         Collection<? extends Input<?>> inputs,
+                                         Iterable<? extends CollectExpression<Row, ?>> expressions,
+                                         int numOutputs,
+                                         Comparator<Object[]> comparator,
+                                         int initialCapacity,
+                                         int limit,
+                                         int offset,
+                                         ExternalSorter sorter) {
         if (initialCapacity <= 0) {
             throw new IllegalArgumentException("Invalid initial capacity: value must be > 0; got: " + initialCapacity);
         }
@@ -93,6 +115,7 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
         this.initialCapacity = initialCapacity;
         this.offset = offset;
         this.maxNumberOfRowsInQueue = limit + offset;
+        this.sorter = sorter;
 
         if (maxNumberOfRowsInQueue >= ArrayUtil.MAX_ARRAY_LENGTH || maxNumberOfRowsInQueue < 0) {
             // Throw exception to prevent confusing OOME in PriorityQueue
@@ -150,18 +173,33 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
         } else {
             pq.add(rowCells);
         }
+        if (sorter.shouldSpill()) {
+            sorter.spill(Arrays.asList(drainInOrder(pq, pq.size())).iterator());
+        }
     }
 
     private Bucket pqToIterable(PriorityQueue<Object[]> pq) {
+        if (sorter.hasSpilled()) {
+            return sorter.createBucket(
+                Arrays.asList(drainInOrder(pq, pq.size())), numOutputs, offset, maxNumberOfRowsInQueue - offset);
+        }
         if (offset > pq.size()) {
             return new ArrayBucket(new Object[0][0], numOutputs);
         }
         int resultSize = Math.max(Math.min(maxNumberOfRowsInQueue - offset, pq.size() - offset), 0);
 
-        Object[][] rows = new Object[resultSize][];
-        for (int i = resultSize - 1; i >= 0; i--) {
+        return new ArrayBucket(drainInOrder(pq, resultSize), numOutputs);
+    }
+
+    /**
+     * Polls the first {@code numRows} rows of the queue and returns them in sort order.
+     * The queue is ordered in reverse, so the head holds the row which is sorted last.
+     */
+    private static Object[][] drainInOrder(PriorityQueue<Object[]> pq, int numRows) {
+        Object[][] rows = new Object[numRows][];
+        for (int i = numRows - 1; i >= 0; i--) {
             rows[i] = pq.poll();
         }
-        return new ArrayBucket(rows, numOutputs);
+        return rows;
     }
 }
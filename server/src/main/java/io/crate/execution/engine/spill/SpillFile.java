@@ -0,0 +1,223 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import com.google.common.io.CountingOutputStream;
+import io.crate.Streamer;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.io.PathUtils;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file containing rows which have been moved out of memory by operations like sorting or joins.
+ * <p>
+ * Rows are serialized using the column {@link Streamer}s. A file is first written using {@link #write(Object[])},
+ * once {@link #finishWriting()} has been called it can be read any number of times using {@link #rows()}.
+ * <p>
+ * Instances are not thread-safe. {@link #close()} must be called to remove the file.
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Streamer<?>[] streamers;
+    private final List<Closeable> openReaders = new ArrayList<>();
+
+    private final CountingOutputStream countingOut;
+    private OutputStreamStreamOutput out;
+    private long numRows = 0;
+
+    private SpillFile(Path file, Streamer<?>[] streamers) throws IOException {
+        this.file = file;
+        this.streamers = streamers;
+        this.countingOut = new CountingOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        this.out = new OutputStreamStreamOutput(countingOut);
+    }
+
+    /**
+     * Create a new, empty file within {@code directory}. The directory is created if it doesn't exist yet.
+     *
+     * @param streamers used to serialize the row cells, one per column
+     */
+    public static SpillFile create(Path directory, String prefix, Streamer<?>[] streamers) {
+        Path file = null;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, prefix, ".bin");
+            return new SpillFile(file, streamers);
+        } catch (IOException e) {
+            if (file != null) {
+                IOUtils.deleteFilesIgnoringExceptions(file);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The directory for temporary files of the given kind of operation:
+     * A {@code tmp/<name>} folder within the first data path of the node.
+     */
+    public static Path directory(Settings settings, String name) {
+        List<String> dataPaths = Environment.PATH_DATA_SETTING.get(settings);
+        Path dataPath;
+        if (dataPaths.isEmpty() == false) {
+            dataPath = PathUtils.get(dataPaths.get(0));
+        } else if (Environment.PATH_HOME_SETTING.exists(settings)) {
+            dataPath = PathUtils.get(Environment.PATH_HOME_SETTING.get(settings)).resolve("data");
+        } else {
+            return PathUtils.get(System.getProperty("java.io.tmpdir")).resolve("crate-" + name);
+        }
+        return dataPath.resolve("tmp").resolve(name);
+    }
+
+    public void write(Object[] row) {
+        assert out != null : "SpillFile must not be written to after finishWriting() has been called";
+        assert row.length >= streamers.length : "row must contain a cell for each streamer";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                //noinspection unchecked
+                ((Streamer) streamers[i]).writeValueTo(out, row[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out = null;
+        }
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    /**
+     * @return the number of bytes written to the file so far
+     */
+    public long bytesWritten() {
+        return countingOut.getCount();
+    }
+
+    /**
+     * Reads the rows of the file. Each row is a new array.
+     * The underlying file handle is released once the iterator is exhausted or this SpillFile is closed.
+     */
+    public Iterator<Object[]> rows() {
+        assert out == null : "finishWriting() must be called before reading the rows";
+        try {
+            RowReader reader = new RowReader(
+                new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)),
+                streamers,
+                numRows
+            );
+            openReaders.add(reader);
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(out);
+        out = null;
+        IOUtils.closeWhileHandlingException(openReaders);
+        openReaders.clear();
+        IOUtils.deleteFilesIgnoringExceptions(file);
+    }
+
+    private static final class RowReader implements Iterator<Object[]>, Closeable {
+
+        private final StreamInput in;
+        private final Streamer<?>[] streamers;
+        private long remainingRows;
+
+        RowReader(StreamInput in, Streamer<?>[] streamers, long numRows) {
+            this.in = in;
+            this.streamers = streamers;
+            this.remainingRows = numRows;
+            if (numRows == 0) {
+                IOUtils.closeWhileHandlingException(in);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remainingRows > 0;
+        }
+
+        @Override
+        public Object[] next() {
+            if (remainingRows == 0) {
+                throw new NoSuchElementException("All rows of the spill file have been read");
+            }
+            Object[] row = new Object[streamers.length];
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    row[i] = streamers[i].readValueFrom(in);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            remainingRows--;
+            if (remainingRows == 0) {
+                IOUtils.closeWhileHandlingException(in);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often and how much data an operation moved out of memory into {@link SpillFile}s.
+ * <p>
+ * Updated by the thread executing the operation and read concurrently, e.g. by {@code sys.operations}.
+ */
+public final class SpillStats {
+
+    private final LongAdder numSpills = new LongAdder();
+    private final LongAdder spilledBytes = new LongAdder();
+
+    public void onSpill(long bytes) {
+        numSpills.increment();
+        spilledBytes.add(bytes);
+    }
+
+    public long numSpills() {
+        return numSpills.sum();
+    }
+
+    public long spilledBytes() {
+        return spilledBytes.sum();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.execution.engine.aggregation.GroupingCollector;
+import io.crate.execution.engine.sort.ExternalSorter;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+
+/**
+ * Holds the current values of the dynamic spill threshold settings
+ * so that operators don't have to resolve them per projection.
+ */
+@Singleton
+public final class SpillThresholds {
+
+    private volatile long sortThresholdInBytes;
+    private volatile long groupByThresholdInBytes;
+
+    @Inject
+    public SpillThresholds(Settings settings, ClusterSettings clusterSettings) {
+        sortThresholdInBytes = ExternalSorter.SPILL_THRESHOLD_SETTING.setting().get(settings).getBytes();
+        groupByThresholdInBytes = GroupingCollector.SPILL_THRESHOLD_SETTING.setting().get(settings).getBytes();
+        clusterSettings.addSettingsUpdateConsumer(ExternalSorter.SPILL_THRESHOLD_SETTING.setting(), newValue -> {
+            sortThresholdInBytes = newValue.getBytes();
+        });
+        clusterSettings.addSettingsUpdateConsumer(GroupingCollector.SPILL_THRESHOLD_SETTING.setting(), newValue -> {
+            groupByThresholdInBytes = newValue.getBytes();
+        });
+    }
+
+    public long sortThresholdInBytes() {
+        return sortThresholdInBytes;
+    }
+
+    public long groupByThresholdInBytes() {
+        return groupByThresholdInBytes;
+    }
+}
@@ -39,7 +39,6 @@ import io.crate.breaker.BlockBasedRamAccounting;
 import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowAccountingWithEstimators;
-import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.common.collections.Tuple;
 import io.crate.data.Paging;
 import io.crate.data.Row;
@@ -63,6 +62,7 @@ import io.crate.execution.dsl.projection.AggregationProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.engine.aggregation.AggregationPipe;
+import io.crate.execution.engine.aggregation.GroupingCollector;
 import io.crate.execution.engine.aggregation.GroupingProjector;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.MapSideDataCollectOperation;
@@ -80,6 +80,11 @@ import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillThresholds;
+import io.crate.execution.engine.spill.SpillStats;
+import io.crate.execution.workload.WorkloadClass;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -94,6 +99,8 @@ import io.crate.metadata.table.Operation;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.StreamerVisitor;
 import io.crate.planner.operators.PKAndVersion;
+import io.crate.profile.PhaseProfiler;
+import io.crate.profile.ProfilingContext;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -104,12 +111,11 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
-import org.elasticsearch.indices.breaker.CircuitBreakerService;
-import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -133,7 +139,7 @@ public class JobSetup {
 
     private final MapSideDataCollectOperation collectOperation;
     private final ClusterService clusterService;
-    private final CircuitBreakerService circuitBreakerService;
+    private final WorkloadClasses workloadClasses;
     private final CountOperation countOperation;
     private final MemoryManagerFactory memoryManagerFactory;
     private final DistributingConsumerFactory distributingConsumerFactory;
@@ -141,9 +147,9 @@ public class JobSetup {
     private final InputFactory inputFactory;
     private final ProjectorFactory projectorFactory;
     private final PKLookupOperation pkLookupOperation;
-    private final Executor searchTp;
     private final String nodeName;
     private final Schemas schemas;
+    private final Path hashJoinSpillDirectory;
 
     @Inject
     public JobSetup(Settings settings,
@@ -151,7 +157,7 @@ public class JobSetup {
                     MapSideDataCollectOperation collectOperation,
                     ClusterService clusterService,
                     NodeJobsCounter nodeJobsCounter,
-                    CircuitBreakerService circuitBreakerService,
+                    WorkloadClasses workloadClasses,
                     CountOperation countOperation,
                     ThreadPool threadPool,
                     DistributingConsumerFactory distributingConsumerFactory,
@@ -160,19 +166,20 @@ public class JobSetup {
                     Functions functions,
                     SystemCollectSource systemCollectSource,
                     ShardCollectSource shardCollectSource,
-                    MemoryManagerFactory memoryManagerFactory) {
+                    MemoryManagerFactory memoryManagerFactory,
+                    SpillThresholds spillThresholds) {
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
         this.schemas = schemas;
         this.collectOperation = collectOperation;
         this.clusterService = clusterService;
-        this.circuitBreakerService = circuitBreakerService;
+        this.workloadClasses = workloadClasses;
         this.countOperation = countOperation;
         this.memoryManagerFactory = memoryManagerFactory;
         this.pkLookupOperation = new PKLookupOperation(indicesService, shardCollectSource);
         this.distributingConsumerFactory = distributingConsumerFactory;
+        this.hashJoinSpillDirectory = SpillFile.directory(settings, "join");
         innerPreparer = new InnerPreparer();
         inputFactory = new InputFactory(functions);
-        searchTp = threadPool.executor(ThreadPool.Names.SEARCH);
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions);
         this.projectorFactory = new ProjectionToProjectorVisitor(
             clusterService,
@@ -180,6 +187,7 @@ public class JobSetup {
             functions,
             threadPool,
             settings,
+            spillThresholds,
             transportActionProvider,
             inputFactory,
             normalizer,
@@ -195,6 +203,7 @@ public class JobSetup {
         Context context = new Context(
             clusterService.localNode().getId(),
             sessionInfo,
+            workloadClasses.resolve(sessionInfo),
             contextBuilder,
             LOGGER,
             distributingConsumerFactory,
@@ -219,6 +228,7 @@ public class JobSetup {
         Context context = new Context(
             clusterService.localNode().getId(),
             sessionInfo,
+            workloadClasses.resolve(sessionInfo),
             taskBuilder,
             LOGGER,
             distributingConsumerFactory,
@@ -277,7 +287,7 @@ public class JobSetup {
             }
             if (ExecutionPhases.hasDirectResponseDownstream(nodeOperation.downstreamNodes())) {
                 var executionPhase = nodeOperation.executionPhase();
-                CircuitBreaker breaker = breaker();
+                CircuitBreaker breaker = context.breaker();
                 int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
                 var ramAccounting = new BlockBasedRamAccounting(
                     b -> breaker.addEstimateBytesAndMaybeBreak(b, executionPhase.label()),
@@ -457,9 +467,11 @@ public class JobSetup {
         private final Logger logger;
         private final List<ExecutionPhase> leafs = new ArrayList<>();
         private final TransactionContext transactionContext;
+        private final WorkloadClass workloadClass;
 
         Context(String localNodeId,
                 SessionSettings sessionInfo,
+                WorkloadClass workloadClass,
                 RootTask.Builder taskBuilder,
                 Logger logger,
                 DistributingConsumerFactory distributingConsumerFactory,
@@ -471,12 +483,25 @@ public class JobSetup {
             this.distributingConsumerFactory = distributingConsumerFactory;
             this.sharedShardContexts = sharedShardContexts;
             this.transactionContext = TransactionContext.of(sessionInfo);
+            this.workloadClass = workloadClass;
         }
 
         public UUID jobId() {
             return taskBuilder.jobId();
         }
 
+        /**
+         * @return the profiler for the operators of the phase on this node, or null if the job isn't profiled.
+         */
+        @Nullable
+        PhaseProfiler profiler(ExecutionPhase phase) {
+            ProfilingContext profilingContext = taskBuilder.profilingContext();
+            if (profilingContext == null) {
+                return null;
+            }
+            return profilingContext.phaseProfiler(phase.phaseId(), phase.name());
+        }
+
         /**
          * Retrieve the rowReceiver of the downstream of phase
          */
@@ -496,8 +521,15 @@ public class JobSetup {
             switch (distributionType) {
                 case BROADCAST:
                 case MODULO:
+                    PhaseProfiler profiler = profiler(phase);
                     RowConsumer consumer = distributingConsumerFactory.create(
-                        nodeOperation, ramAccounting, phase.distributionInfo(), jobId(), pageSize);
+                        nodeOperation,
+                        ramAccounting,
+                        phase.distributionInfo(),
+                        jobId(),
+                        pageSize,
+                        profiler == null ? null : profiler.sink("Distribution")
+                    );
                     if (logger.isTraceEnabled()) {
                         logger.trace(
                             "action=getRowReceiver, distributionType={}, phase={}, targetConsumer={}, target={}/{},",
@@ -548,6 +580,14 @@ public class JobSetup {
         public TransactionContext txnCtx() {
             return transactionContext;
         }
+
+        CircuitBreaker breaker() {
+            return workloadClass.breaker();
+        }
+
+        Executor executor() {
+            return workloadClass.executor();
+        }
     }
 
     private class InnerPreparer extends ExecutionPhaseVisitor<Context, Boolean> {
@@ -560,7 +600,7 @@ public class JobSetup {
             if (indexShardMap == null) {
                 throw new IllegalArgumentException("The routing of the countPhase doesn't contain the current nodeId");
             }
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
             var ramAccounting = ConcurrentRamAccounting.forCircuitBreaker(phase.label(), breaker);
             RowConsumer consumer = context.getRowConsumer(
@@ -568,6 +608,10 @@ public class JobSetup {
                 0,
                 new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes));
             consumer.completionFuture().whenComplete((result, error) -> ramAccounting.close());
+            PhaseProfiler profiler = context.profiler(phase);
+            if (profiler != null) {
+                consumer = profiler.instrumentSource(consumer);
+            }
             context.registerSubContext(new CountTask(
                 phase,
                 context.transactionContext,
@@ -586,7 +630,7 @@ public class JobSetup {
             Map<ShardId, List<PKAndVersion>> idsByShardId =
                 pkLookupPhase.getIdsByShardId(clusterService.localNode().getId());
 
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytesPerShard(
                 breaker.getLimit(),
                 idsByShardId.size()
@@ -609,7 +653,9 @@ public class JobSetup {
                 context.txnCtx(),
                 consumerRamAccounting,
                 consumerMemoryManager,
-                projectorFactory
+                projectorFactory,
+                context.taskBuilder.spillStats(pkLookupPhase.phaseId()),
+                context.profiler(pkLookupPhase)
             );
             context.registerSubContext(new PKLookupTask(
                 pkLookupPhase.jobId(),
@@ -635,7 +681,7 @@ public class JobSetup {
             boolean upstreamOnSameNode = context.opCtx.upstreamsAreOnSameNode(phase.phaseId());
             int pageSize = Paging.getWeightedPageSize(Paging.PAGE_SIZE, 1.0d / phase.nodeIds().size());
 
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
             var ramAccounting = ConcurrentRamAccounting.forCircuitBreaker(phase.label(), breaker);
             var ramAccountingForMerge = new BlockBasedRamAccounting(
@@ -644,6 +690,8 @@ public class JobSetup {
 
             RowConsumer finalRowConsumer = context.getRowConsumer(phase, pageSize, ramAccountingForMerge);
             MemoryManager memoryManager = memoryManagerFactory.getMemoryManager(ramAccounting);
+            SpillStats spillStats = context.taskBuilder.spillStats(phase.phaseId());
+            PhaseProfiler profiler = context.profiler(phase);
             finalRowConsumer.completionFuture().whenComplete((result, error) -> {
                 memoryManager.close();
                 ramAccounting.close();
@@ -657,13 +705,16 @@ public class JobSetup {
                     context.txnCtx(),
                     ramAccountingForMerge,
                     memoryManager,
-                    projectorFactory
+                    projectorFactory,
+                    spillStats,
+                    profiler
                 );
                 context.registerBatchConsumer(phase.phaseId(), projectingRowConsumer);
                 return true;
             }
 
             Collector<Row, ?, Iterable<Row>> collector = null;
+            Runnable closeCollector = () -> {};
             List<Projection> projections = phase.projections();
             if (projections.size() > 0) {
                 Projection firstProjection = projections.get(0);
@@ -674,9 +725,12 @@ public class JobSetup {
                         context.txnCtx(),
                         ramAccountingForMerge,
                         memoryManager,
-                        phase.jobId()
+                        phase.jobId(),
+                        spillStats
                     );
-                    collector = groupingProjector.getCollector();
+                    GroupingCollector<?> groupingCollector = groupingProjector.getCollector();
+                    collector = groupingCollector;
+                    closeCollector = groupingCollector::close;
                     projections = projections.subList(1, projections.size());
                 } else if (firstProjection instanceof AggregationProjection) {
                     AggregationProjection aggregationProjection = (AggregationProjection) firstProjection;
@@ -699,14 +753,16 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingForMerge,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                spillStats,
+                profiler
             );
             PageBucketReceiver pageBucketReceiver;
             if (collector == null) {
                 pageBucketReceiver = new CumulativePageBucketReceiver(
                     nodeName,
                     phase.phaseId(),
-                    searchTp,
+                    context.executor(),
                     DataTypes.getStreamers(phase.inputTypes()),
                     projectingRowConsumer,
                     PagingIterator.create(
@@ -721,9 +777,10 @@ public class JobSetup {
                 pageBucketReceiver = new IncrementalPageBucketReceiver<>(
                     collector,
                     projectingRowConsumer,
-                    searchTp,
+                    context.executor(),
                     DataTypes.getStreamers(phase.inputTypes()),
-                    phase.numUpstreams());
+                    phase.numUpstreams(),
+                    closeCollector);
             }
             context.registerSubContext(new DistResultRXTask(
                 phase.phaseId(),
@@ -738,7 +795,7 @@ public class JobSetup {
 
         @Override
         public Boolean visitRoutedCollectPhase(final RoutedCollectPhase phase, final Context context) {
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytesPerShard(
                 breaker.getLimit(),
                 phase.routing().numShards(clusterService.localNode().getId())
@@ -750,10 +807,15 @@ public class JobSetup {
                 new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes)
             );
             consumer.completionFuture().whenComplete((result, error) -> ramAccounting.close());
+            PhaseProfiler profiler = context.profiler(phase);
+            if (profiler != null) {
+                consumer = profiler.instrumentSource(consumer);
+            }
             context.registerSubContext(new CollectTask(
                 phase,
                 context.txnCtx(),
                 collectOperation,
+                context.executor(),
                 ramAccounting,
                 memoryManagerFactory,
                 consumer,
@@ -766,7 +828,7 @@ public class JobSetup {
 
         @Override
         public Boolean visitCollectPhase(CollectPhase phase, Context context) {
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
             RamAccounting ramAccounting = ConcurrentRamAccounting.forCircuitBreaker(phase.label(), breaker);
             RowConsumer consumer = context.getRowConsumer(
@@ -775,10 +837,15 @@ public class JobSetup {
                 new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes)
             );
             consumer.completionFuture().whenComplete((result, error) -> ramAccounting.close());
+            PhaseProfiler profiler = context.profiler(phase);
+            if (profiler != null) {
+                consumer = profiler.instrumentSource(consumer);
+            }
             context.registerSubContext(new CollectTask(
                 phase,
                 context.txnCtx(),
                 collectOperation,
+                context.executor(),
                 ramAccounting,
                 memoryManagerFactory,
                 consumer,
@@ -821,7 +888,7 @@ public class JobSetup {
 
         @Override
         public Boolean visitNestedLoopPhase(NestedLoopPhase phase, Context context) {
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
             var concurrentRamAccounting = ConcurrentRamAccounting.forCircuitBreaker(phase.label(), breaker);
             var ramAccountingOfOperation = new BlockBasedRamAccounting(
@@ -841,7 +908,9 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingOfOperation,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                context.taskBuilder.spillStats(phase.phaseId()),
+                context.profiler(phase)
             );
             Predicate<Row> joinCondition = RowFilter.create(context.transactionContext, inputFactory, phase.joinCondition());
 
@@ -851,7 +920,7 @@ public class JobSetup {
                 firstConsumer,
                 joinCondition,
                 phase.joinType(),
-                breaker(),
+                context.breaker(),
                 ramAccountingOfOperation,
                 phase.leftSideColumnTypes,
                 phase.estimatedRowsSizeLeft,
@@ -895,7 +964,7 @@ public class JobSetup {
 
         @Override
         public Boolean visitHashJoinPhase(HashJoinPhase phase, Context context) {
-            CircuitBreaker breaker = breaker();
+            CircuitBreaker breaker = context.breaker();
             int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
             var ramAccounting = ConcurrentRamAccounting.forCircuitBreaker(phase.label(), breaker);
             var ramAccountingOfOperation = new BlockBasedRamAccounting(
@@ -915,7 +984,9 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingOfOperation,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                context.taskBuilder.spillStats(phase.phaseId()),
+                context.profiler(phase)
             );
             Predicate<Row> joinCondition = RowFilter.create(context.transactionContext, inputFactory, phase.joinCondition());
 
@@ -923,19 +994,19 @@ public class JobSetup {
                 phase.numLeftOutputs(),
                 phase.numRightOutputs(),
                 firstConsumer,
+                phase.joinType(),
                 joinCondition,
                 phase.leftJoinConditionInputs(),
                 phase.rightJoinConditionInputs(),
-                // 110 extra bytes per row =
-                //    96 bytes for each ArrayList +
-                //    7 bytes per key for the IntHashObjectHashMap  (should be 4 but the map pre-allocates more)
-                //    7 bytes perv value (pointer from the map to the list) (should be 4 but the map pre-allocates more)
-                new RowCellsAccountingWithEstimators(phase.leftOutputTypes(), ramAccountingOfOperation, 110),
+                new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes),
+                phase.leftOutputTypes(),
+                phase.rightOutputTypes(),
                 context.transactionContext,
                 inputFactory,
-                breaker(),
+                context.breaker(),
                 phase.estimatedRowSizeForLeft(),
-                phase.numberOfRowsForLeft());
+                phase.numberOfRowsForLeft(),
+                hashJoinSpillDirectory);
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
                 context,
@@ -983,22 +1054,22 @@ public class JobSetup {
             }
 
             // In case of join on virtual table the left or right merge phase of the nl might have projections (TopN)
-            if (mergePhase.hasProjections()) {
-                rowConsumer = ProjectingRowConsumer.create(
-                    rowConsumer,
-                    mergePhase.projections(),
-                    mergePhase.jobId(),
-                    ctx.txnCtx(),
-                    ramAccounting,
-                    memoryManager,
-                    projectorFactory
-                );
-            }
+            rowConsumer = ProjectingRowConsumer.create(
+                rowConsumer,
+                mergePhase.projections(),
+                mergePhase.jobId(),
+                ctx.txnCtx(),
+                ramAccounting,
+                memoryManager,
+                projectorFactory,
+                ctx.taskBuilder.spillStats(mergePhase.phaseId()),
+                ctx.profiler(mergePhase)
+            );
 
             PageBucketReceiver pageBucketReceiver = new CumulativePageBucketReceiver(
                 nodeName,
                 mergePhase.phaseId(),
-                searchTp,
+                ctx.executor(),
                 StreamerVisitor.streamersFromOutputs(mergePhase),
                 rowConsumer,
                 PagingIterator.create(
@@ -1020,10 +1091,6 @@ public class JobSetup {
         }
     }
 
-    private CircuitBreaker breaker() {
-        return circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY);
-    }
-
     private static long toKey(int phaseId, byte inputId) {
         return ((long) phaseId << 32) | (inputId & 0xffffffffL);
     }
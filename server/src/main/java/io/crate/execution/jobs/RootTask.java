@@ -30,6 +30,7 @@ import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.exceptions.TaskMissing;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.profile.ProfilingContext;
 import io.crate.profile.Timer;
 import org.apache.logging.log4j.Logger;
@@ -39,6 +40,7 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -82,6 +84,7 @@ public class RootTask implements CompletionListenable<Void> {
         private final String coordinatorNode;
         private final JobsLogs jobsLogs;
         private final List<Task> tasks = new ArrayList<>();
+        private final Map<Integer, SpillStats> spillStatsByPhaseId = new HashMap<>();
         private final String user;
         private final Collection<String> participatingNodes;
 
@@ -107,6 +110,11 @@ public class RootTask implements CompletionListenable<Void> {
             return this;
         }
 
+        @Nullable
+        public ProfilingContext profilingContext() {
+            return profilingContext;
+        }
+
         public void addTask(Task task) {
             tasks.add(task);
         }
@@ -115,6 +123,13 @@ public class RootTask implements CompletionListenable<Void> {
             return tasks.isEmpty();
         }
 
+        /**
+         * The {@link SpillStats} of the task with the given phaseId, exposed via {@code sys.operations}.
+         */
+        public SpillStats spillStats(int phaseId) {
+            return spillStatsByPhaseId.computeIfAbsent(phaseId, id -> new SpillStats());
+        }
+
         public UUID jobId() {
             return jobId;
         }
@@ -128,6 +143,7 @@ public class RootTask implements CompletionListenable<Void> {
                 participatingNodes,
                 jobsLogs,
                 tasks,
+                spillStatsByPhaseId,
                 profilingContext
             );
         }
@@ -140,6 +156,7 @@ public class RootTask implements CompletionListenable<Void> {
                      Collection<String> participatingNodes,
                      JobsLogs jobsLogs,
                      List<Task> orderedTasks,
+                     Map<Integer, SpillStats> spillStatsByPhaseId,
                      @Nullable ProfilingContext profilingContext) throws Exception {
         this.logger = logger;
         this.user = user;
@@ -172,7 +189,8 @@ public class RootTask implements CompletionListenable<Void> {
                 throw new IllegalArgumentException("Task for " + phaseId + " already added");
             }
             task.completionFuture().whenComplete(new RemoveTaskListener(phaseId));
-            jobsLogs.operationStarted(phaseId, jobId, task.name(), task::bytesUsed);
+            SpillStats spillStats = spillStatsByPhaseId.getOrDefault(phaseId, new SpillStats());
+            jobsLogs.operationStarted(phaseId, jobId, task.name(), task::bytesUsed, spillStats);
             task.prepare();
             if (profiler != null) {
                 String subContextName = ProfilingContext.generateProfilingKey(task.id(), task.name());
@@ -22,6 +22,7 @@
 package io.crate.execution.jobs.kill;
 
 import io.crate.execution.jobs.TasksService;
+import io.crate.execution.workload.WorkloadClasses;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -34,13 +35,26 @@ public class TransportKillAllNodeAction extends TransportKillNodeAction<KillAllR
 
     @Inject
     public TransportKillAllNodeAction(TasksService tasksService,
+                                      WorkloadClasses workloadClasses,
                                       ClusterService clusterService,
                                       TransportService transportService) {
-        super("internal:crate:sql/kill/all", tasksService, clusterService, transportService, KillAllRequest::new);
+        super(
+            "internal:crate:sql/kill/all",
+            tasksService,
+            workloadClasses,
+            clusterService,
+            transportService,
+            KillAllRequest::new
+        );
     }
 
     @Override
     protected CompletableFuture<Integer> doKill(KillAllRequest request) {
-        return tasksService.killAll(request.userName());
+        int numQueuedKilled = workloadClasses.killQueued(null, request.userName(), null);
+        CompletableFuture<Integer> numKilled = tasksService.killAll(request.userName());
+        if (numQueuedKilled == 0) {
+            return numKilled;
+        }
+        return numKilled.thenApply(n -> n + numQueuedKilled);
     }
 }
@@ -22,6 +22,7 @@
 package io.crate.execution.jobs.kill;
 
 import io.crate.execution.jobs.TasksService;
+import io.crate.execution.workload.WorkloadClasses;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -36,14 +37,27 @@ public class TransportKillJobsNodeAction extends TransportKillNodeAction<KillJob
 
     @Inject
     public TransportKillJobsNodeAction(TasksService tasksService,
+                                       WorkloadClasses workloadClasses,
                                        ClusterService clusterService,
                                        TransportService transportService) {
-        super("internal:crate:sql/kill/jobs", tasksService, clusterService, transportService, KillJobsRequest::new);
+        super(
+            "internal:crate:sql/kill/jobs",
+            tasksService,
+            workloadClasses,
+            clusterService,
+            transportService,
+            KillJobsRequest::new
+        );
     }
 
     @Override
     protected CompletableFuture<Integer> doKill(KillJobsRequest request) {
-        return tasksService.killJobs(request.toKill(), request.userName(), request.reason());
+        int numQueuedKilled = workloadClasses.killQueued(request.toKill(), request.userName(), request.reason());
+        CompletableFuture<Integer> numKilled = tasksService.killJobs(request.toKill(), request.userName(), request.reason());
+        if (numQueuedKilled == 0) {
+            return numKilled;
+        }
+        return numKilled.thenApply(n -> n + numQueuedKilled);
     }
 
     @Override
@@ -26,6 +26,7 @@ import io.crate.execution.jobs.TasksService;
 import io.crate.execution.support.MultiActionListener;
 import io.crate.execution.support.NodeAction;
 import io.crate.execution.support.NodeActionRequestHandler;
+import io.crate.execution.workload.WorkloadClasses;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -48,6 +49,7 @@ import java.util.stream.StreamSupport;
 abstract class TransportKillNodeAction<Request extends TransportRequest> implements NodeAction<Request, KillResponse>, Writeable.Reader<Request> {
 
     protected final TasksService tasksService;
+    protected final WorkloadClasses workloadClasses;
     protected final ClusterService clusterService;
     protected final TransportService transportService;
     protected final String name;
@@ -55,10 +57,12 @@ abstract class TransportKillNodeAction<Request extends TransportRequest> impleme
 
     TransportKillNodeAction(String name,
                             TasksService tasksService,
+                            WorkloadClasses workloadClasses,
                             ClusterService clusterService,
                             TransportService transportService,
                             Writeable.Reader<Request> reader) {
         this.tasksService = tasksService;
+        this.workloadClasses = workloadClasses;
         this.clusterService = clusterService;
         this.transportService = transportService;
         this.reader = reader;
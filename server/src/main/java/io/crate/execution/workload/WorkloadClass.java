@@ -0,0 +1,271 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.workload;
+
+import io.crate.exceptions.JobKilledException;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * A named group of queries which share a concurrency limit, a queue, a memory budget and an executor.
+ * <p>
+ * Queries are admitted on the handler node using {@link #admit(UUID, String, Runnable, Consumer)}.
+ * If {@code maxConcurrency} queries of the class are already running, further queries are queued up to
+ * {@code maxQueued} and started in FIFO order once a running query calls {@link #release()}.
+ * Queries which don't fit into the queue are rejected.
+ * <p>
+ * Queued queries aren't registered in the {@link io.crate.execution.jobs.TasksService} yet, they are removed from the
+ * queue using {@link #kill(Collection, String, boolean, String)} or once they waited longer than {@code queueTimeoutInMs}.
+ * <p>
+ * The phases of admitted queries run on {@link #executor()} and account their memory on {@link #breaker()}.
+ */
+public final class WorkloadClass {
+
+    private final String name;
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private final long queueTimeoutInMs;
+    private final int threads;
+    private final List<String> users;
+    private final Executor executor;
+    private final CircuitBreaker breaker;
+
+    private final ArrayDeque<QueuedJob> queue = new ArrayDeque<>();
+    private int running = 0;
+
+    /**
+     * @param maxConcurrency number of queries which may run concurrently. A value of 0 or less disables admission control.
+     * @param maxQueued      number of queries which may wait for admission
+     * @param queueTimeoutInMs time a query may wait for admission before it is rejected, 0 or less to wait forever.
+     * @param threads        the size of the dedicated executor, 0 if the class uses the shared search executor.
+     * @param users          names of the users whose queries belong to this class by default
+     */
+    public WorkloadClass(String name,
+                         int maxConcurrency,
+                         int maxQueued,
+                         long queueTimeoutInMs,
+                         int threads,
+                         List<String> users,
+                         Executor executor,
+                         CircuitBreaker breaker) {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutInMs = queueTimeoutInMs;
+        this.threads = threads;
+        this.users = users;
+        this.executor = executor;
+        this.breaker = breaker;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int maxQueued() {
+        return maxQueued;
+    }
+
+    public long queueTimeoutInMs() {
+        return queueTimeoutInMs;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    public List<String> users() {
+        return users;
+    }
+
+    public Executor executor() {
+        return executor;
+    }
+
+    public CircuitBreaker breaker() {
+        return breaker;
+    }
+
+    public synchronized int running() {
+        return running;
+    }
+
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Runs {@code job} in the current thread if the concurrency limit isn't reached, otherwise queues it.
+     * Every job which has been run must call {@link #release()} once it has finished.
+     *
+     * @param onCancel called instead of running the job if it is removed from the queue because it has been
+     *                 killed or exceeded the queue timeout.
+     * @throws EsRejectedExecutionException if the queue is full.
+     */
+    public void admit(UUID jobId, String userName, Runnable job, Consumer<? super Exception> onCancel) {
+        List<QueuedJob> timedOut = List.of();
+        EsRejectedExecutionException rejected = null;
+        boolean admitted = false;
+        synchronized (this) {
+            if (maxConcurrency <= 0 || running < maxConcurrency) {
+                running++;
+                admitted = true;
+            } else {
+                long nowInMs = System.currentTimeMillis();
+                timedOut = removeTimedOut(nowInMs);
+                if (queue.size() >= maxQueued) {
+                    rejected = new EsRejectedExecutionException(String.format(
+                        Locale.ENGLISH,
+                        "Workload class [%s] is at capacity: %d queries running, %d queued",
+                        name,
+                        running,
+                        queue.size()), false);
+                } else {
+                    queue.add(new QueuedJob(jobId, userName, job, onCancel, nowInMs));
+                }
+            }
+        }
+        cancelAll(timedOut);
+        if (rejected != null) {
+            throw rejected;
+        }
+        if (admitted) {
+            job.run();
+        }
+    }
+
+    /**
+     * Marks a job as finished and starts the next queued job, if any.
+     * Queued jobs which exceeded the queue timeout are cancelled instead of started.
+     */
+    public void release() {
+        QueuedJob next;
+        List<QueuedJob> timedOut;
+        synchronized (this) {
+            timedOut = removeTimedOut(System.currentTimeMillis());
+            next = queue.poll();
+            if (next == null) {
+                assert running > 0 : "release must only be called for admitted jobs";
+                running--;
+            }
+        }
+        cancelAll(timedOut);
+        if (next == null) {
+            return;
+        }
+        try {
+            executor.execute(next.job);
+        } catch (RejectedExecutionException e) {
+            next.job.run();
+        }
+    }
+
+    /**
+     * Removes the given jobs from the queue and cancels them.
+     *
+     * @param jobIds      the jobs to kill, null to kill all queued jobs.
+     * @param isSuperUser true if all jobs may be killed, otherwise only jobs of {@code userName} are killed.
+     * @return the number of killed jobs.
+     */
+    public int kill(@Nullable Collection<UUID> jobIds, String userName, boolean isSuperUser, @Nullable String reason) {
+        List<QueuedJob> killed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<QueuedJob> it = queue.iterator();
+            while (it.hasNext()) {
+                QueuedJob queuedJob = it.next();
+                if ((jobIds == null || jobIds.contains(queuedJob.jobId))
+                    && (isSuperUser || queuedJob.userName.equals(userName))) {
+                    it.remove();
+                    killed.add(queuedJob);
+                }
+            }
+        }
+        for (QueuedJob queuedJob : killed) {
+            queuedJob.onCancel.accept(JobKilledException.of(reason));
+        }
+        return killed.size();
+    }
+
+    private List<QueuedJob> removeTimedOut(long nowInMs) {
+        assert Thread.holdsLock(this) : "must be called while holding the lock";
+        if (queueTimeoutInMs <= 0) {
+            return List.of();
+        }
+        List<QueuedJob> timedOut = new ArrayList<>();
+        QueuedJob head;
+        // jobs are queued in FIFO order, so the timed out jobs are at the head of the queue
+        while ((head = queue.peek()) != null && nowInMs - head.queuedAtInMs >= queueTimeoutInMs) {
+            timedOut.add(queue.poll());
+        }
+        return timedOut;
+    }
+
+    private void cancelAll(List<QueuedJob> timedOut) {
+        for (QueuedJob queuedJob : timedOut) {
+            queuedJob.onCancel.accept(new EsRejectedExecutionException(String.format(
+                Locale.ENGLISH,
+                "Query waited more than %dms for admission by workload class [%s]",
+                queueTimeoutInMs,
+                name), false));
+        }
+    }
+
+    private static final class QueuedJob {
+
+        private final UUID jobId;
+        private final String userName;
+        private final Runnable job;
+        private final Consumer<? super Exception> onCancel;
+        private final long queuedAtInMs;
+
+        QueuedJob(UUID jobId, String userName, Runnable job, Consumer<? super Exception> onCancel, long queuedAtInMs) {
+            this.jobId = jobId;
+            this.userName = userName;
+            this.job = job;
+            this.onCancel = onCancel;
+            this.queuedAtInMs = queuedAtInMs;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadClass{" + name + ", running=" + running() + ", queued=" + queued() + '}';
+    }
+}
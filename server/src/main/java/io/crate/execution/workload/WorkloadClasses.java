@@ -0,0 +1,291 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.workload;
+
+import io.crate.action.sql.SessionContext;
+import io.crate.auth.user.User;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.common.unit.TimeValue;
+import io.crate.metadata.settings.SessionSettings;
+import io.crate.metadata.settings.session.SessionSetting;
+import io.crate.metadata.settings.session.SessionSettingProvider;
+import io.crate.types.DataTypes;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.MemorySizeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.indices.breaker.BreakerSettings;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the {@link WorkloadClass}es of a node.
+ * <p>
+ * Classes are configured in the node settings:
+ *
+ * <pre>
+ *     workload.classes.reports.max_concurrency: 2
+ *     workload.classes.reports.max_queued: 50
+ *     workload.classes.reports.queue_timeout: 30s
+ *     workload.classes.reports.threads: 2
+ *     workload.classes.reports.memory_limit: 20%
+ *     workload.classes.reports.users: [reporting]
+ * </pre>
+ *
+ * A query belongs to the class of its user and queries of all other users belong to the {@link #DEFAULT} class,
+ * which uses the shared search executor and the query circuit breaker without admission control.
+ * Superusers can choose any class with the {@code workload_class} session setting, other users can only set it to
+ * their own class.
+ */
+@Singleton
+public class WorkloadClasses extends AbstractLifecycleComponent implements SessionSettingProvider {
+
+    public static final String DEFAULT = "default";
+    public static final String SESSION_SETTING_KEY = "workload_class";
+
+    public static final Setting<Settings> WORKLOAD_CLASSES_SETTING = Setting.groupSetting(
+        "workload.classes.", Setting.Property.NodeScope);
+
+    private static final String MAX_CONCURRENCY = "max_concurrency";
+    private static final String MAX_QUEUED = "max_queued";
+    private static final String QUEUE_TIMEOUT = "queue_timeout";
+    private static final String THREADS = "threads";
+    private static final String MEMORY_LIMIT = "memory_limit";
+    private static final String USERS = "users";
+
+    private static final int DEFAULT_MAX_QUEUED = 100;
+    private static final int EXECUTOR_QUEUE_SIZE = 1000;
+
+    private final Map<String, WorkloadClass> classes = new HashMap<>();
+    private final Map<String, WorkloadClass> classesByUser = new HashMap<>();
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private final WorkloadClass defaultClass;
+
+    @Inject
+    public WorkloadClasses(Settings settings, ThreadPool threadPool, CircuitBreakerService circuitBreakerService) {
+        String nodeName = Node.NODE_NAME_SETTING.get(settings);
+        defaultClass = new WorkloadClass(
+            DEFAULT,
+            0,
+            0,
+            0,
+            0,
+            List.of(),
+            threadPool.executor(ThreadPool.Names.SEARCH),
+            circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY)
+        );
+        classes.put(DEFAULT, defaultClass);
+        for (Map.Entry<String, Settings> entry : WORKLOAD_CLASSES_SETTING.get(settings).getAsGroups().entrySet()) {
+            String name = entry.getKey();
+            if (DEFAULT.equals(name)) {
+                throw new IllegalArgumentException("The workload class [" + DEFAULT + "] cannot be configured");
+            }
+            WorkloadClass workloadClass = create(
+                nodeName, name, entry.getValue(), threadPool, circuitBreakerService);
+            classes.put(name, workloadClass);
+            for (String user : workloadClass.users()) {
+                WorkloadClass existing = classesByUser.put(user, workloadClass);
+                if (existing != null) {
+                    throw new IllegalArgumentException(String.format(
+                        Locale.ENGLISH,
+                        "User [%s] is mapped to the workload classes [%s] and [%s]",
+                        user,
+                        existing.name(),
+                        name));
+                }
+            }
+        }
+    }
+
+    private WorkloadClass create(String nodeName,
+                                 String name,
+                                 Settings settings,
+                                 ThreadPool threadPool,
+                                 CircuitBreakerService circuitBreakerService) {
+        String prefix = WORKLOAD_CLASSES_SETTING.getKey() + name + ".";
+        int maxConcurrency = settings.getAsInt(MAX_CONCURRENCY, 0);
+        int maxQueued = settings.getAsInt(MAX_QUEUED, DEFAULT_MAX_QUEUED);
+        TimeValue queueTimeout = settings.getAsTime(QUEUE_TIMEOUT, TimeValue.ZERO);
+        int threads = settings.getAsInt(THREADS, 0);
+        if (maxQueued < 0 || threads < 0) {
+            throw new IllegalArgumentException(
+                "[" + prefix + MAX_QUEUED + "] and [" + prefix + THREADS + "] must not be negative");
+        }
+        ExecutorService executor = null;
+        if (threads > 0) {
+            executor = EsExecutors.newFixed(
+                nodeName + "/workload_" + name,
+                threads,
+                EXECUTOR_QUEUE_SIZE,
+                EsExecutors.daemonThreadFactory(nodeName, "workload_" + name));
+            executors.add(executor);
+        }
+        CircuitBreaker breaker;
+        String memoryLimit = settings.get(MEMORY_LIMIT);
+        if (memoryLimit == null) {
+            breaker = circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY);
+        } else {
+            String breakerName = "workload_" + name;
+            long limitBytes = MemorySizeValue.parseBytesSizeValueOrHeapRatio(memoryLimit, prefix + MEMORY_LIMIT).getBytes();
+            circuitBreakerService.registerBreaker(
+                new BreakerSettings(breakerName, limitBytes, 1.0, CircuitBreaker.Type.MEMORY));
+            breaker = circuitBreakerService.getBreaker(breakerName);
+        }
+        return new WorkloadClass(
+            name,
+            maxConcurrency,
+            maxQueued,
+            queueTimeout.millis(),
+            threads,
+            settings.getAsList(USERS),
+            executor == null ? threadPool.executor(ThreadPool.Names.SEARCH) : executor,
+            breaker
+        );
+    }
+
+    public Collection<WorkloadClass> classes() {
+        return classes.values();
+    }
+
+    @Nullable
+    public WorkloadClass get(String name) {
+        return classes.get(name);
+    }
+
+    /**
+     * @return the class set in the session settings or, if none is set, the class of the user.
+     *         Falls back to the {@link #DEFAULT} class if the class is unknown on this node.
+     */
+    public WorkloadClass resolve(SessionSettings sessionSettings) {
+        return resolve(sessionSettings.workloadClass(), sessionSettings.userName());
+    }
+
+    @VisibleForTesting
+    WorkloadClass resolve(String workloadClassName, String userName) {
+        WorkloadClass workloadClass;
+        if (workloadClassName.isEmpty()) {
+            workloadClass = classesByUser.get(userName);
+        } else {
+            workloadClass = classes.get(workloadClassName);
+        }
+        return workloadClass == null ? defaultClass : workloadClass;
+    }
+
+    /**
+     * Kills the queued jobs of all classes which haven't been admitted yet.
+     *
+     * @param jobIds the jobs to kill, null to kill all queued jobs the user is allowed to kill.
+     * @return the number of killed jobs.
+     */
+    public int killQueued(@Nullable Collection<UUID> jobIds, String userName, @Nullable String reason) {
+        boolean isSuperUser = userName.equals(User.CRATE_USER.name());
+        int numKilled = 0;
+        for (WorkloadClass workloadClass : classes.values()) {
+            numKilled += workloadClass.kill(jobIds, userName, isSuperUser, reason);
+        }
+        return numKilled;
+    }
+
+    /**
+     * Superusers may use any class, other users only the class they are mapped to or,
+     * if they aren't mapped to a class, the {@link #DEFAULT} class.
+     */
+    @VisibleForTesting
+    void ensureAllowed(User user, String workloadClassName) {
+        if (workloadClassName.isEmpty() || user.isSuperUser()) {
+            return;
+        }
+        WorkloadClass userClass = classesByUser.getOrDefault(user.name(), defaultClass);
+        if (!userClass.name().equals(workloadClassName)) {
+            throw new IllegalArgumentException(String.format(
+                Locale.ENGLISH,
+                "User [%s] is not allowed to use the workload class [%s]",
+                user.name(),
+                workloadClassName));
+        }
+    }
+
+    @Override
+    public List<SessionSetting<?>> sessionSettings() {
+        return List.of(new SessionSetting<>(
+            SESSION_SETTING_KEY,
+            objects -> {
+                if (objects.length > 1) {
+                    throw new IllegalArgumentException(SESSION_SETTING_KEY + " should have only one argument.");
+                }
+                if (objects.length == 1) {
+                    String name = DataTypes.STRING.value(objects[0]);
+                    if (name != null && !name.isEmpty() && !classes.containsKey(name)) {
+                        throw new IllegalArgumentException("Unknown workload class [" + name + "]");
+                    }
+                }
+            },
+            objects -> objects.length == 0 || objects[0] == null ? "" : DataTypes.STRING.value(objects[0]),
+            (sessionContext, name) -> {
+                ensureAllowed(sessionContext.user(), name);
+                sessionContext.setWorkloadClass(name);
+            },
+            s -> resolve(s).name(),
+            () -> DEFAULT,
+            "Sets the workload class of the queries of the session.",
+            DataTypes.STRING
+        ));
+    }
+
+    @Override
+    protected void doStart() throws ElasticsearchException {
+    }
+
+    @Override
+    protected void doStop() throws ElasticsearchException {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    protected void doClose() throws ElasticsearchException {
+        for (ExecutorService executor : executors) {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -26,6 +26,9 @@ import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.SymbolVisitor;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataTypes;
@@ -34,7 +37,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-public class AndOperator extends Operator<Boolean> {
+public class AndOperator extends Operator<Boolean> implements VectorizedScalar {
 
     public static final String NAME = "op_and";
     public static final Signature SIGNATURE = Signature.scalar(
@@ -138,6 +141,26 @@ public class AndOperator extends Operator<Boolean> {
         return left && right;
     }
 
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        BooleanVector left = (BooleanVector) args[0];
+        BooleanVector right = (BooleanVector) args[1];
+        BooleanVector booleanResult = (BooleanVector) result;
+        boolean[] leftValues = left.values();
+        boolean[] rightValues = right.values();
+        for (int i = 0; i < size; i++) {
+            boolean leftIsNull = left.isNull(i);
+            boolean rightIsNull = right.isNull(i);
+            if ((!leftIsNull && !leftValues[i]) || (!rightIsNull && !rightValues[i])) {
+                booleanResult.setBoolean(i, false);
+            } else if (leftIsNull || rightIsNull) {
+                booleanResult.setNull(i);
+            } else {
+                booleanResult.setBoolean(i, true);
+            }
+        }
+    }
+
     public static Function of(Symbol first, Symbol second) {
         assert first.valueType().equals(DataTypes.BOOLEAN) || first.valueType().equals(DataTypes.UNDEFINED) :
             "first symbol must have BOOLEAN return type to create AND function";
@@ -24,14 +24,20 @@ package io.crate.expression.operator;
 
 import io.crate.common.collections.MapComparator;
 import io.crate.data.Input;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.DoubleVector;
+import io.crate.expression.vector.LongVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.IntPredicate;
 
-public final class CmpOperator extends Operator<Object> {
+public final class CmpOperator extends Operator<Object> implements VectorizedScalar {
 
     private final Signature signature;
     private final Signature boundSignature;
@@ -59,8 +65,11 @@ public final class CmpOperator extends Operator<Object> {
         assert args.length == 2 : "number of args must be 2";
         assert args[0] != null && args[1] != null : "1st and 2nd argument must not be null";
 
-        Object left = args[0].value();
-        Object right = args[1].value();
+        return compare(args[0].value(), args[1].value());
+    }
+
+    @Nullable
+    private Boolean compare(@Nullable Object left, @Nullable Object right) {
         if (left == null || right == null) {
             return null;
         }
@@ -75,4 +84,36 @@ public final class CmpOperator extends Operator<Object> {
             return null;
         }
     }
+
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        ColumnVector left = args[0];
+        ColumnVector right = args[1];
+        result.setNulls(left, right);
+        boolean[] values = ((BooleanVector) result).values();
+        if (left instanceof LongVector) {
+            long[] leftValues = ((LongVector) left).values();
+            long[] rightValues = ((LongVector) right).values();
+            for (int i = 0; i < size; i++) {
+                values[i] = isMatch.test(Long.compare(leftValues[i], rightValues[i]));
+            }
+        } else if (left instanceof DoubleVector) {
+            double[] leftValues = ((DoubleVector) left).values();
+            double[] rightValues = ((DoubleVector) right).values();
+            for (int i = 0; i < size; i++) {
+                values[i] = isMatch.test(Double.compare(leftValues[i], rightValues[i]));
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (!result.isNull(i)) {
+                    Boolean match = compare(left.get(i), right.get(i));
+                    if (match == null) {
+                        result.setNull(i);
+                    } else {
+                        values[i] = match;
+                    }
+                }
+            }
+        }
+    }
 }
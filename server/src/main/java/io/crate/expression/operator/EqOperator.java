@@ -22,13 +22,18 @@
 package io.crate.expression.operator;
 
 import io.crate.data.Input;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.DoubleVector;
+import io.crate.expression.vector.LongVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
 
 import static io.crate.metadata.functions.TypeVariableConstraint.typeVariable;
 import static io.crate.types.TypeSignature.parseTypeSignature;
 
-public final class EqOperator extends Operator<Object> {
+public final class EqOperator extends Operator<Object> implements VectorizedScalar {
 
     public static final String NAME = "op_=";
 
@@ -68,6 +73,34 @@ public final class EqOperator extends Operator<Object> {
         return left.equals(right);
     }
 
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        ColumnVector left = args[0];
+        ColumnVector right = args[1];
+        result.setNulls(left, right);
+        boolean[] values = ((BooleanVector) result).values();
+        if (left instanceof LongVector) {
+            long[] leftValues = ((LongVector) left).values();
+            long[] rightValues = ((LongVector) right).values();
+            for (int i = 0; i < size; i++) {
+                values[i] = leftValues[i] == rightValues[i];
+            }
+        } else if (left instanceof DoubleVector) {
+            double[] leftValues = ((DoubleVector) left).values();
+            double[] rightValues = ((DoubleVector) right).values();
+            for (int i = 0; i < size; i++) {
+                // same semantics as Double.equals: NaN equals NaN, 0.0 doesn't equal -0.0
+                values[i] = Double.doubleToLongBits(leftValues[i]) == Double.doubleToLongBits(rightValues[i]);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (!result.isNull(i)) {
+                    values[i] = left.get(i).equals(right.get(i));
+                }
+            }
+        }
+    }
+
     @Override
     public Signature signature() {
         return signature;
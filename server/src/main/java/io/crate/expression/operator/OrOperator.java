@@ -26,11 +26,14 @@ import io.crate.data.Input;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataTypes;
 
-public class OrOperator extends Operator<Boolean> {
+public class OrOperator extends Operator<Boolean> implements VectorizedScalar {
 
     public static final String NAME = "op_or";
 
@@ -140,4 +143,19 @@ public class OrOperator extends Operator<Boolean> {
         return left || right;
     }
 
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        BooleanVector left = (BooleanVector) args[0];
+        BooleanVector right = (BooleanVector) args[1];
+        BooleanVector booleanResult = (BooleanVector) result;
+        for (int i = 0; i < size; i++) {
+            if (left.isTrue(i) || right.isTrue(i)) {
+                booleanResult.setBoolean(i, true);
+            } else if (left.isNull(i) || right.isNull(i)) {
+                booleanResult.setNull(i);
+            } else {
+                booleanResult.setBoolean(i, false);
+            }
+        }
+    }
 }
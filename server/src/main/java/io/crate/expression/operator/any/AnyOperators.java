@@ -74,6 +74,15 @@ public final class AnyOperators {
             return opName;
         }
 
+        public Signature signature() {
+            return Signature.scalar(
+                opName,
+                parseTypeSignature("E"),
+                parseTypeSignature("array(E)"),
+                Operator.RETURN_TYPE.getTypeSignature()
+            ).withTypeVariableConstraints(typeVariable("E"));
+        }
+
         public static List<String> fullQualifiedNames() {
             return Lists2.map(Arrays.asList(values()), t -> t.opName);
         }
@@ -87,12 +96,7 @@ public final class AnyOperators {
     public static void register(OperatorModule module) {
         for (var type : Type.values()) {
             module.register(
-                Signature.scalar(
-                    type.opName,
-                    parseTypeSignature("E"),
-                    parseTypeSignature("array(E)"),
-                    Operator.RETURN_TYPE.getTypeSignature()
-                ).withTypeVariableConstraints(typeVariable("E")),
+                type.signature(),
                 (signature, boundSignature) ->
                     new AnyOperator(
                         signature,
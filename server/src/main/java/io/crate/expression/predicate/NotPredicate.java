@@ -25,12 +25,15 @@ import io.crate.data.Input;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataTypes;
 
-public class NotPredicate extends Scalar<Boolean, Boolean> {
+public class NotPredicate extends Scalar<Boolean, Boolean> implements VectorizedScalar {
 
     public static final String NAME = "op_not";
     public static final Signature SIGNATURE = Signature.scalar(
@@ -88,4 +91,15 @@ public class NotPredicate extends Scalar<Boolean, Boolean> {
         Boolean value = args[0].value();
         return value != null ? !value : null;
     }
+
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        BooleanVector arg = (BooleanVector) args[0];
+        boolean[] argValues = arg.values();
+        boolean[] values = ((BooleanVector) result).values();
+        result.setNulls(arg);
+        for (int i = 0; i < size; i++) {
+            values[i] = !argValues[i];
+        }
+    }
 }
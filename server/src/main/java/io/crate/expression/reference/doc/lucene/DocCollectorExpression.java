@@ -41,6 +41,7 @@ public class DocCollectorExpression extends LuceneCollectorExpression<Map<String
     @Override
     public void startCollect(CollectorContext context) {
         sourceLookup = context.sourceLookup();
+        sourceLookup.registerCompleteSource();
     }
 
     @Override
@@ -92,6 +93,7 @@ public class DocCollectorExpression extends LuceneCollectorExpression<Map<String
         @Override
         public void startCollect(CollectorContext context) {
             sourceLookup = context.sourceLookup();
+            sourceLookup.registerPath(path);
         }
 
         @Override
@@ -38,9 +38,11 @@ import java.util.RandomAccess;
 public final class SourceLookup {
 
     private final SourceFieldVisitor fieldsVisitor = new SourceFieldVisitor();
+    private final SourceParser sourceParser = new SourceParser();
     private LeafReader reader;
     private int doc;
     private Map<String, Object> source;
+    private boolean sourceComplete = false;
     private boolean docVisited = false;
 
     SourceLookup() {
@@ -54,17 +56,42 @@ public final class SourceLookup {
         fieldsVisitor.reset();
         this.docVisited = false;
         this.source = null;
+        this.sourceComplete = false;
         this.reader = context.reader();
         this.doc = doc;
     }
 
+    /**
+     * Register a path which will be looked up using {@link #get(List)}.
+     * If paths are registered, only the values of the registered paths are parsed from the source.
+     */
+    public void registerPath(List<String> path) {
+        sourceParser.register(path);
+        if (sourceComplete == false) {
+            // a source parsed before may lack the path
+            source = null;
+        }
+    }
+
+    /**
+     * Declare that the complete source will be looked up using {@link #sourceAsMap()},
+     * which makes filtering the source by the registered paths pointless.
+     */
+    public void registerCompleteSource() {
+        sourceParser.registerAll();
+    }
+
     public Object get(List<String> path) {
-        ensureSourceParsed();
+        if (sourceParser.contains(path)) {
+            ensureSourceParsed();
+        } else {
+            ensureCompleteSourceParsed();
+        }
         return extractValue(source, path, 0);
     }
 
     public Map<String, Object> sourceAsMap() {
-        ensureSourceParsed();
+        ensureCompleteSourceParsed();
         return source;
     }
 
@@ -75,8 +102,16 @@ public final class SourceLookup {
 
     private void ensureSourceParsed() {
         if (source == null) {
+            ensureDocVisited();
+            source = sourceParser.parse(fieldsVisitor.source());
+        }
+    }
+
+    private void ensureCompleteSourceParsed() {
+        if (sourceComplete == false) {
             ensureDocVisited();
             source = XContentHelper.toMap(fieldsVisitor.source(), XContentType.JSON);
+            sourceComplete = true;
         }
     }
 
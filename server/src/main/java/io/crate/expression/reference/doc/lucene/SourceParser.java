@@ -0,0 +1,177 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.expression.reference.doc.lucene;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the {@code _source} into a map which only contains the registered column paths.
+ * <p>
+ * The JSON tokens are streamed once; sub-trees which aren't part of any registered path are skipped
+ * without materializing them. The resulting map has the same structure as the map of the complete source,
+ * so values can be extracted using {@link SourceLookup#extractValue(Map, List, int)}.
+ * <p>
+ * If no paths are registered or the complete source is required, the complete source is parsed.
+ */
+final class SourceParser {
+
+    private final Node root = new Node();
+    private boolean hasPaths = false;
+
+    /**
+     * Register a path relative to the root of the source, e.g. {@code [payload, a, b]} for {@code payload['a']['b']}
+     */
+    void register(List<String> path) {
+        Node node = root;
+        for (String part : path) {
+            if (node.complete) {
+                return;
+            }
+            node = node.children.computeIfAbsent(part, k -> new Node());
+        }
+        node.complete = true;
+        node.children.clear();
+        hasPaths = true;
+    }
+
+    /**
+     * Disable the filtering; {@link #parse(BytesReference)} will return the complete source.
+     */
+    void registerAll() {
+        root.complete = true;
+        root.children.clear();
+    }
+
+    /**
+     * @return true if the values of the path are contained in the result of {@link #parse(BytesReference)}
+     */
+    boolean contains(List<String> path) {
+        if (hasPaths == false) {
+            return true;
+        }
+        Node node = root;
+        for (String part : path) {
+            if (node.complete) {
+                return true;
+            }
+            node = node.children.get(part);
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.complete;
+    }
+
+    Map<String, Object> parse(BytesReference source) {
+        if (root.complete || hasPaths == false) {
+            return XContentHelper.toMap(source, XContentType.JSON);
+        }
+        try (XContentParser parser = XContentHelper.createParser(
+            NamedXContentRegistry.EMPTY,
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+            source,
+            XContentType.JSON)) {
+
+            XContentParser.Token token = parser.nextToken();
+            if (token != XContentParser.Token.START_OBJECT) {
+                throw new IllegalArgumentException("Source must be an object, got: " + token);
+            }
+            return parseObject(parser, root);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> parseObject(XContentParser parser, Node node) throws IOException {
+        HashMap<String, Object> values = new HashMap<>();
+        for (XContentParser.Token token = parser.nextToken();
+             token == XContentParser.Token.FIELD_NAME;
+             token = parser.nextToken()) {
+
+            String fieldName = parser.currentName();
+            XContentParser.Token valueToken = parser.nextToken();
+            Node child = node.children.get(fieldName);
+            if (child == null) {
+                parser.skipChildren();
+            } else {
+                values.put(fieldName, parseValue(parser, valueToken, child));
+            }
+        }
+        return values;
+    }
+
+    private static Object parseValue(XContentParser parser, XContentParser.Token token, Node node) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return node.complete ? parser.map() : parseObject(parser, node);
+
+            case START_ARRAY:
+                if (node.complete) {
+                    return parser.list();
+                }
+                ArrayList<Object> values = new ArrayList<>();
+                for (token = parser.nextToken(); token != XContentParser.Token.END_ARRAY; token = parser.nextToken()) {
+                    values.add(parseValue(parser, token, node));
+                }
+                return values;
+
+            case VALUE_STRING:
+                return parser.text();
+
+            case VALUE_NUMBER:
+                return parser.numberValue();
+
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+
+            default:
+                return null;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        /**
+         * The complete sub-tree of this node is required
+         */
+        private boolean complete = false;
+    }
+}
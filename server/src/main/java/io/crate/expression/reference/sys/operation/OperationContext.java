@@ -21,6 +21,8 @@
 
 package io.crate.expression.reference.sys.operation;
 
+import io.crate.execution.engine.spill.SpillStats;
+
 import java.util.Objects;
 import java.util.UUID;
 import java.util.function.LongSupplier;
@@ -33,13 +35,24 @@ public class OperationContext {
 
     public final long started;
     private final LongSupplier bytesUsed;
+    private final SpillStats spillStats;
 
     public OperationContext(int id, UUID jobId, String name, long started, LongSupplier bytesUsed) {
+        this(id, jobId, name, started, bytesUsed, new SpillStats());
+    }
+
+    public OperationContext(int id,
+                            UUID jobId,
+                            String name,
+                            long started,
+                            LongSupplier bytesUsed,
+                            SpillStats spillStats) {
         this.id = id;
         this.jobId = jobId;
         this.name = name;
         this.started = started;
         this.bytesUsed = bytesUsed;
+        this.spillStats = spillStats;
     }
 
     public int id() {
@@ -62,6 +75,14 @@ public class OperationContext {
         return bytesUsed.getAsLong();
     }
 
+    public long spillCount() {
+        return spillStats.numSpills();
+    }
+
+    public long spilledBytes() {
+        return spillStats.spilledBytes();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -26,6 +26,9 @@ import io.crate.data.Input;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.LongVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
@@ -41,7 +44,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
-public class DateTruncFunction extends Scalar<Long, Object> {
+public class DateTruncFunction extends Scalar<Long, Object> implements VectorizedScalar {
 
     public static final String NAME = "date_trunc";
 
@@ -186,6 +189,31 @@ public class DateTruncFunction extends Scalar<Long, Object> {
         return truncate(tzRounding, TimestampType.INSTANCE_WITH_TZ.value(value));
     }
 
+    @Override
+    public boolean isVectorizable() {
+        // the interval and time zone must be literals
+        return tzRounding != null;
+    }
+
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        assert tzRounding != null : "evaluate must only be called if isVectorizable() is true";
+        ColumnVector timestamps = args[args.length - 1];
+        LongVector longResult = (LongVector) result;
+        if (timestamps instanceof LongVector) {
+            long[] values = ((LongVector) timestamps).values();
+            long[] resultValues = longResult.values();
+            result.setNulls(timestamps);
+            for (int i = 0; i < size; i++) {
+                resultValues[i] = tzRounding.round(values[i]);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                longResult.set(i, truncate(tzRounding, TimestampType.INSTANCE_WITH_TZ.value(timestamps.get(i))));
+            }
+        }
+    }
+
     private Rounding rounding(String interval, String timeZoneString) {
         DateTimeUnit intervalAsUnit = intervalAsUnit(interval);
         DateTimeZone timeZone = TimeZoneParser.parseTimeZone(timeZoneString);
@@ -23,6 +23,8 @@
 package io.crate.expression.scalar;
 
 import io.crate.data.Input;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
@@ -36,7 +38,7 @@ import java.util.function.Function;
  * <br />
  * null values will result in null as output
  */
-public class UnaryScalar<R, T> extends Scalar<R, T> {
+public class UnaryScalar<R, T> extends Scalar<R, T> implements VectorizedScalar {
 
     private final Function<T, R> func;
     private final Signature signature;
@@ -76,4 +78,13 @@ public class UnaryScalar<R, T> extends Scalar<R, T> {
         }
         return func.apply(value);
     }
+
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        ColumnVector arg = args[0];
+        for (int i = 0; i < size; i++) {
+            T value = type.value(arg.get(i));
+            result.set(i, value == null ? null : func.apply(value));
+        }
+    }
 }
@@ -31,6 +31,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
 
 public class ArithmeticFunctions {
 
@@ -50,42 +52,66 @@ public class ArithmeticFunctions {
             Math::addExact,
             Double::sum,
             Math::addExact,
-            Float::sum
+            Float::sum,
+            (arg0, arg1) -> Math.addExact((int) arg0, (int) arg1),
+            Double::sum,
+            Math::addExact,
+            (arg0, arg1) -> (float) arg0 + (float) arg1
         ),
         SUBTRACT(
             Scalar.DETERMINISTIC_ONLY,
             Math::subtractExact,
                 (arg0, arg1) -> arg0 - arg1,
             Math::subtractExact,
-                (arg0, arg1) -> arg0 - arg1
+                (arg0, arg1) -> arg0 - arg1,
+            (arg0, arg1) -> Math.subtractExact((int) arg0, (int) arg1),
+            (arg0, arg1) -> arg0 - arg1,
+            Math::subtractExact,
+            (arg0, arg1) -> (float) arg0 - (float) arg1
         ),
         MULTIPLY(
             Scalar.DETERMINISTIC_ONLY,
             Math::multiplyExact,
                 (arg0, arg1) -> arg0 * arg1,
             Math::multiplyExact,
-                (arg0, arg1) -> arg0 * arg1
+                (arg0, arg1) -> arg0 * arg1,
+            (arg0, arg1) -> Math.multiplyExact((int) arg0, (int) arg1),
+            (arg0, arg1) -> arg0 * arg1,
+            Math::multiplyExact,
+            (arg0, arg1) -> (float) arg0 * (float) arg1
         ),
         DIVIDE(
             Scalar.DETERMINISTIC_ONLY,
                 (arg0, arg1) -> arg0 / arg1,
                 (arg0, arg1) -> arg0 / arg1,
                 (arg0, arg1) -> arg0 / arg1,
-                (arg0, arg1) -> arg0 / arg1
+                (arg0, arg1) -> arg0 / arg1,
+            (arg0, arg1) -> (int) arg0 / (int) arg1,
+            (arg0, arg1) -> arg0 / arg1,
+            (arg0, arg1) -> arg0 / arg1,
+            (arg0, arg1) -> (float) arg0 / (float) arg1
         ),
         MODULUS(
             Scalar.DETERMINISTIC_ONLY,
                 (arg0, arg1) -> arg0 % arg1,
                 (arg0, arg1) -> arg0 % arg1,
                 (arg0, arg1) -> arg0 % arg1,
-                (arg0, arg1) -> arg0 % arg1
+                (arg0, arg1) -> arg0 % arg1,
+            (arg0, arg1) -> (int) arg0 % (int) arg1,
+            (arg0, arg1) -> arg0 % arg1,
+            (arg0, arg1) -> arg0 % arg1,
+            (arg0, arg1) -> (float) arg0 % (float) arg1
         ),
         MOD(
             Scalar.DETERMINISTIC_ONLY,
                 (arg0, arg1) -> arg0 % arg1,
                 (arg0, arg1) -> arg0 % arg1,
                 (arg0, arg1) -> arg0 % arg1,
-                (arg0, arg1) -> arg0 % arg1
+                (arg0, arg1) -> arg0 % arg1,
+            (arg0, arg1) -> (int) arg0 % (int) arg1,
+            (arg0, arg1) -> arg0 % arg1,
+            (arg0, arg1) -> arg0 % arg1,
+            (arg0, arg1) -> (float) arg0 % (float) arg1
         );
 
         private final Set<Scalar.Feature> features;
@@ -95,16 +121,30 @@ public class ArithmeticFunctions {
         private final BinaryOperator<Long> longFunction;
         private final BinaryOperator<Float> floatFunction;
 
+        // unboxed variants for vectorized evaluation; integer and real values are widened in vectors
+        private final LongBinaryOperator integerVectorFunction;
+        private final DoubleBinaryOperator doubleVectorFunction;
+        private final LongBinaryOperator longVectorFunction;
+        private final DoubleBinaryOperator floatVectorFunction;
+
         Operations(Set<Scalar.Feature> features,
                    BinaryOperator<Integer> integerFunction,
                    BinaryOperator<Double> doubleFunction,
                    BinaryOperator<Long> longFunction,
-                   BinaryOperator<Float> floatFunction) {
+                   BinaryOperator<Float> floatFunction,
+                   LongBinaryOperator integerVectorFunction,
+                   DoubleBinaryOperator doubleVectorFunction,
+                   LongBinaryOperator longVectorFunction,
+                   DoubleBinaryOperator floatVectorFunction) {
             this.features = features;
             this.doubleFunction = doubleFunction;
             this.integerFunction = integerFunction;
             this.longFunction = longFunction;
             this.floatFunction = floatFunction;
+            this.integerVectorFunction = integerVectorFunction;
+            this.doubleVectorFunction = doubleVectorFunction;
+            this.longVectorFunction = longVectorFunction;
+            this.floatVectorFunction = floatVectorFunction;
         }
 
         @Override
@@ -122,8 +162,13 @@ public class ArithmeticFunctions {
                     DataTypes.INTEGER.getTypeSignature(),
                     DataTypes.INTEGER.getTypeSignature()
                 ).withFeatures(op.features),
-                (signature, boundSignature) ->
-                    new BinaryScalar<>(op.integerFunction, signature, boundSignature, DataTypes.INTEGER)
+                (signature, boundSignature) -> new BinaryScalar<>(
+                    op.integerFunction,
+                    op.integerVectorFunction,
+                    signature,
+                    boundSignature,
+                    DataTypes.INTEGER
+                )
             );
             for (var type : List.of(DataTypes.LONG, DataTypes.TIMESTAMP, DataTypes.TIMESTAMPZ)) {
                 module.register(
@@ -134,7 +179,7 @@ public class ArithmeticFunctions {
                         type.getTypeSignature()
                     ).withFeatures(op.features),
                     (signature, boundSignature) ->
-                        new BinaryScalar<>(op.longFunction, signature, boundSignature, type)
+                        new BinaryScalar<>(op.longFunction, op.longVectorFunction, signature, boundSignature, type)
                 );
             }
             module.register(
@@ -144,8 +189,13 @@ public class ArithmeticFunctions {
                     DataTypes.FLOAT.getTypeSignature(),
                     DataTypes.FLOAT.getTypeSignature()
                 ).withFeatures(op.features),
-                (signature, boundSignature) ->
-                    new BinaryScalar<>(op.floatFunction, signature, boundSignature, DataTypes.FLOAT)
+                (signature, boundSignature) -> new BinaryScalar<>(
+                    op.floatFunction,
+                    op.floatVectorFunction,
+                    signature,
+                    boundSignature,
+                    DataTypes.FLOAT
+                )
             );
             module.register(
                 Signature.scalar(
@@ -154,8 +204,13 @@ public class ArithmeticFunctions {
                     DataTypes.DOUBLE.getTypeSignature(),
                     DataTypes.DOUBLE.getTypeSignature()
                 ).withFeatures(op.features),
-                (signature, boundSignature) ->
-                    new BinaryScalar<>(op.doubleFunction, signature, boundSignature, DataTypes.DOUBLE)
+                (signature, boundSignature) -> new BinaryScalar<>(
+                    op.doubleFunction,
+                    op.doubleVectorFunction,
+                    signature,
+                    boundSignature,
+                    DataTypes.DOUBLE
+                )
             );
         }
 
@@ -166,8 +221,13 @@ public class ArithmeticFunctions {
                 DataTypes.DOUBLE.getTypeSignature(),
                 DataTypes.DOUBLE.getTypeSignature()
             ).withFeatures(Scalar.DETERMINISTIC_ONLY),
-            (signature, boundSignature) ->
-                new BinaryScalar<>(Math::pow, signature, boundSignature, DataTypes.DOUBLE)
+            (signature, boundSignature) -> new BinaryScalar<>(
+                Math::pow,
+                (DoubleBinaryOperator) Math::pow,
+                signature,
+                boundSignature,
+                DataTypes.DOUBLE
+            )
         );
     }
 }
@@ -23,27 +23,71 @@
 package io.crate.expression.scalar.arithmetic;
 
 import io.crate.data.Input;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.DoubleVector;
+import io.crate.expression.vector.LongVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataType;
 
+import javax.annotation.Nullable;
 import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
 
-public final class BinaryScalar<T> extends Scalar<T, T> {
+public final class BinaryScalar<T> extends Scalar<T, T> implements VectorizedScalar {
 
     private final BinaryOperator<T> func;
     private final Signature signature;
     private final Signature boundSignature;
     private final DataType<T> type;
+    @Nullable
+    private final LongBinaryOperator longFunc;
+    @Nullable
+    private final DoubleBinaryOperator doubleFunc;
 
     public BinaryScalar(BinaryOperator<T> func,
                         Signature signature,
                         Signature boundSignature,
                         DataType<T> type) {
+        this(func, null, null, signature, boundSignature, type);
+    }
+
+    /**
+     * @param longFunc unboxed variant of {@code func} used for vectorized evaluation of integral types
+     */
+    public BinaryScalar(BinaryOperator<T> func,
+                        LongBinaryOperator longFunc,
+                        Signature signature,
+                        Signature boundSignature,
+                        DataType<T> type) {
+        this(func, longFunc, null, signature, boundSignature, type);
+    }
+
+    /**
+     * @param doubleFunc unboxed variant of {@code func} used for vectorized evaluation of floating point types
+     */
+    public BinaryScalar(BinaryOperator<T> func,
+                        DoubleBinaryOperator doubleFunc,
+                        Signature signature,
+                        Signature boundSignature,
+                        DataType<T> type) {
+        this(func, null, doubleFunc, signature, boundSignature, type);
+    }
+
+    private BinaryScalar(BinaryOperator<T> func,
+                         @Nullable LongBinaryOperator longFunc,
+                         @Nullable DoubleBinaryOperator doubleFunc,
+                         Signature signature,
+                         Signature boundSignature,
+                         DataType<T> type) {
         assert boundSignature.getArgumentDataTypes().stream().allMatch(t -> t.id() == type.id()) :
             "All bound argument types of the signature must match the type argument";
         this.func = func;
+        this.longFunc = longFunc;
+        this.doubleFunc = doubleFunc;
         this.signature = signature;
         this.boundSignature = boundSignature;
         this.type = type;
@@ -76,4 +120,34 @@ public final class BinaryScalar<T> extends Scalar<T, T> {
             throw new IllegalArgumentException(ae.getMessage());
         }
     }
+
+    @Override
+    public boolean isVectorizable() {
+        return longFunc != null || doubleFunc != null;
+    }
+
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        result.setNulls(args[0], args[1]);
+        if (longFunc != null) {
+            long[] left = ((LongVector) args[0]).values();
+            long[] right = ((LongVector) args[1]).values();
+            long[] values = ((LongVector) result).values();
+            for (int i = 0; i < size; i++) {
+                if (!result.isNull(i)) {
+                    values[i] = longFunc.applyAsLong(left[i], right[i]);
+                }
+            }
+        } else {
+            assert doubleFunc != null : "evaluate must only be called if isVectorizable() is true";
+            double[] left = ((DoubleVector) args[0]).values();
+            double[] right = ((DoubleVector) args[1]).values();
+            double[] values = ((DoubleVector) result).values();
+            for (int i = 0; i < size; i++) {
+                if (!result.isNull(i)) {
+                    values[i] = doubleFunc.applyAsDouble(left[i], right[i]);
+                }
+            }
+        }
+    }
 }
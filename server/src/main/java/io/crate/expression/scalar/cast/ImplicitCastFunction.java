@@ -27,6 +27,8 @@ import io.crate.exceptions.ConversionException;
 import io.crate.expression.scalar.ScalarFunctionModule;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
@@ -35,7 +37,7 @@ import io.crate.types.DataTypes;
 import static io.crate.metadata.functions.TypeVariableConstraint.typeVariable;
 import static io.crate.types.TypeSignature.parseTypeSignature;
 
-public class ImplicitCastFunction extends Scalar<Object, Object> {
+public class ImplicitCastFunction extends Scalar<Object, Object> implements VectorizedScalar {
 
     public static final String NAME = "_cast";
 
@@ -70,6 +72,18 @@ public class ImplicitCastFunction extends Scalar<Object, Object> {
         }
     }
 
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        var targetType = result.type();
+        VectorCasts.cast(args[0], result, size, value -> {
+            try {
+                return targetType.implicitCast(value);
+            } catch (ClassCastException | IllegalArgumentException e) {
+                throw new ConversionException(value, targetType);
+            }
+        });
+    }
+
     @Override
     public Signature signature() {
         return signature;
@@ -26,6 +26,8 @@ import io.crate.data.Input;
 import io.crate.expression.scalar.ScalarFunctionModule;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorizedScalar;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
@@ -34,7 +36,7 @@ import io.crate.types.DataType;
 import static io.crate.metadata.functions.TypeVariableConstraint.typeVariable;
 import static io.crate.types.TypeSignature.parseTypeSignature;
 
-public class TryCastFunction extends Scalar<Object, Object> {
+public class TryCastFunction extends Scalar<Object, Object> implements VectorizedScalar {
 
     public static final String NAME = "try_cast";
 
@@ -70,6 +72,17 @@ public class TryCastFunction extends Scalar<Object, Object> {
         }
     }
 
+    @Override
+    public void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size) {
+        VectorCasts.cast(args[0], result, size, value -> {
+            try {
+                return returnType.explicitCast(value);
+            } catch (ClassCastException | IllegalArgumentException e) {
+                return null;
+            }
+        });
+    }
+
     @Override
     public Signature signature() {
         return signature;
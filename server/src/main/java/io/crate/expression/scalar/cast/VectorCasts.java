@@ -0,0 +1,113 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.scalar.cast;
+
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.DoubleVector;
+import io.crate.expression.vector.LongVector;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+import java.util.function.Function;
+
+/**
+ * Vectorized evaluation of the cast functions, see {@link io.crate.expression.vector.VectorizedScalar}
+ */
+final class VectorCasts {
+
+    private VectorCasts() {
+    }
+
+    /**
+     * Cast the first {@code size} values of {@code source} to the type of {@code result}.
+     * Widening numeric conversions are done on the unboxed values, all other conversions
+     * box each value and apply {@code cast}.
+     */
+    static void cast(ColumnVector source, ColumnVector result, int size, Function<Object, Object> cast) {
+        DataType<?> sourceType = source.type();
+        DataType<?> targetType = result.type();
+        if (source instanceof LongVector && isWidening(sourceType, targetType)) {
+            long[] values = ((LongVector) source).values();
+            result.setNulls(source);
+            if (result instanceof LongVector) {
+                System.arraycopy(values, 0, ((LongVector) result).values(), 0, size);
+            } else {
+                double[] resultValues = ((DoubleVector) result).values();
+                boolean toFloat = targetType.id() == FloatType.ID;
+                for (int i = 0; i < size; i++) {
+                    resultValues[i] = toFloat ? (float) values[i] : (double) values[i];
+                }
+            }
+        } else if (source instanceof DoubleVector && isWidening(sourceType, targetType)) {
+            result.setNulls(source);
+            System.arraycopy(((DoubleVector) source).values(), 0, ((DoubleVector) result).values(), 0, size);
+        } else {
+            for (int i = 0; i < size; i++) {
+                Object value = source.get(i);
+                result.set(i, value == null ? null : cast.apply(value));
+            }
+        }
+    }
+
+    private static boolean isWidening(DataType<?> sourceType, DataType<?> targetType) {
+        int sourceRank = integralRank(sourceType);
+        switch (targetType.id()) {
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+                return sourceRank >= 0 && sourceRank <= integralRank(targetType);
+
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+            case FloatType.ID:
+                return sourceRank >= 0;
+
+            case DoubleType.ID:
+                return sourceRank >= 0 || sourceType.id() == FloatType.ID;
+
+            default:
+                return false;
+        }
+    }
+
+    private static int integralRank(DataType<?> type) {
+        switch (type.id()) {
+            case ByteType.ID:
+                return 0;
+            case ShortType.ID:
+                return 1;
+            case IntegerType.ID:
+                return 2;
+            case LongType.ID:
+                return 3;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link ColumnVector} for boolean values, e.g. the result of a vectorized predicate.
+ */
+public final class BooleanVector extends ColumnVector {
+
+    private final boolean[] values;
+
+    BooleanVector(int capacity) {
+        super(DataTypes.BOOLEAN, capacity);
+        this.values = new boolean[capacity];
+    }
+
+    public boolean[] values() {
+        return values;
+    }
+
+    public void setBoolean(int position, boolean value) {
+        values[position] = value;
+        clearNull(position);
+    }
+
+    /**
+     * @return true if the value at the given position is not null and true.
+     */
+    public boolean isTrue(int position) {
+        return values[position] && !isNull(position);
+    }
+
+    @Nullable
+    @Override
+    public Object get(int position) {
+        if (isNull(position)) {
+            return null;
+        }
+        return values[position];
+    }
+
+    @Override
+    public void set(int position, @Nullable Object value) {
+        if (value == null) {
+            setNull(position);
+        } else {
+            setBoolean(position, (Boolean) value);
+        }
+    }
+}
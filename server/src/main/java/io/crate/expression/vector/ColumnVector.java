@@ -0,0 +1,140 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.util.FixedBitSet;
+
+import javax.annotation.Nullable;
+
+/**
+ * The values of a single column for a batch of rows, used for the vectorized evaluation of scalars.
+ * See {@link VectorizedScalar} and {@link VectorExpression}.
+ * <p>
+ * Integral and timestamp values are stored in a {@code long[]}, see {@link LongVector},
+ * floating point values in a {@code double[]}, see {@link DoubleVector}.
+ * Null values are tracked in a bitmap; the value of a position which is null is undefined.
+ */
+public abstract class ColumnVector {
+
+    private final DataType<?> type;
+    private final FixedBitSet nulls;
+
+    ColumnVector(DataType<?> type, int capacity) {
+        this.type = type;
+        this.nulls = new FixedBitSet(capacity);
+    }
+
+    /**
+     * Create a vector which can hold {@code capacity} values of the given type.
+     */
+    public static ColumnVector forType(DataType<?> type, int capacity) {
+        if (isLongValued(type)) {
+            return new LongVector(type, capacity);
+        }
+        if (isDoubleValued(type)) {
+            return new DoubleVector(type, capacity);
+        }
+        if (type.id() == BooleanType.ID) {
+            return new BooleanVector(capacity);
+        }
+        return new ObjectVector(type, capacity);
+    }
+
+    /**
+     * @return true if values of the type are stored unboxed.
+     */
+    public static boolean isPrimitive(DataType<?> type) {
+        return isLongValued(type) || isDoubleValued(type) || type.id() == BooleanType.ID;
+    }
+
+    static boolean isLongValued(DataType<?> type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    static boolean isDoubleValued(DataType<?> type) {
+        return type.id() == FloatType.ID || type.id() == DoubleType.ID;
+    }
+
+    public DataType<?> type() {
+        return type;
+    }
+
+    public int capacity() {
+        return nulls.length();
+    }
+
+    public boolean isNull(int position) {
+        return nulls.get(position);
+    }
+
+    public void setNull(int position) {
+        nulls.set(position);
+    }
+
+    void clearNull(int position) {
+        nulls.clear(position);
+    }
+
+    /**
+     * Marks every position as null which is null in any of the given vectors, and all other positions as not null.
+     */
+    public void setNulls(ColumnVector... vectors) {
+        nulls.clear(0, nulls.length());
+        for (ColumnVector vector : vectors) {
+            nulls.or(vector.nulls);
+        }
+    }
+
+    /**
+     * @return the value at the given position, boxed into the java type of {@link #type()}.
+     */
+    @Nullable
+    public abstract Object get(int position);
+
+    /**
+     * Set the value at the given position.
+     *
+     * @param value a value of the java type of {@link #type()} or null.
+     */
+    public abstract void set(int position, @Nullable Object value);
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.types.DataType;
+import io.crate.types.FloatType;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link ColumnVector} for floating point values.
+ * {@code real} values are widened to {@code double}, operations on them must narrow the values again
+ * to keep the precision semantics of {@code real}.
+ */
+public final class DoubleVector extends ColumnVector {
+
+    private final double[] values;
+
+    DoubleVector(DataType<?> type, int capacity) {
+        super(type, capacity);
+        this.values = new double[capacity];
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    public void setDouble(int position, double value) {
+        values[position] = value;
+        clearNull(position);
+    }
+
+    @Nullable
+    @Override
+    public Object get(int position) {
+        if (isNull(position)) {
+            return null;
+        }
+        double value = values[position];
+        if (type().id() == FloatType.ID) {
+            return (float) value;
+        }
+        return value;
+    }
+
+    @Override
+    public void set(int position, @Nullable Object value) {
+        if (value == null) {
+            setNull(position);
+        } else {
+            setDouble(position, ((Number) value).doubleValue());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.TransactionContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A symbol tree compiled into a form which evaluates a batch of rows at once using {@link VectorizedScalar}s.
+ * <p>
+ * The leaves of the tree, e.g. {@link io.crate.expression.symbol.InputColumn}s or references, are read from input
+ * vectors which the caller fills for each batch. The mapping of leaf symbols to input vectors is defined by the
+ * caller on {@link #compile}.
+ * <p>
+ * The result vectors are re-used across batches; instances must not be used concurrently.
+ */
+public abstract class VectorExpression {
+
+    /**
+     * Evaluate the expression for the first {@code size} positions of the input vectors.
+     *
+     * @return the result vector. Only valid until the next call to evaluate.
+     */
+    public abstract ColumnVector evaluate(TransactionContext txnCtx, ColumnVector[] inputs, int size);
+
+    /**
+     * Compile a symbol into a {@link VectorExpression}.
+     *
+     * @param capacity the maximum number of rows per batch
+     * @param inputIndex maps leaf symbols to the index of the input vector holding their values,
+     *                   or returns -1 if the symbol is not available as input.
+     * @return the compiled expression, or null if the symbol contains functions or leaves
+     *         which don't support vectorized evaluation.
+     */
+    @Nullable
+    public static VectorExpression compile(Symbol symbol,
+                                           Functions functions,
+                                           TransactionContext txnCtx,
+                                           int capacity,
+                                           ToIntFunction<Symbol> inputIndex) {
+        if (symbol instanceof Literal) {
+            ColumnVector vector = ColumnVector.forType(symbol.valueType(), capacity);
+            Object value = ((Literal<?>) symbol).value();
+            for (int i = 0; i < capacity; i++) {
+                vector.set(i, value);
+            }
+            return new LiteralExpression(vector);
+        }
+        if (symbol instanceof Function) {
+            Function function = (Function) symbol;
+            FunctionImplementation implementation = functions.getQualified(
+                function,
+                txnCtx.sessionSettings().searchPath()
+            );
+            if (!(implementation instanceof Scalar)) {
+                return null;
+            }
+            List<Symbol> arguments = function.arguments();
+            Scalar<?, ?> scalar = ((Scalar<?, ?>) implementation).compile(arguments);
+            if (!(scalar instanceof VectorizedScalar) || !((VectorizedScalar) scalar).isVectorizable()) {
+                return null;
+            }
+            VectorExpression[] args = new VectorExpression[arguments.size()];
+            for (int i = 0; i < args.length; i++) {
+                VectorExpression arg = compile(arguments.get(i), functions, txnCtx, capacity, inputIndex);
+                if (arg == null) {
+                    return null;
+                }
+                args[i] = arg;
+            }
+            return new FunctionExpression(
+                (VectorizedScalar) scalar,
+                args,
+                ColumnVector.forType(function.valueType(), capacity)
+            );
+        }
+        int index = inputIndex.applyAsInt(symbol);
+        if (index < 0) {
+            return null;
+        }
+        return new InputExpression(index);
+    }
+
+    private static final class LiteralExpression extends VectorExpression {
+
+        private final ColumnVector vector;
+
+        LiteralExpression(ColumnVector vector) {
+            this.vector = vector;
+        }
+
+        @Override
+        public ColumnVector evaluate(TransactionContext txnCtx, ColumnVector[] inputs, int size) {
+            return vector;
+        }
+    }
+
+    private static final class InputExpression extends VectorExpression {
+
+        private final int index;
+
+        InputExpression(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public ColumnVector evaluate(TransactionContext txnCtx, ColumnVector[] inputs, int size) {
+            return inputs[index];
+        }
+    }
+
+    private static final class FunctionExpression extends VectorExpression {
+
+        private final VectorizedScalar scalar;
+        private final VectorExpression[] args;
+        private final ColumnVector[] argVectors;
+        private final ColumnVector result;
+
+        FunctionExpression(VectorizedScalar scalar, VectorExpression[] args, ColumnVector result) {
+            this.scalar = scalar;
+            this.args = args;
+            this.argVectors = new ColumnVector[args.length];
+            this.result = result;
+        }
+
+        @Override
+        public ColumnVector evaluate(TransactionContext txnCtx, ColumnVector[] inputs, int size) {
+            for (int i = 0; i < args.length; i++) {
+                argVectors[i] = args[i].evaluate(txnCtx, inputs, size);
+            }
+            scalar.evaluate(txnCtx, argVectors, result, size);
+            return result;
+        }
+    }
+}
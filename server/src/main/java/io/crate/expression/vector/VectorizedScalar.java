@@ -0,0 +1,55 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.metadata.Scalar;
+import io.crate.metadata.TransactionContext;
+
+/**
+ * Optional interface for {@link Scalar} implementations which can evaluate a whole batch of rows at once,
+ * operating on unboxed values instead of evaluating one {@link io.crate.data.Input} tree per row.
+ * <p>
+ * The vectors passed to {@link #evaluate(TransactionContext, ColumnVector[], ColumnVector, int)} are created
+ * using {@link ColumnVector#forType} with the value types of the argument symbols and of the function itself.
+ * <p>
+ * The results must be identical to the results of {@link Scalar#evaluate}. If evaluation fails, callers
+ * re-evaluate the batch row by row, so implementations don't need to reproduce the exact error handling.
+ */
+public interface VectorizedScalar {
+
+    /**
+     * @return false if this instance can't evaluate vectors, e.g. because it requires
+     *         arguments to be literals which could not be compiled.
+     */
+    default boolean isVectorizable() {
+        return true;
+    }
+
+    /**
+     * Evaluate the function for the first {@code size} positions of the arguments.
+     *
+     * @param args the argument values, one vector per argument. Must not be modified.
+     * @param result the vector receiving the results.
+     */
+    void evaluate(TransactionContext txnCtx, ColumnVector[] args, ColumnVector result, int size);
+}
@@ -28,9 +28,19 @@ import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.RefVisitor;
 import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.DoubleVector;
+import io.crate.expression.vector.LongVector;
+import io.crate.expression.vector.VectorExpression;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
+import io.crate.types.FloatType;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.ConstantScoreScorer;
 import org.apache.lucene.search.DocIdSetIterator;
@@ -41,30 +51,52 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TwoPhaseIterator;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.NumericUtils;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Query implementation which filters docIds by evaluating {@code condition} on each docId to verify if it matches.
  *
  * This query is very slow.
+ *
+ * If all columns used in the condition are numeric columns with doc values and all functions support vectorized
+ * evaluation, the condition is evaluated for blocks of documents at once using the {@code vectorCondition}.
  */
 class GenericFunctionQuery extends Query {
 
+    static final int MAX_BLOCK_SIZE = 1024;
+
     private final Function function;
     private final LuceneCollectorExpression[] expressions;
     private final Input<Boolean> condition;
+    @Nullable
+    private final VectorExpression vectorCondition;
+    private final List<Reference> vectorInputs;
+    private final TransactionContext txnCtx;
 
+    /**
+     * @param vectorCondition the condition compiled for vectorized evaluation,
+     *                        its inputs are the doc values of the {@code vectorInputs} columns.
+     */
     GenericFunctionQuery(Function function,
                          Collection<? extends LuceneCollectorExpression<?>> expressions,
-                         Input<Boolean> condition) {
+                         Input<Boolean> condition,
+                         @Nullable VectorExpression vectorCondition,
+                         List<Reference> vectorInputs,
+                         TransactionContext txnCtx) {
         this.function = function;
         // inner loop iterates over expressions - call toArray to avoid iterator allocations
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
         this.condition = condition;
+        this.vectorCondition = vectorCondition;
+        this.vectorInputs = vectorInputs;
+        this.txnCtx = txnCtx;
     }
 
     @Override
@@ -124,11 +156,32 @@ class GenericFunctionQuery extends Query {
         };
     }
 
-    private FilteredTwoPhaseIterator getTwoPhaseIterator(final LeafReaderContext context) throws IOException {
+    private TwoPhaseIterator getTwoPhaseIterator(final LeafReaderContext context) throws IOException {
         for (LuceneCollectorExpression expression : expressions) {
             expression.setNextReader(context);
         }
-        return new FilteredTwoPhaseIterator(context.reader(), condition, expressions);
+        LeafReader reader = context.reader();
+        DocIdSetIterator approximation = DocIdSetIterator.all(reader.maxDoc());
+        FilteredTwoPhaseIterator twoPhaseIterator = new FilteredTwoPhaseIterator(approximation, condition, expressions);
+        if (vectorCondition == null) {
+            return twoPhaseIterator;
+        }
+        SortedNumericDocValues[] docValues = new SortedNumericDocValues[vectorInputs.size()];
+        ColumnVector[] inputs = new ColumnVector[vectorInputs.size()];
+        for (int i = 0; i < docValues.length; i++) {
+            Reference ref = vectorInputs.get(i);
+            docValues[i] = DocValues.getSortedNumeric(reader, ref.column().fqn());
+            inputs[i] = ColumnVector.forType(ref.valueType(), MAX_BLOCK_SIZE);
+        }
+        return new VectorizedTwoPhaseIterator(
+            approximation,
+            reader.maxDoc(),
+            txnCtx,
+            vectorCondition,
+            docValues,
+            inputs,
+            twoPhaseIterator
+        );
     }
 
     @Override
@@ -141,10 +194,10 @@ class GenericFunctionQuery extends Query {
         private final Input<Boolean> condition;
         private final LuceneCollectorExpression[] expressions;
 
-        FilteredTwoPhaseIterator(LeafReader reader,
+        FilteredTwoPhaseIterator(DocIdSetIterator approximation,
                                  Input<Boolean> condition,
                                  LuceneCollectorExpression[] expressions) {
-            super(DocIdSetIterator.all(reader.maxDoc()));
+            super(approximation);
             this.condition = condition;
             this.expressions = expressions;
         }
@@ -164,4 +217,118 @@ class GenericFunctionQuery extends Query {
             return 10;
         }
     }
+
+    /**
+     * Evaluates the condition for a block of documents starting at the current document once it is reached.
+     * <p>
+     * The approximation can skip documents if this query is part of a conjunction, in which case most of a block
+     * would be evaluated in vain. The block size therefore adapts to the ratio of the documents within a block
+     * which are actually checked.
+     * <p>
+     * If the vectorized evaluation fails, e.g. due to an arithmetic overflow, the remaining documents are
+     * evaluated one by one to get the same results and errors as without vectorization.
+     */
+    private static class VectorizedTwoPhaseIterator extends TwoPhaseIterator {
+
+        private static final int INITIAL_BLOCK_SIZE = 64;
+
+        private final int maxDoc;
+        private final TransactionContext txnCtx;
+        private final VectorExpression condition;
+        private final SortedNumericDocValues[] docValues;
+        private final ColumnVector[] inputs;
+        private final FilteredTwoPhaseIterator fallback;
+
+        private int blockSize = INITIAL_BLOCK_SIZE;
+        private int blockStart = 0;
+        private int blockEnd = 0;
+        private int checkedDocs = 0;
+        private BooleanVector matches;
+        private boolean vectorized = true;
+
+        VectorizedTwoPhaseIterator(DocIdSetIterator approximation,
+                                   int maxDoc,
+                                   TransactionContext txnCtx,
+                                   VectorExpression condition,
+                                   SortedNumericDocValues[] docValues,
+                                   ColumnVector[] inputs,
+                                   FilteredTwoPhaseIterator fallback) {
+            super(approximation);
+            this.maxDoc = maxDoc;
+            this.txnCtx = txnCtx;
+            this.condition = condition;
+            this.docValues = docValues;
+            this.inputs = inputs;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public boolean matches() throws IOException {
+            if (!vectorized) {
+                return fallback.matches();
+            }
+            int doc = approximation.docID();
+            if (doc >= blockEnd && !evaluateBlock(doc)) {
+                vectorized = false;
+                return fallback.matches();
+            }
+            checkedDocs++;
+            return matches.isTrue(doc - blockStart);
+        }
+
+        private boolean evaluateBlock(int doc) throws IOException {
+            if (blockEnd > 0) {
+                if (checkedDocs * 2 >= blockEnd - blockStart) {
+                    blockSize = Math.min(blockSize * 2, MAX_BLOCK_SIZE);
+                } else {
+                    blockSize = Math.max(blockSize / 2, 1);
+                }
+            }
+            blockStart = doc;
+            blockEnd = Math.min(doc + blockSize, maxDoc);
+            checkedDocs = 0;
+            int size = blockEnd - blockStart;
+            for (int i = 0; i < docValues.length; i++) {
+                loadValues(docValues[i], inputs[i], size);
+            }
+            try {
+                matches = (BooleanVector) condition.evaluate(txnCtx, inputs, size);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        private void loadValues(SortedNumericDocValues values, ColumnVector input, int size) throws IOException {
+            if (input instanceof LongVector) {
+                LongVector longInput = (LongVector) input;
+                for (int i = 0; i < size; i++) {
+                    if (values.advanceExact(blockStart + i)) {
+                        longInput.setLong(i, values.nextValue());
+                    } else {
+                        longInput.setNull(i);
+                    }
+                }
+            } else {
+                DoubleVector doubleInput = (DoubleVector) input;
+                DataType<?> type = input.type();
+                for (int i = 0; i < size; i++) {
+                    if (values.advanceExact(blockStart + i)) {
+                        long value = values.nextValue();
+                        doubleInput.setDouble(i, type.id() == FloatType.ID
+                            ? NumericUtils.sortableIntToFloat((int) value)
+                            : NumericUtils.sortableLongToDouble(value));
+                    } else {
+                        doubleInput.setNull(i);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public float matchCost() {
+            // cheaper than the row by row evaluation, but still more expensive than checking indexed values
+            return 5;
+        }
+    }
 }
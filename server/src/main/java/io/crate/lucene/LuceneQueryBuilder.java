@@ -57,6 +57,8 @@ import io.crate.expression.symbol.SymbolType;
 import io.crate.expression.symbol.SymbolVisitor;
 import io.crate.expression.symbol.Symbols;
 import io.crate.expression.symbol.format.Style;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorExpression;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.DocReferences;
 import io.crate.metadata.Functions;
@@ -66,6 +68,8 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.sql.tree.ColumnPolicy;
+import io.crate.types.BooleanType;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -83,6 +87,7 @@ import org.elasticsearch.index.query.QueryShardContext;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -159,6 +164,7 @@ public class LuceneQueryBuilder {
         final Map<String, Object> filteredFieldValues = new HashMap<>();
 
         final DocInputFactory docInputFactory;
+        final Functions functions;
         final MapperService mapperService;
         final IndexCache indexCache;
         private final TransactionContext txnCtx;
@@ -173,6 +179,7 @@ public class LuceneQueryBuilder {
                 List<Reference> partitionColumns) {
             this.txnCtx = txnCtx;
             this.queryShardContext = queryShardContext;
+            this.functions = functions;
             FieldTypeLookup typeLookup = mapperService::fullName;
             this.docInputFactory = new DocInputFactory(
                 functions,
@@ -471,7 +478,47 @@ public class LuceneQueryBuilder {
         for (LuceneCollectorExpression<?> expression : expressions) {
             expression.startCollect(collectorContext);
         }
-        return new GenericFunctionQuery(function, expressions, condition);
+        final List<Reference> vectorInputs = new ArrayList<>();
+        final VectorExpression vectorCondition = VectorExpression.compile(
+            function,
+            context.functions,
+            context.txnCtx,
+            GenericFunctionQuery.MAX_BLOCK_SIZE,
+            symbol -> docValuesInputIndex(symbol, vectorInputs, context.mapperService)
+        );
+        return new GenericFunctionQuery(
+            function,
+            expressions,
+            condition,
+            vectorCondition,
+            vectorInputs,
+            context.txnCtx
+        );
+    }
+
+    /**
+     * Used to compile the condition of a {@link GenericFunctionQuery} into a {@link VectorExpression}.
+     * Only numeric columns with doc values can be loaded into vectors.
+     */
+    private static int docValuesInputIndex(Symbol symbol, List<Reference> inputs, MapperService mapperService) {
+        if (!(symbol instanceof Reference)) {
+            return -1;
+        }
+        Reference ref = (Reference) symbol;
+        DataType<?> type = ref.valueType();
+        if (ref.column().isSystemColumn() || type.id() == BooleanType.ID || !ColumnVector.isPrimitive(type)) {
+            return -1;
+        }
+        MappedFieldType fieldType = mapperService.fullName(ref.column().fqn());
+        if (fieldType == null || !fieldType.hasDocValues()) {
+            return -1;
+        }
+        int index = inputs.indexOf(ref);
+        if (index < 0) {
+            inputs.add(ref);
+            return inputs.size() - 1;
+        }
+        return index;
     }
 
     private static void raiseUnsupported(Function function) {
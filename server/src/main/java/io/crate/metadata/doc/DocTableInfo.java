@@ -136,6 +136,8 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
     private final Set<Operation> supportedOperations;
 
     private final List<PartitionName> partitions;
+    @Nullable
+    private volatile PartitionIndex partitionIndex;
 
     private final boolean hasAutoGeneratedPrimaryKey;
     private final boolean isPartitioned;
@@ -331,6 +333,19 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
         return partitions;
     }
 
+    /**
+     * @return an index over the values of the partition columns of {@link #partitions()}, built on first use.
+     *         The table info is re-created if the partitions change, so the index is always up to date.
+     */
+    public PartitionIndex partitionIndex() {
+        PartitionIndex index = partitionIndex;
+        if (index == null) {
+            index = new PartitionIndex(partitionedByColumns, partitions);
+            partitionIndex = index;
+        }
+        return index;
+    }
+
     /**
      * returns <code>true</code> if this table is a partitioned table,
      * <code>false</code> otherwise
@@ -0,0 +1,168 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Index of the values of the partition columns of a table, used to find the partitions matching
+ * equality, range and IN predicates without evaluating the predicate for each partition.
+ * <p>
+ * For each partition column the non-null values of all partitions are kept sorted, together with the position
+ * of their partition within {@link DocTableInfo#partitions()}. Lookups return the positions of the matching partitions.
+ * <p>
+ * Instances are immutable and bound to the {@link DocTableInfo} they were created for,
+ * which is re-created if the partitions of the table change.
+ */
+public final class PartitionIndex {
+
+    private final int numPartitions;
+    private final Column[] columns;
+
+    PartitionIndex(List<Reference> partitionColumns, List<PartitionName> partitions) {
+        this.numPartitions = partitions.size();
+        this.columns = new Column[partitionColumns.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new Column(partitionColumns.get(i).valueType(), i, partitions);
+        }
+    }
+
+    /**
+     * @return the positions of all partitions
+     */
+    public BitSet all() {
+        BitSet all = new BitSet(numPartitions);
+        all.set(0, numPartitions);
+        return all;
+    }
+
+    /**
+     * @param columnIdx position of the column within {@link DocTableInfo#partitionedByColumns()}
+     * @param value the value to look up, of the type of the column. {@code null} never matches.
+     * @return the positions of the partitions with the given value
+     */
+    public BitSet equalTo(int columnIdx, @Nullable Object value) {
+        return range(columnIdx, value, true, value, true);
+    }
+
+    /**
+     * @param columnIdx position of the column within {@link DocTableInfo#partitionedByColumns()}
+     * @param lower the lower bound or null if unbounded
+     * @param upper the upper bound or null if unbounded
+     * @return the positions of the partitions with a non-null value within the given bounds
+     */
+    public BitSet range(int columnIdx,
+                        @Nullable Object lower,
+                        boolean lowerInclusive,
+                        @Nullable Object upper,
+                        boolean upperInclusive) {
+        Column column = columns[columnIdx];
+        int from = lower == null ? 0 : column.lowerBound(lower, lowerInclusive);
+        int to = upper == null ? column.values.length : column.upperBound(upper, upperInclusive);
+        BitSet matches = new BitSet(numPartitions);
+        for (int i = from; i < to; i++) {
+            matches.set(column.positions[i]);
+        }
+        return matches;
+    }
+
+    private static final class Column {
+
+        private final Comparator<Object> comparator;
+        private final Object[] values;
+        private final int[] positions;
+
+        @SuppressWarnings("unchecked")
+        Column(DataType<?> type, int columnIdx, List<PartitionName> partitions) {
+            this.comparator = (Comparator<Object>) type;
+            Object[] valueOfPartition = new Object[partitions.size()];
+            int numValues = 0;
+            for (int i = 0; i < partitions.size(); i++) {
+                // same conversion as PartitionExpression uses to evaluate queries against a partition
+                Object value = type.value(partitions.get(i).values().get(columnIdx));
+                valueOfPartition[i] = value;
+                if (value != null) {
+                    numValues++;
+                }
+            }
+            Integer[] sortedPositions = new Integer[numValues];
+            int idx = 0;
+            for (int i = 0; i < valueOfPartition.length; i++) {
+                if (valueOfPartition[i] != null) {
+                    sortedPositions[idx++] = i;
+                }
+            }
+            Arrays.sort(sortedPositions, (a, b) -> comparator.compare(valueOfPartition[a], valueOfPartition[b]));
+            this.values = new Object[numValues];
+            this.positions = new int[numValues];
+            for (int i = 0; i < numValues; i++) {
+                positions[i] = sortedPositions[i];
+                values[i] = valueOfPartition[sortedPositions[i]];
+            }
+        }
+
+        /**
+         * @return the index of the first value greater than (or equal to, if inclusive) the bound
+         */
+        int lowerBound(Object bound, boolean inclusive) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = comparator.compare(values[mid], bound);
+                if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the index after the last value less than (or equal to, if inclusive) the bound
+         */
+        int upperBound(Object bound, boolean inclusive) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = comparator.compare(values[mid], bound);
+                if (cmp < 0 || (cmp == 0 && inclusive)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -23,8 +23,10 @@
 package io.crate.metadata.settings;
 
 import io.crate.cluster.gracefulstop.DecommissioningService;
+import io.crate.execution.engine.aggregation.GroupingCollector;
 import io.crate.execution.engine.collect.stats.JobsLogService;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
+import io.crate.execution.engine.sort.ExternalSorter;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.settings.CrateSetting;
 import io.crate.statistics.TableStatsService;
@@ -89,7 +91,13 @@ public final class CrateSettings implements ClusterStateListener {
         UDCService.UDC_INITIAL_DELAY_SETTING,
         UDCService.UDC_INTERVAL_SETTING,
 
-        MemoryManagerFactory.MEMORY_ALLOCATION_TYPE
+        MemoryManagerFactory.MEMORY_ALLOCATION_TYPE,
+
+        // SORT
+        ExternalSorter.SPILL_THRESHOLD_SETTING,
+
+        // GROUP BY
+        GroupingCollector.SPILL_THRESHOLD_SETTING
     );
 
     private static final List<CrateSetting<?>> EXPOSED_ES_SETTINGS = List.of(
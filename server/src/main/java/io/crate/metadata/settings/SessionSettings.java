@@ -24,6 +24,7 @@ package io.crate.metadata.settings;
 
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.metadata.SearchPath;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -36,11 +37,17 @@ public final class SessionSettings implements Writeable {
     private final String userName;
     private final SearchPath searchPath;
     private final boolean hashJoinsEnabled;
+    private final String workloadClass;
 
     public SessionSettings(StreamInput in) throws IOException {
         this.userName = in.readString();
         this.searchPath = SearchPath.createSearchPathFrom(in);
         this.hashJoinsEnabled = in.readBoolean();
+        if (in.getVersion().onOrAfter(Version.V_4_3_0)) {
+            this.workloadClass = in.readString();
+        } else {
+            this.workloadClass = "";
+        }
     }
 
     @VisibleForTesting
@@ -49,9 +56,14 @@ public final class SessionSettings implements Writeable {
     }
 
     public SessionSettings(String userName, SearchPath searchPath, boolean hashJoinsEnabled) {
+        this(userName, searchPath, hashJoinsEnabled, "");
+    }
+
+    public SessionSettings(String userName, SearchPath searchPath, boolean hashJoinsEnabled, String workloadClass) {
         this.userName = userName;
         this.searchPath = searchPath;
         this.hashJoinsEnabled = hashJoinsEnabled;
+        this.workloadClass = workloadClass;
     }
 
     public String userName() {
@@ -70,11 +82,21 @@ public final class SessionSettings implements Writeable {
         return hashJoinsEnabled;
     }
 
+    /**
+     * @return the name of the workload class set for the session, empty if the class of the user should be used.
+     */
+    public String workloadClass() {
+        return workloadClass;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeString(userName);
         searchPath.writeTo(out);
         out.writeBoolean(hashJoinsEnabled);
+        if (out.getVersion().onOrAfter(Version.V_4_3_0)) {
+            out.writeString(workloadClass);
+        }
     }
 
     @Override
@@ -88,11 +110,12 @@ public final class SessionSettings implements Writeable {
         SessionSettings that = (SessionSettings) o;
         return Objects.equals(userName, that.userName) &&
                Objects.equals(searchPath, that.searchPath) &&
-               Objects.equals(hashJoinsEnabled, that.hashJoinsEnabled);
+               Objects.equals(hashJoinsEnabled, that.hashJoinsEnabled) &&
+               Objects.equals(workloadClass, that.workloadClass);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(userName, searchPath, hashJoinsEnabled);
+        return Objects.hash(userName, searchPath, hashJoinsEnabled, workloadClass);
     }
 }
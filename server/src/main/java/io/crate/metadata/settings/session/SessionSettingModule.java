@@ -22,6 +22,7 @@
 
 package io.crate.metadata.settings.session;
 
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.planner.optimizer.LoadedRules;
 import org.elasticsearch.common.inject.AbstractModule;
 import org.elasticsearch.common.inject.multibindings.Multibinder;
@@ -33,5 +34,6 @@ public class SessionSettingModule extends AbstractModule {
         bind(SessionSettingRegistry.class).asEagerSingleton();
         var sessionSettingProviderBinder = Multibinder.newSetBinder(binder(), SessionSettingProvider.class);
         sessionSettingProviderBinder.addBinding().to(LoadedRules.class);
+        sessionSettingProviderBinder.addBinding().to(WorkloadClasses.class);
     }
 }
@@ -45,6 +45,8 @@ public class SysOperationsTableInfo {
             .add("name", STRING, OperationContext::name)
             .add("started", TIMESTAMPZ, OperationContext::started)
             .add("used_bytes", LONG, OperationContext::usedBytes)
+            .add("spill_count", LONG, OperationContext::spillCount)
+            .add("spilled_bytes", LONG, OperationContext::spilledBytes)
             .startObject("node")
                 .add("id", STRING, ignored -> localNode.get().getId())
                 .add("name", STRING, ignored -> localNode.get().getName())
@@ -0,0 +1,56 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import static io.crate.types.DataTypes.LONG;
+import static io.crate.types.DataTypes.STRING;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.elasticsearch.cluster.node.DiscoveryNode;
+
+import io.crate.action.sql.StatementCache;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.SystemTable;
+
+public class SysPlanCacheTableInfo {
+
+    public static final RelationName IDENT = new RelationName(SysSchemaInfo.NAME, "plan_cache");
+
+    public static SystemTable<StatementCache.Stats> create(Supplier<DiscoveryNode> localNode) {
+        return SystemTable.<StatementCache.Stats>builder(IDENT)
+            .add("cache", STRING, x -> x.kind().name().toLowerCase(Locale.ENGLISH))
+            .add("size", LONG, StatementCache.Stats::size)
+            .add("hit_count", LONG, StatementCache.Stats::hitCount)
+            .add("miss_count", LONG, StatementCache.Stats::missCount)
+            .add("eviction_count", LONG, StatementCache.Stats::evictionCount)
+            .startObject("node")
+                .add("id", STRING, ignored -> localNode.get().getId())
+                .add("name", STRING, ignored -> localNode.get().getName())
+            .endObject()
+            .withRouting((state, routingProvider, sessionContext) -> Routing.forTableOnAllNodes(IDENT, state.getNodes()))
+            .build();
+    }
+}
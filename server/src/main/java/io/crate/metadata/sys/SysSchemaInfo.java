@@ -63,6 +63,8 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysHealth.IDENT.name(), SysHealth.create());
         tableInfos.put(SysMetricsTableInfo.NAME.name(), SysMetricsTableInfo.create(localNode));
         tableInfos.put(SysSegmentsTableInfo.IDENT.name(), SysSegmentsTableInfo.create(clusterService::localNode));
+        tableInfos.put(SysPlanCacheTableInfo.IDENT.name(), SysPlanCacheTableInfo.create(localNode));
+        tableInfos.put(SysWorkloadClassesTableInfo.IDENT.name(), SysWorkloadClassesTableInfo.create(localNode));
     }
 
     @Override
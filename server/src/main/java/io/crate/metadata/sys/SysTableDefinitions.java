@@ -22,9 +22,11 @@
 
 package io.crate.metadata.sys;
 
+import io.crate.action.sql.StatementCache;
 import io.crate.analyze.user.Privilege;
 import io.crate.execution.engine.collect.files.SummitsIterable;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.expression.reference.sys.check.SysCheck;
 import io.crate.expression.reference.sys.check.SysChecker;
@@ -61,7 +63,9 @@ public class SysTableDefinitions {
                                SysSnapshots sysSnapshots,
                                SysAllocations sysAllocations,
                                ShardSegments shardSegmentInfos,
-                               TableHealthService tableHealthService) {
+                               TableHealthService tableHealthService,
+                               StatementCache statementCache,
+                               WorkloadClasses workloadClasses) {
         Supplier<DiscoveryNode> localNode = clusterService::localNode;
         var sysClusterTableInfo = (SystemTable<Void>) sysSchemaInfo.getTableInfo(SysClusterTableInfo.IDENT.name());
         assert sysClusterTableInfo != null : "sys.cluster table must exist in sys schema";
@@ -137,6 +141,14 @@ public class SysTableDefinitions {
             () -> completedFuture(shardSegmentInfos),
             SysSegmentsTableInfo.create(clusterService::localNode).expressions(),
             true));
+        tableDefinitions.put(SysPlanCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(statementCache.stats()),
+            SysPlanCacheTableInfo.create(localNode).expressions(),
+            false));
+        tableDefinitions.put(SysWorkloadClassesTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(workloadClasses.classes()),
+            SysWorkloadClassesTableInfo.create(localNode).expressions(),
+            false));
     }
 
     public StaticTableDefinition<?> get(RelationName relationName) {
@@ -55,6 +55,7 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -208,10 +209,19 @@ public class ExplainPlan implements Plan {
         //      "nodeId2": {"QueryBreakDown": {...}}
         //  }
 
+        //
+        // The operator stats of each node are merged into a single tree under the "Plan" key.
+
         Map<String, Object> phasesTimings = extractPhasesTimingsFrom(timingsByNodeId, operationTree);
-        Map<String, Map<String, Object>> resultNodeTimings = getNodeTimingsWithoutPhases(phasesTimings.keySet(), timingsByNodeId);
+        Set<String> keysToRemove = new HashSet<>(phasesTimings.keySet());
+        keysToRemove.add(ProfilingContext.OPERATORS);
+        Map<String, Map<String, Object>> resultNodeTimings = getNodeTimingsWithoutPhases(keysToRemove, timingsByNodeId);
         MapBuilder<String, Object> executionTimingsMap = MapBuilder.newMapBuilder();
         executionTimingsMap.put("Phases", phasesTimings);
+        String operatorTree = OperatorStatsPrinter.print(operationTree, timingsByNodeId);
+        if (operatorTree != null) {
+            executionTimingsMap.put("Plan", operatorTree);
+        }
         resultNodeTimings.forEach(executionTimingsMap::put);
         executionTimingsMap.put("Total", apeTimings.get(Phase.Execute.name()));
 
@@ -0,0 +1,301 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.node.management;
+
+import io.crate.execution.dsl.phases.ExecutionPhase;
+import io.crate.execution.dsl.phases.JoinPhase;
+import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.execution.dsl.phases.NodeOperation;
+import io.crate.execution.dsl.phases.NodeOperationTree;
+import io.crate.planner.operators.PrintContext;
+import io.crate.profile.ProfilingContext;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Renders the {@link io.crate.profile.OperatorStats} collected on all nodes as a tree of operators.
+ * <p>
+ * The stats of an operator are summed up across the nodes which executed it.
+ * The phases are arranged along the {@link NodeOperationTree}: the children of an operator are the operators
+ * feeding it, so the tree reads from the result at the top down to the sources:
+ *
+ * <pre>
+ * TopNProjection [1-mergeOnHandler] rows_in=20 rows_out=10 batches=1 time=0.520ms max_node_time=0.520ms nodes=1
+ *   └ mergeOnHandler [1-mergeOnHandler] rows_in=20 rows_out=20 batches=2 time=0.110ms max_node_time=0.110ms nodes=1
+ *     └ Distribution [0-collect] rows_in=20 rows_out=20 batches=2 time=0.300ms max_node_time=0.200ms nodes=2
+ *       └ collect [0-collect] rows_out=20 batches=2 time=1.900ms max_node_time=1.200ms nodes=2
+ * </pre>
+ *
+ * The nodes record inclusive times, see {@link io.crate.profile.OperatorStats}; the printed times are the self times,
+ * obtained by subtracting the time of the previous operator of the same phase.
+ * The time of the first operator of a phase can include time spent pulling rows from other phases
+ * running on the same node, e.g. for joins.
+ */
+final class OperatorStatsPrinter {
+
+    private static final double NS_TO_MS_FACTOR = 1_000_000.0d;
+
+    private final Map<String, List<OperatorSummary>> operatorsByPhaseKey;
+    private final Map<Integer, List<ExecutionPhase>> childrenByPhaseId;
+
+    private OperatorStatsPrinter(Map<String, List<OperatorSummary>> operatorsByPhaseKey,
+                                 Map<Integer, List<ExecutionPhase>> childrenByPhaseId) {
+        this.operatorsByPhaseKey = operatorsByPhaseKey;
+        this.childrenByPhaseId = childrenByPhaseId;
+    }
+
+    /**
+     * @param timingsByNodeId the profiling results of each node, see {@link ProfilingContext#getDurationInMSByTimer()}
+     * @return the operator tree or null if no operator stats were collected
+     */
+    @Nullable
+    static String print(NodeOperationTree operationTree, Map<String, Map<String, Object>> timingsByNodeId) {
+        Map<String, List<OperatorSummary>> operatorsByPhaseKey = summarize(timingsByNodeId);
+        if (operatorsByPhaseKey.isEmpty()) {
+            return null;
+        }
+        OperatorStatsPrinter printer = new OperatorStatsPrinter(operatorsByPhaseKey, childrenByPhaseId(operationTree));
+        PrintContext printContext = new PrintContext();
+        printer.printPhase(printContext, operationTree.leaf());
+        return printContext.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<OperatorSummary>> summarize(Map<String, Map<String, Object>> timingsByNodeId) {
+        HashMap<String, List<OperatorSummary>> operatorsByPhaseKey = new HashMap<>();
+        for (Map<String, Object> timings : timingsByNodeId.values()) {
+            if (timings == null) {
+                continue;
+            }
+            var operatorsOfNode = (Map<String, List<Map<String, Object>>>) timings.get(ProfilingContext.OPERATORS);
+            if (operatorsOfNode == null) {
+                continue;
+            }
+            for (Map.Entry<String, List<Map<String, Object>>> entry : operatorsOfNode.entrySet()) {
+                List<OperatorSummary> summaries = operatorsByPhaseKey.computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+                HashMap<String, Integer> occurrencesByName = new HashMap<>();
+                OperatorSummary prevSummary = null;
+                long prevTimeNanos = 0L;
+                long prevCpuTimeNanos = 0L;
+                for (Map<String, Object> operator : entry.getValue()) {
+                    String name = (String) operator.get("Name");
+                    int occurrence = occurrencesByName.merge(name, 1, Integer::sum);
+                    OperatorSummary summary = findOrInsert(summaries, name, occurrence, prevSummary);
+                    long timeNanos = longValue(operator, "TimeNanos");
+                    long cpuTimeNanos = longValue(operator, "CpuTimeNanos");
+                    summary.add(
+                        longValue(operator, "RowsOut"),
+                        longValue(operator, "Batches"),
+                        Math.max(0L, timeNanos - prevTimeNanos),
+                        Math.max(0L, cpuTimeNanos - prevCpuTimeNanos),
+                        longValue(operator, "Bytes"),
+                        longValue(operator, "NetworkBytes")
+                    );
+                    prevSummary = summary;
+                    prevTimeNanos = timeNanos;
+                    prevCpuTimeNanos = cpuTimeNanos;
+                }
+            }
+        }
+        return operatorsByPhaseKey;
+    }
+
+    /**
+     * Operators are matched across nodes by their name and by how often an operator with the same name
+     * occurred before within the phase, as not every node has to run all operators of a phase.
+     * An operator which isn't known yet is inserted after the operator preceding it on the node.
+     */
+    private static OperatorSummary findOrInsert(List<OperatorSummary> summaries,
+                                                String name,
+                                                int occurrence,
+                                                @Nullable OperatorSummary prevSummary) {
+        for (OperatorSummary summary : summaries) {
+            if (summary.name.equals(name) && summary.occurrence == occurrence) {
+                return summary;
+            }
+        }
+        OperatorSummary summary = new OperatorSummary(name, occurrence);
+        summaries.add(prevSummary == null ? 0 : summaries.indexOf(prevSummary) + 1, summary);
+        return summary;
+    }
+
+    private static long longValue(Map<String, Object> operator, String key) {
+        Object value = operator.get(key);
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    /**
+     * The upstream phases of a join are fed through the left and right merge phase of the join if present,
+     * but their NodeOperations point to the join phase itself.
+     */
+    private static Map<Integer, List<ExecutionPhase>> childrenByPhaseId(NodeOperationTree operationTree) {
+        HashMap<Integer, ExecutionPhase> phasesById = new HashMap<>();
+        phasesById.put(operationTree.leaf().phaseId(), operationTree.leaf());
+        for (NodeOperation nodeOperation : operationTree.nodeOperations()) {
+            phasesById.put(nodeOperation.executionPhase().phaseId(), nodeOperation.executionPhase());
+        }
+        HashMap<Integer, List<ExecutionPhase>> childrenByPhaseId = new HashMap<>();
+        for (NodeOperation nodeOperation : operationTree.nodeOperations()) {
+            int downstreamPhaseId = nodeOperation.downstreamExecutionPhaseId();
+            ExecutionPhase downstreamPhase = phasesById.get(downstreamPhaseId);
+            if (downstreamPhase == null) {
+                continue;
+            }
+            if (downstreamPhase instanceof JoinPhase) {
+                JoinPhase joinPhase = (JoinPhase) downstreamPhase;
+                MergePhase mergePhase = nodeOperation.downstreamExecutionPhaseInputId() == 0
+                    ? joinPhase.leftMergePhase()
+                    : joinPhase.rightMergePhase();
+                if (mergePhase != null) {
+                    List<ExecutionPhase> joinChildren = childrenByPhaseId.computeIfAbsent(
+                        downstreamPhaseId, k -> new ArrayList<>());
+                    if (!joinChildren.contains(mergePhase)) {
+                        joinChildren.add(mergePhase);
+                    }
+                    downstreamPhaseId = mergePhase.phaseId();
+                }
+            }
+            childrenByPhaseId.computeIfAbsent(downstreamPhaseId, k -> new ArrayList<>())
+                .add(nodeOperation.executionPhase());
+        }
+        return childrenByPhaseId;
+    }
+
+    private void printPhase(PrintContext printContext, ExecutionPhase phase) {
+        String phaseKey = ProfilingContext.generateProfilingKey(phase.phaseId(), phase.name());
+        List<OperatorSummary> operators = operatorsByPhaseKey.getOrDefault(phaseKey, List.of());
+        if (operators.isEmpty()) {
+            printContext.text(phase.name() + " [" + phaseKey + "]");
+            printChildren(printContext, phase);
+        } else {
+            printOperator(printContext, phase, phaseKey, operators, operators.size() - 1);
+        }
+    }
+
+    private void printOperator(PrintContext printContext,
+                               ExecutionPhase phase,
+                               String phaseKey,
+                               List<OperatorSummary> operators,
+                               int idx) {
+        OperatorSummary operator = operators.get(idx);
+        Long rowsIn = idx > 0 ? Long.valueOf(operators.get(idx - 1).rowsOut) : rowsOfChildren(phase);
+        printContext.text(operator.toString(phaseKey, rowsIn));
+        if (idx > 0) {
+            printContext.nest(p -> printOperator(p, phase, phaseKey, operators, idx - 1));
+        } else {
+            printChildren(printContext, phase);
+        }
+    }
+
+    private void printChildren(PrintContext printContext, ExecutionPhase phase) {
+        List<ExecutionPhase> children = childrenByPhaseId.getOrDefault(phase.phaseId(), List.of());
+        if (children.isEmpty()) {
+            return;
+        }
+        ArrayList<Consumer<PrintContext>> printChildren = new ArrayList<>(children.size());
+        for (ExecutionPhase child : children) {
+            printChildren.add(p -> printPhase(p, child));
+        }
+        printContext.nest(printChildren);
+    }
+
+    /**
+     * @return the sum of the rows produced by the last operators of the child phases, null for source phases
+     */
+    @Nullable
+    private Long rowsOfChildren(ExecutionPhase phase) {
+        List<ExecutionPhase> children = childrenByPhaseId.getOrDefault(phase.phaseId(), List.of());
+        Long rows = null;
+        for (ExecutionPhase child : children) {
+            String childKey = ProfilingContext.generateProfilingKey(child.phaseId(), child.name());
+            List<OperatorSummary> childOperators = operatorsByPhaseKey.get(childKey);
+            if (childOperators != null && !childOperators.isEmpty()) {
+                long childRows = childOperators.get(childOperators.size() - 1).rowsOut;
+                rows = rows == null ? childRows : rows + childRows;
+            }
+        }
+        return rows;
+    }
+
+    private static final class OperatorSummary {
+
+        private final String name;
+        private final int occurrence;
+        private long rowsOut;
+        private long batches;
+        private long timeNanos;
+        private long cpuTimeNanos;
+        private long maxNodeTimeNanos;
+        private long bytes;
+        private long networkBytes;
+        private int numNodes;
+
+        OperatorSummary(String name, int occurrence) {
+            this.name = name;
+            this.occurrence = occurrence;
+        }
+
+        void add(long rowsOut, long batches, long timeNanos, long cpuTimeNanos, long bytes, long networkBytes) {
+            this.rowsOut += rowsOut;
+            this.batches += batches;
+            this.timeNanos += timeNanos;
+            this.cpuTimeNanos += cpuTimeNanos;
+            this.maxNodeTimeNanos = Math.max(maxNodeTimeNanos, timeNanos);
+            this.bytes += bytes;
+            this.networkBytes += networkBytes;
+            this.numNodes++;
+        }
+
+        String toString(String phaseKey, @Nullable Long rowsIn) {
+            StringBuilder sb = new StringBuilder(name)
+                .append(" [").append(phaseKey).append("]");
+            if (rowsIn != null) {
+                sb.append(" rows_in=").append(rowsIn);
+            }
+            sb.append(" rows_out=").append(rowsOut)
+                .append(" batches=").append(batches)
+                .append(" time=").append(millis(timeNanos));
+            if (cpuTimeNanos > 0) {
+                sb.append(" cpu=").append(millis(cpuTimeNanos));
+            }
+            sb.append(" max_node_time=").append(millis(maxNodeTimeNanos));
+            if (bytes > 0) {
+                sb.append(" bytes=").append(bytes);
+            }
+            if (networkBytes > 0) {
+                sb.append(" network_bytes=").append(networkBytes);
+            }
+            return sb.append(" nodes=").append(numNodes).toString();
+        }
+
+        private static String millis(long nanos) {
+            return String.format(Locale.ENGLISH, "%.3fms", nanos / NS_TO_MS_FACTOR);
+        }
+    }
+}
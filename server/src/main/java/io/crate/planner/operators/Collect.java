@@ -90,7 +90,7 @@ public class Collect implements LogicalPlan {
     private final long numExpectedRows;
     private final long estimatedRowSize;
 
-    WhereClause where;
+    private final WhereClause where;
 
     public static Collect create(AbstractTableRelation<?> relation,
                                  List<Symbol> toCollect,
@@ -175,6 +175,17 @@ public class Collect implements LogicalPlan {
         return where;
     }
 
+    /**
+     * @return the where clause with parameters and sub-query values bound and partitions resolved.
+     */
+    WhereClause boundWhere(PlannerContext plannerContext, java.util.function.Function<Symbol, Symbol> binder) {
+        return WhereClauseAnalyzer.resolvePartitions(
+            where.map(binder),
+            relation,
+            plannerContext.functions(),
+            plannerContext.transactionContext());
+    }
+
     public AbstractTableRelation<?> relation() {
         return relation;
     }
@@ -232,13 +243,9 @@ public class Collect implements LogicalPlan {
 
         // bind all parameters and possible subQuery values and re-analyze the query
         // (could result in a NO_MATCH, routing could've changed, etc).
-        // the <p>where</p> instance variable must be overwritten as the plan creation of outer operators relies on it
-        // (e.g. GroupHashAggregate will build different plans based on the collect routing)
-        where = WhereClauseAnalyzer.resolvePartitions(
-            where.map(binder),
-            relation,
-            plannerContext.functions(),
-            plannerContext.transactionContext());
+        // The bound where clause must not be stored in an instance variable, logical plans
+        // are immutable and may be re-used across executions (See StatementCache)
+        WhereClause where = boundWhere(plannerContext, binder);
         if (where.hasVersions()) {
             throw VersioninigValidationException.versionInvalidUsage();
         } else if (where.hasSeqNoAndPrimaryTerm()) {
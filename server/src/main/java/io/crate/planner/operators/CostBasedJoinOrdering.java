@@ -0,0 +1,391 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.planner.operators;
+
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.JoinPair;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.ScopedSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.planner.consumer.RelationNameCollector;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.selectivity.SelectivityFunctions;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orders the relations of an inner join tree by their estimated cardinality, as an alternative to the purely
+ * syntactic {@link JoinOrdering}.
+ * <p>
+ * The number of rows of a join of a set of relations is estimated as the product of the number of rows of the
+ * relations and the selectivities of the join conditions between them. The selectivity of an equi-join condition
+ * {@code a.x = b.y} is {@code 1 / max(ndv(a.x), ndv(b.y))} where the number of distinct values is taken from the
+ * {@link ColumnStats} of the columns. Without column statistics the join is assumed to be a foreign key join.
+ * <p>
+ * For up to {@link #MAX_RELATIONS_FOR_DP} relations all left-deep join orders are enumerated using dynamic
+ * programming, picking the one with the smallest sum of intermediate result sizes.
+ * Beyond that a greedy algorithm is used which always adds the relation that results in the smallest join.
+ * In both cases cross joins are avoided as long as there is a relation with a join condition left.
+ */
+final class CostBasedJoinOrdering {
+
+    @VisibleForTesting
+    static final int MAX_RELATIONS_FOR_DP = 8;
+
+    private static final int MAX_RELATIONS = Long.SIZE - 1;
+
+    private final List<RelationName> relations;
+    private final double[] rows;
+    private final List<Edge> edges;
+
+    @VisibleForTesting
+    CostBasedJoinOrdering(List<RelationName> relations, double[] rows, List<Edge> edges) {
+        assert relations.size() == rows.length : "Must have the number of rows of every relation";
+        this.relations = relations;
+        this.rows = rows;
+        this.edges = edges;
+    }
+
+    /**
+     * @return an instance to order the given relations or null if the relations can't be ordered based on costs:
+     *         If there are less than 3 relations, any outer, semi or anti join, no join condition at all
+     *         or if the number of rows of any relation is unknown.
+     */
+    @Nullable
+    static CostBasedJoinOrdering create(List<RelationName> relationNames,
+                                        Map<RelationName, LogicalPlan> plans,
+                                        Map<Set<RelationName>, JoinPair> joinPairs,
+                                        Map<Set<RelationName>, Symbol> queryParts,
+                                        TableStats tableStats) {
+        if (relationNames.size() < 3 || relationNames.size() > MAX_RELATIONS) {
+            return null;
+        }
+        for (JoinPair joinPair : joinPairs.values()) {
+            if (joinPair.joinType() != JoinType.INNER && joinPair.joinType() != JoinType.CROSS) {
+                return null;
+            }
+        }
+        double[] rows = new double[relationNames.size()];
+        Map<RelationName, Stats> statsByRelation = new HashMap<>();
+        for (int i = 0; i < relationNames.size(); i++) {
+            RelationName relationName = relationNames.get(i);
+            LogicalPlan plan = plans.get(relationName);
+            List<AbstractTableRelation<?>> baseTables = plan.baseTables();
+            if (baseTables.isEmpty()) {
+                return null;
+            }
+            for (AbstractTableRelation<?> baseTable : baseTables) {
+                if (tableStats.numDocs(baseTable.tableInfo().ident()) < 0) {
+                    return null;
+                }
+            }
+            double numRows = Math.max(1, plan.numExpectedRows());
+            if (baseTables.size() == 1) {
+                Stats stats = tableStats.getStats(baseTables.get(0).tableInfo().ident());
+                statsByRelation.put(relationName, stats);
+                Symbol query = queryParts.get(Set.of(relationName));
+                if (query != null && stats.numDocs() > 0) {
+                    double selectivity = (double) SelectivityFunctions.estimateNumRows(stats, query, null) / stats.numDocs();
+                    numRows = Math.max(1, numRows * selectivity);
+                }
+            }
+            rows[i] = numRows;
+        }
+
+        var ordering = new CostBasedJoinOrdering(relationNames, rows, new ArrayList<>());
+        for (Map.Entry<Set<RelationName>, JoinPair> entry : joinPairs.entrySet()) {
+            Symbol condition = entry.getValue().condition();
+            if (condition != null) {
+                ordering.addEdge(entry.getKey(), condition, statsByRelation);
+            }
+        }
+        for (Map.Entry<Set<RelationName>, Symbol> entry : queryParts.entrySet()) {
+            if (entry.getKey().size() > 1) {
+                ordering.addEdge(entry.getKey(), entry.getValue(), statsByRelation);
+            }
+        }
+        if (ordering.edges.isEmpty()) {
+            return null;
+        }
+        return ordering;
+    }
+
+    /**
+     * @return the relations in the order in which they should be joined, starting with the first pair.
+     */
+    List<RelationName> order() {
+        int[] order = relations.size() <= MAX_RELATIONS_FOR_DP ? orderByDynamicProgramming() : orderGreedy();
+        List<RelationName> result = new ArrayList<>(order.length);
+        for (int idx : order) {
+            result.add(relations.get(idx));
+        }
+        return result;
+    }
+
+    /**
+     * @return the estimated number of rows of the join of the given relations
+     */
+    long estimateRows(Collection<RelationName> relationNames) {
+        long mask = 0L;
+        for (RelationName relationName : relationNames) {
+            int idx = relations.indexOf(relationName);
+            if (idx >= 0) {
+                mask |= 1L << idx;
+            }
+        }
+        double cardinality = cardinality(mask);
+        return cardinality >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) cardinality;
+    }
+
+    private int[] orderByDynamicProgramming() {
+        int numRelations = relations.size();
+        int numSets = 1 << numRelations;
+        double[] cardinality = new double[numSets];
+        double[] costs = new double[numSets];
+        int[] lastRelation = new int[numSets];
+        for (int set = 1; set < numSets; set++) {
+            cardinality[set] = cardinality(set);
+            costs[set] = Double.POSITIVE_INFINITY;
+            lastRelation[set] = -1;
+        }
+        for (int i = 0; i < numRelations; i++) {
+            costs[1 << i] = 0.0;
+            lastRelation[1 << i] = i;
+        }
+        for (int set = 1; set < numSets; set++) {
+            if (costs[set] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            boolean hasConnectedCandidate = false;
+            for (int i = 0; i < numRelations && !hasConnectedCandidate; i++) {
+                hasConnectedCandidate = (set & (1 << i)) == 0 && isConnected(set, i);
+            }
+            for (int i = 0; i < numRelations; i++) {
+                if ((set & (1 << i)) != 0 || (hasConnectedCandidate && !isConnected(set, i))) {
+                    continue;
+                }
+                int newSet = set | (1 << i);
+                double newCosts = costs[set] + cardinality[newSet];
+                if (newCosts < costs[newSet]) {
+                    costs[newSet] = newCosts;
+                    lastRelation[newSet] = i;
+                }
+            }
+        }
+        int[] order = new int[numRelations];
+        int set = numSets - 1;
+        for (int pos = numRelations - 1; pos >= 0; pos--) {
+            int relation = lastRelation[set];
+            order[pos] = relation;
+            set &= ~(1 << relation);
+        }
+        if (order[0] > order[1]) {
+            // The first pair is symmetric, keep the original order of the relations
+            int tmp = order[0];
+            order[0] = order[1];
+            order[1] = tmp;
+        }
+        return order;
+    }
+
+    private int[] orderGreedy() {
+        int numRelations = relations.size();
+        int[] order = new int[numRelations];
+        long set = 0L;
+        double minCardinality = Double.POSITIVE_INFINITY;
+        // If the join conditions only span 3 or more relations no pair is connected,
+        // then the cheapest pair is used as cross join
+        boolean hasConnectedPair = false;
+        for (int i = 0; i < numRelations; i++) {
+            for (int j = i + 1; j < numRelations; j++) {
+                boolean connected = isConnected(1L << i, j);
+                if (hasConnectedPair && !connected) {
+                    continue;
+                }
+                long pair = (1L << i) | (1L << j);
+                double pairCardinality = cardinality(pair);
+                if (set == 0L || (connected && !hasConnectedPair) || pairCardinality < minCardinality) {
+                    hasConnectedPair = connected;
+                    minCardinality = pairCardinality;
+                    order[0] = i;
+                    order[1] = j;
+                    set = pair;
+                }
+            }
+        }
+        for (int pos = 2; pos < numRelations; pos++) {
+            boolean hasConnectedCandidate = false;
+            for (int i = 0; i < numRelations && !hasConnectedCandidate; i++) {
+                hasConnectedCandidate = (set & (1L << i)) == 0 && isConnected(set, i);
+            }
+            int next = -1;
+            minCardinality = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < numRelations; i++) {
+                if ((set & (1L << i)) != 0 || (hasConnectedCandidate && !isConnected(set, i))) {
+                    continue;
+                }
+                double newCardinality = cardinality(set | (1L << i));
+                if (next == -1 || newCardinality < minCardinality) {
+                    minCardinality = newCardinality;
+                    next = i;
+                }
+            }
+            order[pos] = next;
+            set |= 1L << next;
+        }
+        return order;
+    }
+
+    /**
+     * @return true if there is a join condition between the relation and any relation of the set,
+     *         which can be applied once the relation is added to the set.
+     */
+    private boolean isConnected(long set, int relation) {
+        long relationBit = 1L << relation;
+        long newSet = set | relationBit;
+        for (Edge edge : edges) {
+            if ((edge.relations & relationBit) != 0
+                && (edge.relations & set) != 0
+                && (edge.relations & ~newSet) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double cardinality(long set) {
+        double cardinality = 1.0;
+        for (int i = 0; i < rows.length; i++) {
+            if ((set & (1L << i)) != 0) {
+                cardinality *= rows[i];
+            }
+        }
+        for (Edge edge : edges) {
+            if ((edge.relations & ~set) == 0) {
+                cardinality *= edge.selectivity;
+            }
+        }
+        return Math.max(1.0, cardinality);
+    }
+
+    private void addEdge(Set<RelationName> relationNames,
+                         Symbol condition,
+                         Map<RelationName, Stats> statsByRelation) {
+        long mask = 0L;
+        for (RelationName relationName : relationNames) {
+            int idx = relations.indexOf(relationName);
+            if (idx >= 0) {
+                mask |= 1L << idx;
+            }
+        }
+        if (Long.bitCount(mask) < 2) {
+            return;
+        }
+        edges.add(new Edge(mask, selectivity(condition, statsByRelation)));
+    }
+
+    private double selectivity(Symbol condition, Map<RelationName, Stats> statsByRelation) {
+        if (condition instanceof Function) {
+            Function function = (Function) condition;
+            if (function.name().equals(AndOperator.NAME)) {
+                double selectivity = 1.0;
+                for (Symbol argument : function.arguments()) {
+                    selectivity *= selectivity(argument, statsByRelation);
+                }
+                return selectivity;
+            }
+            if (function.name().equals(EqOperator.NAME)) {
+                Symbol left = function.arguments().get(0);
+                Symbol right = function.arguments().get(1);
+                int leftRelation = relationOf(left);
+                int rightRelation = relationOf(right);
+                if (leftRelation >= 0 && rightRelation >= 0 && leftRelation != rightRelation) {
+                    // Without statistics, assume a join between a foreign key and a primary key
+                    double defaultDistinct = Math.min(rows[leftRelation], rows[rightRelation]);
+                    double leftDistinct = numDistinct(left, leftRelation, statsByRelation, defaultDistinct);
+                    double rightDistinct = numDistinct(right, rightRelation, statsByRelation, defaultDistinct);
+                    return SelectivityFunctions.equiJoinSelectivity(leftDistinct, rightDistinct);
+                }
+            }
+        }
+        return SelectivityFunctions.MAGIC_SEL;
+    }
+
+    private int relationOf(Symbol symbol) {
+        Set<RelationName> relationNames = RelationNameCollector.collect(symbol);
+        if (relationNames.size() != 1) {
+            return -1;
+        }
+        return relations.indexOf(relationNames.iterator().next());
+    }
+
+    private double numDistinct(Symbol symbol,
+                               int relation,
+                               Map<RelationName, Stats> statsByRelation,
+                               double defaultDistinct) {
+        ColumnIdent column = null;
+        if (symbol instanceof Reference) {
+            column = ((Reference) symbol).column();
+        } else if (symbol instanceof ScopedSymbol) {
+            column = ((ScopedSymbol) symbol).column();
+        }
+        Stats stats = statsByRelation.get(relations.get(relation));
+        if (column == null || stats == null) {
+            return defaultDistinct;
+        }
+        ColumnStats<?> columnStats = stats.statsByColumn().get(column);
+        if (columnStats == null) {
+            return defaultDistinct;
+        }
+        // Filters on the relation may have removed some of the distinct values
+        return Math.min(columnStats.approxDistinct(), rows[relation]);
+    }
+
+    @VisibleForTesting
+    static final class Edge {
+
+        private final long relations;
+        private final double selectivity;
+
+        Edge(long relations, double selectivity) {
+            this.relations = relations;
+            this.selectivity = selectivity;
+        }
+    }
+}
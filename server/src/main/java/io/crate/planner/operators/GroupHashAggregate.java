@@ -23,6 +23,7 @@
 package io.crate.planner.operators;
 
 import io.crate.analyze.OrderBy;
+import io.crate.analyze.WhereClause;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.ExecutionPhases;
@@ -148,7 +149,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         List<Symbol> boundOutputs = Lists2.map(outputs, paramBinder);
 
         List<Symbol> sourceOutputs = source.outputs();
-        if (shardsContainAllGroupKeyValues()) {
+        if (shardsContainAllGroupKeyValues(plannerContext, paramBinder)) {
             GroupProjection groupProjection = projectionBuilder.groupProjection(
                 sourceOutputs,
                 boundGroupKeys,
@@ -293,13 +294,17 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
      * @return true if it's guaranteed that a group-key-value doesn't occur in more than 1 shard.
      *         Each shard has "group or row authority"
      */
-    private boolean shardsContainAllGroupKeyValues() {
-        return source instanceof Collect &&
-               ((Collect) source).tableInfo instanceof DocTableInfo &&
-               GroupByConsumer.groupedByClusteredColumnOrPrimaryKeys(
-                   ((DocTableInfo) ((Collect) source).tableInfo),
-                   ((Collect) source).where,
-                   groupKeys);
+    private boolean shardsContainAllGroupKeyValues(PlannerContext plannerContext, SubQueryAndParamBinder paramBinder) {
+        if (!(source instanceof Collect) || !(((Collect) source).tableInfo instanceof DocTableInfo)) {
+            return false;
+        }
+        Collect collect = (Collect) source;
+        DocTableInfo tableInfo = (DocTableInfo) collect.tableInfo;
+        // The partitions are only known after parameters are bound
+        WhereClause where = tableInfo.isPartitioned()
+            ? collect.boundWhere(plannerContext, paramBinder)
+            : collect.where();
+        return GroupByConsumer.groupedByClusteredColumnOrPrimaryKeys(tableInfo, where, groupKeys);
     }
 
     @Override
@@ -36,6 +36,9 @@ import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.join.JoinOperations;
 import io.crate.execution.engine.pipeline.TopN;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.SymbolVisitors;
@@ -70,16 +73,30 @@ public class HashJoin implements LogicalPlan {
     private final List<Symbol> outputs;
     final LogicalPlan rhs;
     final LogicalPlan lhs;
+    private final long estimatedNumRows;
 
     public HashJoin(LogicalPlan lhs,
                     LogicalPlan rhs,
                     Symbol joinCondition,
                     AnalyzedRelation concreteRelation) {
+        this(lhs, rhs, joinCondition, concreteRelation, -1L);
+    }
+
+    /**
+     * @param estimatedNumRows the estimated number of rows of the join result, see {@link CostBasedJoinOrdering}.
+     *                         -1 if there is no estimate.
+     */
+    public HashJoin(LogicalPlan lhs,
+                    LogicalPlan rhs,
+                    Symbol joinCondition,
+                    AnalyzedRelation concreteRelation,
+                    long estimatedNumRows) {
         this.outputs = Lists2.concat(lhs.outputs(), rhs.outputs());
         this.lhs = lhs;
         this.rhs = rhs;
         this.concreteRelation = concreteRelation;
         this.joinCondition = joinCondition;
+        this.estimatedNumRows = estimatedNumRows;
     }
 
     public JoinType joinType() {
@@ -117,6 +134,42 @@ public class HashJoin implements LogicalPlan {
                                @Nullable Integer pageSizeHint,
                                Row params,
                                SubQueryResults subQueryResults) {
+        Tuple<List<Symbol>, List<Symbol>> hashSymbols = extractHashJoinSymbolsFromJoinSymbolsAndSplitPerSide(false);
+        return build(
+            plannerContext,
+            projectionBuilder,
+            params,
+            subQueryResults,
+            lhs,
+            rhs,
+            JoinType.INNER,
+            joinCondition,
+            hashSymbols.v1(),
+            hashSymbols.v2(),
+            outputs
+        );
+    }
+
+    /**
+     * Builds the execution plan of a hash join.
+     * Used for inner joins planned as {@link HashJoin}, and by {@link NestedLoopJoin} for outer, semi and anti joins
+     * with an equi-join condition.
+     *
+     * @param lhsHashSymbols symbols of the left side used to build the hash of a row,
+     *                       matching {@code rhsHashSymbols} by position.
+     * @param outputs        outputs of the join in the order expected by the parent plan
+     */
+    static ExecutionPlan build(PlannerContext plannerContext,
+                               ProjectionBuilder projectionBuilder,
+                               Row params,
+                               SubQueryResults subQueryResults,
+                               LogicalPlan lhs,
+                               LogicalPlan rhs,
+                               JoinType joinType,
+                               Symbol joinCondition,
+                               List<Symbol> lhsHashSymbols,
+                               List<Symbol> rhsHashSymbols,
+                               List<Symbol> outputs) {
         ExecutionPlan leftExecutionPlan = lhs.build(
             plannerContext, projectionBuilder, NO_LIMIT, 0, null, null, params, subQueryResults);
         ExecutionPlan rightExecutionPlan = rhs.build(
@@ -124,14 +177,17 @@ public class HashJoin implements LogicalPlan {
 
         LogicalPlan leftLogicalPlan = lhs;
         LogicalPlan rightLogicalPlan = rhs;
+        List<Symbol> leftHashSymbols = lhsHashSymbols;
+        List<Symbol> rightHashSymbols = rhsHashSymbols;
 
-        boolean tablesSwitched = false;
         // We move smaller table to the right side since benchmarking
         // revealed that this improves performance in most cases.
-        if (lhs.numExpectedRows() < rhs.numExpectedRows()) {
-            tablesSwitched = true;
+        if (lhs.numExpectedRows() < rhs.numExpectedRows() && joinType.supportsInversion()) {
             leftLogicalPlan = rhs;
             rightLogicalPlan = lhs;
+            leftHashSymbols = rhsHashSymbols;
+            rightHashSymbols = lhsHashSymbols;
+            joinType = joinType.invert();
 
             ExecutionPlan tmp = leftExecutionPlan;
             leftExecutionPlan = rightExecutionPlan;
@@ -139,8 +195,6 @@ public class HashJoin implements LogicalPlan {
         }
 
         SubQueryAndParamBinder paramBinder = new SubQueryAndParamBinder(params, subQueryResults);
-        Tuple<List<Symbol>, List<Symbol>> hashSymbols =
-            extractHashJoinSymbolsFromJoinSymbolsAndSplitPerSide(tablesSwitched);
 
         ResultDescription leftResultDesc = leftExecutionPlan.resultDescription();
         ResultDescription rightResultDesc = rightExecutionPlan.resultDescription();
@@ -166,11 +220,17 @@ public class HashJoin implements LogicalPlan {
             // are on the same node
             leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
             rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+        } else if (isDistributed && shouldBroadcastRight(joinType, leftLogicalPlan, rightLogicalPlan, joinExecutionNodes)) {
+            // Run the join on the nodes of the left side and send all rows of the (small) right side to each
+            // of them. This avoids re-distributing the rows of the large left side.
+            leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+            rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+            rightMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, rightResultDesc, joinExecutionNodes);
         } else {
             if (isDistributed) {
                 // Run the join distributed by modulo distribution algorithm
-                leftOutputs = setModuloDistribution(Lists2.map(hashSymbols.v1(), paramBinder), leftLogicalPlan.outputs(), leftExecutionPlan);
-                rightOutputs = setModuloDistribution(Lists2.map(hashSymbols.v2(), paramBinder), rightLogicalPlan.outputs(), rightExecutionPlan);
+                leftOutputs = setModuloDistribution(Lists2.map(leftHashSymbols, paramBinder), leftLogicalPlan.outputs(), leftExecutionPlan);
+                rightOutputs = setModuloDistribution(Lists2.map(rightHashSymbols, paramBinder), rightLogicalPlan.outputs(), rightExecutionPlan);
             } else {
                 // Run the join non-distributed on the handler node
                 joinExecutionNodes = Collections.singletonList(plannerContext.handlerNode());
@@ -192,10 +252,12 @@ public class HashJoin implements LogicalPlan {
             leftOutputs.size(),
             rightOutputs.size(),
             joinExecutionNodes,
+            joinType,
             InputColumns.create(paramBinder.apply(joinCondition), joinOutputs),
-            InputColumns.create(Lists2.map(hashSymbols.v1(), paramBinder), new InputColumns.SourceSymbols(leftOutputs)),
-            InputColumns.create(Lists2.map(hashSymbols.v2(), paramBinder), new InputColumns.SourceSymbols(rightOutputs)),
+            InputColumns.create(Lists2.map(leftHashSymbols, paramBinder), new InputColumns.SourceSymbols(leftOutputs)),
+            InputColumns.create(Lists2.map(rightHashSymbols, paramBinder), new InputColumns.SourceSymbols(rightOutputs)),
             Symbols.typeView(leftOutputs),
+            Symbols.typeView(rightOutputs),
             leftLogicalPlan.estimatedRowSize(),
             leftLogicalPlan.numExpectedRows());
         return new Join(
@@ -210,6 +272,28 @@ public class HashJoin implements LogicalPlan {
         );
     }
 
+    /**
+     * Broadcasting the right side sends {@code rightRows * numNodes} rows over the network, whereas a modulo
+     * distribution of both sides sends (up to) {@code leftRows + rightRows} rows.
+     * <p>
+     * Rows of the right side which don't match would be emitted once per node,
+     * so right and full outer joins must be re-distributed.
+     */
+    private static boolean shouldBroadcastRight(JoinType joinType,
+                                                LogicalPlan leftLogicalPlan,
+                                                LogicalPlan rightLogicalPlan,
+                                                Collection<String> leftNodes) {
+        if (joinType == JoinType.RIGHT || joinType == JoinType.FULL || leftNodes.isEmpty()) {
+            return false;
+        }
+        long leftRows = leftLogicalPlan.numExpectedRows();
+        long rightRows = rightLogicalPlan.numExpectedRows();
+        if (leftRows <= 0 || rightRows <= 0) {
+            return false;
+        }
+        return (double) rightRows * leftNodes.size() < (double) leftRows + rightRows;
+    }
+
     @Override
     public List<Symbol> outputs() {
         return outputs;
@@ -231,7 +315,8 @@ public class HashJoin implements LogicalPlan {
             sources.get(0),
             sources.get(1),
             joinCondition,
-            concreteRelation
+            concreteRelation,
+            estimatedNumRows
         );
     }
 
@@ -254,7 +339,8 @@ public class HashJoin implements LogicalPlan {
             newLhs,
             newRhs,
             joinCondition,
-            concreteRelation
+            concreteRelation,
+            estimatedNumRows
         );
     }
 
@@ -285,7 +371,8 @@ public class HashJoin implements LogicalPlan {
                 lhsFetchRewrite.newPlan(),
                 rhsFetchRewrite.newPlan(),
                 joinCondition,
-                concreteRelation
+                concreteRelation,
+                estimatedNumRows
             )
         );
     }
@@ -307,8 +394,75 @@ public class HashJoin implements LogicalPlan {
         return new Tuple<>(hashJoinSymbolsForJoinTree, hashJoinSymbolsForConcreteRelation);
     }
 
+    /**
+     * Pairs the arguments of the EQ operators within the join condition by the side of the join they belong to.
+     * <pre>
+     *     t1.a = t2.a AND t2.b = t1.b AND t1.x > t2.y
+     *
+     *     left:  [t1.a, t1.b]
+     *     right: [t2.a, t2.b]
+     * </pre>
+     *
+     * @return null if there is no EQ operator comparing the left with the right side.
+     */
+    @Nullable
+    static Tuple<List<Symbol>, List<Symbol>> hashSymbolsPerSide(Symbol joinCondition,
+                                                                List<Symbol> leftOutputs,
+                                                                List<Symbol> rightOutputs) {
+        List<Symbol> leftHashSymbols = new ArrayList<>();
+        List<Symbol> rightHashSymbols = new ArrayList<>();
+        addHashSymbolsPerSide(joinCondition, leftOutputs, rightOutputs, leftHashSymbols, rightHashSymbols);
+        if (leftHashSymbols.isEmpty()) {
+            return null;
+        }
+        return new Tuple<>(leftHashSymbols, rightHashSymbols);
+    }
+
+    private static void addHashSymbolsPerSide(Symbol symbol,
+                                              List<Symbol> leftOutputs,
+                                              List<Symbol> rightOutputs,
+                                              List<Symbol> leftHashSymbols,
+                                              List<Symbol> rightHashSymbols) {
+        if (!(symbol instanceof Function)) {
+            return;
+        }
+        Function function = (Function) symbol;
+        switch (function.name()) {
+            case AndOperator.NAME:
+                for (Symbol arg : function.arguments()) {
+                    addHashSymbolsPerSide(arg, leftOutputs, rightOutputs, leftHashSymbols, rightHashSymbols);
+                }
+                break;
+
+            case EqOperator.NAME:
+                Symbol first = function.arguments().get(0);
+                Symbol second = function.arguments().get(1);
+                if (usesOnly(first, leftOutputs, rightOutputs) && usesOnly(second, rightOutputs, leftOutputs)) {
+                    leftHashSymbols.add(first);
+                    rightHashSymbols.add(second);
+                } else if (usesOnly(first, rightOutputs, leftOutputs) && usesOnly(second, leftOutputs, rightOutputs)) {
+                    leftHashSymbols.add(second);
+                    rightHashSymbols.add(first);
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private static boolean usesOnly(Symbol symbol, List<Symbol> outputs, List<Symbol> otherOutputs) {
+        boolean[] usesOutputs = new boolean[] { false, false };
+        SymbolVisitors.intersection(symbol, outputs, s -> usesOutputs[0] = true);
+        SymbolVisitors.intersection(symbol, otherOutputs, s -> usesOutputs[1] = true);
+        return usesOutputs[0] && usesOutputs[1] == false;
+    }
+
     @Override
     public long numExpectedRows() {
+        if (estimatedNumRows >= 0) {
+            return estimatedNumRows;
+        }
         // We don't have any cardinality estimates, so just take the bigger table
         return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
     }
@@ -335,9 +489,9 @@ public class HashJoin implements LogicalPlan {
             );
     }
 
-    private List<Symbol> setModuloDistribution(List<Symbol> joinSymbols,
-                                               List<Symbol> planOutputs,
-                                               ExecutionPlan executionPlan) {
+    private static List<Symbol> setModuloDistribution(List<Symbol> joinSymbols,
+                                                      List<Symbol> planOutputs,
+                                                      ExecutionPlan executionPlan) {
         List<Symbol> outputs = planOutputs;
         Symbol firstJoinSymbol = joinSymbols.get(0);
         int distributeBySymbolPos = planOutputs.indexOf(firstJoinSymbol);
@@ -350,9 +504,9 @@ public class HashJoin implements LogicalPlan {
         return outputs;
     }
 
-    private List<Symbol> createEvalProjectionForDistributionJoinSymbol(Symbol firstJoinSymbol,
-                                                                       List<Symbol> outputs,
-                                                                       ExecutionPlan executionPlan) {
+    private static List<Symbol> createEvalProjectionForDistributionJoinSymbol(Symbol firstJoinSymbol,
+                                                                              List<Symbol> outputs,
+                                                                              ExecutionPlan executionPlan) {
         List<Symbol> projectionOutputs = new ArrayList<>(outputs.size() + 1);
         projectionOutputs.addAll(outputs);
         projectionOutputs.add(firstJoinSymbol);
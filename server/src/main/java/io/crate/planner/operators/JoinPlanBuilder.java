@@ -31,11 +31,13 @@ import io.crate.expression.operator.AndOperator;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.RelationName;
 import io.crate.planner.node.dql.join.JoinType;
+import io.crate.statistics.TableStats;
 import org.elasticsearch.common.util.set.Sets;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -56,6 +58,9 @@ import static io.crate.planner.operators.EquiJoinDetector.isHashJoinPossible;
  * We currently support the {@link NestedLoopJoin} and {@link HashJoin} operators (the hash join operator is
  * enabled by the {@link io.crate.metadata.settings.session.SessionSettingRegistry#HASH_JOIN_KEY} setting and its
  * application is mandated by {@link EquiJoinDetector}).
+ * <p>
+ * Inner joins of more than two relations are ordered by their estimated cardinality if statistics are available,
+ * see {@link CostBasedJoinOrdering}, otherwise {@link JoinOrdering} is used.
  */
 public class JoinPlanBuilder {
 
@@ -63,7 +68,8 @@ public class JoinPlanBuilder {
                                      Symbol whereClause,
                                      List<JoinPair> joinPairs,
                                      Function<AnalyzedRelation, LogicalPlan> plan,
-                                     boolean hashJoinEnabled) {
+                                     boolean hashJoinEnabled,
+                                     TableStats tableStats) {
         if (from.size() == 1) {
             return Filter.create(plan.apply(from.get(0)), whereClause);
         }
@@ -72,11 +78,33 @@ public class JoinPlanBuilder {
             JoinOperations.buildRelationsToJoinPairsMap(
                 JoinOperations.convertImplicitJoinConditionsToJoinPairs(joinPairs, queryParts));
 
-        Collection<RelationName> orderedRelationNames = JoinOrdering.getOrderedRelationNames(
-            Lists2.map(from, AnalyzedRelation::relationName),
-            joinPairsByRelations.keySet(),
-            queryParts.keySet()
-        );
+        List<RelationName> relationNames = Lists2.map(from, AnalyzedRelation::relationName);
+        CostBasedJoinOrdering costBasedOrdering = null;
+        if (from.size() > 2) {
+            // The plans are required upfront to estimate the number of rows; make sure each relation is planned once
+            Map<RelationName, LogicalPlan> plans = new HashMap<>();
+            for (AnalyzedRelation relation : from) {
+                plans.put(relation.relationName(), plan.apply(relation));
+            }
+            plan = relation -> plans.get(relation.relationName());
+            costBasedOrdering = CostBasedJoinOrdering.create(
+                relationNames,
+                plans,
+                joinPairsByRelations,
+                queryParts,
+                tableStats
+            );
+        }
+        Collection<RelationName> orderedRelationNames;
+        if (costBasedOrdering == null) {
+            orderedRelationNames = JoinOrdering.getOrderedRelationNames(
+                relationNames,
+                joinPairsByRelations.keySet(),
+                queryParts.keySet()
+            );
+        } else {
+            orderedRelationNames = costBasedOrdering.order();
+        }
 
         Iterator<RelationName> it = orderedRelationNames.iterator();
 
@@ -112,7 +140,8 @@ public class JoinPlanBuilder {
             lhs,
             rhs,
             query,
-            hashJoinEnabled
+            hashJoinEnabled,
+            costBasedOrdering == null ? -1L : costBasedOrdering.estimateRows(joinNames)
         );
 
         joinPlan = Filter.create(joinPlan, query);
@@ -126,7 +155,8 @@ public class JoinPlanBuilder {
                 joinPairsByRelations,
                 queryParts,
                 lhs,
-                hashJoinEnabled
+                hashJoinEnabled,
+                costBasedOrdering
             );
             joinNames.add(nextRel.relationName());
         }
@@ -146,13 +176,15 @@ public class JoinPlanBuilder {
                                               AnalyzedRelation lhs,
                                               AnalyzedRelation rhs,
                                               Symbol query,
-                                              boolean hashJoinEnabled) {
+                                              boolean hashJoinEnabled,
+                                              long estimatedNumRows) {
         if (hashJoinEnabled && isHashJoinPossible(joinType, joinCondition)) {
             return new HashJoin(
                 lhsPlan,
                 rhsPlan,
                 joinCondition,
-                rhs);
+                rhs,
+                estimatedNumRows);
         } else {
             return new NestedLoopJoin(
                 lhsPlan,
@@ -182,7 +214,8 @@ public class JoinPlanBuilder {
                                             Map<Set<RelationName>, JoinPair> joinPairs,
                                             Map<Set<RelationName>, Symbol> queryParts,
                                             AnalyzedRelation leftRelation,
-                                            boolean hashJoinEnabled) {
+                                            boolean hashJoinEnabled,
+                                            @Nullable CostBasedJoinOrdering costBasedOrdering) {
         RelationName nextName = nextRel.relationName();
 
         JoinPair joinPair = removeMatch(joinPairs, joinNames, nextName);
@@ -203,6 +236,12 @@ public class JoinPlanBuilder {
                 queryParts.remove(Collections.singleton(nextName)))
                 .filter(Objects::nonNull).iterator()
         );
+        long estimatedNumRows = -1L;
+        if (costBasedOrdering != null) {
+            Set<RelationName> names = new HashSet<>(joinNames);
+            names.add(nextName);
+            estimatedNumRows = costBasedOrdering.estimateRows(names);
+        }
         return Filter.create(
             createJoinPlan(
                 source,
@@ -212,7 +251,8 @@ public class JoinPlanBuilder {
                 leftRelation,
                 nextRel,
                 query,
-                hashJoinEnabled),
+                hashJoinEnabled,
+                estimatedNumRows),
             query
         );
     }
@@ -38,9 +38,11 @@ import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.ResultDescription;
 import io.crate.types.DataType;
+import io.crate.statistics.TableStats;
 import io.crate.types.DataTypes;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -129,6 +131,21 @@ public class Limit extends ForwardingLogicalPlan {
         return new Limit(Lists2.getOnlyElement(sources), limit, offset);
     }
 
+    @Nullable
+    @Override
+    public FetchRewrite rewriteToFetch(TableStats tableStats, Collection<Symbol> usedColumns) {
+        // A limit beneath another limit, e.g. on the preserved side of an outer join,
+        // must not prevent fetching the columns after the top-most limit.
+        FetchRewrite fetchRewrite = source.rewriteToFetch(tableStats, usedColumns);
+        if (fetchRewrite == null) {
+            return null;
+        }
+        return new FetchRewrite(
+            fetchRewrite.replacedOutputs(),
+            replaceSources(List.of(fetchRewrite.newPlan()))
+        );
+    }
+
     @Override
     public Map<LogicalPlan, SelectSymbol> dependencies() {
         return source.dependencies();
@@ -77,10 +77,15 @@ import io.crate.planner.optimizer.rule.MoveFilterBeneathProjectSet;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathRename;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathUnion;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathWindowAgg;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathEval;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathNestedLoop;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathRename;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathUnion;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathFetchOrEval;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathNestedLoop;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathRename;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathUnion;
+import io.crate.planner.optimizer.rule.PushJoinKeysIntoHashJoinSide;
 import io.crate.planner.optimizer.rule.RemoveRedundantFetchOrEval;
 import io.crate.planner.optimizer.rule.RewriteCollectToGet;
 import io.crate.planner.optimizer.rule.RewriteFilterOnOuterJoinToInnerJoin;
@@ -140,8 +145,13 @@ public class LogicalPlanner {
                     MoveOrderBeneathFetchOrEval.class,
                     MoveOrderBeneathRename.class,
                     DeduplicateOrder.class,
+                    MoveLimitBeneathUnion.class,
+                    MoveLimitBeneathRename.class,
+                    MoveLimitBeneathEval.class,
+                    MoveLimitBeneathNestedLoop.class,
                     RewriteCollectToGet.class,
-                    RewriteGroupByKeysLimitToTopNDistinct.class
+                    RewriteGroupByKeysLimitToTopNDistinct.class,
+                    PushJoinKeysIntoHashJoinSide.class
                 )
             )
         );
@@ -377,7 +387,8 @@ public class LogicalPlanner {
                         return rel.accept(this, List.copyOf(toCollect));
                     }
                 },
-                txnCtx.sessionContext().isHashJoinEnabled()
+                txnCtx.sessionContext().isHashJoinEnabled(),
+                tableStats
             );
             return MultiPhase.createIfNeeded(
                 Eval.create(
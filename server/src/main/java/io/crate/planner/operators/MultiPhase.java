@@ -28,12 +28,15 @@ import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.MultiPhasePlan;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.SubqueryPlanner;
+import io.crate.statistics.TableStats;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -58,6 +61,14 @@ public class MultiPhase extends ForwardingLogicalPlan {
         }
     }
 
+    /**
+     * Create a MultiPhase which executes the given dependencies before the source.
+     * The dependencies of the source are retained.
+     */
+    public static MultiPhase create(LogicalPlan source, Map<LogicalPlan, SelectSymbol> dependencies) {
+        return new MultiPhase(source, dependencies);
+    }
+
     private MultiPhase(LogicalPlan source, Map<LogicalPlan, SelectSymbol> subQueries) {
         super(source);
         HashMap<LogicalPlan, SelectSymbol> allSubQueries = new HashMap<>(source.dependencies());
@@ -83,6 +94,16 @@ public class MultiPhase extends ForwardingLogicalPlan {
         return new MultiPhase(Lists2.getOnlyElement(sources), subQueries);
     }
 
+    @Nullable
+    @Override
+    public FetchRewrite rewriteToFetch(TableStats tableStats, Collection<Symbol> usedColumns) {
+        FetchRewrite fetchRewrite = source.rewriteToFetch(tableStats, usedColumns);
+        if (fetchRewrite == null) {
+            return null;
+        }
+        return new FetchRewrite(fetchRewrite.replacedOutputs(), replaceSources(List.of(fetchRewrite.newPlan())));
+    }
+
     @Override
     public Map<LogicalPlan, SelectSymbol> dependencies() {
         return subQueries;
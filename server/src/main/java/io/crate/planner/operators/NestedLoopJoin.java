@@ -48,6 +48,7 @@ import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.dql.join.Join;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.statistics.TableStats;
+import org.elasticsearch.Version;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -146,6 +147,25 @@ public class NestedLoopJoin implements LogicalPlan {
                                @Nullable Integer pageSizeHint,
                                Row params,
                                SubQueryResults subQueryResults) {
+        if (isHashJoinPossible(plannerContext)) {
+            Tuple<List<Symbol>, List<Symbol>> hashSymbols =
+                HashJoin.hashSymbolsPerSide(joinCondition, lhs.outputs(), rhs.outputs());
+            if (hashSymbols != null) {
+                return HashJoin.build(
+                    plannerContext,
+                    projectionBuilder,
+                    params,
+                    subQueryResults,
+                    lhs,
+                    rhs,
+                    joinType,
+                    joinCondition,
+                    hashSymbols.v1(),
+                    hashSymbols.v2(),
+                    outputs
+                );
+            }
+        }
         /*
          * Benchmarks reveal that if rows are filtered out distributed execution gives better performance.
          * Therefore if `filterNeeded` is true (there is joinCondition or a filtering after the join operation)
@@ -325,6 +345,23 @@ public class NestedLoopJoin implements LogicalPlan {
         );
     }
 
+    /**
+     * Inner joins with an equi-join condition are planned as {@link HashJoin}.
+     * Outer, semi and anti joins with an equi-join condition are kept as {@link NestedLoopJoin} so that
+     * the optimizer rules for them still apply, but are executed using a hash join if possible.
+     * <p>
+     * A hash join doesn't preserve the order of the left side, so it's not used if an ORDER BY was pushed down.
+     */
+    private boolean isHashJoinPossible(PlannerContext plannerContext) {
+        return joinCondition != null
+               && joinType != JoinType.INNER
+               && joinType != JoinType.CROSS
+               && !orderByWasPushedDown
+               && plannerContext.transactionContext().sessionContext().isHashJoinEnabled()
+               && plannerContext.clusterState().nodes().getMinNodeVersion().onOrAfter(Version.V_4_3_0)
+               && EquiJoinDetector.isEquiJoin(joinCondition);
+    }
+
     private Tuple<Collection<String>, List<MergePhase>> configureExecution(ExecutionPlan left,
                                                                            ExecutionPlan right,
                                                                            PlannerContext plannerContext,
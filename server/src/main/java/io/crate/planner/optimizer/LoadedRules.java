@@ -41,10 +41,15 @@ import io.crate.planner.optimizer.rule.MoveFilterBeneathProjectSet;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathRename;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathUnion;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathWindowAgg;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathEval;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathNestedLoop;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathRename;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathUnion;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathFetchOrEval;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathNestedLoop;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathRename;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathUnion;
+import io.crate.planner.optimizer.rule.PushJoinKeysIntoHashJoinSide;
 import io.crate.planner.optimizer.rule.RemoveRedundantFetchOrEval;
 import io.crate.planner.optimizer.rule.RewriteCollectToGet;
 import io.crate.planner.optimizer.rule.RewriteFilterOnOuterJoinToInnerJoin;
@@ -83,8 +88,13 @@ public class LoadedRules implements SessionSettingProvider {
         new MoveOrderBeneathFetchOrEval(),
         new MoveOrderBeneathRename(),
         new DeduplicateOrder(),
+        new MoveLimitBeneathUnion(),
+        new MoveLimitBeneathRename(),
+        new MoveLimitBeneathEval(),
+        new MoveLimitBeneathNestedLoop(),
         new RewriteCollectToGet(),
         new RewriteGroupByKeysLimitToTopNDistinct(),
+        new PushJoinKeysIntoHashJoinSide(),
         new RewriteInsertFromSubQueryToInsertFromValues(),
         new RewriteToQueryThenFetch()
     );
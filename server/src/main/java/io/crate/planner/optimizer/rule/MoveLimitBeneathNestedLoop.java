@@ -0,0 +1,103 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Functions;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.NestedLoopJoin;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.TableStats;
+
+import java.util.List;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+
+/**
+ * Adds a limit on top of the preserved side of a left or right outer join:
+ *
+ * <pre>
+ *       Limit                       Limit
+ *         |                           |
+ *     NestedLoop[LEFT]    -->     NestedLoop[LEFT]
+ *      /       \                   /         \
+ *    lhs       rhs               Limit       rhs
+ *                                  |
+ *                                 lhs
+ * </pre>
+ *
+ * Every row of the preserved side results in at least one row of the join, so limit + offset rows of the
+ * preserved side are enough to produce the result.
+ */
+public final class MoveLimitBeneathNestedLoop implements Rule<Limit> {
+
+    private final Capture<NestedLoopJoin> capture;
+    private final Pattern<Limit> pattern;
+    private volatile boolean enabled = true;
+
+    public MoveLimitBeneathNestedLoop() {
+        this.capture = new Capture<>();
+        this.pattern = typeOf(Limit.class)
+            .with(source(), typeOf(NestedLoopJoin.class).capturedAs(capture)
+                .with(nl -> Util.preservedSide(nl.joinType()) >= 0));
+    }
+
+    @Override
+    public Pattern<Limit> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public LogicalPlan apply(Limit limit,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx,
+                             Functions functions) {
+        Symbol limitAndOffset = Util.limitAndOffset(limit);
+        if (limitAndOffset == null) {
+            return null;
+        }
+        NestedLoopJoin nestedLoop = captures.get(capture);
+        LogicalPlan newJoin = Util.limitPreservedSide(nestedLoop, nestedLoop.joinType(), limitAndOffset);
+        if (newJoin == null) {
+            return null;
+        }
+        return limit.replaceSources(List.of(newJoin));
+    }
+}
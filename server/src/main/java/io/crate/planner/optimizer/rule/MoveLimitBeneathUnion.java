@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Functions;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.Union;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.TableStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+
+/**
+ * Adds a limit of limit + offset rows on top of the sources of a UNION ALL:
+ *
+ * <pre>
+ *        Limit                    Limit
+ *          |                        |
+ *        Union         -->        Union
+ *       /     \                  /     \
+ *     lhs     rhs             Limit   Limit
+ *                               |       |
+ *                              lhs     rhs
+ * </pre>
+ *
+ * Only sources which can push the limit further down (e.g. outer joins) get a limit.
+ * Other sources already receive limit + offset as hint when the execution plan of the UNION is built,
+ * adding a limit on top of them would only add a merge phase.
+ */
+public final class MoveLimitBeneathUnion implements Rule<Limit> {
+
+    private final Capture<Union> capture;
+    private final Pattern<Limit> pattern;
+    private volatile boolean enabled = true;
+
+    public MoveLimitBeneathUnion() {
+        this.capture = new Capture<>();
+        this.pattern = typeOf(Limit.class)
+            .with(source(), typeOf(Union.class).capturedAs(capture));
+    }
+
+    @Override
+    public Pattern<Limit> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public LogicalPlan apply(Limit limit,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx,
+                             Functions functions) {
+        Symbol limitAndOffset = Util.limitAndOffset(limit);
+        if (limitAndOffset == null) {
+            return null;
+        }
+        Union union = captures.get(capture);
+        List<LogicalPlan> sources = union.sources();
+        ArrayList<LogicalPlan> newSources = new ArrayList<>(sources.size());
+        boolean changed = false;
+        for (LogicalPlan source : sources) {
+            if (Util.acceptsLimit(source)) {
+                newSources.add(new Limit(source, limitAndOffset, Literal.of(0L)));
+                changed = true;
+            } else {
+                newSources.add(source);
+            }
+        }
+        if (!changed) {
+            return null;
+        }
+        return limit.replaceSources(List.of(union.replaceSources(newSources)));
+    }
+}
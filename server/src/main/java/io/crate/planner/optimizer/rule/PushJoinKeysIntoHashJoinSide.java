@@ -0,0 +1,201 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.Operator;
+import io.crate.expression.operator.any.AnyOperators;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
+import io.crate.types.ArrayType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+/**
+ * Filters one side of a hash join by the join keys of the other, small and filtered, side:
+ *
+ * <pre>
+ *                                            MultiPhase
+ *                                             /      \
+ *       HashJoin[fact.dim_id = dim.id]    HashJoin    Collect[dim | [id] | region = 'EU']
+ *        /                \          -->    /    \
+ *    Collect[fact]   Collect[dim |       Collect[fact | dim_id = ANY(SELECT id FROM dim)]
+ *                      region = 'EU']                 Collect[dim | region = 'EU']
+ * </pre>
+ *
+ * The keys are collected before the join is executed and end up as terms or points set query in the
+ * Lucene query of the other side, so that non-matching documents are skipped on the shards
+ * instead of being loaded, distributed and discarded by the join.
+ * <p>
+ * The rule only applies to sides with an estimated number of rows of at most {@link #MAX_KEYS}, larger key sets
+ * would be more expensive to collect and look up than the rows they'd filter.
+ */
+public final class PushJoinKeysIntoHashJoinSide implements Rule<HashJoin> {
+
+    static final long MAX_KEYS = 10_000L;
+
+    private final Pattern<HashJoin> pattern;
+    private volatile boolean enabled = true;
+
+    public PushJoinKeysIntoHashJoinSide() {
+        this.pattern = typeOf(HashJoin.class)
+            .with(join -> join.lhs() instanceof Collect && join.rhs() instanceof Collect);
+    }
+
+    @Override
+    public Pattern<HashJoin> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public LogicalPlan apply(HashJoin join,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx,
+                             Functions functions) {
+        Collect lhs = (Collect) join.lhs();
+        Collect rhs = (Collect) join.rhs();
+        // The left side is the build side of the hash join, it's the preferred source of the keys
+        LogicalPlan newJoin = pushKeys(join, rhs, lhs, tableStats, true);
+        if (newJoin == null) {
+            newJoin = pushKeys(join, lhs, rhs, tableStats, false);
+        }
+        return newJoin;
+    }
+
+    @Nullable
+    private static LogicalPlan pushKeys(HashJoin join,
+                                        Collect target,
+                                        Collect keySource,
+                                        TableStats tableStats,
+                                        boolean targetIsRhs) {
+        long numKeys = keySource.numExpectedRows();
+        if (numKeys < 0
+            || numKeys > MAX_KEYS
+            || numKeys >= target.numExpectedRows()
+            || !keySource.where().hasQuery()
+            || containsSubQuery(keySource.where().queryOrFallback())
+            || containsSubQuery(target.where().queryOrFallback())
+            || !(target.relation() instanceof DocTableRelation)) {
+            return null;
+        }
+        for (Symbol part : AndOperator.split(join.joinCondition())) {
+            if (!(part instanceof Function) || !((Function) part).name().equals(EqOperator.NAME)) {
+                continue;
+            }
+            List<Symbol> args = ((Function) part).arguments();
+            Symbol targetKey;
+            Symbol sourceKey;
+            if (target.outputs().contains(args.get(0)) && keySource.outputs().contains(args.get(1))) {
+                targetKey = args.get(0);
+                sourceKey = args.get(1);
+            } else if (target.outputs().contains(args.get(1)) && keySource.outputs().contains(args.get(0))) {
+                targetKey = args.get(1);
+                sourceKey = args.get(0);
+            } else {
+                continue;
+            }
+            if (!(targetKey instanceof Reference) || !targetKey.valueType().equals(sourceKey.valueType())) {
+                continue;
+            }
+            Stats stats = tableStats.getStats(keySource.relation().tableInfo().ident());
+            List<Symbol> keyOutputs = List.of(sourceKey);
+            Collect keys = new Collect(
+                keySource.preferSourceLookup(),
+                keySource.relation(),
+                keyOutputs,
+                keySource.where(),
+                numKeys,
+                stats.estimateSizeForColumns(keyOutputs)
+            );
+            SelectSymbol keysSubQuery = new SelectSymbol(
+                new QueriedSelectRelation(
+                    false,
+                    List.of(keySource.relation()),
+                    List.of(),
+                    keyOutputs,
+                    keySource.where().queryOrFallback(),
+                    List.of(),
+                    null,
+                    null,
+                    null,
+                    null
+                ),
+                new ArrayType<>(sourceKey.valueType()),
+                SelectSymbol.ResultType.SINGLE_COLUMN_MULTIPLE_VALUES
+            );
+            Function keysFilter = new Function(
+                AnyOperators.Type.EQ.signature(),
+                List.of(targetKey, keysSubQuery),
+                Operator.RETURN_TYPE
+            );
+            Collect filteredTarget = new Collect(
+                target.preferSourceLookup(),
+                target.relation(),
+                target.outputs(),
+                target.where().add(keysFilter),
+                target.numExpectedRows(),
+                target.estimatedRowSize()
+            );
+            LogicalPlan newJoin = join.replaceSources(
+                targetIsRhs ? List.of(keySource, filteredTarget) : List.of(filteredTarget, keySource));
+            return MultiPhase.create(newJoin, Map.of(keys, keysSubQuery));
+        }
+        return null;
+    }
+
+    private static boolean containsSubQuery(Symbol query) {
+        return SymbolVisitors.any(s -> s instanceof SelectSymbol, query);
+    }
+}
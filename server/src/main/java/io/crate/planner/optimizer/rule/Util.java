@@ -22,8 +22,18 @@
 
 package io.crate.planner.optimizer.rule;
 
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.operators.Eval;
+import io.crate.planner.operators.Limit;
 import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.NestedLoopJoin;
+import io.crate.planner.operators.Rename;
+import io.crate.planner.operators.Union;
+import io.crate.types.DataTypes;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 public final class Util {
@@ -39,4 +49,83 @@ public final class Util {
             parent.replaceSources(child.sources())
         ));
     }
+
+    /**
+     * @return the limit to apply on a source of the given limit so that it produces enough rows for limit and offset,
+     *         or null if the limit can't be pushed down.
+     */
+    @Nullable
+    static Symbol limitAndOffset(Limit limit) {
+        Symbol limitSymbol = limit.limit();
+        Symbol offsetSymbol = limit.offset();
+        if (limitSymbol instanceof Literal && isNoLimit((Literal<?>) limitSymbol)) {
+            return null;
+        }
+        if (offsetSymbol instanceof Literal) {
+            Long offset = DataTypes.LONG.value(((Literal<?>) offsetSymbol).value());
+            if (offset == null || offset == 0L) {
+                return limitSymbol;
+            }
+            if (limitSymbol instanceof Literal) {
+                return Literal.of(DataTypes.LONG.value(((Literal<?>) limitSymbol).value()) + offset);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNoLimit(Literal<?> limit) {
+        Long value = DataTypes.LONG.value(limit.value());
+        return value == null || value < 0;
+    }
+
+    /**
+     * @return the index of the source of an outer join of which every row is part of the join result, or -1.
+     */
+    static int preservedSide(JoinType joinType) {
+        switch (joinType) {
+            case LEFT:
+                return 0;
+            case RIGHT:
+                return 1;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @return true if a limit on top of the plan can be pushed further down the tree
+     *         by the MoveLimitBeneath* rules.
+     */
+    static boolean acceptsLimit(LogicalPlan plan) {
+        if (plan instanceof Rename || plan instanceof Eval) {
+            return acceptsLimit(plan.sources().get(0));
+        }
+        if (plan instanceof Union) {
+            return plan.sources().stream().anyMatch(Util::acceptsLimit);
+        }
+        if (plan instanceof NestedLoopJoin) {
+            return preservedSide(((NestedLoopJoin) plan).joinType()) >= 0;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a limit of {@code limitAndOffset} on top of the preserved side of the outer join.
+     *
+     * @return the new join or null if the preserved side is already limited.
+     */
+    @Nullable
+    static LogicalPlan limitPreservedSide(LogicalPlan join, JoinType joinType, Symbol limitAndOffset) {
+        int preservedSide = preservedSide(joinType);
+        assert preservedSide >= 0 : "join must be a left or right outer join";
+        List<LogicalPlan> sources = join.sources();
+        LogicalPlan preserved = sources.get(preservedSide);
+        if (preserved instanceof Limit) {
+            return null;
+        }
+        LogicalPlan limitedSource = new Limit(preserved, limitAndOffset, Literal.of(0L));
+        return join.replaceSources(preservedSide == 0
+            ? List.of(limitedSource, sources.get(1))
+            : List.of(sources.get(0), limitedSource));
+    }
 }
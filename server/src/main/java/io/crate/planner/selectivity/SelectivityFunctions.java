@@ -25,7 +25,12 @@ package io.crate.planner.selectivity;
 import io.crate.data.Row;
 import io.crate.expression.operator.AndOperator;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
 import io.crate.expression.operator.OrOperator;
+import io.crate.expression.operator.any.AnyOperators;
 import io.crate.expression.predicate.IsNullPredicate;
 import io.crate.expression.predicate.NotPredicate;
 import io.crate.expression.symbol.Function;
@@ -38,10 +43,14 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.Stats;
+import io.crate.types.DataType;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Used to estimate the number of rows returned after applying a given query.
@@ -52,11 +61,16 @@ import java.util.List;
 public class SelectivityFunctions {
 
     private static final double DEFAULT_EQ_SEL = 0.005;
+    /**
+     * Used for a range with a lower and an upper bound ({@code x > a AND x < b}) if the histogram estimates of
+     * the bounds are inconsistent.
+     */
+    private static final double DEFAULT_RANGE_INEQ_SEL = 0.005;
     /**
      * For all cases where we don't have a concrete selectivity logic we use this magic number.
      * It seems to have worked for PostgreSQL quite well so far.
      */
-    private static final double MAGIC_SEL = 0.333;
+    public static final double MAGIC_SEL = 0.333;
 
     public static long estimateNumRows(Stats stats, Symbol query, @Nullable Row params) {
         var estimator = new SelectivityEstimator(stats, params);
@@ -95,13 +109,8 @@ public class SelectivityFunctions {
         @Override
         public Double visitFunction(Function function, Void context) {
             switch (function.name()) {
-                case AndOperator.NAME: {
-                    double selectivity = 1.0;
-                    for (Symbol argument : function.arguments()) {
-                        selectivity *= argument.accept(this, context);
-                    }
-                    return selectivity;
-                }
+                case AndOperator.NAME:
+                    return andSelectivity(function);
 
                 case OrOperator.NAME: {
                     double sel1 = 1.0;
@@ -126,11 +135,276 @@ public class SelectivityFunctions {
                     return isNullSelectivity(arguments.get(0), stats);
                 }
 
+                case LtOperator.NAME:
+                case LteOperator.NAME:
+                case GtOperator.NAME:
+                case GteOperator.NAME: {
+                    Range range = Range.of(function, params);
+                    if (range == null) {
+                        return MAGIC_SEL;
+                    }
+                    double selectivity = range.selectivity(stats);
+                    return selectivity < 0 ? MAGIC_SEL : selectivity;
+                }
+
                 default:
+                    if (function.name().equals(AnyOperators.Type.EQ.opName())) {
+                        List<Symbol> arguments = function.arguments();
+                        return inSelectivity(arguments.get(0), arguments.get(1), stats, params);
+                    }
                     return MAGIC_SEL;
             }
         }
 
+        /**
+         * Multiplies the selectivities of the arguments, assuming they're independent.
+         * The exception are a lower and an upper bound on the same column, e.g. {@code x >= a AND x <= b},
+         * which are combined into a single range selectivity as they're clearly not independent.
+         */
+        private double andSelectivity(Function and) {
+            double selectivity = 1.0;
+            Map<ColumnIdent, Range> lowerBounds = new HashMap<>();
+            Map<ColumnIdent, Range> upperBounds = new HashMap<>();
+            for (Symbol argument : and.arguments()) {
+                Range range = argument instanceof Function ? Range.of((Function) argument, params) : null;
+                if (range == null) {
+                    selectivity *= argument.accept(this, null);
+                } else {
+                    var bounds = range.isLowerBound ? lowerBounds : upperBounds;
+                    Range previous = bounds.put(range.column, range);
+                    if (previous != null) {
+                        // Two bounds of the same kind; there is no further combination, keep them independent
+                        selectivity *= previous.selectivityOrDefault(stats);
+                    }
+                }
+            }
+            for (Range lower : lowerBounds.values()) {
+                Range upper = upperBounds.remove(lower.column);
+                if (upper == null) {
+                    selectivity *= lower.selectivityOrDefault(stats);
+                } else {
+                    selectivity *= betweenSelectivity(lower, upper, stats);
+                }
+            }
+            for (Range upper : upperBounds.values()) {
+                selectivity *= upper.selectivityOrDefault(stats);
+            }
+            return selectivity;
+        }
+    }
+
+    /**
+     * Selectivity of an equi-join condition between two columns, based on their number of distinct values.
+     * Assuming that every value of the column with fewer distinct values has a match on the other side,
+     * the join results in {@code rows(left) * rows(right) / max(ndv(left), ndv(right))} rows.
+     */
+    public static double equiJoinSelectivity(double leftNumDistinct, double rightNumDistinct) {
+        return 1.0 / Math.max(1.0, Math.max(leftNumDistinct, rightNumDistinct));
+    }
+
+    private static double betweenSelectivity(Range lower, Range upper, Stats stats) {
+        if (lower.value == null || upper.value == null) {
+            return 0.0;
+        }
+        double lowerSelectivity = lower.selectivity(stats);
+        double upperSelectivity = upper.selectivity(stats);
+        if (lowerSelectivity < 0 || upperSelectivity < 0) {
+            return lower.selectivityOrDefault(stats) * upper.selectivityOrDefault(stats);
+        }
+        // Both bounds exclude the null values, so they've to be added again.
+        ColumnStats<?> columnStats = stats.statsByColumn().get(lower.column);
+        double nullFraction = columnStats == null ? 0.0 : columnStats.nullFraction();
+        double selectivity = lowerSelectivity + upperSelectivity - 1.0 + nullFraction;
+        if (selectivity <= 0.0) {
+            // Slightly negative values are caused by rounding errors, the range is probably empty.
+            // Anything else indicates that the estimates of the bounds are bogus.
+            return selectivity < -0.01 ? DEFAULT_RANGE_INEQ_SEL : 1.0e-10;
+        }
+        return Math.min(selectivity, 1.0);
+    }
+
+    private static double inSelectivity(Symbol leftArg, Symbol rightArg, Stats stats, @Nullable Row params) {
+        Object values;
+        if (rightArg instanceof Literal) {
+            values = ((Literal<?>) rightArg).value();
+        } else if (rightArg instanceof ParameterSymbol && params != null) {
+            values = params.get(((ParameterSymbol) rightArg).index());
+        } else {
+            return MAGIC_SEL;
+        }
+        if (!(values instanceof List)) {
+            return MAGIC_SEL;
+        }
+        ColumnIdent column = getColumn(leftArg);
+        ColumnStats<?> columnStats = column == null ? null : stats.statsByColumn().get(column);
+        double selectivity = 0.0;
+        for (Object value : new HashSet<>((List<?>) values)) {
+            if (columnStats == null) {
+                selectivity += value == null ? 0.0 : DEFAULT_EQ_SEL;
+            } else {
+                selectivity += eqSelectivityFromValueAndStats(value, columnStats);
+            }
+        }
+        return Math.min(selectivity, 1.0);
+    }
+
+    /**
+     * A comparison of a column with a value, e.g. {@code x > 10}
+     */
+    private static class Range {
+
+        private final ColumnIdent column;
+        @Nullable
+        private final Object value;
+        private final boolean isLowerBound;
+
+        private Range(ColumnIdent column, @Nullable Object value, boolean isLowerBound) {
+            this.column = column;
+            this.value = value;
+            this.isLowerBound = isLowerBound;
+        }
+
+        @Nullable
+        static Range of(Function function, @Nullable Row params) {
+            boolean isLowerBound;
+            switch (function.name()) {
+                case GtOperator.NAME:
+                case GteOperator.NAME:
+                    isLowerBound = true;
+                    break;
+
+                case LtOperator.NAME:
+                case LteOperator.NAME:
+                    isLowerBound = false;
+                    break;
+
+                default:
+                    return null;
+            }
+            Symbol leftArg = function.arguments().get(0);
+            Symbol rightArg = function.arguments().get(1);
+            ColumnIdent column = getColumn(leftArg);
+            Symbol valueArg = rightArg;
+            if (column == null) {
+                // 10 < x -> x > 10
+                column = getColumn(rightArg);
+                valueArg = leftArg;
+                isLowerBound = !isLowerBound;
+            }
+            if (column == null) {
+                return null;
+            }
+            if (valueArg instanceof Literal) {
+                return new Range(column, ((Literal<?>) valueArg).value(), isLowerBound);
+            }
+            if (valueArg instanceof ParameterSymbol && params != null) {
+                return new Range(column, params.get(((ParameterSymbol) valueArg).index()), isLowerBound);
+            }
+            return null;
+        }
+
+        double selectivityOrDefault(Stats stats) {
+            double selectivity = selectivity(stats);
+            return selectivity < 0 ? MAGIC_SEL : selectivity;
+        }
+
+        /**
+         * @return the fraction of rows within the range or -1 if there are no statistics to estimate it.
+         */
+        double selectivity(Stats stats) {
+            if (value == null) {
+                // x > null -> is always null
+                return 0.0;
+            }
+            ColumnStats<?> columnStats = stats.statsByColumn().get(column);
+            if (columnStats == null) {
+                return -1.0;
+            }
+            return rangeSelectivity(columnStats, value, isLowerBound);
+        }
+    }
+
+    /**
+     * Estimates the selectivity of {@code column > value} (or {@code column < value}) using the most common values
+     * and the equi-depth histogram of the remaining values.
+     * Whether the bound is inclusive or exclusive is ignored for the histogram part.
+     *
+     * See PostgreSQL `src/backend/utils/adt/selfuncs.c` `scalarineqsel`
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> double rangeSelectivity(ColumnStats<T> columnStats, Object rawValue, boolean isLowerBound) {
+        DataType<T> type = columnStats.type();
+        T value;
+        try {
+            value = type.implicitCast(rawValue);
+        } catch (ClassCastException | IllegalArgumentException e) {
+            return -1.0;
+        }
+        if (value == null) {
+            return 0.0;
+        }
+        var mcv = columnStats.mostCommonValues();
+        double mcvSelectivity = 0.0;
+        double mcvTotal = 0.0;
+        for (int i = 0; i < mcv.values().length; i++) {
+            double frequency = mcv.frequencies()[i];
+            int cmp = type.compare((T) mcv.values()[i], value);
+            if (isLowerBound ? cmp > 0 : cmp < 0) {
+                mcvSelectivity += frequency;
+            }
+            mcvTotal += frequency;
+        }
+        List<T> histogram = columnStats.histogram();
+        double histogramSelectivity;
+        if (histogram.size() >= 2) {
+            double fractionBelow = histogramFractionBelow(histogram, type, value);
+            histogramSelectivity = isLowerBound ? 1.0 - fractionBelow : fractionBelow;
+        } else if (mcvTotal > 0.0) {
+            // All sampled values are most common values; assume the remaining values are distributed alike.
+            histogramSelectivity = mcvSelectivity / mcvTotal;
+        } else {
+            return -1.0;
+        }
+        double histogramFraction = Math.max(0.0, 1.0 - columnStats.nullFraction() - mcvTotal);
+        double selectivity = mcvSelectivity + histogramSelectivity * histogramFraction;
+        return Math.max(0.0, Math.min(selectivity, 1.0));
+    }
+
+    /**
+     * @param histogram the bounds of the histogram buckets; each bucket contains the same number of values.
+     * @return the fraction of the values of the histogram which are lower than the given value,
+     *         interpolating linearly within the matching bucket for numeric values.
+     */
+    private static <T> double histogramFractionBelow(List<T> histogram, DataType<T> type, T value) {
+        int last = histogram.size() - 1;
+        if (type.compare(value, histogram.get(0)) <= 0) {
+            return 0.0;
+        }
+        if (type.compare(value, histogram.get(last)) >= 0) {
+            return 1.0;
+        }
+        // Binary search for the bucket: histogram[low] < value <= histogram[low + 1]
+        int low = 0;
+        int high = last;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (type.compare(histogram.get(mid), value) < 0) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        T lowerBound = histogram.get(low);
+        T upperBound = histogram.get(high);
+        double bucketFraction = 0.5;
+        if (lowerBound instanceof Number && upperBound instanceof Number && value instanceof Number) {
+            double lowerValue = ((Number) lowerBound).doubleValue();
+            double upperValue = ((Number) upperBound).doubleValue();
+            if (upperValue > lowerValue) {
+                bucketFraction = (((Number) value).doubleValue() - lowerValue) / (upperValue - lowerValue);
+            }
+        }
+        return (low + bucketFraction) / last;
     }
 
     private static double isNullSelectivity(Symbol arg, Stats stats) {
@@ -161,6 +435,11 @@ public class SelectivityFunctions {
         if (rightArg instanceof Literal) {
             return eqSelectivityFromValueAndStats(((Literal) rightArg).value(), columnStats);
         }
+        ColumnIdent rightColumn = getColumn(rightArg);
+        ColumnStats<?> rightColumnStats = rightColumn == null ? null : stats.statsByColumn().get(rightColumn);
+        if (rightColumnStats != null) {
+            return equiJoinSelectivity(columnStats.approxDistinct(), rightColumnStats.approxDistinct());
+        }
         return 1.0 / columnStats.approxDistinct();
     }
 
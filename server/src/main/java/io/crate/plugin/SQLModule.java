@@ -22,6 +22,8 @@
 package io.crate.plugin;
 
 import io.crate.action.sql.SQLOperations;
+import io.crate.action.sql.StatementCache;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.expression.udf.UserDefinedFunctionService;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.DanglingArtifactsService;
@@ -41,10 +43,12 @@ public class SQLModule extends AbstractModule {
         bind(FulltextAnalyzerResolver.class).asEagerSingleton();
         bind(PostgresNetty.class).asEagerSingleton();
         bind(SQLOperations.class).asEagerSingleton();
+        bind(StatementCache.class).asEagerSingleton();
         bind(Planner.class).asEagerSingleton();
         bind(TableStats.class).asEagerSingleton();
         bind(TableStatsService.class).asEagerSingleton();
         bind(MemoryManagerFactory.class).asEagerSingleton();
+        bind(SpillThresholds.class).asEagerSingleton();
         bind(UserDefinedFunctionService.class).asEagerSingleton();
         bind(RestSQLAction.class).asEagerSingleton();
         bind(DanglingArtifactsService.class).asEagerSingleton();
@@ -23,6 +23,7 @@ package io.crate.plugin;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.action.sql.SQLOperations;
+import io.crate.action.sql.StatementCache;
 import io.crate.auth.AuthSettings;
 import io.crate.cluster.gracefulstop.DecommissionAllocationDecider;
 import io.crate.cluster.gracefulstop.DecommissioningService;
@@ -35,6 +36,7 @@ import io.crate.execution.engine.window.WindowFunctionModule;
 import io.crate.execution.jobs.JobModule;
 import io.crate.execution.jobs.TasksService;
 import io.crate.execution.jobs.transport.NodeDisconnectJobMonitorService;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.expression.operator.OperatorModule;
 import io.crate.expression.predicate.PredicateModule;
 import io.crate.expression.reference.sys.check.SysChecksModule;
@@ -127,6 +129,9 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(StatementCache.NODE_PLAN_CACHE_SIZE_SETTING);
+        settings.add(StatementCache.NODE_PLAN_CACHE_MAX_MEMORY_SETTING);
+        settings.add(WorkloadClasses.WORKLOAD_CLASSES_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
@@ -167,7 +172,8 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
             .add(Schemas.class)
             .add(DefaultTemplateService.class)
             .add(ArrayMapperService.class)
-            .add(DanglingArtifactsService.class);
+            .add(DanglingArtifactsService.class)
+            .add(WorkloadClasses.class);
         if (licenseExtension != null) {
             builder.addAll(licenseExtension.getGuiceServiceClasses());
         }
@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime statistics of a single operator of an execution phase on one node, e.g. a collect source,
+ * a projector or the distribution of the rows to the downstream nodes.
+ * <p>
+ * The time spent is inclusive: operators pull rows from their source, so the time of an operator
+ * includes the time of the operators beneath it within the same phase.
+ * <p>
+ * Updated by the threads executing the operator and read once the execution finished.
+ */
+public final class OperatorStats {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+
+    private final String name;
+    private final LongAdder rowsOut = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder timeNanos = new LongAdder();
+    private final LongAdder cpuTimeNanos = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder networkBytes = new LongAdder();
+
+    OperatorStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void onRow() {
+        rowsOut.increment();
+    }
+
+    public void onRows(long numRows) {
+        rowsOut.add(numRows);
+    }
+
+    public void onBatch() {
+        batches.increment();
+    }
+
+    public void onBytesAccounted(long numBytes) {
+        bytes.add(numBytes);
+    }
+
+    public void onNetworkBytes(long numBytes) {
+        networkBytes.add(numBytes);
+    }
+
+    /**
+     * @return a value to pass to {@link #stop(long, long)} once the operator returns control to its consumer.
+     */
+    public static long startTime() {
+        return System.nanoTime();
+    }
+
+    public static long startCpuTime() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+    }
+
+    public void stop(long startTime, long startCpuTime) {
+        stop(startTime, startCpuTime, 1);
+    }
+
+    /**
+     * Like {@link #stop(long, long)} but for a sample which represents {@code weight} calls of the operator.
+     */
+    public void stop(long startTime, long startCpuTime, int weight) {
+        timeNanos.add((System.nanoTime() - startTime) * weight);
+        if (CPU_TIME_SUPPORTED) {
+            cpuTimeNanos.add((THREAD_MX_BEAN.getCurrentThreadCpuTime() - startCpuTime) * weight);
+        }
+    }
+
+    public long rowsOut() {
+        return rowsOut.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    public long timeNanos() {
+        return timeNanos.sum();
+    }
+
+    public long cpuTimeNanos() {
+        return cpuTimeNanos.sum();
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    public long networkBytes() {
+        return networkBytes.sum();
+    }
+
+    /**
+     * @return the statistics in a form that can be streamed to the node handling the `EXPLAIN ANALYZE`.
+     */
+    public Map<String, Object> toMap() {
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("Name", name);
+        map.put("RowsOut", rowsOut());
+        map.put("Batches", batches());
+        map.put("TimeNanos", timeNanos());
+        map.put("CpuTimeNanos", cpuTimeNanos());
+        map.put("Bytes", bytes());
+        map.put("NetworkBytes", networkBytes());
+        return map;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates the {@link OperatorStats} of the operators of one execution phase on one node.
+ * <p>
+ * A phase is a pipeline of operators: a source (e.g. collect, merge or join),
+ * followed by the projectors and optionally a sink which sends the rows to the downstream nodes.
+ * The operators are reported in this order, independent of the order in which they are created.
+ */
+public final class PhaseProfiler {
+
+    private final String phaseKey;
+    private final String phaseName;
+
+    @Nullable
+    private OperatorStats source;
+    private final List<OperatorStats> projectors = new ArrayList<>();
+    @Nullable
+    private OperatorStats sink;
+
+    PhaseProfiler(String phaseKey, String phaseName) {
+        this.phaseKey = phaseKey;
+        this.phaseName = phaseName;
+    }
+
+    public String phaseKey() {
+        return phaseKey;
+    }
+
+    /**
+     * @return the stats of the operator producing the rows of the phase, named after the phase.
+     */
+    public synchronized OperatorStats source() {
+        if (source == null) {
+            source = new OperatorStats(phaseName);
+        }
+        return source;
+    }
+
+    public synchronized OperatorStats projector(String name) {
+        OperatorStats stats = new OperatorStats(name);
+        projectors.add(stats);
+        return stats;
+    }
+
+    public synchronized OperatorStats sink(String name) {
+        if (sink == null) {
+            sink = new OperatorStats(name);
+        }
+        assert sink.name().equals(name) : "A phase can only have one sink";
+        return sink;
+    }
+
+    /**
+     * Wraps the consumer so that the rows of the BatchIterator it receives are recorded as the rows of {@link #source()}.
+     */
+    public RowConsumer instrumentSource(RowConsumer consumer) {
+        OperatorStats stats = source();
+        return new RowConsumer() {
+
+            @Override
+            public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+                if (failure == null) {
+                    consumer.accept(new ProfilingBatchIterator<>(iterator, stats), null);
+                } else {
+                    consumer.accept(iterator, failure);
+                }
+            }
+
+            @Override
+            public CompletableFuture<?> completionFuture() {
+                return consumer.completionFuture();
+            }
+
+            @Override
+            public boolean requiresScroll() {
+                return consumer.requiresScroll();
+            }
+        };
+    }
+
+    synchronized List<OperatorStats> operators() {
+        ArrayList<OperatorStats> operators = new ArrayList<>(projectors.size() + 2);
+        if (source != null) {
+            operators.add(source);
+        }
+        operators.addAll(projectors);
+        if (sink != null) {
+            operators.add(sink);
+        }
+        return operators;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * BatchIterator which records the rows, batches and the time spent in the source iterator into {@link OperatorStats}.
+ * <p>
+ * Reading the clocks for every row would cost more than moving to the next row of most iterators,
+ * so only every {@link #SAMPLE_INTERVAL}th call of {@link #moveNext()} is timed and the time is extrapolated.
+ * Rows are counted in a plain field and added to the stats at the end of each batch.
+ * <p>
+ * Only the synchronous part of {@link #loadNextBatch()} is timed;
+ * the time it takes to complete the returned future is spent waiting, e.g. for other nodes.
+ */
+public final class ProfilingBatchIterator<T> extends ForwardingBatchIterator<T> {
+
+    static final int SAMPLE_INTERVAL = 64;
+
+    private final BatchIterator<T> delegate;
+    private final OperatorStats stats;
+
+    private int moveNextCalls = 0;
+    private long rows = 0L;
+
+    public ProfilingBatchIterator(BatchIterator<T> delegate, OperatorStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    protected BatchIterator<T> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean moveNext() {
+        boolean moved;
+        if ((++moveNextCalls & (SAMPLE_INTERVAL - 1)) == 0) {
+            long startTime = OperatorStats.startTime();
+            long startCpuTime = OperatorStats.startCpuTime();
+            moved = delegate.moveNext();
+            stats.stop(startTime, startCpuTime, SAMPLE_INTERVAL);
+        } else {
+            moved = delegate.moveNext();
+        }
+        if (moved) {
+            rows++;
+        } else {
+            flushRows();
+        }
+        return moved;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        long startTime = OperatorStats.startTime();
+        long startCpuTime = OperatorStats.startCpuTime();
+        try {
+            stats.onBatch();
+            return delegate.loadNextBatch();
+        } finally {
+            stats.stop(startTime, startCpuTime);
+        }
+    }
+
+    @Override
+    public void moveToStart() {
+        flushRows();
+        super.moveToStart();
+    }
+
+    @Override
+    public void close() {
+        flushRows();
+        super.close();
+    }
+
+    private void flushRows() {
+        if (rows > 0) {
+            stats.onRows(rows);
+            rows = 0L;
+        }
+    }
+}
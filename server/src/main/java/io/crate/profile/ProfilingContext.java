@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -36,20 +37,35 @@ import java.util.stream.Collectors;
  * Simple stop watch type class that can be used as a context across multiple layers (analyzer, planner, executor)
  * to accumulate timing results in a map.
  *
- * It is not meant to be thread-safe.
+ * It is not meant to be thread-safe, except for the {@link PhaseProfiler}s which are used by the executing threads.
  *
  */
 public class ProfilingContext {
 
     private static final double NS_TO_MS_FACTOR = 1_000_000.0d;
+
+    /**
+     * Key of the {@link OperatorStats} of each phase, see {@link #getDurationInMSByTimer()}.
+     */
+    public static final String OPERATORS = "Operators";
+
     private final HashMap<String, Double> durationInMSByTimer;
     private final Supplier<List<ProfileResult>> queryProfilingResults;
+    private final Map<String, PhaseProfiler> phaseProfilers = new ConcurrentHashMap<>();
 
     public ProfilingContext(Supplier<List<ProfileResult>> queryProfilingResults) {
         this.queryProfilingResults = queryProfilingResults;
         this.durationInMSByTimer = new HashMap<>();
     }
 
+    /**
+     * @return the profiler for the operators of the given phase, shared by all callers asking for the same phase.
+     */
+    public PhaseProfiler phaseProfiler(int phaseId, String phaseName) {
+        String phaseKey = generateProfilingKey(phaseId, phaseName);
+        return phaseProfilers.computeIfAbsent(phaseKey, key -> new PhaseProfiler(key, phaseName));
+    }
+
     public Map<String, Object> getDurationInMSByTimer() {
         HashMap<String, Object> builder = new HashMap<>();
         builder.putAll(durationInMSByTimer);
@@ -60,6 +76,18 @@ public class ProfilingContext {
         if (!queryTimings.isEmpty()) {
             builder.put("QueryBreakdown", queryTimings);
         }
+        HashMap<String, Object> operatorsByPhase = new HashMap<>();
+        for (PhaseProfiler phaseProfiler : phaseProfilers.values()) {
+            List<Map<String, Object>> operators = phaseProfiler.operators().stream()
+                .map(OperatorStats::toMap)
+                .collect(Collectors.toList());
+            if (!operators.isEmpty()) {
+                operatorsByPhase.put(phaseProfiler.phaseKey(), operators);
+            }
+        }
+        if (!operatorsByPhase.isEmpty()) {
+            builder.put(OPERATORS, operatorsByPhase);
+        }
         return Collections.unmodifiableMap(builder);
     }
 
@@ -0,0 +1,235 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.data.Row;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * State of a {@code COPY ... FROM STDIN} while the client streams the data using CopyData messages.
+ * <p>
+ * The decoded rows are inserted in chunks using a prepared {@code INSERT INTO ... VALUES ($1, ...)} statement.
+ * The rows of a chunk are bound and executed as one bulk operation, the same way as the batched executions of
+ * a JDBC client, which results in one shard request per shard for the whole chunk.
+ * <p>
+ * At most one chunk is executed at a time while the next one is decoded. If another chunk is complete before
+ * the one in flight finished, reading from the channel is paused until it has finished.
+ * <p>
+ * Rows which can't be inserted (e.g. because of a duplicate primary key) are skipped and not counted, like it is
+ * the case for {@code COPY FROM} a file. Malformed data aborts the operation, as does a single row which exceeds
+ * {@link #MAX_PENDING_BYTES}.
+ */
+class CopyIn {
+
+    static final int CHUNK_SIZE = 1000;
+
+    // Maximum number of bytes of incomplete rows which are buffered until the rest of the row arrives
+    static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+    private final Session session;
+    private final String statementName;
+    private final Channel channel;
+    private final CopyRowDecoder decoder;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private final ByteBuf pending = Unpooled.buffer();
+    private final int maxPendingBytes;
+
+    private List<List<Object>> chunk = new ArrayList<>(CHUNK_SIZE);
+    private CompletableFuture<Long> inFlight = CompletableFuture.completedFuture(0L);
+    private boolean aborted = false;
+
+    /**
+     * @param statementName name of the parsed insert statement which has one parameter per column of the decoder
+     */
+    CopyIn(Session session, String statementName, Channel channel, CopyRowDecoder decoder) {
+        this(session, statementName, channel, decoder, MAX_PENDING_BYTES);
+    }
+
+    @VisibleForTesting
+    CopyIn(Session session, String statementName, Channel channel, CopyRowDecoder decoder, int maxPendingBytes) {
+        this.session = session;
+        this.statementName = statementName;
+        this.channel = channel;
+        this.decoder = decoder;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * @return future completed with the number of inserted rows once the client finished sending data
+     *         and all rows have been processed, or completed exceptionally if the operation is aborted.
+     */
+    CompletableFuture<Long> result() {
+        return result;
+    }
+
+    boolean isDone() {
+        return aborted || result.isDone();
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     */
+    void handleData(ByteBuf data) {
+        if (isDone()) {
+            return;
+        }
+        pending.writeBytes(data);
+        decodeRows(false);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    void handleDone() {
+        if (isDone()) {
+            return;
+        }
+        decodeRows(true);
+        if (aborted) {
+            return;
+        }
+        flushChunk();
+        inFlight.whenComplete((rowCount, t) -> {
+            if (t == null) {
+                result.complete(rowCount);
+            } else {
+                result.completeExceptionally(t);
+            }
+        });
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | string errorMessage |
+     */
+    void handleFail(String errorMessage) {
+        abort(new IllegalStateException("COPY from stdin failed: " + errorMessage));
+    }
+
+    /**
+     * Abort the operation. Must be called from the event loop of the channel.
+     * The result is completed once the chunk in flight (if any) finished, so that
+     * the session is no longer in use by this operation once the client is informed about the failure.
+     */
+    void abort(Throwable t) {
+        if (isDone()) {
+            return;
+        }
+        aborted = true;
+        chunk = List.of();
+        pending.clear();
+        inFlight.whenComplete((ignored, ignoredErr) -> result.completeExceptionally(t));
+    }
+
+    private void decodeRows(boolean endOfData) {
+        try {
+            Object[] row;
+            while ((row = decoder.decodeNext(pending, endOfData)) != null) {
+                chunk.add(Arrays.asList(row));
+                if (chunk.size() == CHUNK_SIZE) {
+                    flushChunk();
+                }
+            }
+            pending.discardReadBytes();
+            if (pending.readableBytes() > maxPendingBytes) {
+                abort(new IllegalArgumentException(
+                    "COPY from stdin row exceeds the maximum size of " + maxPendingBytes + " bytes"));
+            } else if (pending.capacity() > maxPendingBytes) {
+                // Don't keep the memory of a large CopyData message around
+                pending.capacity(pending.readableBytes());
+            }
+        } catch (Throwable t) {
+            abort(t);
+        }
+    }
+
+    private void flushChunk() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<List<Object>> rows = chunk;
+        chunk = new ArrayList<>(CHUNK_SIZE);
+        CompletableFuture<Long> previous = inFlight;
+        inFlight = previous.thenCompose(rowCount -> insert(rows).thenApply(inserted -> rowCount + inserted));
+        inFlight.whenComplete((ignored, t) -> {
+            if (t != null) {
+                // Any further data is dropped, see isDone
+                result.completeExceptionally(t);
+            }
+        });
+        if (!previous.isDone()) {
+            // One chunk is in flight and this one is queued; stop decoding more until the first one is done
+            channel.config().setAutoRead(false);
+            previous.whenComplete((ignored, t) -> channel.config().setAutoRead(true));
+        }
+    }
+
+    private CompletableFuture<Long> insert(List<List<Object>> rows) {
+        InsertedRowsCounter counter = new InsertedRowsCounter();
+        try {
+            for (List<Object> row : rows) {
+                session.bind("", statementName, row, null);
+                session.execute("", 0, counter);
+            }
+            return session.sync().thenApply(ignored -> counter.insertedRows);
+        } catch (Throwable t) {
+            session.resetDeferredExecutions();
+            return CompletableFuture.failedFuture(t);
+        }
+    }
+
+    /**
+     * Receives the row count of each executed row, a failure only skips the row.
+     */
+    private static class InsertedRowsCounter extends BaseResultReceiver {
+
+        private long insertedRows = 0;
+
+        @Override
+        public void setNextRow(Row row) {
+            long rowCount = (long) row.get(0);
+            if (rowCount > 0) {
+                insertedRows += rowCount;
+            }
+        }
+
+        @Override
+        public void fail(@Nonnull Throwable t) {
+            super.allFinished(false);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options of a {@code COPY ... FROM STDIN} or {@code COPY ... TO STDOUT} statement.
+ * <p>
+ * See https://www.postgresql.org/docs/current/sql-copy.html
+ */
+final class CopyOptions {
+
+    /**
+     * Signature at the start of the header of the binary format, followed by an int32 flags field
+     * and an int32 header extension length.
+     */
+    static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    enum Format {
+        TEXT,
+        CSV,
+        BINARY
+    }
+
+    private final Format format;
+    private final byte delimiter;
+    private final byte[] nullString;
+    private final boolean header;
+    private final byte quote;
+    private final byte escape;
+
+    private CopyOptions(Format format, byte delimiter, byte[] nullString, boolean header, byte quote, byte escape) {
+        this.format = format;
+        this.delimiter = delimiter;
+        this.nullString = nullString;
+        this.header = header;
+        this.quote = quote;
+        this.escape = escape;
+    }
+
+    static CopyOptions of(Map<String, String> options) {
+        for (String name : options.keySet()) {
+            switch (name) {
+                case "format":
+                case "delimiter":
+                case "null":
+                case "header":
+                case "quote":
+                case "escape":
+                case "encoding":
+                    break;
+                default:
+                    throw new IllegalArgumentException("COPY option \"" + name + "\" not recognized");
+            }
+        }
+        Format format = Format.TEXT;
+        String formatName = options.get("format");
+        if (formatName != null) {
+            try {
+                format = Format.valueOf(formatName.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("COPY format \"" + formatName + "\" not recognized");
+            }
+        }
+        String encoding = options.get("encoding");
+        if (encoding != null && !encoding.equalsIgnoreCase("utf8") && !encoding.equalsIgnoreCase("utf-8")) {
+            throw new IllegalArgumentException("COPY encoding \"" + encoding + "\" is not supported, only UTF8 is");
+        }
+        if (format == Format.BINARY) {
+            for (String name : new String[] {"delimiter", "null", "header", "quote", "escape"}) {
+                if (options.containsKey(name)) {
+                    throw new IllegalArgumentException("Cannot specify COPY option \"" + name + "\" in BINARY mode");
+                }
+            }
+            return new CopyOptions(format, (byte) 0, new byte[0], false, (byte) 0, (byte) 0);
+        }
+        boolean csv = format == Format.CSV;
+        if (!csv) {
+            for (String name : new String[] {"header", "quote", "escape"}) {
+                if (options.containsKey(name)) {
+                    throw new IllegalArgumentException("COPY option \"" + name + "\" is only available in CSV mode");
+                }
+            }
+        }
+        byte delimiter = singleByte(options, "delimiter", csv ? ',' : '\t');
+        byte quote = singleByte(options, "quote", '"');
+        byte escape = singleByte(options, "escape", (char) quote);
+        String nullString = options.getOrDefault("null", csv ? "" : "\\N");
+        if (csv && delimiter == quote) {
+            throw new IllegalArgumentException("COPY delimiter and quote must be different");
+        }
+        if (delimiter == '\n' || delimiter == '\r' || (!csv && delimiter == '\\')) {
+            throw new IllegalArgumentException("COPY delimiter cannot be newline, carriage return or backslash");
+        }
+        return new CopyOptions(
+            format,
+            delimiter,
+            nullString.getBytes(StandardCharsets.UTF_8),
+            parseBoolean("header", options.get("header")),
+            quote,
+            escape
+        );
+    }
+
+    private static byte singleByte(Map<String, String> options, String name, char defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return (byte) defaultValue;
+        }
+        if (value.length() != 1 || value.charAt(0) > 127) {
+            throw new IllegalArgumentException("COPY " + name + " must be a single one-byte character");
+        }
+        return (byte) value.charAt(0);
+    }
+
+    private static boolean parseBoolean(String name, String value) {
+        if (value == null) {
+            return false;
+        }
+        switch (value.toLowerCase(Locale.ENGLISH)) {
+            case "true":
+            case "on":
+            case "1":
+                return true;
+            case "false":
+            case "off":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("COPY option \"" + name + "\" requires a boolean value");
+        }
+    }
+
+    Format format() {
+        return format;
+    }
+
+    boolean isBinary() {
+        return format == Format.BINARY;
+    }
+
+    byte delimiter() {
+        return delimiter;
+    }
+
+    byte[] nullString() {
+        return nullString;
+    }
+
+    boolean header() {
+        return header;
+    }
+
+    byte quote() {
+        return quote;
+    }
+
+    byte escape() {
+        return escape;
+    }
+}
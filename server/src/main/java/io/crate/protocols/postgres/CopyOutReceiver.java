@@ -0,0 +1,87 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.data.Row;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nonnull;
+import java.util.function.Function;
+
+/**
+ * Sends the rows of a {@code COPY ... TO STDOUT} as CopyData messages, one per row,
+ * followed by CopyDone and CommandComplete.
+ */
+class CopyOutReceiver extends BaseResultReceiver {
+
+    private final String query;
+    private final Channel channel;
+    private final Function<Throwable, Exception> wrapError;
+    private final CopyRowEncoder encoder;
+    private final ByteBuf data = Unpooled.buffer();
+
+    private long rowCount = 0;
+
+    CopyOutReceiver(String query, Channel channel, Function<Throwable, Exception> wrapError, CopyRowEncoder encoder) {
+        this.query = query;
+        this.channel = channel;
+        this.wrapError = wrapError;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        rowCount++;
+        data.clear();
+        encoder.writeRow(data, row);
+        Messages.sendCopyData(channel, data);
+        if (rowCount % 1000 == 0) {
+            channel.flush();
+        }
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        if (interrupted) {
+            super.allFinished(true);
+            return;
+        }
+        data.clear();
+        encoder.writeTrailer(data);
+        if (data.isReadable()) {
+            Messages.sendCopyData(channel, data);
+        }
+        Messages.sendCopyDone(channel);
+        Messages.sendCommandComplete(channel, query, rowCount).addListener(f -> super.allFinished(false));
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable throwable) {
+        final Exception e = wrapError.apply(throwable);
+        Messages.sendErrorResponse(channel, e).addListener(f -> super.fail(e));
+    }
+}
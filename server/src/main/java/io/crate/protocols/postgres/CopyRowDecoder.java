@@ -0,0 +1,411 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Decodes the rows sent by a client during {@code COPY ... FROM STDIN}.
+ * <p>
+ * The data of the CopyData messages doesn't have to be aligned with rows, so the decoder works on a buffer
+ * accumulating the received data. Complete rows are consumed from the buffer, incomplete ones are left in it
+ * until more data arrives.
+ * <p>
+ * Supports the text, CSV and binary formats of PostgreSQL,
+ * see https://www.postgresql.org/docs/current/sql-copy.html#id-1.9.3.55.9
+ */
+final class CopyRowDecoder {
+
+    private final CopyOptions options;
+    private final List<String> columnNames;
+    private final List<PGType<?>> columnTypes;
+    private final ByteBuf value = Unpooled.buffer();
+
+    private boolean headerPending;
+    private boolean finished = false;
+    private long rowNumber = 0;
+
+    CopyRowDecoder(CopyOptions options, List<String> columnNames, List<PGType<?>> columnTypes) {
+        assert columnNames.size() == columnTypes.size() : "Must have a type for each column";
+        this.options = options;
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.headerPending = options.isBinary() || options.header();
+    }
+
+    /**
+     * @return true if the end-of-data marker (text and CSV) or the trailer (binary) has been decoded.
+     *         Any data following it is ignored.
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Decode the next row and consume its data from the buffer.
+     *
+     * @param endOfData true if no more data follows, a last line without line terminator is then decoded as well.
+     * @return the values of the row, or null if the buffer doesn't contain another complete row.
+     */
+    @Nullable
+    Object[] decodeNext(ByteBuf buffer, boolean endOfData) {
+        if (options.isBinary()) {
+            Object[] row = decodeBinary(buffer);
+            if (row == null && endOfData && !finished && buffer.isReadable()) {
+                throw error("unexpected end of binary COPY data");
+            }
+            return row;
+        }
+        while (!finished) {
+            ByteBuf line = readLine(buffer, endOfData);
+            if (line == null) {
+                return null;
+            }
+            if (line.readableBytes() == 2
+                && line.getByte(line.readerIndex()) == '\\'
+                && line.getByte(line.readerIndex() + 1) == '.') {
+                finished = true;
+                return null;
+            }
+            if (headerPending) {
+                headerPending = false;
+                continue;
+            }
+            rowNumber++;
+            return options.format() == CopyOptions.Format.CSV ? decodeCsv(line) : decodeText(line);
+        }
+        return null;
+    }
+
+    @Nullable
+    private ByteBuf readLine(ByteBuf buffer, boolean endOfData) {
+        int start = buffer.readerIndex();
+        int end = options.format() == CopyOptions.Format.CSV
+            ? findCsvLineEnd(buffer)
+            : buffer.indexOf(start, buffer.writerIndex(), (byte) '\n');
+        ByteBuf line;
+        if (end < 0) {
+            if (!endOfData || !buffer.isReadable()) {
+                return null;
+            }
+            line = buffer.readSlice(buffer.readableBytes());
+        } else {
+            line = buffer.readSlice(end - start);
+            buffer.skipBytes(1);
+        }
+        int length = line.readableBytes();
+        if (length > 0 && line.getByte(line.readerIndex() + length - 1) == '\r') {
+            return line.slice(line.readerIndex(), length - 1);
+        }
+        return line;
+    }
+
+    /**
+     * @return the index of the first line feed which isn't part of a quoted value, or -1 if there is none.
+     */
+    private int findCsvLineEnd(ByteBuf buffer) {
+        byte quote = options.quote();
+        byte escape = options.escape();
+        boolean inQuotes = false;
+        for (int i = buffer.readerIndex(); i < buffer.writerIndex(); i++) {
+            byte b = buffer.getByte(i);
+            if (inQuotes) {
+                if (b == escape && escape != quote) {
+                    i++;
+                } else if (b == quote) {
+                    inQuotes = false;
+                }
+            } else if (b == quote) {
+                inQuotes = true;
+            } else if (b == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object[] decodeText(ByteBuf line) {
+        Object[] row = new Object[columnTypes.size()];
+        byte delimiter = options.delimiter();
+        int end = line.writerIndex();
+        int fieldStart = line.readerIndex();
+        int column = 0;
+        while (true) {
+            value.clear();
+            int i = fieldStart;
+            while (i < end) {
+                byte b = line.getByte(i);
+                if (b == delimiter) {
+                    break;
+                }
+                if (b == '\\' && i + 1 < end) {
+                    i = unescape(line, i + 1, end);
+                } else {
+                    value.writeByte(b);
+                    i++;
+                }
+            }
+            column = setValue(row, column, line, fieldStart, i, false);
+            if (i >= end) {
+                break;
+            }
+            fieldStart = i + 1;
+        }
+        ensureAllColumnsPresent(column);
+        return row;
+    }
+
+    /**
+     * Write the character represented by the backslash sequence starting at {@code i} into {@link #value}.
+     *
+     * @return the index after the sequence
+     */
+    private int unescape(ByteBuf line, int i, int end) {
+        byte c = line.getByte(i);
+        switch (c) {
+            case 'b':
+                value.writeByte('\b');
+                return i + 1;
+            case 'f':
+                value.writeByte('\f');
+                return i + 1;
+            case 'n':
+                value.writeByte('\n');
+                return i + 1;
+            case 'r':
+                value.writeByte('\r');
+                return i + 1;
+            case 't':
+                value.writeByte('\t');
+                return i + 1;
+            case 'v':
+                value.writeByte(0x0B);
+                return i + 1;
+            case 'x': {
+                int result = 0;
+                int pos = i + 1;
+                while (pos < end && pos < i + 3 && Character.digit(line.getByte(pos), 16) >= 0) {
+                    result = result * 16 + Character.digit(line.getByte(pos), 16);
+                    pos++;
+                }
+                if (pos == i + 1) {
+                    value.writeByte(c);
+                } else {
+                    value.writeByte(result);
+                }
+                return pos;
+            }
+            default:
+                if (c >= '0' && c <= '7') {
+                    int result = 0;
+                    int pos = i;
+                    while (pos < end && pos < i + 3 && line.getByte(pos) >= '0' && line.getByte(pos) <= '7') {
+                        result = result * 8 + (line.getByte(pos) - '0');
+                        pos++;
+                    }
+                    value.writeByte(result);
+                    return pos;
+                }
+                value.writeByte(c);
+                return i + 1;
+        }
+    }
+
+    private Object[] decodeCsv(ByteBuf line) {
+        Object[] row = new Object[columnTypes.size()];
+        byte delimiter = options.delimiter();
+        byte quote = options.quote();
+        byte escape = options.escape();
+        int end = line.writerIndex();
+        int i = line.readerIndex();
+        int column = 0;
+        while (true) {
+            value.clear();
+            int fieldStart = i;
+            boolean quoted = false;
+            boolean inQuotes = false;
+            while (i < end) {
+                byte b = line.getByte(i);
+                if (inQuotes) {
+                    if (b == escape && i + 1 < end) {
+                        byte next = line.getByte(i + 1);
+                        if (next == quote || next == escape) {
+                            value.writeByte(next);
+                            i += 2;
+                            continue;
+                        }
+                    }
+                    if (b == quote) {
+                        inQuotes = false;
+                    } else {
+                        value.writeByte(b);
+                    }
+                } else if (b == delimiter) {
+                    break;
+                } else if (b == quote) {
+                    inQuotes = true;
+                    quoted = true;
+                } else {
+                    value.writeByte(b);
+                }
+                i++;
+            }
+            if (inQuotes) {
+                throw error("unterminated CSV quoted field");
+            }
+            column = setValue(row, column, line, fieldStart, i, quoted);
+            if (i >= end) {
+                break;
+            }
+            i++;
+        }
+        ensureAllColumnsPresent(column);
+        return row;
+    }
+
+    /**
+     * Set the value of the column to the decoded {@link #value}, or to null if the raw (unquoted) data of the
+     * field matches the null string.
+     *
+     * @return the index of the next column
+     */
+    private int setValue(Object[] row, int column, ByteBuf line, int rawStart, int rawEnd, boolean quoted) {
+        if (column >= row.length) {
+            throw error("extra data after last expected column");
+        }
+        if (!quoted && isNullString(line, rawStart, rawEnd)) {
+            row[column] = null;
+        } else {
+            PGType<?> type = columnTypes.get(column);
+            try {
+                row[column] = type.readTextValue(value, value.readableBytes());
+            } catch (RuntimeException e) {
+                throw error("invalid value for column \"" + columnNames.get(column) + "\" of type " +
+                            type.typName() + ": " + e.getMessage());
+            }
+        }
+        return column + 1;
+    }
+
+    private boolean isNullString(ByteBuf line, int start, int end) {
+        byte[] nullString = options.nullString();
+        if (end - start != nullString.length) {
+            return false;
+        }
+        for (int i = 0; i < nullString.length; i++) {
+            if (line.getByte(start + i) != nullString[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureAllColumnsPresent(int numDecodedColumns) {
+        if (numDecodedColumns < columnTypes.size()) {
+            throw error("missing data for column \"" + columnNames.get(numDecodedColumns) + "\"");
+        }
+    }
+
+    @Nullable
+    private Object[] decodeBinary(ByteBuf buffer) {
+        if (finished) {
+            return null;
+        }
+        if (headerPending) {
+            int headerLength = CopyOptions.BINARY_SIGNATURE.length + 8;
+            if (buffer.readableBytes() < headerLength) {
+                return null;
+            }
+            int extensionLength = buffer.getInt(buffer.readerIndex() + headerLength - 4);
+            if (buffer.readableBytes() < headerLength + extensionLength) {
+                return null;
+            }
+            for (byte b : CopyOptions.BINARY_SIGNATURE) {
+                if (buffer.readByte() != b) {
+                    throw error("invalid binary COPY signature");
+                }
+            }
+            int flags = buffer.readInt();
+            if ((flags & (1 << 16)) != 0) {
+                throw error("OIDs in binary COPY data are not supported");
+            }
+            buffer.skipBytes(4 + extensionLength);
+            headerPending = false;
+        }
+        if (buffer.readableBytes() < 2) {
+            return null;
+        }
+        int start = buffer.readerIndex();
+        short numFields = buffer.getShort(start);
+        if (numFields == -1) {
+            buffer.skipBytes(2);
+            finished = true;
+            return null;
+        }
+        int offset = start + 2;
+        for (int i = 0; i < numFields; i++) {
+            if (buffer.writerIndex() - offset < 4) {
+                return null;
+            }
+            int length = buffer.getInt(offset);
+            if (length < -1) {
+                throw error("invalid field length " + length);
+            }
+            offset += 4 + Math.max(length, 0);
+            if (offset > buffer.writerIndex()) {
+                return null;
+            }
+        }
+        rowNumber++;
+        if (numFields != columnTypes.size()) {
+            throw error("row field count is " + numFields + ", expected " + columnTypes.size());
+        }
+        buffer.skipBytes(2);
+        Object[] row = new Object[numFields];
+        for (int i = 0; i < numFields; i++) {
+            int length = buffer.readInt();
+            if (length == -1) {
+                continue;
+            }
+            PGType<?> type = columnTypes.get(i);
+            ByteBuf valueBuffer = buffer.readSlice(length);
+            try {
+                row[i] = type.readBinaryValue(valueBuffer, length);
+            } catch (RuntimeException e) {
+                throw error("invalid value for column \"" + columnNames.get(i) + "\" of type " +
+                            type.typName() + ": " + e.getMessage());
+            }
+        }
+        return row;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid COPY data in row " + rowNumber + ": " + message);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row;
+import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes rows for {@code COPY ... TO STDOUT} in the text, CSV or binary format of PostgreSQL.
+ * <p>
+ * The text representation of the values is the same as the one of the text format code of DataRow messages,
+ * it is escaped (text) or quoted (CSV) as necessary.
+ */
+final class CopyRowEncoder {
+
+    private static final byte[] END_OF_DATA = {'\\', '.'};
+
+    private final CopyOptions options;
+    private final List<PGType<?>> columnTypes;
+    private final ByteBuf value = Unpooled.buffer();
+
+    CopyRowEncoder(CopyOptions options, List<PGType<?>> columnTypes) {
+        this.options = options;
+        this.columnTypes = columnTypes;
+    }
+
+    /**
+     * Write the header of the binary format or, if requested, the header line of the CSV format.
+     */
+    void writeHeader(ByteBuf out, List<String> columnNames) {
+        switch (options.format()) {
+            case BINARY:
+                out.writeBytes(CopyOptions.BINARY_SIGNATURE);
+                out.writeInt(0); // flags
+                out.writeInt(0); // header extension length
+                break;
+
+            case CSV:
+                if (options.header()) {
+                    for (int i = 0; i < columnNames.size(); i++) {
+                        if (i > 0) {
+                            out.writeByte(options.delimiter());
+                        }
+                        writeCsvValue(out, Unpooled.wrappedBuffer(columnNames.get(i).getBytes(StandardCharsets.UTF_8)));
+                    }
+                    out.writeByte('\n');
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void writeRow(ByteBuf out, Row row) {
+        int numColumns = row.numColumns();
+        if (options.isBinary()) {
+            out.writeShort(numColumns);
+            for (int i = 0; i < numColumns; i++) {
+                Object val = row.get(i);
+                if (val == null) {
+                    out.writeInt(-1);
+                } else {
+                    ((PGType) columnTypes.get(i)).writeAsBinary(out, val);
+                }
+            }
+            return;
+        }
+        boolean csv = options.format() == CopyOptions.Format.CSV;
+        for (int i = 0; i < numColumns; i++) {
+            if (i > 0) {
+                out.writeByte(options.delimiter());
+            }
+            Object val = row.get(i);
+            if (val == null) {
+                out.writeBytes(options.nullString());
+                continue;
+            }
+            value.clear();
+            ((PGType) columnTypes.get(i)).writeAsText(value, val);
+            value.skipBytes(4); // length prefix
+            if (csv) {
+                writeCsvValue(out, value);
+            } else {
+                writeTextValue(out, value);
+            }
+        }
+        out.writeByte('\n');
+    }
+
+    /**
+     * Write the trailer of the binary format, there is none for text and CSV.
+     */
+    void writeTrailer(ByteBuf out) {
+        if (options.isBinary()) {
+            out.writeShort(-1);
+        }
+    }
+
+    private void writeTextValue(ByteBuf out, ByteBuf value) {
+        byte delimiter = options.delimiter();
+        for (int i = value.readerIndex(); i < value.writerIndex(); i++) {
+            byte b = value.getByte(i);
+            switch (b) {
+                case '\\':
+                    out.writeByte('\\').writeByte('\\');
+                    break;
+                case '\b':
+                    out.writeByte('\\').writeByte('b');
+                    break;
+                case '\f':
+                    out.writeByte('\\').writeByte('f');
+                    break;
+                case '\n':
+                    out.writeByte('\\').writeByte('n');
+                    break;
+                case '\r':
+                    out.writeByte('\\').writeByte('r');
+                    break;
+                case '\t':
+                    out.writeByte('\\').writeByte('t');
+                    break;
+                case 0x0B:
+                    out.writeByte('\\').writeByte('v');
+                    break;
+                default:
+                    if (b == delimiter) {
+                        out.writeByte('\\');
+                    }
+                    out.writeByte(b);
+            }
+        }
+    }
+
+    private void writeCsvValue(ByteBuf out, ByteBuf value) {
+        byte delimiter = options.delimiter();
+        byte quote = options.quote();
+        byte escape = options.escape();
+        // Values matching the null string or the end-of-data marker must be quoted to be distinguishable
+        boolean needsQuotes = matches(value, options.nullString()) || matches(value, END_OF_DATA);
+        for (int i = value.readerIndex(); !needsQuotes && i < value.writerIndex(); i++) {
+            byte b = value.getByte(i);
+            needsQuotes = b == delimiter || b == quote || b == '\n' || b == '\r';
+        }
+        if (!needsQuotes) {
+            out.writeBytes(value, value.readerIndex(), value.readableBytes());
+            return;
+        }
+        out.writeByte(quote);
+        for (int i = value.readerIndex(); i < value.writerIndex(); i++) {
+            byte b = value.getByte(i);
+            if (b == quote || b == escape) {
+                out.writeByte(escape);
+            }
+            out.writeByte(b);
+        }
+        out.writeByte(quote);
+    }
+
+    private static boolean matches(ByteBuf value, byte[] bytes) {
+        if (value.readableBytes() != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (value.getByte(value.readerIndex() + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -286,49 +286,52 @@ public class Messages {
      * <p>
      * ByteN
      * The value of the column, in the format indicated by the associated format code. n is the above length.
+     * <p>
+     * The message is appended to {@code buffer}, so that multiple rows can be sent with a single write.
+     * If a value can't be retrieved or encoded, the buffer is reset to the state before the call.
      */
     @SuppressWarnings({"unchecked","rawtypes"})
-    static void sendDataRow(Channel channel, Row row, List<PGType<?>> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+    static void writeDataRow(ByteBuf buffer,
+                             Row row,
+                             List<PGType<?>> columnTypes,
+                             @Nullable FormatCodes.FormatCode[] formatCodes) {
         int length = 4 + 2;
         assert columnTypes.size() == row.numColumns()
             : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
 
-        ByteBuf buffer = channel.alloc().buffer();
+        int startIndex = buffer.writerIndex();
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
         buffer.writeShort(row.numColumns());
 
-        for (int i = 0; i < row.numColumns(); i++) {
-            PGType pgType = columnTypes.get(i);
-            Object value;
-            try {
-                value = row.get(i);
-            } catch (Exception e) {
-                buffer.release();
-                throw e;
-            }
-            if (value == null) {
-                buffer.writeInt(-1);
-                length += 4;
-            } else {
-                FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
-                switch (formatCode) {
-                    case TEXT:
-                        length += pgType.writeAsText(buffer, value);
-                        break;
-                    case BINARY:
-                        length += pgType.writeAsBinary(buffer, value);
-                        break;
-
-                    default:
-                        buffer.release();
-                        throw new AssertionError("Unrecognized formatCode: " + formatCode);
+        try {
+            for (int i = 0; i < row.numColumns(); i++) {
+                PGType pgType = columnTypes.get(i);
+                Object value = row.get(i);
+                if (value == null) {
+                    buffer.writeInt(-1);
+                    length += 4;
+                } else {
+                    FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
+                    switch (formatCode) {
+                        case TEXT:
+                            length += pgType.writeAsText(buffer, value);
+                            break;
+                        case BINARY:
+                            length += pgType.writeAsBinary(buffer, value);
+                            break;
+
+                        default:
+                            throw new AssertionError("Unrecognized formatCode: " + formatCode);
+                    }
                 }
             }
+        } catch (Throwable t) {
+            buffer.writerIndex(startIndex);
+            throw t;
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(startIndex + 1, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
@@ -480,6 +483,61 @@ public class Messages {
         sendShortMsg(channel, '3', "sentCloseComplete");
     }
 
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format (0 = text, 1 = binary) | int16 numColumns | int16 format [numColumns] |
+     */
+    static void sendCopyInResponse(Channel channel, boolean binary, int numColumns) {
+        sendCopyResponse(channel, 'G', binary, numColumns);
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format (0 = text, 1 = binary) | int16 numColumns | int16 format [numColumns] |
+     */
+    static void sendCopyOutResponse(Channel channel, boolean binary, int numColumns) {
+        sendCopyResponse(channel, 'H', binary, numColumns);
+    }
+
+    private static void sendCopyResponse(Channel channel, char msgType, boolean binary, int numColumns) {
+        int length = 4 + 1 + 2 + 2 * numColumns;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte(msgType);
+        buffer.writeInt(length);
+        buffer.writeByte(binary ? 1 : 0);
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(binary ? 1 : 0);
+        }
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace("sentCopyResponse {}", msgType));
+        }
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     *
+     * The readable bytes of data are copied into the message, the data buffer isn't released.
+     */
+    static void sendCopyData(Channel channel, ByteBuf data) {
+        int length = 4 + data.readableBytes();
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte('d');
+        buffer.writeInt(length);
+        buffer.writeBytes(data, data.readerIndex(), data.readableBytes());
+        channel.write(buffer);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static void sendCopyDone(Channel channel) {
+        sendShortMsg(channel, 'c', "sentCopyDone");
+    }
+
     /**
      * AuthenticationCleartextPassword (B)
      *
@@ -50,6 +50,7 @@ import org.elasticsearch.common.transport.BoundTransportAddress;
 import org.elasticsearch.common.transport.PortsRange;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.http.BindHttpException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BindTransportException;
 import org.elasticsearch.transport.netty4.Netty4OpenChannelsHandler;
 
@@ -90,6 +91,7 @@ public class PostgresNetty extends AbstractLifecycleComponent {
     private final Logger namedLogger;
     private final Settings settings;
     private final UserManager userManager;
+    private final ThreadPool threadPool;
     @Nullable
     private final SslContextProvider sslContextProvider;
 
@@ -108,9 +110,11 @@ public class PostgresNetty extends AbstractLifecycleComponent {
                          UserManager userManager,
                          NetworkService networkService,
                          Authentication authentication,
-                         SslContextProvider sslContextProvider) {
+                         SslContextProvider sslContextProvider,
+                         ThreadPool threadPool) {
         this.settings = settings;
         this.userManager = userManager;
+        this.threadPool = threadPool;
         namedLogger = LogManager.getLogger("psql");
         this.sqlOperations = sqlOperations;
         this.networkService = networkService;
@@ -152,7 +156,8 @@ public class PostgresNetty extends AbstractLifecycleComponent {
                     sqlOperations,
                     userManager::getAccessControl,
                     authentication,
-                    sslContextProvider);
+                    sslContextProvider,
+                    threadPool.executor(ThreadPool.Names.GENERIC));
                 pipeline.addLast("frame-decoder", postgresWireProtocol.decoder);
                 pipeline.addLast("handler", postgresWireProtocol.handler);
             }
@@ -36,11 +36,26 @@ import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists2;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
 import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.protocols.ssl.SslContextProvider;
+import io.crate.sql.Identifiers;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.AllColumns;
+import io.crate.sql.tree.CopyFromStdin;
+import io.crate.sql.tree.CopyToStdout;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.QualifiedName;
+import io.crate.sql.tree.QualifiedNameReference;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.QuerySpecification;
+import io.crate.sql.tree.QueryUtil;
+import io.crate.sql.tree.Select;
+import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
@@ -61,8 +76,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -194,11 +214,15 @@ public class PostgresWireProtocol {
     private final Function<SessionContext, AccessControl> getAccessControl;
     private final Authentication authService;
     private final SslReqHandler sslReqHandler;
+    private final Executor resumeExecutor;
+    private final Set<ResultSetReceiver> resultSetReceivers = ConcurrentHashMap.newKeySet();
 
     private DelayableWriteChannel channel;
     private int msgLength;
     private byte msgType;
     private Session session;
+    @Nullable
+    private volatile CopyIn copyIn;
     private boolean ignoreTillSync = false;
     private AuthenticationContext authContext;
     private Properties properties;
@@ -216,11 +240,13 @@ public class PostgresWireProtocol {
     PostgresWireProtocol(SQLOperations sqlOperations,
                          Function<SessionContext, AccessControl> getAcessControl,
                          Authentication authService,
-                         @Nullable SslContextProvider sslContextProvider) {
+                         @Nullable SslContextProvider sslContextProvider,
+                         Executor resumeExecutor) {
         this.sqlOperations = sqlOperations;
         this.getAccessControl = getAcessControl;
         this.authService = authService;
         this.sslReqHandler = new SslReqHandler(sslContextProvider);
+        this.resumeExecutor = resumeExecutor;
         this.decoder = new MessageDecoder();
         this.handler = new MessageHandler();
     }
@@ -344,6 +370,14 @@ public class PostgresWireProtocol {
         }
 
         private void dispatchMessage(ByteBuf buffer, DelayableWriteChannel channel) {
+            CopyIn activeCopyIn = copyIn;
+            if (activeCopyIn != null) {
+                if (activeCopyIn.isDone()) {
+                    copyIn = null;
+                } else if (dispatchCopyInMessage(activeCopyIn, buffer)) {
+                    return;
+                }
+            }
             switch (msgType) {
                 case 'Q': // Query (simple)
                     handleSimpleQuery(buffer, channel);
@@ -376,12 +410,47 @@ public class PostgresWireProtocol {
                     closeSession();
                     channel.close();
                     return;
+                case 'd':
+                case 'c':
+                case 'f':
+                    // CopyData, CopyDone or CopyFail following a failed COPY FROM STDIN are dropped
+                    return;
                 default:
                     Messages.sendErrorResponse(channel,
                         new UnsupportedOperationException("Unsupported messageType: " + msgType));
             }
         }
 
+        /**
+         * Copy-in mode: Flush and Sync messages are ignored, any other message except Terminate aborts the copy.
+         *
+         * @return true if the message has been processed
+         */
+        private boolean dispatchCopyInMessage(CopyIn activeCopyIn, ByteBuf buffer) {
+            switch (msgType) {
+                case 'd':
+                    activeCopyIn.handleData(buffer);
+                    return true;
+                case 'c':
+                    activeCopyIn.handleDone();
+                    return true;
+                case 'f':
+                    activeCopyIn.handleFail(readCString(buffer));
+                    return true;
+                case 'H':
+                case 'S':
+                    return true;
+                case 'X':
+                    activeCopyIn.abort(new IllegalStateException("Connection terminated during COPY FROM STDIN"));
+                    return false;
+                default:
+                    activeCopyIn.abort(new IllegalStateException(
+                        "Unexpected message type '" + ((char) msgType) + "' during COPY FROM STDIN"));
+                    buffer.skipBytes(msgLength);
+                    return true;
+            }
+        }
+
         private void closeSession() {
             if (session != null) {
                 session.close();
@@ -398,9 +467,33 @@ public class PostgresWireProtocol {
         public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
             LOGGER.trace("channelDisconnected");
             channel = null;
+            CopyIn activeCopyIn = copyIn;
+            if (activeCopyIn != null) {
+                activeCopyIn.abort(new IllegalStateException("Connection closed during COPY FROM STDIN"));
+            }
+            for (ResultSetReceiver resultSetReceiver : resultSetReceivers) {
+                resultSetReceiver.channelWritabilityChanged();
+            }
             closeSession();
             super.channelUnregistered(ctx);
         }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            for (ResultSetReceiver resultSetReceiver : resultSetReceivers) {
+                resultSetReceiver.channelWritabilityChanged();
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+    }
+
+    /**
+     * Registers the receiver to be notified about writability changes of the channel until it completes.
+     */
+    private ResultSetReceiver trackWritability(ResultSetReceiver resultSetReceiver) {
+        resultSetReceivers.add(resultSetReceiver);
+        resultSetReceiver.completionFuture().whenComplete((r, f) -> resultSetReceivers.remove(resultSetReceiver));
+        return resultSetReceiver;
     }
 
     private void handleStartupBody(ByteBuf buffer, Channel channel) {
@@ -638,14 +731,15 @@ public class PostgresWireProtocol {
             );
         } else {
             // query with resultSet
-            resultReceiver = new ResultSetReceiver(
+            resultReceiver = trackWritability(new ResultSetReceiver(
                 query,
                 channel.bypassDelay(),
                 session.transactionState(),
                 SQLExceptions.forWireTransmission(getAccessControl.apply(session.sessionContext())),
                 Lists2.map(outputTypes, PGTypes::get),
-                session.getResultFormatCodes(portalName)
-            );
+                session.getResultFormatCodes(portalName),
+                resumeExecutor
+            ));
         }
         // .execute is going async and may execute the query in another thread-pool.
         // The results are later sent to the clients via the `ResultReceiver` created
@@ -729,6 +823,12 @@ public class PostgresWireProtocol {
         }
 
         try {
+            Statement copyStatement = parseCopyStdio(query);
+            if (copyStatement instanceof CopyFromStdin) {
+                return handleCopyFromStdin(query, (CopyFromStdin) copyStatement, channel);
+            } else if (copyStatement instanceof CopyToStdout) {
+                return handleCopyToStdout(query, (CopyToStdout) copyStatement, channel);
+            }
             session.parse("", query, Collections.emptyList());
             session.bind("", "", Collections.emptyList(), null);
             DescribeResult describeResult = session.describe('P', "");
@@ -742,14 +842,15 @@ public class PostgresWireProtocol {
                 execute = session.execute("", 0, rowCountReceiver);
             } else {
                 Messages.sendRowDescription(channel, fields, null);
-                ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
+                ResultSetReceiver resultSetReceiver = trackWritability(new ResultSetReceiver(
                     query,
                     channel.bypassDelay(),
                     TransactionState.IDLE,
                     wrapError,
                     Lists2.map(fields, x -> PGTypes.get(x.valueType())),
-                    null
-                );
+                    null,
+                    resumeExecutor
+                ));
                 execute = session.execute("", 0, resultSetReceiver);
             }
             if (execute != null) {
@@ -764,6 +865,156 @@ public class PostgresWireProtocol {
     }
 
 
+    /**
+     * @return the statement if the query is a {@code COPY ... FROM STDIN} or {@code COPY ... TO STDOUT}, otherwise null.
+     *         These are handled by the protocol using the copy sub-protocol instead of being executed by the session.
+     */
+    @Nullable
+    private static Statement parseCopyStdio(String query) {
+        String trimmed = query.stripLeading();
+        if (!trimmed.regionMatches(true, 0, "COPY", 0, 4)) {
+            return null;
+        }
+        Statement statement;
+        try {
+            statement = SqlParser.createStatement(query);
+        } catch (Exception e) {
+            // Let the regular parse report the error
+            return null;
+        }
+        return statement instanceof CopyFromStdin || statement instanceof CopyToStdout ? statement : null;
+    }
+
+    /**
+     * <pre>
+     *          |   Q (COPY ... FROM STDIN)        |
+     *          |--------------------------------->|
+     *          |                                  |
+     *          |     CopyInResponse               |
+     *          |<---------------------------------|
+     *          |                                  |
+     *          |   CopyData *                     |
+     *          |--------------------------------->|
+     *          |                                  |
+     *          |   CopyDone | CopyFail            |
+     *          |--------------------------------->|
+     *          |                                  |
+     *          |     CommandComplete |            |
+     *          |     ErrorResponse                |
+     *          |<---------------------------------|
+     *          |     ReadyForQuery                |
+     *          |<---------------------------------|
+     * </pre>
+     */
+    private CompletableFuture<?> handleCopyFromStdin(String query, CopyFromStdin copyFrom, DelayableWriteChannel channel) {
+        CopyOptions options = CopyOptions.of(copyFrom.options());
+
+        // Resolve the target columns and their types, the select is only analyzed but never executed
+        Select select;
+        if (copyFrom.columns().isEmpty()) {
+            select = new Select(false, List.of(new AllColumns()));
+        } else {
+            select = QueryUtil.selectList(
+                Lists2.map(copyFrom.columns(), c -> new QualifiedNameReference(QualifiedName.of(c)))
+                    .toArray(new Expression[0]));
+        }
+        Query selectColumns = new Query(
+            new QuerySpecification(
+                select,
+                QueryUtil.table(copyFrom.table()),
+                Optional.empty(),
+                List.of(),
+                Optional.empty(),
+                Map.of(),
+                List.of(),
+                Optional.empty(),
+                Optional.empty()),
+            List.of(),
+            Optional.empty(),
+            Optional.empty());
+        session.parse("", selectColumns, query, Collections.emptyList());
+        List<Symbol> fields = session.describe('S', "").getFields();
+        List<String> columnNames = Lists2.map(fields, x -> Symbols.pathFromSymbol(x).sqlFqn());
+        List<DataType> columnTypes = Lists2.map(fields, Symbol::valueType);
+
+        StringBuilder insert = new StringBuilder("INSERT INTO ");
+        insert.append(Lists2.joinOn(".", copyFrom.table().getParts(), Identifiers::quote));
+        insert.append(" (");
+        insert.append(Lists2.joinOn(", ", columnNames, Identifiers::quote));
+        insert.append(") VALUES (");
+        for (int i = 1; i <= columnNames.size(); i++) {
+            if (i > 1) {
+                insert.append(", ");
+            }
+            insert.append('$').append(i);
+        }
+        insert.append(')');
+        session.parse("", insert.toString(), columnTypes);
+
+        CopyRowDecoder decoder = new CopyRowDecoder(options, columnNames, Lists2.map(columnTypes, PGTypes::get));
+        CopyIn activeCopyIn = new CopyIn(session, "", channel.bypassDelay(), decoder);
+        copyIn = activeCopyIn;
+        Messages.sendCopyInResponse(channel, options.isBinary(), columnNames.size());
+
+        Function<Throwable, Exception> wrapError = SQLExceptions.forWireTransmission(
+            getAccessControl.apply(session.sessionContext()));
+        CompletableFuture<Object> finished = new CompletableFuture<>();
+        activeCopyIn.result().whenComplete((rowCount, t) -> {
+            if (t == null) {
+                Messages.sendCommandComplete(channel.bypassDelay(), query, rowCount)
+                    .addListener(f -> finished.complete(null));
+            } else {
+                Exception error = wrapError.apply(t);
+                Messages.sendErrorResponse(channel.bypassDelay(), error)
+                    .addListener(f -> finished.completeExceptionally(error));
+            }
+        });
+        return finished;
+    }
+
+    /**
+     * <pre>
+     *          |   Q (COPY ... TO STDOUT)         |
+     *          |--------------------------------->|
+     *          |                                  |
+     *          |     CopyOutResponse              |
+     *          |<---------------------------------|
+     *          |     CopyData *                   |
+     *          |<---------------------------------|
+     *          |     CopyDone                     |
+     *          |<---------------------------------|
+     *          |     CommandComplete              |
+     *          |<---------------------------------|
+     *          |     ReadyForQuery                |
+     *          |<---------------------------------|
+     * </pre>
+     */
+    private CompletableFuture<?> handleCopyToStdout(String query, CopyToStdout copyTo, DelayableWriteChannel channel) {
+        CopyOptions options = CopyOptions.of(copyTo.options());
+        session.parse("", copyTo.query(), query, Collections.emptyList());
+        session.bind("", "", Collections.emptyList(), null);
+        List<Symbol> fields = session.describe('P', "").getFields();
+        CopyRowEncoder encoder = new CopyRowEncoder(options, Lists2.map(fields, x -> PGTypes.get(x.valueType())));
+
+        Messages.sendCopyOutResponse(channel, options.isBinary(), fields.size());
+        ByteBuf header = Unpooled.buffer();
+        encoder.writeHeader(header, Lists2.map(fields, x -> Symbols.pathFromSymbol(x).sqlFqn()));
+        if (header.isReadable()) {
+            Messages.sendCopyData(channel, header);
+        }
+        CopyOutReceiver receiver = new CopyOutReceiver(
+            query,
+            channel.bypassDelay(),
+            SQLExceptions.forWireTransmission(getAccessControl.apply(session.sessionContext())),
+            encoder
+        );
+        CompletableFuture<?> execute = session.execute("", 0, receiver);
+        if (execute != null) {
+            channel.delayWritesUntil(execute);
+        }
+        return session.sync();
+    }
+
     /**
      * FrameDecoder that makes sure that a full message is in the buffer before delegating work to the MessageHandler
      */
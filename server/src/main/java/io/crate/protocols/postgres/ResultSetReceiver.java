@@ -23,6 +23,10 @@
 package io.crate.protocols.postgres;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import javax.annotation.Nonnull;
@@ -31,19 +35,38 @@ import javax.annotation.Nullable;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.data.Row;
 import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
+/**
+ * Sends the rows of a result set as DataRow messages.
+ * <p>
+ * The rows are encoded into a buffer which is written and flushed once it contains {@link #MAX_ROWS_PER_WRITE} rows
+ * or {@link #MAX_BYTES_PER_WRITE} bytes. If the channel is not writable after a write, because the client doesn't
+ * keep up with reading the rows, the consumption of the rows is paused via {@link #pauseConsumption()}.
+ * It is resumed by {@link #channelWritabilityChanged()} once the channel is writable again or got closed.
+ * The consumption is resumed on the {@code resumeExecutor} and not on the event loop which reports the
+ * writability change, as consuming rows may block.
+ */
 class ResultSetReceiver extends BaseResultReceiver {
 
+    static final int MAX_ROWS_PER_WRITE = 1000;
+    static final int MAX_BYTES_PER_WRITE = 32 * 1024;
+
     private final String query;
     private final Channel channel;
     private final Function<Throwable, Exception> wrapError;
     private final List<PGType<?>> columnTypes;
     private final TransactionState transactionState;
+    private final Executor resumeExecutor;
+    private final AtomicReference<CompletableFuture<Void>> paused = new AtomicReference<>();
 
     @Nullable
     private final FormatCodes.FormatCode[] formatCodes;
 
+    @Nullable
+    private ByteBuf buffer;
+    private int rowsInBuffer = 0;
     private long rowCount = 0;
 
     ResultSetReceiver(String query,
@@ -51,26 +74,73 @@ class ResultSetReceiver extends BaseResultReceiver {
                       TransactionState transactionState,
                       Function<Throwable, Exception> wrapError,
                       List<PGType<?>> columnTypes,
-                      @Nullable FormatCodes.FormatCode[] formatCodes) {
+                      @Nullable FormatCodes.FormatCode[] formatCodes,
+                      Executor resumeExecutor) {
         this.query = query;
         this.channel = channel;
         this.transactionState = transactionState;
         this.wrapError = wrapError;
         this.columnTypes = columnTypes;
         this.formatCodes = formatCodes;
+        this.resumeExecutor = resumeExecutor;
     }
 
     @Override
     public void setNextRow(Row row) {
+        if (buffer == null) {
+            buffer = channel.alloc().buffer(MAX_BYTES_PER_WRITE);
+        }
+        Messages.writeDataRow(buffer, row, columnTypes, formatCodes);
         rowCount++;
-        Messages.sendDataRow(channel, row, columnTypes, formatCodes);
-        if (rowCount % 1000 == 0) {
+        rowsInBuffer++;
+        if (rowsInBuffer == MAX_ROWS_PER_WRITE || buffer.readableBytes() >= MAX_BYTES_PER_WRITE) {
+            writeBuffer();
             channel.flush();
         }
     }
 
+    @Nullable
+    @Override
+    public CompletableFuture<?> pauseConsumption() {
+        if (buffer != null || channel.isWritable() || channel.isActive() == false) {
+            return null;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        paused.set(future);
+        // The channel may have become writable or may have been closed before the future got visible
+        channelWritabilityChanged();
+        return future;
+    }
+
+    /**
+     * Must be called if the writability of the channel changed or if the channel got closed,
+     * to resume the consumption of rows paused by {@link #pauseConsumption()}.
+     */
+    void channelWritabilityChanged() {
+        if (channel.isActive() == false) {
+            CompletableFuture<Void> future = paused.getAndSet(null);
+            if (future != null) {
+                resume(() -> future.completeExceptionally(new ClientInterrupted()));
+            }
+        } else if (channel.isWritable()) {
+            CompletableFuture<Void> future = paused.getAndSet(null);
+            if (future != null) {
+                resume(() -> future.complete(null));
+            }
+        }
+    }
+
+    private void resume(Runnable completePaused) {
+        try {
+            resumeExecutor.execute(completePaused);
+        } catch (RejectedExecutionException e) {
+            completePaused.run();
+        }
+    }
+
     @Override
     public void batchFinished() {
+        writeBuffer();
         Messages.sendPortalSuspended(channel);
         Messages.sendReadyForQuery(channel, transactionState);
     }
@@ -78,15 +148,36 @@ class ResultSetReceiver extends BaseResultReceiver {
     @Override
     public void allFinished(boolean interrupted) {
         if (interrupted) {
+            releaseBuffer();
             super.allFinished(true);
         } else {
+            writeBuffer();
             Messages.sendCommandComplete(channel, query, rowCount).addListener(f -> super.allFinished(false));
         }
     }
 
     @Override
     public void fail(@Nonnull Throwable throwable) {
+        writeBuffer();
         final Exception e = wrapError.apply(throwable);
         Messages.sendErrorResponse(channel, e).addListener(f -> super.fail(e));
     }
+
+    private void writeBuffer() {
+        ByteBuf buf = buffer;
+        if (buf != null) {
+            buffer = null;
+            rowsInBuffer = 0;
+            channel.write(buf);
+        }
+    }
+
+    private void releaseBuffer() {
+        ByteBuf buf = buffer;
+        if (buf != null) {
+            buffer = null;
+            rowsInBuffer = 0;
+            buf.release();
+        }
+    }
 }
@@ -73,6 +73,11 @@ public class RetryOnFailureResultReceiver implements ResultReceiver {
         delegate.setNextRow(row);
     }
 
+    @Override
+    public CompletableFuture<?> pauseConsumption() {
+        return delegate.pauseConsumption();
+    }
+
     @Override
     public void batchFinished() {
         delegate.batchFinished();
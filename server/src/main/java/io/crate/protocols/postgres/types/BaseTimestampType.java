@@ -25,6 +25,7 @@ package io.crate.protocols.postgres.types;
 import io.netty.buffer.ByteBuf;
 
 import javax.annotation.Nonnull;
+import java.time.LocalDate;
 
 abstract class BaseTimestampType extends PGType {
 
@@ -34,9 +35,16 @@ abstract class BaseTimestampType extends PGType {
     // 1st msec where BC date becomes AD date
     protected static final long FIRST_MSEC_AFTER_CHRIST = -62135596800000L;
 
+    // 1st msec of the year 10000, the first year which doesn't have 4 digits
+    private static final long FIRST_MSEC_OF_YEAR_10000 = 253_402_300_800_000L;
+
     // amount of seconds between 1970-01-01 and 2000-01-01
     private static final long EPOCH_DIFF_IN_MS = 946_684_800_000L;
 
+    private static final long MS_PER_DAY = 86_400_000L;
+
+    // length of yyyy-MM-dd HH:mm:ss.SSS+00
+    private static final int TEXT_LEN = 26;
 
     BaseTimestampType(int oid, int typeLen, int typeMod, @Nonnull String typeName) {
         super(oid, typeLen, typeMod, typeName);
@@ -49,6 +57,49 @@ abstract class BaseTimestampType extends PGType {
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    /**
+     * Writes timestamps of the years 1 to 9999 directly into the buffer using the
+     * {@code yyyy-MM-dd HH:mm:ss.SSS+00} format, without formatting them into a String first.
+     * All other timestamps are encoded using {@link #encodeAsUTF8Text(Object)}.
+     */
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        long millis = (long) value;
+        if (millis < FIRST_MSEC_AFTER_CHRIST || millis >= FIRST_MSEC_OF_YEAR_10000) {
+            return super.writeAsText(buffer, value);
+        }
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(millis, MS_PER_DAY));
+        int millisOfDay = (int) Math.floorMod(millis, MS_PER_DAY);
+        buffer.writeInt(TEXT_LEN);
+        writeDigits(buffer, date.getYear(), 4);
+        buffer.writeByte('-');
+        writeDigits(buffer, date.getMonthValue(), 2);
+        buffer.writeByte('-');
+        writeDigits(buffer, date.getDayOfMonth(), 2);
+        buffer.writeByte(' ');
+        writeDigits(buffer, millisOfDay / 3_600_000, 2);
+        buffer.writeByte(':');
+        writeDigits(buffer, (millisOfDay / 60_000) % 60, 2);
+        buffer.writeByte(':');
+        writeDigits(buffer, (millisOfDay / 1000) % 60, 2);
+        buffer.writeByte('.');
+        writeDigits(buffer, millisOfDay % 1000, 3);
+        buffer.writeByte('+');
+        buffer.writeByte('0');
+        buffer.writeByte('0');
+        return INT32_BYTE_SIZE + TEXT_LEN;
+    }
+
+    private static void writeDigits(ByteBuf buffer, int value, int numDigits) {
+        int divisor = 1;
+        for (int i = 1; i < numDigits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.writeByte('0' + (value / divisor) % 10);
+        }
+    }
+
     @Override
     public String typeCategory() {
         return TypeCategory.DATETIME.code();
@@ -23,6 +23,8 @@
 package io.crate.protocols.postgres.types;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
@@ -64,26 +66,28 @@ class JsonType extends PGType<Object> {
 
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull Object value) {
-        byte[] bytes = encodeAsUTF8Text(value);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        final int lenIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        try (XContentBuilder builder = new XContentBuilder(JsonXContent.JSON_XCONTENT, new ByteBufOutputStream(buffer))) {
+            toXContent(builder, value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        int length = buffer.writerIndex() - lenIndex - INT32_BYTE_SIZE;
+        buffer.setInt(lenIndex, length);
+        return INT32_BYTE_SIZE + length;
+    }
+
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeAsBinary(buffer, value);
     }
 
     @Override
     protected byte[] encodeAsUTF8Text(@Nonnull Object value) {
         try {
             XContentBuilder builder = JsonXContent.contentBuilder();
-            if (value instanceof List) {
-                List values = ((List) value);
-                builder.startArray();
-                for (Object o : values) {
-                    builder.value(o);
-                }
-                builder.endArray();
-            } else {
-                builder.map((Map) value);
-            }
+            toXContent(builder, value);
             builder.close();
             return BytesReference.toBytes(BytesReference.bytes(builder));
         } catch (IOException e) {
@@ -91,11 +95,39 @@ class JsonType extends PGType<Object> {
         }
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void toXContent(XContentBuilder builder, Object value) throws IOException {
+        if (value instanceof List) {
+            List values = ((List) value);
+            builder.startArray();
+            for (Object o : values) {
+                builder.value(o);
+            }
+            builder.endArray();
+        } else {
+            builder.map((Map) value);
+        }
+    }
+
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
-        byte[] bytes = new byte[valueLength];
-        buffer.readBytes(bytes);
-        return decodeUTF8Text(bytes);
+        final int endIndex = buffer.readerIndex() + valueLength;
+        try (XContentParser parser = JsonXContent.JSON_XCONTENT.createParser(
+            NamedXContentRegistry.EMPTY,
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+            new ByteBufInputStream(buffer, valueLength))) {
+            return parse(parser);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // the parser may stop reading before the end of the value, e.g. on trailing whitespace
+            buffer.readerIndex(endIndex);
+        }
+    }
+
+    @Override
+    public Object readTextValue(ByteBuf buffer, int valueLength) {
+        return readBinaryValue(buffer, valueLength);
     }
 
     @Override
@@ -103,13 +135,16 @@ class JsonType extends PGType<Object> {
         try {
             XContentParser parser = JsonXContent.JSON_XCONTENT.createParser(
                 NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, bytes);
-            if (bytes.length > 1 && bytes[0] == '[') {
-                parser.nextToken();
-                return parser.list();
-            }
-            return parser.map();
+            return parse(parser);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    private static Object parse(XContentParser parser) throws IOException {
+        if (parser.nextToken() == XContentParser.Token.START_ARRAY) {
+            return parser.list();
+        }
+        return parser.map();
+    }
 }
@@ -22,7 +22,7 @@
 
 package io.crate.protocols.postgres.types;
 
-import com.google.common.primitives.Bytes;
+import com.carrotsearch.hppc.ByteArrayList;
 import io.crate.protocols.postgres.parser.PgArrayParser;
 import io.netty.buffer.ByteBuf;
 
@@ -105,12 +105,12 @@ public class PGArray extends PGType<List<Object>> {
         final int lenIndex = buffer.writerIndex();
         buffer.writeInt(0);
         buffer.writeInt(dimensions);
-        buffer.writeInt(1); // flags bit 0: 0=no-nulls, 1=has-nulls
+        buffer.writeInt(hasNulls(value, dimensionsList, 1) ? 1 : 0); // flags bit 0: 0=no-nulls, 1=has-nulls
         buffer.writeInt(typElem());
 
         for (Integer dim : dimensionsList) {
-            buffer.writeInt(dim); // upper bound
-            buffer.writeInt(dim); // lower bound
+            buffer.writeInt(dim); // number of elements
+            buffer.writeInt(1); // lower bound
             bytesWritten += 8;
         }
         int len = bytesWritten + writeArrayAsBinary(buffer, value, dimensionsList, 1);
@@ -159,16 +159,18 @@ public class PGArray extends PGType<List<Object>> {
 
     @Override
     byte[] encodeAsUTF8Text(@Nonnull List<Object> array) {
-        boolean isJson = JsonType.OID == innerType.oid();
-        List<Byte> encodedValues = new ArrayList<>();
+        ByteArrayList encodedValues = new ByteArrayList();
+        encodeAsUTF8Text(array, encodedValues, JsonType.OID == innerType.oid());
+        return encodedValues.toArray();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void encodeAsUTF8Text(List<Object> array, ByteArrayList encodedValues, boolean isJson) {
         encodedValues.add((byte) '{');
         for (int i = 0; i < array.size(); i++) {
             Object o = array.get(i);
             if (o instanceof List) { // Nested Array -> recursive call
-                byte[] bytes = encodeAsUTF8Text((List) o);
-                for (byte b : bytes) {
-                    encodedValues.add(b);
-                }
+                encodeAsUTF8Text((List) o, encodedValues, isJson);
                 if (i == 0) {
                     encodedValues.add((byte) ',');
                 }
@@ -176,14 +178,10 @@ public class PGArray extends PGType<List<Object>> {
                 if (i > 0) {
                     encodedValues.add((byte) ',');
                 }
-                byte[] bytes;
                 if (o == null) {
-                    bytes = NULL_BYTES;
-                    for (byte aByte : bytes) {
-                        encodedValues.add(aByte);
-                    }
+                    encodedValues.add(NULL_BYTES);
                 } else {
-                    bytes = ((PGType) innerType).encodeAsUTF8Text(o);
+                    byte[] bytes = ((PGType) innerType).encodeAsUTF8Text(o);
 
                     encodedValues.add((byte) '"');
                     if (isJson) {
@@ -195,16 +193,13 @@ public class PGArray extends PGType<List<Object>> {
                             encodedValues.add(aByte);
                         }
                     } else {
-                        for (byte aByte : bytes) {
-                            encodedValues.add(aByte);
-                        }
+                        encodedValues.add(bytes);
                     }
                     encodedValues.add((byte) '"');
                 }
             }
         }
         encodedValues.add((byte) '}');
-        return Bytes.toArray(encodedValues);
     }
 
     @Override
@@ -252,6 +247,30 @@ public class PGArray extends PGType<List<Object>> {
         return values.size();
     }
 
+    private static boolean hasNulls(List<Object> array, List<Integer> dimensionsList, int currentDimension) {
+        if (array == null) {
+            return true;
+        }
+        if (currentDimension == dimensionsList.size()) {
+            // shorter arrays are filled up with nulls
+            if (array.size() < dimensionsList.get(currentDimension - 1)) {
+                return true;
+            }
+            for (Object o : array) {
+                if (o == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Object o : array) {
+            if (hasNulls((List<Object>) o, dimensionsList, currentDimension + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private int writeArrayAsBinary(ByteBuf buffer, List<Object> array, List<Integer> dimensionsList, int currentDimension) {
         int bytesWritten = 0;
 
@@ -24,6 +24,8 @@ package io.crate.protocols.postgres.types;
 
 import com.carrotsearch.hppc.ByteArrayList;
 import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
 
 import java.util.List;
@@ -73,6 +75,7 @@ public class RecordType extends PGType<Row> {
             var value = record.get(i);
             if (value == null) {
                 buffer.writeInt(-1); // -1 data length signals a NULL
+                bytesWritten += 4;
                 continue;
             }
 
@@ -82,9 +85,30 @@ public class RecordType extends PGType<Row> {
         return 4 + bytesWritten;
     }
 
+    @SuppressWarnings("rawtypes")
     @Override
     public Row readBinaryValue(ByteBuf buffer, int valueLength) {
-        throw new UnsupportedOperationException("Input of anonymous record type values is not implemented");
+        int numFields = buffer.readInt();
+        Object[] values = new Object[numFields];
+        for (int i = 0; i < numFields; i++) {
+            int oid = buffer.readInt();
+            int length = buffer.readInt();
+            if (length == -1) {
+                continue;
+            }
+            PGType fieldType;
+            if (i < fieldTypes.size()) {
+                fieldType = fieldTypes.get(i);
+            } else {
+                DataType<?> dataType = PGTypes.fromOID(oid);
+                if (dataType == null) {
+                    throw new IllegalArgumentException("Unsupported type with oid " + oid + " in record");
+                }
+                fieldType = PGTypes.get(dataType);
+            }
+            values[i] = fieldType.readBinaryValue(buffer, length);
+        }
+        return new RowN(values);
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
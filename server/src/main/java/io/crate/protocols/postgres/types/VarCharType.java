@@ -66,10 +66,11 @@ class VarCharType extends PGType<Object> {
 
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull Object value) {
-        byte[] bytes = DataTypes.STRING.value(value).getBytes(StandardCharsets.UTF_8);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        final int lenIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        int length = buffer.writeCharSequence(DataTypes.STRING.value(value), StandardCharsets.UTF_8);
+        buffer.setInt(lenIndex, length);
+        return INT32_BYTE_SIZE + length;
     }
 
     @Override
@@ -84,9 +85,7 @@ class VarCharType extends PGType<Object> {
 
     @Override
     public String readBinaryValue(ByteBuf buffer, int valueLength) {
-        byte[] utf8 = new byte[valueLength];
-        buffer.readBytes(utf8);
-        return new String(utf8, StandardCharsets.UTF_8);
+        return buffer.readCharSequence(valueLength, StandardCharsets.UTF_8).toString();
     }
 
     @Override
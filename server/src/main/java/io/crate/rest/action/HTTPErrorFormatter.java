@@ -34,19 +34,26 @@ import static io.crate.exceptions.Exceptions.userFriendlyMessageInclNested;
 class HTTPErrorFormatter {
 
     public static XContentBuilder convert(SQLActionException t, boolean includeErrorTrace) throws IOException {
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        addError(builder, t, includeErrorTrace);
+        return builder.endObject();
+    }
+
+    /**
+     * Adds the {@code error} (and optionally {@code error_trace}) fields to an object which has already been started.
+     */
+    static void addError(XContentBuilder builder, SQLActionException t, boolean includeErrorTrace) throws IOException {
         // @formatter:off
-        XContentBuilder builder = JsonXContent.contentBuilder()
-            .startObject()
-                .startObject("error")
-                    .field("message", userFriendlyMessageInclNested(t))
-                    .field("code", t.errorCode())
-                .endObject();
+        builder
+            .startObject("error")
+                .field("message", userFriendlyMessageInclNested(t))
+                .field("code", t.errorCode())
+            .endObject();
         // @formatter:on
 
         if (includeErrorTrace) {
             builder.field("error_trace", ExceptionsHelper.stackTrace(t));
         }
-        return builder.endObject();
     }
 }
 
@@ -0,0 +1,228 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.Row;
+import io.crate.expression.symbol.Symbol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ResultReceiver which writes the result set as HTTP chunks instead of accumulating the whole response.
+ * <p>
+ * The receiver is used with a {@code maxRows} of {@link #BATCH_SIZE}. Each time a batch is finished the
+ * rows received so far are written to the channel and the accounted memory is released.
+ * The next batch is only requested via {@code fetchNextBatch} once the channel is writable again,
+ * so that a slow client causes backpressure instead of buffering the whole result.
+ * <p>
+ * The response head is sent together with the first chunk. Until then a failure completes the
+ * {@link #completionFuture()} exceptionally and a regular error response can be sent.
+ * Once the head has been sent, a failure is written as {@code error} field into the response body,
+ * the response is finished and the connection is closed.
+ * <p>
+ * The {@link #completionFuture()} is completed with {@code null} once the response has been written.
+ */
+class RestResultSetStreamingReceiver implements ResultReceiver<XContentBuilder> {
+
+    static final int BATCH_SIZE = 10_000;
+
+    private final Channel channel;
+    private final HttpResponse head;
+    private final boolean closeConnection;
+    private final List<Symbol> outputFields;
+    private final long startTimeNs;
+    private final RowAccounting<Row> rowAccounting;
+    private final Function<Throwable, SQLActionException> toSQLActionException;
+    private final boolean includeErrorTrace;
+    private final Consumer<RestResultSetStreamingReceiver> fetchNextBatch;
+    private final BytesStreamOutput out = new BytesStreamOutput();
+    private final XContentBuilder xContentBuilder;
+    private final ResultToXContentBuilder builder;
+    private final AtomicBoolean waitingForWritability = new AtomicBoolean(false);
+    private final CompletableFuture<XContentBuilder> result = new CompletableFuture<>();
+
+    private boolean headSent = false;
+    private long rowCount;
+
+    RestResultSetStreamingReceiver(Channel channel,
+                                   HttpResponse head,
+                                   boolean closeConnection,
+                                   List<Symbol> outputFields,
+                                   long startTimeNs,
+                                   RowAccounting<Row> rowAccounting,
+                                   boolean includeTypesOnResponse,
+                                   Function<Throwable, SQLActionException> toSQLActionException,
+                                   boolean includeErrorTrace,
+                                   Consumer<RestResultSetStreamingReceiver> fetchNextBatch) throws IOException {
+        this.channel = channel;
+        this.head = head;
+        this.closeConnection = closeConnection;
+        this.outputFields = outputFields;
+        this.startTimeNs = startTimeNs;
+        this.rowAccounting = rowAccounting;
+        this.toSQLActionException = toSQLActionException;
+        this.includeErrorTrace = includeErrorTrace;
+        this.fetchNextBatch = fetchNextBatch;
+        this.xContentBuilder = new XContentBuilder(JsonXContent.jsonXContent, out);
+        this.builder = ResultToXContentBuilder.builder(xContentBuilder);
+        this.builder.cols(outputFields);
+        if (includeTypesOnResponse) {
+            this.builder.colTypes(outputFields);
+        }
+        this.builder.startRows();
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        try {
+            rowAccounting.accountForAndMaybeBreak(row);
+            builder.addRow(row, outputFields.size());
+            rowCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        try {
+            writeHeadIfNotSent();
+            channel.writeAndFlush(new DefaultHttpContent(flushBuffer()));
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        waitingForWritability.set(true);
+        if (channel.isWritable()) {
+            maybeFetchNextBatch();
+        }
+    }
+
+    /**
+     * Must be called if the writability of the channel changed, to resume a response which is waiting for
+     * the client to catch up.
+     */
+    void channelWritabilityChanged() {
+        if (channel.isWritable()) {
+            maybeFetchNextBatch();
+        }
+    }
+
+    private void maybeFetchNextBatch() {
+        if (waitingForWritability.compareAndSet(true, false)) {
+            // Resume on the event loop to not recurse into the consumer which is still within batchFinished
+            channel.eventLoop().execute(() -> fetchNextBatch.accept(this));
+        }
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        if (interrupted) {
+            // The portal got closed, e.g. because the connection was closed. The response can't be completed.
+            rowAccounting.release();
+            channel.close();
+            result.complete(null);
+            return;
+        }
+        try {
+            builder.finishRows()
+                .rowCount(rowCount)
+                .duration(startTimeNs)
+                .build();
+            writeHeadIfNotSent();
+            writeLast(flushBuffer(), closeConnection);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        rowAccounting.release();
+        if (headSent == false) {
+            result.completeExceptionally(t);
+            return;
+        }
+        try {
+            builder.finishRows();
+            HTTPErrorFormatter.addError(xContentBuilder, toSQLActionException.apply(t), includeErrorTrace);
+            builder.build();
+            writeLast(flushBuffer(), true);
+        } catch (IOException e) {
+            channel.close();
+            result.complete(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<XContentBuilder> completionFuture() {
+        return result;
+    }
+
+    private void writeHeadIfNotSent() {
+        if (headSent == false) {
+            headSent = true;
+            channel.write(head);
+        }
+    }
+
+    private void writeLast(ByteBuf content, boolean close) {
+        channel.writeAndFlush(new DefaultLastHttpContent(content)).addListener(f -> {
+            if (close) {
+                channel.close();
+            }
+            result.complete(null);
+        });
+    }
+
+    /**
+     * Takes the content written so far and releases the memory accounted for the rows it contains.
+     */
+    private ByteBuf flushBuffer() throws IOException {
+        xContentBuilder.flush();
+        ByteBuf content = Unpooled.wrappedBuffer(BytesReference.toBytes(out.bytes()));
+        out.reset();
+        rowAccounting.release();
+        return content;
+    }
+}
@@ -48,9 +48,11 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import org.apache.logging.log4j.LogManager;
@@ -59,6 +61,7 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.http.netty4.cors.Netty4CorsConfig;
 import org.elasticsearch.http.netty4.cors.Netty4CorsHandler;
@@ -96,6 +99,9 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
 
     private Session session;
 
+    @Nullable
+    private volatile RestResultSetStreamingReceiver streamingReceiver;
+
     SqlHttpHandler(Settings settings,
                    SQLOperations sqlOperations,
                    Function<String, CircuitBreaker> circuitBreakerProvider,
@@ -116,16 +122,23 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         if (request.uri().startsWith("/_sql")) {
             Session session = ensureSession(request);
             Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
-            ByteBuf content = request.content();
-            handleSQLRequest(session, content, paramContainFlag(parameters, "types"))
+            handleSQLRequest(session, ctx, request, parameters)
                 .whenComplete((result, t) -> {
                     try {
+                        if (result == null && t == null) {
+                            // Response has been streamed by a RestResultSetStreamingReceiver
+                            return;
+                        }
                         sendResponse(session, ctx, request, parameters, result, t);
                     } catch (Throwable ex) {
                         LOGGER.error("Error sending response", ex);
                         throw ex;
                     } finally {
                         request.release();
+                        if (streamingReceiver != null) {
+                            streamingReceiver = null;
+                            ctx.channel().config().setAutoRead(true);
+                        }
                     }
                 });
         } else {
@@ -141,6 +154,15 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         return values != null && (values.equals(singletonList("")) || values.equals(singletonList("true")));
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        RestResultSetStreamingReceiver streamingReceiver = this.streamingReceiver;
+        if (streamingReceiver != null) {
+            streamingReceiver.channelWritabilityChanged();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
         if (session != null) {
@@ -189,10 +211,13 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         ctx.writeAndFlush(resp, promise);
     }
 
-    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session, ByteBuf content, boolean includeTypes) {
+    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session,
+                                                                ChannelHandlerContext ctx,
+                                                                FullHttpRequest request,
+                                                                Map<String, List<String>> parameters) {
         SQLRequestParseContext parseContext;
         try {
-            parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(content));
+            parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(request.content()));
         } catch (Throwable t) {
             return CompletableFuture.failedFuture(t);
         }
@@ -204,7 +229,7 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         }
         try {
             if (args != null || bulkArgs == null) {
-                return executeSimpleRequest(session, parseContext.stmt(), args, includeTypes);
+                return executeSimpleRequest(session, ctx, request, parameters, parseContext.stmt(), args);
             } else {
                 return executeBulkRequest(session, parseContext.stmt(), bulkArgs);
             }
@@ -241,15 +266,19 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
     }
 
     private CompletableFuture<XContentBuilder> executeSimpleRequest(Session session,
+                                                                    ChannelHandlerContext ctx,
+                                                                    FullHttpRequest request,
+                                                                    Map<String, List<String>> parameters,
                                                                     String stmt,
-                                                                    List<Object> args,
-                                                                    boolean includeTypes) throws IOException {
+                                                                    List<Object> args) throws IOException {
+        boolean includeTypes = paramContainFlag(parameters, "types");
         long startTimeInNs = System.nanoTime();
         session.parse(UNNAMED, stmt, emptyList());
         session.bind(UNNAMED, UNNAMED, args == null ? emptyList() : args, null);
         DescribeResult description = session.describe('P', UNNAMED);
         List<Symbol> resultFields = description.getFields();
         ResultReceiver<XContentBuilder> resultReceiver;
+        int maxRows = 0;
         if (resultFields == null) {
             resultReceiver = new RestRowCountReceiver(JsonXContent.contentBuilder(), startTimeInNs, includeTypes);
         } else {
@@ -257,23 +286,75 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             RamAccounting ramAccounting = new BlockBasedRamAccounting(
                 b -> breaker.addEstimateBytesAndMaybeBreak(b, "http-result"),
                 MAX_BLOCK_SIZE_IN_BYTES);
-            resultReceiver = new RestResultSetReceiver(
-                JsonXContent.contentBuilder(),
-                resultFields,
-                startTimeInNs,
-                new RowAccountingWithEstimators(
-                    Symbols.typeView(resultFields),
-                    ramAccounting
-                ),
-                includeTypes
+            RowAccountingWithEstimators rowAccounting = new RowAccountingWithEstimators(
+                Symbols.typeView(resultFields),
+                ramAccounting
             );
+            if (isStreamingRequested(request, parameters)) {
+                maxRows = RestResultSetStreamingReceiver.BATCH_SIZE;
+                resultReceiver = createStreamingReceiver(
+                    session, ctx, request, parameters, resultFields, startTimeInNs, rowAccounting, includeTypes);
+            } else {
+                resultReceiver = new RestResultSetReceiver(
+                    JsonXContent.contentBuilder(),
+                    resultFields,
+                    startTimeInNs,
+                    rowAccounting,
+                    includeTypes
+                );
+            }
             resultReceiver.completionFuture().whenComplete((result, error) -> ramAccounting.close());
         }
-        session.execute(UNNAMED, 0, resultReceiver);
+        session.execute(UNNAMED, maxRows, resultReceiver);
         return session.sync()
             .thenCompose(ignored -> resultReceiver.completionFuture());
     }
 
+    /**
+     * Chunked transfer encoding requires HTTP/1.1, HTTP/1.0 clients always receive the full response.
+     */
+    private static boolean isStreamingRequested(FullHttpRequest request, Map<String, List<String>> parameters) {
+        return paramContainFlag(parameters, "stream") && request.protocolVersion().equals(HttpVersion.HTTP_1_1);
+    }
+
+    private ResultReceiver<XContentBuilder> createStreamingReceiver(Session session,
+                                                                   ChannelHandlerContext ctx,
+                                                                   FullHttpRequest request,
+                                                                   Map<String, List<String>> parameters,
+                                                                   List<Symbol> resultFields,
+                                                                   long startTimeInNs,
+                                                                   RowAccountingWithEstimators rowAccounting,
+                                                                   boolean includeTypes) throws IOException {
+        DefaultHttpResponse head = new DefaultHttpResponse(request.protocolVersion(), HttpResponseStatus.OK);
+        head.headers().add(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+        HttpUtil.setTransferEncodingChunked(head, true);
+        Netty4CorsHandler.setCorsResponseHeaders(request, head, corsConfig);
+        RestResultSetStreamingReceiver receiver = new RestResultSetStreamingReceiver(
+            ctx.channel(),
+            head,
+            isCloseConnection(request),
+            resultFields,
+            startTimeInNs,
+            rowAccounting,
+            includeTypes,
+            t -> SQLExceptions.forWireTransmission(getAccessControl.apply(session.sessionContext()), t),
+            paramContainFlag(parameters, "error_trace"),
+            r -> {
+                try {
+                    session.execute(UNNAMED, RestResultSetStreamingReceiver.BATCH_SIZE, r);
+                    session.sync();
+                } catch (Throwable t) {
+                    r.fail(t);
+                }
+            }
+        );
+        // Don't read further requests until the response is finished, they would replace the suspended portal.
+        // Reading is resumed in channelRead0 once the request completed.
+        ctx.channel().config().setAutoRead(false);
+        streamingReceiver = receiver;
+        return receiver;
+    }
+
     private CompletableFuture<XContentBuilder> executeBulkRequest(Session session,
                                                                   String stmt,
                                                                   List<List<Object>> bulkArgs) {
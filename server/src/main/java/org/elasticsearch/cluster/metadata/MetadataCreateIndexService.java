@@ -20,6 +20,7 @@
 package org.elasticsearch.cluster.metadata;
 
 import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
+import io.crate.execution.engine.sort.IndexSort;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
@@ -448,6 +449,8 @@ public class MetadataCreateIndexService {
                     removalExtraInfo = "failed on parsing default mapping/mappings on index creation";
                     throw e;
                 }
+                // now that the mapping is merged we can validate the index sort configuration.
+                IndexSort.build(actualIndexSettings, mapperService::fullName);
 
                 // now, update the mappings with the actual source
                 Map<String, MappingMetadata> mappingsMetadata = new HashMap<>();
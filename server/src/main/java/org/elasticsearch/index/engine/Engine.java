@@ -67,6 +67,7 @@ import org.elasticsearch.index.translog.TranslogStats;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Comparator;
@@ -273,6 +274,22 @@ public abstract class Engine implements Closeable {
      */
     public abstract IndexResult index(Index index) throws IOException;
 
+    /**
+     * Perform multiple document index operations. Engines may apply append-only operations in bulk,
+     * the default implementation performs the operations one by one using {@link #index(Index)}.
+     *
+     * @return one {@link IndexResult} per operation, in the order of the operations
+     *
+     * Note: engine level failures (i.e. persistent engine failures) are thrown
+     */
+    public List<IndexResult> indexBatch(List<Index> operations) throws IOException {
+        List<IndexResult> results = new ArrayList<>(operations.size());
+        for (Index operation : operations) {
+            results.add(index(operation));
+        }
+        return results;
+    }
+
     /**
      * Perform document delete operation on the engine
      * @param delete operation to perform
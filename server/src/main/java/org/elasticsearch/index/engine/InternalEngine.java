@@ -22,8 +22,10 @@ package org.elasticsearch.index.engine;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -78,6 +80,7 @@ import org.apache.lucene.util.InfoStream;
 import org.elasticsearch.Assertions;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.LoggerInfoStream;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -920,21 +923,7 @@ public class InternalEngine extends Engine {
                     indexResult = plan.earlyResultOnPreFlightError.get();
                     assert indexResult.getResultType() == Result.Type.FAILURE : indexResult.getResultType();
                 } else {
-                    // generate or register sequence number
-                    if (index.origin() == Operation.Origin.PRIMARY) {
-                        index = new Index(index.uid(), index.parsedDoc(), generateSeqNoForOperationOnPrimary(index), index.primaryTerm(),
-                            index.version(), index.versionType(), index.origin(), index.startTime(), index.getAutoGeneratedIdTimestamp(),
-                            index.isRetry(), index.getIfSeqNo(), index.getIfPrimaryTerm());
-
-                        final boolean toAppend = plan.indexIntoLucene && plan.useLuceneUpdateDocument == false;
-                        if (toAppend == false) {
-                            advanceMaxSeqNoOfUpdatesOrDeletesOnPrimary(index.seqNo());
-                        }
-                    } else {
-                        markSeqNoAsSeen(index.seqNo());
-                    }
-
-                    assert index.seqNo() >= 0 : "ops should have an assigned seq no.; origin: " + index.origin();
+                    index = assignSeqNo(index, plan);
 
                     if (plan.indexIntoLucene || plan.addStaleOpToLucene) {
                         indexResult = indexIntoLucene(index, plan);
@@ -988,6 +977,201 @@ public class InternalEngine extends Engine {
         }
     }
 
+    /**
+     * Generate the sequence number of an operation on the primary or register it otherwise.
+     */
+    private Index assignSeqNo(Index index, IndexingStrategy plan) {
+        if (index.origin() == Operation.Origin.PRIMARY) {
+            index = new Index(index.uid(), index.parsedDoc(), generateSeqNoForOperationOnPrimary(index), index.primaryTerm(),
+                index.version(), index.versionType(), index.origin(), index.startTime(), index.getAutoGeneratedIdTimestamp(),
+                index.isRetry(), index.getIfSeqNo(), index.getIfPrimaryTerm());
+
+            final boolean toAppend = plan.indexIntoLucene && plan.useLuceneUpdateDocument == false;
+            if (toAppend == false) {
+                advanceMaxSeqNoOfUpdatesOrDeletesOnPrimary(index.seqNo());
+            }
+        } else {
+            markSeqNoAsSeen(index.seqNo());
+        }
+
+        assert index.seqNo() >= 0 : "ops should have an assigned seq no.; origin: " + index.origin();
+        return index;
+    }
+
+    /**
+     * Indexes operations with auto generated ids in bulk: The documents of all operations which can be appended
+     * without a version lookup are added to Lucene using a single {@link IndexWriter#addDocuments(Iterable)} call
+     * and the operations are written to the translog at once. Other operations of the batch, e.g. retries,
+     * are indexed one by one like in {@link #index(Index)}.
+     * <p>
+     * Batches which contain operations without an auto generated id are processed using {@link #index(Index)}.
+     */
+    @Override
+    public List<IndexResult> indexBatch(List<Index> operations) throws IOException {
+        if (operations.size() < 2 || canIndexAsBatch(operations) == false) {
+            return super.indexBatch(operations);
+        }
+        final Index[] ops = operations.toArray(new Index[0]);
+        final IndexingStrategy[] plans = new IndexingStrategy[ops.length];
+        final IndexResult[] results = new IndexResult[ops.length];
+        final boolean doThrottle = ops[0].origin().isRecovery() == false;
+        final List<Releasable> uidLocks = new ArrayList<>(ops.length);
+        try (ReleasableLock releasableLock = readLock.acquire()) {
+            ensureOpen();
+            try (Releasable indexThrottle = doThrottle ? () -> {} : throttle.acquireThrottle()) {
+                for (Index index : ops) {
+                    uidLocks.add(versionMap.acquireLock(index.uid().bytes()));
+                }
+                final List<ParseContext.Document> appendOnlyDocs = new ArrayList<>(ops.length);
+                for (int i = 0; i < ops.length; i++) {
+                    Index index = ops[i];
+                    assert assertIncomingSequenceNumber(index.origin(), index.seqNo());
+                    lastWriteNanos = index.startTime();
+                    final IndexingStrategy plan = indexingStrategyForOperation(index);
+                    plans[i] = plan;
+                    if (plan.earlyResultOnPreFlightError.isPresent()) {
+                        results[i] = plan.earlyResultOnPreFlightError.get();
+                        assert results[i].getResultType() == Result.Type.FAILURE : results[i].getResultType();
+                        continue;
+                    }
+                    index = assignSeqNo(index, plan);
+                    ops[i] = index;
+                    if (isAppendOnly(plan)) {
+                        assert assertDocDoesNotExist(index, false);
+                        index.parsedDoc().updateSeqID(index.seqNo(), index.primaryTerm());
+                        index.parsedDoc().version().setLongValue(plan.versionForIndexing);
+                        appendOnlyDocs.addAll(index.docs());
+                    } else if (plan.indexIntoLucene || plan.addStaleOpToLucene) {
+                        results[i] = indexIntoLucene(index, plan);
+                    } else {
+                        results[i] = new IndexResult(
+                            plan.versionForIndexing, getPrimaryTerm(), index.seqNo(), plan.currentNotFoundOrDeleted);
+                    }
+                }
+                addAppendOnlyDocs(ops, plans, results, appendOnlyDocs);
+                addToTranslog(ops, results);
+                for (int i = 0; i < ops.length; i++) {
+                    final Index index = ops[i];
+                    final IndexResult indexResult = results[i];
+                    if (plans[i].indexIntoLucene && indexResult.getResultType() == Result.Type.SUCCESS) {
+                        final Translog.Location translogLocation = trackTranslogLocation.get() ? indexResult.getTranslogLocation() : null;
+                        versionMap.maybePutIndexUnderLock(index.uid().bytes(),
+                            new IndexVersionValue(translogLocation, plans[i].versionForIndexing, index.seqNo(), index.primaryTerm()));
+                    }
+                    localCheckpointTracker.markSeqNoAsProcessed(indexResult.getSeqNo());
+                    if (indexResult.getTranslogLocation() == null) {
+                        assert index.origin().isFromTranslog() || indexResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO :
+                            "version conflict: index operation not coming from translog should not have seqNo, but found [" +
+                            indexResult.getSeqNo() + "]";
+                        localCheckpointTracker.markSeqNoAsPersisted(indexResult.getSeqNo());
+                    }
+                    indexResult.setTook(System.nanoTime() - index.startTime());
+                    indexResult.freeze();
+                }
+                return Arrays.asList(results);
+            } finally {
+                Releasables.close(uidLocks);
+            }
+        } catch (RuntimeException | IOException e) {
+            final Index first = ops[0];
+            final String reason = "index batch of [" + ops.length + "] first id[" + first.id() + "] origin[" + first.origin() + "]";
+            try {
+                if (e instanceof AlreadyClosedException == false && treatDocumentFailureAsTragicError(first)) {
+                    failEngine(reason, e);
+                } else {
+                    maybeFailEngine(reason, e);
+                }
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            throw e;
+        }
+    }
+
+    private boolean canIndexAsBatch(List<Index> operations) {
+        final Set<BytesRef> uids = new HashSet<>();
+        final Operation.Origin origin = operations.get(0).origin();
+        for (Index index : operations) {
+            assert Objects.equals(index.uid().field(), IdFieldMapper.NAME) : index.uid().field();
+            if (index.origin() != origin || canOptimizeAddDocument(index) == false || uids.add(index.uid().bytes()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAppendOnly(IndexingStrategy plan) {
+        return plan.indexIntoLucene && plan.useLuceneUpdateDocument == false && plan.addStaleOpToLucene == false;
+    }
+
+    /**
+     * Adds the documents of all append-only operations as one block. A document failure aborts the whole block,
+     * in that case the documents are added one by one so that only the affected operations fail.
+     */
+    private void addAppendOnlyDocs(Index[] ops,
+                                   IndexingStrategy[] plans,
+                                   IndexResult[] results,
+                                   List<ParseContext.Document> appendOnlyDocs) throws IOException {
+        if (appendOnlyDocs.isEmpty()) {
+            return;
+        }
+        boolean addedAll;
+        try {
+            indexWriter.addDocuments(appendOnlyDocs);
+            numDocAppends.inc(appendOnlyDocs.size());
+            addedAll = true;
+        } catch (Exception ex) {
+            if (ex instanceof AlreadyClosedException || indexWriter.getTragicException() != null
+                || treatDocumentFailureAsTragicError(ops[0])) {
+                throw ex;
+            }
+            addedAll = false;
+        }
+        for (int i = 0; i < ops.length; i++) {
+            final IndexingStrategy plan = plans[i];
+            if (results[i] != null || isAppendOnly(plan) == false) {
+                continue;
+            }
+            final Index index = ops[i];
+            if (addedAll) {
+                results[i] = new IndexResult(plan.versionForIndexing, index.primaryTerm(), index.seqNo(), plan.currentNotFoundOrDeleted);
+            } else {
+                results[i] = indexIntoLucene(index, plan);
+            }
+        }
+    }
+
+    /**
+     * Writes the successful operations to the translog at once, failures with a sequence number are recorded as no-op.
+     */
+    private void addToTranslog(Index[] ops, IndexResult[] results) throws IOException {
+        final List<Translog.Operation> translogOps = new ArrayList<>(ops.length);
+        final List<IndexResult> translogResults = new ArrayList<>(ops.length);
+        for (int i = 0; i < ops.length; i++) {
+            final Index index = ops[i];
+            final IndexResult indexResult = results[i];
+            if (index.origin().isFromTranslog()) {
+                continue;
+            }
+            if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                translogOps.add(new Translog.Index(index, indexResult));
+                translogResults.add(indexResult);
+            } else if (indexResult.getSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+                final NoOp noOp = new NoOp(indexResult.getSeqNo(), index.primaryTerm(), index.origin(),
+                    index.startTime(), indexResult.getFailure().toString());
+                indexResult.setTranslogLocation(innerNoOp(noOp).getTranslogLocation());
+            } else {
+                indexResult.setTranslogLocation(null);
+            }
+        }
+        if (translogOps.isEmpty() == false) {
+            final Translog.Location[] locations = translog.add(translogOps);
+            for (int i = 0; i < locations.length; i++) {
+                translogResults.get(i).setTranslogLocation(locations[i]);
+            }
+        }
+    }
+
     protected final IndexingStrategy planIndexingAsNonPrimary(Index index) throws IOException {
         assertNonPrimaryOrigin(index);
         final IndexingStrategy plan;
@@ -2270,6 +2454,9 @@ public class InternalEngine extends Engine {
         iwc.setRAMBufferSizeMB(engineConfig.getIndexingBufferSize().getMbFrac());
         iwc.setCodec(engineConfig.getCodec());
         iwc.setUseCompoundFile(true); // always use compound on flush - reduces # of file-handles on refresh
+        if (engineConfig.getIndexSort() != null) {
+            iwc.setIndexSort(engineConfig.getIndexSort());
+        }
         return iwc;
     }
 
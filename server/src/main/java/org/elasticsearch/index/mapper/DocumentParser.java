@@ -28,6 +28,7 @@ import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.support.XContentTokens;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.mapper.DynamicTemplate.XContentFieldType;
 import org.elasticsearch.index.mapper.KeywordFieldMapper.KeywordFieldType;
@@ -63,8 +64,7 @@ final class DocumentParser {
         final ParseContext.InternalParseContext context;
         final XContentType xContentType = source.getXContentType();
 
-        try (XContentParser parser = XContentHelper.createParser(docMapperParser.getXContentRegistry(),
-            LoggingDeprecationHandler.INSTANCE, source.source(), xContentType)) {
+        try (XContentParser parser = createParser(source, xContentType)) {
             context = new ParseContext.InternalParseContext(indexSettings, docMapperParser, docMapper, source, parser);
             validateStart(parser);
             internalParseDocument(mapping, metadataFieldsMappers, context, parser);
@@ -88,6 +88,15 @@ final class DocumentParser {
         );
     }
 
+    private XContentParser createParser(SourceToParse source, XContentType xContentType) throws IOException {
+        XContentTokens tokens = source.tokens();
+        if (tokens == null) {
+            return XContentHelper.createParser(
+                docMapperParser.getXContentRegistry(), LoggingDeprecationHandler.INSTANCE, source.source(), xContentType);
+        }
+        return tokens.createParser(docMapperParser.getXContentRegistry(), LoggingDeprecationHandler.INSTANCE);
+    }
+
     private static void internalParseDocument(Mapping mapping, MetadataFieldMapper[] metadataFieldsMappers,
                                               ParseContext.InternalParseContext context, XContentParser parser) throws IOException {
         final boolean emptyDoc = isEmptyDoc(mapping, parser);
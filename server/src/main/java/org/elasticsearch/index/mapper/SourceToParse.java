@@ -23,6 +23,7 @@ import javax.annotation.Nullable;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.support.XContentTokens;
 
 import java.util.Objects;
 
@@ -38,7 +39,27 @@ public class SourceToParse {
 
     private final XContentType xContentType;
 
+    @Nullable
+    private final XContentTokens tokens;
+
     public SourceToParse(String index, String id, BytesReference source, XContentType xContentType, @Nullable String routing) {
+        this(index, id, source, xContentType, routing, null);
+    }
+
+    public SourceToParse(String index, String id, BytesReference source, XContentType xContentType) {
+        this(index, id, source, xContentType, null);
+    }
+
+    /**
+     * @param tokens the recorded tokens of {@code source}. If present, the document is parsed from the tokens
+     *               instead of decoding {@code source} again.
+     */
+    public SourceToParse(String index,
+                         String id,
+                         BytesReference source,
+                         XContentType xContentType,
+                         @Nullable String routing,
+                         @Nullable XContentTokens tokens) {
         this.index = Objects.requireNonNull(index);
         this.id = Objects.requireNonNull(id);
         // we always convert back to byte array, since we store it and Field only supports bytes..
@@ -46,10 +67,7 @@ public class SourceToParse {
         this.source = new BytesArray(Objects.requireNonNull(source).toBytesRef());
         this.xContentType = Objects.requireNonNull(xContentType);
         this.routing = routing;
-    }
-
-    public SourceToParse(String index, String id, BytesReference source, XContentType xContentType) {
-        this(index, id, source, xContentType, null);
+        this.tokens = tokens;
     }
 
     public BytesReference source() {
@@ -72,6 +90,11 @@ public class SourceToParse {
         return this.xContentType;
     }
 
+    @Nullable
+    public XContentTokens tokens() {
+        return tokens;
+    }
+
     public enum Origin {
         PRIMARY,
         REPLICA
@@ -24,6 +24,7 @@ import io.crate.common.Booleans;
 import io.crate.common.collections.Tuple;
 import io.crate.common.io.IOUtils;
 import io.crate.common.unit.TimeValue;
+import io.crate.execution.engine.sort.IndexSort;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.CheckIndex;
@@ -33,6 +34,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.BytesRef;
@@ -56,6 +58,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
@@ -117,6 +120,7 @@ import java.io.PrintStream;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
@@ -649,6 +653,94 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return index(engine, operation);
     }
 
+    /**
+     * Index multiple documents on the primary, see {@link Engine#indexBatch(List)}.
+     * Documents which require a mapping update are not indexed,
+     * their result is of type {@link Engine.Result.Type#MAPPING_UPDATE_REQUIRED}.
+     *
+     * @return one result per source, in the order of the sources
+     */
+    public List<Engine.IndexResult> applyIndexOperationsOnPrimary(List<SourceToParse> sources,
+                                                                  long autoGeneratedTimestamp,
+                                                                  boolean isRetry) throws IOException {
+        return applyIndexOperations(getEngine(), sources, null, null, VersionType.INTERNAL, autoGeneratedTimestamp, isRetry,
+                                    Engine.Operation.Origin.PRIMARY);
+    }
+
+    /**
+     * Index multiple documents on a replica, see {@link #applyIndexOperationsOnPrimary(List, long, boolean)}.
+     */
+    public List<Engine.IndexResult> applyIndexOperationsOnReplica(List<SourceToParse> sources,
+                                                                  long[] seqNos,
+                                                                  long[] versions,
+                                                                  long autoGeneratedTimestamp,
+                                                                  boolean isRetry) throws IOException {
+        return applyIndexOperations(getEngine(), sources, seqNos, versions, null, autoGeneratedTimestamp, isRetry,
+                                    Engine.Operation.Origin.REPLICA);
+    }
+
+    private List<Engine.IndexResult> applyIndexOperations(Engine engine,
+                                                          List<SourceToParse> sources,
+                                                          @Nullable long[] seqNos,
+                                                          @Nullable long[] versions,
+                                                          @Nullable VersionType versionType,
+                                                          long autoGeneratedTimeStamp,
+                                                          boolean isRetry,
+                                                          Engine.Operation.Origin origin) throws IOException {
+        ensureWriteAllowed(origin);
+        final Engine.IndexResult[] results = new Engine.IndexResult[sources.size()];
+        final List<Engine.Index> operations = new ArrayList<>(sources.size());
+        final int[] positions = new int[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            long seqNo = seqNos == null ? UNASSIGNED_SEQ_NO : seqNos[i];
+            long version = versions == null ? Versions.MATCH_ANY : versions[i];
+            try {
+                Engine.Index operation = prepareIndex(
+                    defaultDocMapper(),
+                    sources.get(i),
+                    seqNo,
+                    operationPrimaryTerm,
+                    version,
+                    versionType,
+                    origin,
+                    autoGeneratedTimeStamp,
+                    isRetry,
+                    UNASSIGNED_SEQ_NO,
+                    0
+                );
+                Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
+                if (update != null) {
+                    results[i] = new Engine.IndexResult(update);
+                    continue;
+                }
+                positions[operations.size()] = i;
+                operations.add(indexingOperationListeners.preIndex(shardId, operation));
+            } catch (Exception e) {
+                // see applyIndexOperation, parsing failures are document level failures
+                verifyNotClosed(e);
+                results[i] = new Engine.IndexResult(e, version, operationPrimaryTerm, seqNo);
+            }
+        }
+        if (operations.isEmpty() == false) {
+            active.set(true);
+            final List<Engine.IndexResult> operationResults;
+            try {
+                operationResults = engine.indexBatch(operations);
+            } catch (Exception e) {
+                for (Engine.Index operation : operations) {
+                    indexingOperationListeners.postIndex(shardId, operation, e);
+                }
+                throw e;
+            }
+            for (int i = 0; i < operations.size(); i++) {
+                Engine.IndexResult result = operationResults.get(i);
+                indexingOperationListeners.postIndex(shardId, operations.get(i), result);
+                results[positions[i]] = result;
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     public static Engine.Index prepareIndex(DocumentMapper docMapper,
                                             SourceToParse source,
                                             long seqNo,
@@ -2218,10 +2310,20 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             circuitBreakerService,
             replicationTracker,
             () -> operationPrimaryTerm,
-            tombstoneDocSupplier()
+            tombstoneDocSupplier(),
+            indexSort()
         );
     }
 
+    /**
+     * @return the sort used to order the documents within the segments of this shard,
+     *         or null if the {@link IndexSort#SETTING} isn't set.
+     */
+    @Nullable
+    public Sort indexSort() {
+        return IndexSort.build(indexSettings.getSettings(), mapperService::fullName);
+    }
+
     /**
      * Acquire a primary operation permit whenever the shard is ready for indexing. If a permit is directly available, the provided
      * ActionListener will be called on the calling thread. During relocation hand-off, permit acquisition can be delayed. The provided
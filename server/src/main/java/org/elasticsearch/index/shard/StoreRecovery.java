@@ -25,6 +25,7 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
@@ -49,6 +50,7 @@ import org.elasticsearch.indices.recovery.RecoveryState;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.Repository;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -127,7 +129,7 @@ final class StoreRecovery {
                     final long maxUnsafeAutoIdTimestamp =
                             shards.stream().mapToLong(LocalShardSnapshot::maxUnsafeAutoIdTimestamp).max().getAsLong();
                     addIndices(indexShard.recoveryState().getIndex(), directory, sources, maxSeqNo, maxUnsafeAutoIdTimestamp,
-                        indexShard.indexSettings().getIndexMetadata(), indexShard.shardId().id(), isSplit);
+                        indexShard.indexSettings().getIndexMetadata(), indexShard.shardId().id(), isSplit, indexShard.indexSort());
                     internalRecoverFromStore(indexShard);
                     // just trigger a merge to do housekeeping on the
                     // copied segments - we will also see them in stats etc.
@@ -148,7 +150,8 @@ final class StoreRecovery {
                     final long maxUnsafeAutoIdTimestamp,
                     IndexMetadata indexMetadata,
                     int shardId,
-                    boolean split) throws IOException {
+                    boolean split,
+                    @Nullable Sort indexSort) throws IOException {
 
         // clean target directory (if previous recovery attempt failed) and create a fresh segment file with the proper lucene version
         Lucene.cleanLuceneIndex(target);
@@ -166,6 +169,10 @@ final class StoreRecovery {
             // we also don't specify a codec here and merges should use the engines for this index
             .setMergePolicy(NoMergePolicy.INSTANCE)
             .setOpenMode(IndexWriterConfig.OpenMode.APPEND);
+        if (indexSort != null) {
+            // the sort must match the sort of the source segments, otherwise Lucene refuses to add them
+            iwc.setIndexSort(indexSort);
+        }
 
         try (IndexWriter writer = new IndexWriter(new StatsDirectoryWrapper(hardLinkOrCopyTarget, indexRecoveryStats), iwc)) {
             writer.addIndexes(sources);
@@ -196,6 +196,25 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         return new Translog.Location(generation, offset, data.length());
     }
 
+    /**
+     * Add multiple operations which are serialized consecutively into {@code data}.
+     *
+     * @param data   the serialized operations
+     * @param ends   the offset after the last byte of each operation within {@code data}
+     * @param seqNos the sequence number of each operation
+     * @return the locations of the operations in the translog
+     */
+    public synchronized Translog.Location[] add(final BytesReference data, final int[] ends, final long[] seqNos) throws IOException {
+        assert ends.length == seqNos.length : "must have one sequence number per operation";
+        final Translog.Location[] locations = new Translog.Location[ends.length];
+        int start = 0;
+        for (int i = 0; i < ends.length; i++) {
+            locations[i] = add(data.slice(start, ends[i] - start), seqNos[i]);
+            start = ends[i];
+        }
+        return locations;
+    }
+
     private synchronized boolean assertNoSeqNumberConflict(long seqNo, BytesReference data) throws IOException {
         if (seqNo == SequenceNumbers.UNASSIGNED_SEQ_NO) {
             // nothing to do
@@ -0,0 +1,202 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.action.sql;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.RowAccounting;
+import io.crate.breaker.RowAccountingWithEstimators;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PipelinedResultReceiverTest {
+
+    private static final RowAccounting<Row> NO_ROW_ACCOUNTING =
+        new RowAccountingWithEstimators(List.of(DataTypes.INTEGER), RamAccounting.NO_ACCOUNTING);
+
+    private static class CollectingResultReceiver extends BaseResultReceiver {
+
+        final List<Object> rows = new ArrayList<>();
+
+        @Override
+        public void setNextRow(Row row) {
+            rows.add(row.get(0));
+        }
+    }
+
+    @Test
+    public void test_rows_are_buffered_until_forwarded() {
+        CollectingResultReceiver delegate = new CollectingResultReceiver();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(delegate, 10, NO_ROW_ACCOUNTING, Runnable::run);
+
+        receiver.setNextRow(new Row1(1));
+        receiver.setNextRow(new Row1(2));
+        receiver.allFinished(false);
+        assertThat(delegate.rows, empty());
+        assertThat(receiver.completionFuture().isDone(), is(false));
+
+        receiver.forwardToDelegate();
+        assertThat(delegate.rows, contains(1, 2));
+        assertThat(receiver.completionFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void test_calls_are_passed_through_after_forwarding() {
+        CollectingResultReceiver delegate = new CollectingResultReceiver();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(delegate, 10, NO_ROW_ACCOUNTING, Runnable::run);
+
+        receiver.setNextRow(new Row1(1));
+        receiver.forwardToDelegate();
+        receiver.setNextRow(new Row1(2));
+        assertThat(delegate.rows, contains(1, 2));
+        assertThat(receiver.pauseConsumption(), nullValue());
+
+        receiver.allFinished(false);
+        assertThat(receiver.completionFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void test_consumption_is_paused_while_buffer_is_full() throws Exception {
+        CollectingResultReceiver delegate = new CollectingResultReceiver();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(delegate, 3, NO_ROW_ACCOUNTING, Runnable::run);
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(receiver, 0, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        assertThat(delegate.rows, empty());
+        assertThat(consumer.completionFuture().isDone(), is(false));
+
+        receiver.forwardToDelegate();
+        assertThat(delegate.rows, contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertThat(consumer.completionFuture().isDone(), is(true));
+        assertThat(receiver.completionFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void test_discard_drops_rows_and_stops_the_execution() throws Exception {
+        CollectingResultReceiver delegate = new CollectingResultReceiver();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(delegate, 3, NO_ROW_ACCOUNTING, Runnable::run);
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(receiver, 0, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        receiver.discard();
+
+        assertThat(delegate.rows, empty());
+        assertThat(consumer.completionFuture().isCompletedExceptionally(), is(true));
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(true));
+
+        CompletableFuture<?> paused = receiver.pauseConsumption();
+        assertThat(paused, notNullValue());
+        assertThat(paused.handle((r, t) -> t).join(), instanceOf(CancellationException.class));
+    }
+
+    @Test
+    public void test_buffered_rows_are_accounted_until_forwarded() {
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {});
+        CollectingResultReceiver delegate = new CollectingResultReceiver();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(
+            delegate,
+            10,
+            new RowAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting),
+            Runnable::run
+        );
+
+        receiver.setNextRow(new Row1(1));
+        receiver.setNextRow(new Row1(2));
+        assertThat(ramAccounting.totalBytes(), greaterThan(0L));
+
+        receiver.forwardToDelegate();
+        assertThat(ramAccounting.totalBytes(), is(0L));
+        receiver.setNextRow(new Row1(3));
+        assertThat(ramAccounting.totalBytes(), is(0L));
+        assertThat(delegate.rows, contains(1, 2, 3));
+    }
+
+    @Test
+    public void test_buffered_rows_are_released_on_discard() {
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {});
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(
+            new CollectingResultReceiver(),
+            10,
+            new RowAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting),
+            Runnable::run
+        );
+
+        receiver.setNextRow(new Row1(1));
+        assertThat(ramAccounting.totalBytes(), greaterThan(0L));
+        receiver.discard();
+        assertThat(ramAccounting.totalBytes(), is(0L));
+    }
+
+    @Test
+    public void test_paused_consumption_is_resumed_on_the_resume_executor() throws Exception {
+        CollectingResultReceiver delegate = new CollectingResultReceiver();
+        List<Runnable> resumeTasks = new ArrayList<>();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(
+            delegate, 3, NO_ROW_ACCOUNTING, resumeTasks::add);
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(receiver, 0, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        receiver.forwardToDelegate();
+        assertThat(delegate.rows, contains(0, 1, 2));
+        assertThat(consumer.completionFuture().isDone(), is(false));
+        assertThat(resumeTasks.size(), is(1));
+
+        resumeTasks.get(0).run();
+        assertThat(delegate.rows, contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertThat(consumer.completionFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void test_discarded_consumption_is_stopped_on_the_resume_executor() throws Exception {
+        List<Runnable> resumeTasks = new ArrayList<>();
+        PipelinedResultReceiver<?> receiver = new PipelinedResultReceiver<>(
+            new CollectingResultReceiver(), 3, NO_ROW_ACCOUNTING, resumeTasks::add);
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(receiver, 0, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        receiver.discard();
+        assertThat(consumer.completionFuture().isDone(), is(false));
+        assertThat(resumeTasks.size(), is(1));
+
+        resumeTasks.get(0).run();
+        assertThat(consumer.completionFuture().isCompletedExceptionally(), is(true));
+    }
+}
@@ -31,6 +31,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -78,4 +79,54 @@ public class RowConsumerToResultReceiverTest {
         consumer.accept(FailingBatchIterator.failOnAllLoaded(), null);
         assertThat(resultReceiver.completionFuture().isCompletedExceptionally(), is(true));
     }
+
+    @Test
+    public void testConsumptionIsResumedOncePausedFutureCompletes() throws Exception {
+        List<CompletableFuture<Void>> pauses = new ArrayList<>();
+        final List<Object[]> collectedRows = new ArrayList<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> pauseConsumption() {
+                if (collectedRows.size() % 3 == 0) {
+                    CompletableFuture<Void> pause = new CompletableFuture<>();
+                    pauses.add(pause);
+                    return pause;
+                }
+                return null;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, t -> {});
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+
+        assertThat(collectedRows.size(), is(3));
+        pauses.get(0).complete(null);
+        assertThat(collectedRows.size(), is(6));
+        pauses.get(1).complete(null);
+        pauses.get(2).complete(null);
+        assertThat(collectedRows.size(), is(10));
+        assertThat(resultReceiver.completionFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void testFailureOfPausedFutureIsForwardedToResultReceiver() throws Exception {
+        CompletableFuture<Void> pause = new CompletableFuture<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public CompletableFuture<?> pauseConsumption() {
+                return pause;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, t -> {});
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+
+        assertThat(resultReceiver.completionFuture().isDone(), is(false));
+        pause.completeExceptionally(new IllegalStateException("closed"));
+        assertThat(resultReceiver.completionFuture().isCompletedExceptionally(), is(true));
+        assertThat(consumer.completionFuture().isCompletedExceptionally(), is(true));
+    }
 }
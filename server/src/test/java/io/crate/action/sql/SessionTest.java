@@ -44,6 +44,7 @@ import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -67,6 +68,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SessionTest extends CrateDummyClusterServiceUnitTest {
@@ -130,11 +133,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "Select 1 + ? + ?;", Collections.emptyList());
         assertThat(session.getParamType("S_1", 0), is(DataTypes.UNDEFINED));
@@ -157,11 +162,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = Mockito.spy(new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             mock(DependencyCarrier.class),
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext())
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"))
         );
 
         var activeExecutionFuture = CompletableFuture.completedFuture(null);
@@ -187,6 +194,100 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         assertThat(session.activeExecution, is(nullValue()));
     }
 
+    @Test
+    public void test_queries_within_sync_window_are_started_without_waiting_for_previous_queries() {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build();
+        Session session = Mockito.spy(new Session(
+            sqlExecutor.analyzer,
+            sqlExecutor.planner,
+            StatementCache.DISABLED,
+            new JobsLogs(() -> false),
+            false,
+            mock(DependencyCarrier.class, Answers.RETURNS_MOCKS),
+            AccessControl.DISABLED,
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"))
+        );
+        CompletableFuture<Object> firstExecution = new CompletableFuture<>();
+        doReturn(firstExecution)
+            .when(session)
+            .singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+
+        session.parse("S_1", "select name from sys.cluster;", List.of());
+        session.bind("P_1", "S_1", Collections.emptyList(), null);
+        session.execute("P_1", 0, new BaseResultReceiver());
+        session.bind("P_2", "S_1", Collections.emptyList(), null);
+        BaseResultReceiver secondResultReceiver = new BaseResultReceiver();
+        session.execute("P_2", 0, secondResultReceiver);
+
+        verify(session, times(2)).singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+
+        CompletableFuture<?> sync = session.sync();
+        assertThat(sync.isDone(), is(false));
+        firstExecution.complete(null);
+        assertThat(sync.isDone(), is(false));
+        secondResultReceiver.allFinished(false);
+        assertThat(sync.isDone(), is(true));
+    }
+
+    @Test
+    public void test_number_of_pipelined_queries_within_sync_window_is_bounded() {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build();
+        Session session = Mockito.spy(new Session(
+            sqlExecutor.analyzer,
+            sqlExecutor.planner,
+            StatementCache.DISABLED,
+            new JobsLogs(() -> false),
+            false,
+            mock(DependencyCarrier.class, Answers.RETURNS_MOCKS),
+            AccessControl.DISABLED,
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"))
+        );
+        CompletableFuture<Object> firstExecution = new CompletableFuture<>();
+        doReturn(firstExecution)
+            .when(session)
+            .singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+
+        session.parse("S_1", "select name from sys.cluster;", List.of());
+        for (int i = 0; i < Session.MAX_PIPELINED_QUERIES + 3; i++) {
+            session.bind("P_" + i, "S_1", Collections.emptyList(), null);
+            session.execute("P_" + i, 0, new BaseResultReceiver());
+        }
+        verify(session, times(Session.MAX_PIPELINED_QUERIES + 1))
+            .singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+    }
+
+    @Test
+    public void test_queries_with_max_rows_are_not_pipelined() {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build();
+        Session session = Mockito.spy(new Session(
+            sqlExecutor.analyzer,
+            sqlExecutor.planner,
+            StatementCache.DISABLED,
+            new JobsLogs(() -> false),
+            false,
+            mock(DependencyCarrier.class),
+            AccessControl.DISABLED,
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"))
+        );
+        CompletableFuture<Object> firstExecution = new CompletableFuture<>();
+        doReturn(firstExecution)
+            .when(session)
+            .singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+
+        session.parse("S_1", "select name from sys.cluster;", List.of());
+        session.bind("P_1", "S_1", Collections.emptyList(), null);
+        session.execute("P_1", 0, new BaseResultReceiver());
+        session.bind("P_2", "S_1", Collections.emptyList(), null);
+        session.execute("P_2", 10, new BaseResultReceiver());
+
+        verify(session, times(1)).singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+        firstExecution.complete(null);
+        verify(session, times(2)).singleExec(any(Portal.class), any(ResultReceiver.class), anyInt());
+    }
+
     @Test
     public void testExtractTypesFromDelete() throws Exception {
         SQLExecutor e = SQLExecutor.builder(clusterService).addTable(TableDefinitions.USER_TABLE_DEFINITION).build();
@@ -328,11 +429,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "select name from sys.cluster;", Collections.emptyList());
         session.bind("Portal", "S_1", Collections.emptyList(), null);
@@ -363,11 +466,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "select * from sys.cluster;", Collections.emptyList());
         session.bind("Portal", "S_1", Collections.emptyList(), null);
@@ -390,11 +495,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("test_prep_stmt", "select * from sys.cluster;", Collections.emptyList());
         session.bind("Portal", "test_prep_stmt", Collections.emptyList(), null);
@@ -416,11 +523,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "SELECT 1", List.of());
         session.bind("P_1", "S_1", List.of(), null);
@@ -440,11 +549,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "SELECT 1", List.of());
         session.bind("P_1", "S_1", List.of(), null);
@@ -489,11 +600,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             planner,
+            StatementCache.DISABLED,
             jobsLogs,
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "INSERT INTO t1 (x) VALUES (1)", List.of());
         session.bind("P_1", "S_1", List.of(), null);
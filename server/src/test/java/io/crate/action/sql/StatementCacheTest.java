@@ -0,0 +1,104 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.TableDefinitions;
+import io.crate.planner.Plan;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class StatementCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    @Test
+    public void test_parsed_statement_is_reused() {
+        StatementCache cache = new StatementCache(10, 1024 * 1024);
+        Statement statement = cache.parse("select name from users where id = ?");
+        assertThat(cache.parse("  select name from users where id = ?  "), sameInstance(statement));
+        assertThat(cache.stats(StatementCache.Kind.STATEMENTS).hitCount(), is(1L));
+        assertThat(cache.stats(StatementCache.Kind.STATEMENTS).missCount(), is(1L));
+    }
+
+    @Test
+    public void test_disabled_cache_does_not_hold_entries() {
+        StatementCache cache = new StatementCache(0, 1024 * 1024);
+        cache.parse("select 1");
+        SessionContext sessionContext = SessionContext.systemSessionContext();
+        var key = new StatementCache.PlanKey("select 1", List.of(), sessionContext);
+        cache.putPlan(key, 1L, mock(Plan.class));
+        assertThat(cache.getPlan(key, 1L), nullValue());
+        assertThat(cache.stats(StatementCache.Kind.STATEMENTS).size(), is(0L));
+    }
+
+    @Test
+    public void test_cached_plan_is_dropped_if_metadata_version_changes() {
+        StatementCache cache = new StatementCache(10, 1024 * 1024);
+        SessionContext sessionContext = SessionContext.systemSessionContext();
+        var key = new StatementCache.PlanKey("select name from users where id = ?", List.of(DataTypes.INTEGER), sessionContext);
+        Plan plan = mock(Plan.class);
+        cache.putPlan(key, 3L, plan);
+
+        assertThat(cache.getPlan(key, 3L), sameInstance(plan));
+        assertThat(cache.getPlan(
+            new StatementCache.PlanKey("select name from users where id = ?", List.of(DataTypes.LONG), sessionContext),
+            3L), nullValue());
+        assertThat(cache.getPlan(key, 4L), nullValue());
+        assertThat(cache.getPlan(key, 3L), nullValue());
+    }
+
+    @Test
+    public void test_entries_are_evicted_if_the_memory_limit_is_reached() {
+        StatementCache cache = new StatementCache(1000, 16 * 1024);
+        SessionContext sessionContext = SessionContext.systemSessionContext();
+        for (int i = 0; i < 100; i++) {
+            String query = "select name, id, other_id from users where id = ? and name = 'name_" + i + "'";
+            cache.parse(query);
+            cache.putPlan(new StatementCache.PlanKey(query, List.of(DataTypes.INTEGER), sessionContext), 1L, mock(Plan.class));
+        }
+        assertThat(cache.stats(StatementCache.Kind.STATEMENTS).size() < 100L, is(true));
+        assertThat(cache.stats(StatementCache.Kind.STATEMENTS).evictionCount() > 0L, is(true));
+        assertThat(cache.stats(StatementCache.Kind.PLANS).size() < 100L, is(true));
+        assertThat(cache.stats(StatementCache.Kind.PLANS).evictionCount() > 0L, is(true));
+    }
+
+    @Test
+    public void test_only_deterministic_select_statements_without_subqueries_are_cacheable() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION)
+            .build();
+        assertThat(StatementCache.isCacheable(e.analyze("select name from users where id = ?")), is(true));
+        assertThat(StatementCache.isCacheable(e.analyze("select name from users where id = random()")), is(false));
+        assertThat(StatementCache.isCacheable(
+            e.analyze("select name from users where id = (select 1)")), is(false));
+        assertThat(StatementCache.isCacheable(e.analyze("update users set name = 'foo'")), is(false));
+    }
+}
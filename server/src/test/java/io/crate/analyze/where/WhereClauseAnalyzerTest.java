@@ -30,6 +30,7 @@ import io.crate.analyze.relations.DocTableRelation;
 import io.crate.data.Row;
 import io.crate.exceptions.VersioninigValidationException;
 import io.crate.expression.eval.EvaluatingNormalizer;
+import io.crate.expression.operator.AndOperator;
 import io.crate.expression.operator.EqOperator;
 import io.crate.expression.operator.LikeOperators;
 import io.crate.expression.operator.any.AnyOperators;
@@ -277,6 +278,27 @@ public class WhereClauseAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(whereClause.queryOrFallback(), isSQL("((doc.parted.date = 1395961200000::bigint) OR (doc.parted.id = 1))"));
     }
 
+    @Test
+    public void test_partition_index_and_per_partition_evaluation_are_combined() throws Exception {
+        String partition1 = new PartitionName(new RelationName("doc", "parted"), Arrays.asList("1395874800000")).asIndexName();
+        String partition2 = new PartitionName(new RelationName("doc", "parted"), Arrays.asList("1395961200000")).asIndexName();
+
+        WhereClause whereClause = analyzeSelectWhere(
+            "select id, name from parted where date >= 1395874800000 and date <= 1395961200000 and id = 1");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2));
+        assertThat(whereClause.queryOrFallback(), isSQL("(doc.parted.id = 1)"));
+
+        whereClause = analyzeSelectWhere(
+            "select id, name from parted where date > 1395874800000 and date <= 1395874800000");
+        assertThat(whereClause.partitions(), is(List.of()));
+        assertThat(whereClause.queryOrFallback(), isLiteral(false));
+
+        whereClause = analyzeSelectWhere(
+            "select id, name from parted where date >= 1395874800000 and (date = 1395961200000 or id = 1)");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2));
+        assertThat(whereClause.queryOrFallback(), isFunction(AndOperator.NAME));
+    }
+
     @Test
     public void testAnyInvalidArrayType() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
@@ -34,16 +34,19 @@ import io.crate.metadata.SearchPath;
 import io.crate.metadata.settings.SessionSettings;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import io.crate.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.Translog;
 import org.junit.Test;
 
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 
 public class ShardUpsertRequestTest extends CrateUnitTest {
 
@@ -160,4 +163,54 @@ public class ShardUpsertRequestTest extends CrateUnitTest {
 
         assertThat(request, equalTo(request2));
     }
+
+    @Test
+    public void test_streaming_auto_generated_id_timestamp_and_retry_flag() throws Exception {
+        ShardId shardId = new ShardId("test", UUIDs.randomBase64UUID(), 1);
+        ShardUpsertRequest request = new ShardUpsertRequest.Builder(
+            new SessionSettings("dummyUser", SearchPath.createSearchPathFrom("dummySchema")),
+            TimeValue.timeValueSeconds(30),
+            DuplicateKeyAction.UPDATE_OR_FAIL,
+            true,
+            null,
+            new Reference[]{ID_REF, NAME_REF},
+            null,
+            UUID.randomUUID(),
+            false
+        ).newRequest(shardId);
+        request.onRetry();
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        ShardUpsertRequest request2 = new ShardUpsertRequest(out.bytes().streamInput());
+
+        assertThat(request2.autoGeneratedIdTimestamp(), is(request.autoGeneratedIdTimestamp()));
+        assertThat(request2.isRetry(), is(true));
+    }
+
+    @Test
+    public void test_auto_generated_id_timestamp_is_unset_if_streamed_from_older_node() throws Exception {
+        ShardId shardId = new ShardId("test", UUIDs.randomBase64UUID(), 1);
+        ShardUpsertRequest request = new ShardUpsertRequest.Builder(
+            new SessionSettings("dummyUser", SearchPath.createSearchPathFrom("dummySchema")),
+            TimeValue.timeValueSeconds(30),
+            DuplicateKeyAction.UPDATE_OR_FAIL,
+            true,
+            null,
+            new Reference[]{ID_REF, NAME_REF},
+            null,
+            UUID.randomUUID(),
+            false
+        ).newRequest(shardId);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_4_2_0);
+        request.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(Version.V_4_2_0);
+        ShardUpsertRequest request2 = new ShardUpsertRequest(in);
+
+        assertThat(request2.autoGeneratedIdTimestamp(), is(Translog.UNSET_AUTO_GENERATED_TIMESTAMP));
+        assertThat(request2.isRetry(), is(false));
+    }
 }
@@ -58,6 +58,7 @@ import org.elasticsearch.index.mapper.ObjectMapper;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.test.transport.MockTransportService;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -68,12 +69,14 @@ import org.junit.Test;
 import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static io.crate.testing.TestingHelpers.getFunctions;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.any;
@@ -153,6 +156,7 @@ public class TransportShardUpsertActionTest extends CrateDummyClusterServiceUnit
         DocTableInfo tableInfo = mock(DocTableInfo.class);
         Schemas schemas = mock(Schemas.class);
         when(tableInfo.columns()).thenReturn(Collections.<Reference>emptyList());
+        when(tableInfo.primaryKey()).thenReturn(List.of(ID_REF.column()));
         when(schemas.getTableInfo(any(RelationName.class), eq(Operation.INSERT))).thenReturn(tableInfo);
 
         transportShardUpsertAction = new TestingTransportShardUpsertAction(
@@ -278,4 +282,28 @@ public class TransportShardUpsertActionTest extends CrateDummyClusterServiceUnit
         verify(indexShard, times(0)).applyIndexOperationOnReplica(
             anyLong(), anyLong(), anyLong(), anyBoolean(), any(SourceToParse.class));
     }
+
+    @Test
+    public void test_append_only_optimization_is_disabled_for_tables_with_primary_key() throws Exception {
+        ShardId shardId = new ShardId(TABLE_IDENT.indexNameOrAlias(), charactersIndexUUID, 0);
+        ShardUpsertRequest request = new ShardUpsertRequest.Builder(
+            DUMMY_SESSION_INFO,
+            TimeValue.timeValueSeconds(30),
+            DuplicateKeyAction.UPDATE_OR_FAIL,
+            true,
+            null,
+            new Reference[]{ID_REF},
+            null,
+            UUID.randomUUID(),
+            false
+        ).newRequest(shardId);
+        request.add(1, new ShardUpsertRequest.Item("1", null, new Object[]{1}, null, null, null));
+        request.add(2, new ShardUpsertRequest.Item("2", null, new Object[]{2}, null, null, null));
+        assertThat(request.autoGeneratedIdTimestamp(), not(Translog.UNSET_AUTO_GENERATED_TIMESTAMP));
+
+        transportShardUpsertAction.processRequestItems(indexShard, request, new AtomicBoolean(false));
+
+        assertThat(request.autoGeneratedIdTimestamp(), is(Translog.UNSET_AUTO_GENERATED_TIMESTAMP));
+        verify(indexShard, times(0)).applyIndexOperationsOnPrimary(any(), anyLong(), anyBoolean());
+    }
 }
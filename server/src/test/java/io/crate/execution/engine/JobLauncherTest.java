@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine;
+
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.workload.WorkloadClass;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingRowConsumer;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class JobLauncherTest extends CrateUnitTest {
+
+    private static WorkloadClass workloadClass(int maxConcurrency, int maxQueued) {
+        return new WorkloadClass(
+            "reports",
+            maxConcurrency,
+            maxQueued,
+            0,
+            0,
+            List.of(),
+            Runnable::run,
+            new NoopCircuitBreaker("workload_reports")
+        );
+    }
+
+    private static Throwable failure(TestingRowConsumer consumer) {
+        assertThat(consumer.completionFuture().isCompletedExceptionally(), is(true));
+        return consumer.completionFuture().handle((result, error) -> error).join();
+    }
+
+    @Test
+    public void test_workload_slot_is_released_if_setup_fails() {
+        WorkloadClass workloadClass = workloadClass(1, 10);
+        TestingRowConsumer consumer = new TestingRowConsumer();
+
+        JobLauncher.admit(workloadClass, UUID.randomUUID(), "crate", List.of(consumer), () -> {
+            throw new IllegalStateException("setup failed");
+        });
+
+        assertThat(failure(consumer), instanceOf(IllegalStateException.class));
+        assertThat(workloadClass.running(), is(0));
+    }
+
+    @Test
+    public void test_workload_slot_is_released_if_job_fails() {
+        WorkloadClass workloadClass = workloadClass(1, 10);
+        TestingRowConsumer consumer = new TestingRowConsumer();
+
+        JobLauncher.admit(workloadClass, UUID.randomUUID(), "crate", List.of(consumer), () -> {});
+        assertThat(workloadClass.running(), is(1));
+
+        consumer.accept(null, new IllegalStateException("job failed"));
+        assertThat(workloadClass.running(), is(0));
+    }
+
+    @Test
+    public void test_rejected_job_fails_consumers_and_does_not_take_a_workload_slot() {
+        WorkloadClass workloadClass = workloadClass(1, 0);
+        TestingRowConsumer running = new TestingRowConsumer();
+        TestingRowConsumer rejected = new TestingRowConsumer();
+        AtomicInteger numSetups = new AtomicInteger(0);
+
+        JobLauncher.admit(workloadClass, UUID.randomUUID(), "crate", List.of(running), numSetups::incrementAndGet);
+        JobLauncher.admit(workloadClass, UUID.randomUUID(), "crate", List.of(rejected), numSetups::incrementAndGet);
+
+        assertThat(failure(rejected), instanceOf(EsRejectedExecutionException.class));
+        assertThat(numSetups.get(), is(1));
+        assertThat(workloadClass.running(), is(1));
+
+        running.accept(null, new IllegalStateException("job failed"));
+        assertThat(workloadClass.running(), is(0));
+    }
+
+    @Test
+    public void test_killed_queued_job_fails_consumers_and_is_never_set_up() {
+        WorkloadClass workloadClass = workloadClass(1, 10);
+        TestingRowConsumer running = new TestingRowConsumer();
+        TestingRowConsumer queued = new TestingRowConsumer();
+        UUID queuedJobId = UUID.randomUUID();
+        AtomicInteger numSetups = new AtomicInteger(0);
+
+        JobLauncher.admit(workloadClass, UUID.randomUUID(), "crate", List.of(running), numSetups::incrementAndGet);
+        JobLauncher.admit(workloadClass, queuedJobId, "crate", List.of(queued), numSetups::incrementAndGet);
+        assertThat(workloadClass.queued(), is(1));
+
+        assertThat(workloadClass.kill(List.of(queuedJobId), "crate", true, null), is(1));
+        assertThat(failure(queued), instanceOf(JobKilledException.class));
+        assertThat(workloadClass.queued(), is(0));
+
+        running.accept(null, new IllegalStateException("job failed"));
+        assertThat(numSetups.get(), is(1));
+        assertThat(workloadClass.running(), is(0));
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.breaker.BlockBasedRamAccounting;
+import io.crate.breaker.ChildRamAccounting;
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.RowCellsAccountingWithEstimators;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.execution.engine.spill.SpillStats;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.functions.Signature;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+
+public class GroupingCollectorTest extends CrateUnitTest {
+
+    private static AggregationFunction<?, ?> sumAggregation() {
+        return (AggregationFunction<?, ?>) getFunctions().getQualified(
+            Signature.aggregate(
+                SumAggregation.NAME,
+                DataTypes.INTEGER.getTypeSignature(),
+                DataTypes.LONG.getTypeSignature()
+            ),
+            List.of(DataTypes.INTEGER),
+            DataTypes.LONG
+        );
+    }
+
+    private static Map<Object, Object> collectSumsByKey(Iterable<Row> result) {
+        Map<Object, Object> sumsByKey = new HashMap<>();
+        for (Row row : result) {
+            Object previous = sumsByKey.put(row.get(0), row.get(1));
+            assertThat("each group must be emitted once, duplicate key: " + row.get(0), previous, is((Object) null));
+        }
+        return sumsByKey;
+    }
+
+    @Test
+    public void testGroupsAreSpilledToDiskIfThresholdIsExceeded() throws Exception {
+        Path spillDirectory = createTempDir();
+        RamAccounting ramAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        SpillStats spillStats = new SpillStats();
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(1);
+        GroupingCollector<Object> collector = GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput, valueInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAggregation() },
+            new Input[][] { new Input[] { valueInput } },
+            new Input[] { Literal.BOOLEAN_TRUE },
+            ramAccounting,
+            new OnHeapMemoryManager(bytes -> { }),
+            Version.CURRENT,
+            keyInput,
+            DataTypes.LONG,
+            Version.CURRENT,
+            1000,
+            spillDirectory,
+            spillStats
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new RowN((long) (i % 1000), 1));
+        }
+
+        Iterable<Row> result = BatchIterators.collect(InMemoryBatchIterator.of(rows, SENTINEL, false), collector).get();
+
+        assertThat(spillStats.numSpills(), greaterThan(0L));
+        assertThat(spillStats.spilledBytes(), greaterThan(0L));
+        for (int i = 0; i < 2; i++) {
+            Map<Object, Object> sumsByKey = collectSumsByKey(result);
+            assertThat(sumsByKey.size(), is(1000));
+            for (long key = 0; key < 1000; key++) {
+                assertThat(sumsByKey.get(key), is(5L));
+            }
+        }
+
+        collector.close();
+        try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+            assertThat("spill files must be removed once the collector is closed", spillFiles.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void testPartialStatesOfManyKeysAreSpilledAndReduced() throws Exception {
+        Path spillDirectory = createTempDir();
+        RamAccounting ramAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        SpillStats spillStats = new SpillStats();
+        InputCollectExpression key1Input = new InputCollectExpression(0);
+        InputCollectExpression key2Input = new InputCollectExpression(1);
+        InputCollectExpression partialSumInput = new InputCollectExpression(2);
+        GroupingCollector<List<Object>> collector = GroupingCollector.manyKeys(
+            new CollectExpression[] { key1Input, key2Input, partialSumInput },
+            AggregateMode.PARTIAL_FINAL,
+            new AggregationFunction[] { sumAggregation() },
+            new Input[][] { new Input[] { partialSumInput } },
+            new Input[] { Literal.BOOLEAN_TRUE },
+            ramAccounting,
+            new OnHeapMemoryManager(bytes -> { }),
+            Version.CURRENT,
+            List.of(key1Input, key2Input),
+            List.of(DataTypes.STRING, DataTypes.LONG),
+            Version.CURRENT,
+            1000,
+            spillDirectory,
+            spillStats
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            rows.add(new RowN("k" + (i % 500), (long) (i % 2), 2L));
+        }
+
+        Iterable<Row> result = BatchIterators.collect(InMemoryBatchIterator.of(rows, SENTINEL, false), collector).get();
+
+        assertThat(spillStats.numSpills(), greaterThan(0L));
+        int numGroups = 0;
+        for (Row row : result) {
+            assertThat(row.get(2), is(12L));
+            numGroups++;
+        }
+        assertThat(numGroups, is(500));
+        collector.close();
+    }
+
+    @Test
+    public void testSpillingDoesNotReleaseMemoryOfOtherOperatorsSharingTheAccounting() throws Exception {
+        RamAccounting phaseRamAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(1);
+        GroupingCollector<Object> collector = GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput, valueInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAggregation() },
+            new Input[][] { new Input[] { valueInput } },
+            new Input[] { Literal.BOOLEAN_TRUE },
+            phaseRamAccounting,
+            new OnHeapMemoryManager(bytes -> { }),
+            Version.CURRENT,
+            keyInput,
+            DataTypes.LONG,
+            Version.CURRENT,
+            1000,
+            createTempDir(),
+            new SpillStats()
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new RowN((long) (i % 1000), 1));
+        }
+        Iterable<Row> result = BatchIterators.collect(InMemoryBatchIterator.of(rows, SENTINEL, false), collector).get();
+
+        // A downstream sorting projector of the same phase accounts the rows while the spilled partitions are reduced
+        ChildRamAccounting sortRamAccounting = new ChildRamAccounting(phaseRamAccounting);
+        RowCellsAccountingWithEstimators sortRowAccounting = new RowCellsAccountingWithEstimators(
+            List.of(DataTypes.LONG, DataTypes.LONG), sortRamAccounting, 0);
+        int numRows = 0;
+        for (Row row : result) {
+            sortRowAccounting.accountForAndMaybeBreak(row.materialize());
+            numRows++;
+        }
+
+        assertThat(numRows, is(1000));
+        assertThat(sortRamAccounting.totalBytes(), greaterThan(0L));
+        assertThat(
+            "memory of the sorted rows must still be accounted after the groups were released",
+            phaseRamAccounting.totalBytes() >= sortRamAccounting.totalBytes(),
+            is(true)
+        );
+        collector.close();
+    }
+}
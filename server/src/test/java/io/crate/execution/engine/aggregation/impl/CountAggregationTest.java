@@ -29,10 +29,18 @@ import io.crate.metadata.SearchPath;
 import io.crate.operation.aggregation.AggregationTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.crate.testing.SymbolMatchers.isLiteral;
 
 
@@ -118,4 +126,37 @@ public class CountAggregationTest extends AggregationTest {
         CountAggregation.LongState l2 = (CountAggregation.LongState) streamer.readValueFrom(in);
         assertEquals(l1.value, l2.value);
     }
+
+    @Test
+    public void test_doc_value_aggregation_on_numeric_column() throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("x");
+        Object result = executeDocValueAggregation("count", DataTypes.LONG, fieldType, List.of(), numericDocs("x", 1L, 2L));
+
+        assertEquals(2L, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_string_column() throws Exception {
+        KeywordFieldMapper.KeywordFieldType fieldType = new KeywordFieldMapper.KeywordFieldType();
+        fieldType.setName("s");
+        List<Document> docs = new ArrayList<>();
+        for (String value : new String[]{"foo", "bar", null}) {
+            Document doc = new Document();
+            if (value != null) {
+                doc.add(new SortedSetDocValuesField("s", new BytesRef(value)));
+            }
+            docs.add(doc);
+        }
+        Object result = executeDocValueAggregation("count", DataTypes.STRING, fieldType, List.of(), docs);
+
+        assertEquals(2L, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_count_star() throws Exception {
+        Object result = executeDocValueAggregation("count", null, null, List.of(), numericDocs("x", 1L, 2L));
+
+        assertEquals(3L, result);
+    }
 }
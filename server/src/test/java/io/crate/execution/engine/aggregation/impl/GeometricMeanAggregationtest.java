@@ -29,6 +29,7 @@ import io.crate.metadata.SearchPath;
 import io.crate.operation.aggregation.AggregationTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Test;
 
 import java.util.List;
@@ -102,4 +103,14 @@ public class GeometricMeanAggregationtest extends AggregationTest {
                                         " no overload found for matching argument types: (boolean).");
         executeAggregation(DataTypes.BOOLEAN, new Object[][]{{true}, {false}});
     }
+
+    @Test
+    public void test_doc_value_aggregation_on_integer_column() throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.INTEGER);
+        fieldType.setName("x");
+        Object result = executeDocValueAggregation(
+            "geometric_mean", DataTypes.INTEGER, fieldType, List.of(), numericDocs("x", 7L, 3L));
+
+        assertEquals(4.58257569495584d, result);
+    }
 }
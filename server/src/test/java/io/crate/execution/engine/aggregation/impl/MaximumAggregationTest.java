@@ -24,8 +24,12 @@ package io.crate.execution.engine.aggregation.impl;
 import io.crate.operation.aggregation.AggregationTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Test;
 
+import java.util.List;
+
 public class MaximumAggregationTest extends AggregationTest {
 
     private Object executeAggregation(DataType<?> dataType, Object[][] data) throws Exception {
@@ -81,4 +85,52 @@ public class MaximumAggregationTest extends AggregationTest {
                                         " no overload found for matching argument types: (object).");
         executeAggregation(DataTypes.UNTYPED_OBJECT, new Object[][]{{new Object()}});
     }
+
+    private Object executeDocValueAggregation(DataType<?> dataType,
+                                              NumberFieldMapper.NumberType numberType,
+                                              long... sortableValues) throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(numberType);
+        fieldType.setName("x");
+        return executeDocValueAggregation("max", dataType, fieldType, List.of(), numericDocs("x", sortableValues));
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_negative_longs() throws Exception {
+        Object result = executeDocValueAggregation(DataTypes.LONG, NumberFieldMapper.NumberType.LONG, -8L, -3L, -5L);
+
+        assertEquals(-3L, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_doubles() throws Exception {
+        Object result = executeDocValueAggregation(
+            DataTypes.DOUBLE,
+            NumberFieldMapper.NumberType.DOUBLE,
+            NumericUtils.doubleToSortableLong(-0.8d),
+            NumericUtils.doubleToSortableLong(0.3d),
+            NumericUtils.doubleToSortableLong(-0.2d)
+        );
+
+        assertEquals(0.3d, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_floats() throws Exception {
+        Object result = executeDocValueAggregation(
+            DataTypes.FLOAT,
+            NumberFieldMapper.NumberType.FLOAT,
+            NumericUtils.floatToSortableInt(-0.8f),
+            NumericUtils.floatToSortableInt(0.3f),
+            NumericUtils.floatToSortableInt(-0.2f)
+        );
+
+        assertEquals(0.3f, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_without_values_returns_null() throws Exception {
+        Object result = executeDocValueAggregation(DataTypes.LONG, NumberFieldMapper.NumberType.LONG);
+
+        assertNull(result);
+    }
 }
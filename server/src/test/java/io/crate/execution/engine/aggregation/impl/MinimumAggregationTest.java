@@ -21,11 +21,25 @@
 
 package io.crate.execution.engine.aggregation.impl;
 
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.SearchPath;
 import io.crate.operation.aggregation.AggregationTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.Version;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Test;
 
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
 public class MinimumAggregationTest extends AggregationTest {
 
     private Object executeAggregation(DataType<?> dataType, Object[][] data) throws Exception {
@@ -81,4 +95,68 @@ public class MinimumAggregationTest extends AggregationTest {
                                         " no overload found for matching argument types: (object).");
         executeAggregation(DataTypes.UNTYPED_OBJECT, new Object[][]{{new Object()}});
     }
+
+    private Object executeDocValueAggregation(DataType<?> dataType,
+                                              NumberFieldMapper.NumberType numberType,
+                                              long... sortableValues) throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(numberType);
+        fieldType.setName("x");
+        return executeDocValueAggregation("min", dataType, fieldType, List.of(), numericDocs("x", sortableValues));
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_negative_longs() throws Exception {
+        Object result = executeDocValueAggregation(DataTypes.LONG, NumberFieldMapper.NumberType.LONG, -8L, -3L, -5L);
+
+        assertEquals(-8L, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_doubles() throws Exception {
+        Object result = executeDocValueAggregation(
+            DataTypes.DOUBLE,
+            NumberFieldMapper.NumberType.DOUBLE,
+            NumericUtils.doubleToSortableLong(-0.8d),
+            NumericUtils.doubleToSortableLong(0.3d),
+            NumericUtils.doubleToSortableLong(-0.2d)
+        );
+
+        assertEquals(-0.8d, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_on_floats() throws Exception {
+        Object result = executeDocValueAggregation(
+            DataTypes.FLOAT,
+            NumberFieldMapper.NumberType.FLOAT,
+            NumericUtils.floatToSortableInt(-0.8f),
+            NumericUtils.floatToSortableInt(0.3f),
+            NumericUtils.floatToSortableInt(-0.2f)
+        );
+
+        assertEquals(-0.8f, result);
+    }
+
+    @Test
+    public void test_doc_value_aggregation_without_values_returns_null() throws Exception {
+        Object result = executeDocValueAggregation(DataTypes.LONG, NumberFieldMapper.NumberType.LONG);
+
+        assertNull(result);
+    }
+
+    @Test
+    public void test_doc_value_aggregator_accounts_the_state() throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("x");
+        List<Symbol> arguments = List.of(new InputColumn(0, DataTypes.LONG));
+        AggregationFunction<?, ?> impl = (AggregationFunction<?, ?>) functions.get(
+            null, "min", arguments, SearchPath.pathWithPGCatalogAndDoc());
+        DocValueAggregator<?> aggregator = impl.getDocValueAggregator(
+            List.of(DataTypes.LONG), List.of(fieldType));
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {});
+
+        aggregator.initialState(ramAccounting, memoryManager, Version.CURRENT);
+
+        assertThat(ramAccounting.totalBytes() > 0L, is(true));
+    }
 }
@@ -29,6 +29,7 @@ import io.crate.operation.aggregation.AggregationTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -222,4 +223,19 @@ public class PercentileAggregationTest extends AggregationTest {
 
         assertThat("result must be an array", result, instanceOf(List.class));
     }
+
+    @Test
+    public void test_doc_value_aggregation_matches_row_aggregation() throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("x");
+        long[] values = new long[]{-5L, 10L, 3L, 7L, 21L, 1L, 8L};
+        Object[][] rows = new Object[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = new Object[]{values[i], 0.95};
+        }
+        Object result = executeDocValueAggregation(
+            PercentileAggregation.NAME, DataTypes.LONG, fieldType, List.of(Literal.of(0.95)), numericDocs("x", values));
+
+        assertThat(result, is(execSingleFractionPercentile(DataTypes.LONG, rows)));
+    }
 }
@@ -29,6 +29,7 @@ import io.crate.metadata.SearchPath;
 import io.crate.operation.aggregation.AggregationTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.junit.Test;
 
 import java.util.List;
@@ -110,4 +111,14 @@ public class StdDevAggregationTest extends AggregationTest {
                                         " no overload found for matching argument types: (geo_point).");
         executeAggregation(DataTypes.GEO_POINT, new Object[][]{});
     }
+
+    @Test
+    public void test_doc_value_aggregation_on_integer_column() throws Exception {
+        NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.INTEGER);
+        fieldType.setName("x");
+        Object result = executeDocValueAggregation(
+            "stddev", DataTypes.INTEGER, fieldType, List.of(), numericDocs("x", 7L, 3L));
+
+        assertEquals(2d, result);
+    }
 }
@@ -30,6 +30,7 @@ import io.crate.blob.v2.BlobIndicesService;
 import io.crate.blob.v2.BlobShard;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.integrationtests.SQLHttpIntegrationTest;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Routing;
@@ -107,7 +108,17 @@ public class BlobShardCollectorProviderTest extends SQLHttpIntegrationTest {
                 BlobShard blobShard = blobIndicesService.blobShard(new ShardId(".blob_b1", indexUUID, 0));
                 Schemas schemas = new Schemas(Collections.emptyMap(), clusterService, null);
                 assertNotNull(blobShard);
-                collectorProvider = new BlobShardCollectorProvider(blobShard, clusterService, schemas, null, null, null, Settings.EMPTY, null);
+                collectorProvider = new BlobShardCollectorProvider(
+                    blobShard,
+                    clusterService,
+                    schemas,
+                    null,
+                    null,
+                    null,
+                    Settings.EMPTY,
+                    internalCluster().getDataNodeInstance(SpillThresholds.class),
+                    null
+                );
                 assertNotNull(collectorProvider);
             } catch (Exception e) {
                 fail("Exception shouldn't be thrown: " + e.getMessage());
@@ -69,6 +69,7 @@ public class CollectTaskTest extends RandomizedTest {
             collectPhase,
             CoordinatorTxnCtx.systemTransactionContext(),
             mock(MapSideDataCollectOperation.class),
+            Runnable::run,
             RamAccounting.NO_ACCOUNTING,
             ramAccounting -> new OnHeapMemoryManager(ramAccounting::addBytes),
             new TestingRowConsumer(),
@@ -118,6 +119,7 @@ public class CollectTaskTest extends RandomizedTest {
             collectPhase,
             txnCtx,
             collectOperationMock,
+            Runnable::run,
             ramAccounting,
             ramAcc -> new OnHeapMemoryManager(ramAcc::addBytes),
             new TestingRowConsumer(),
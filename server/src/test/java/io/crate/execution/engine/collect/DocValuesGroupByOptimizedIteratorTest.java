@@ -0,0 +1,249 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.RamAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.Row;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.collect.DocValuesGroupByOptimizedIterator.KeyColumn;
+import io.crate.execution.engine.collect.DocValuesGroupByOptimizedIterator.NumericKeyColumn;
+import io.crate.execution.engine.collect.DocValuesGroupByOptimizedIterator.StringKeyColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.MemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.is;
+
+public class DocValuesGroupByOptimizedIteratorTest extends CrateUnitTest {
+
+    private IndexSearcher indexSearcher;
+
+    @Before
+    public void prepare() throws Exception {
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (long i = 0; i < 20; i++) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField("x", i % 3));
+            if (i % 2 == 0) {
+                doc.add(new SortedSetDocValuesField("y", new BytesRef("val_" + (i % 4))));
+            }
+            doc.add(new SortedNumericDocValuesField("v", i));
+            iw.addDocument(doc);
+            if (i == 10) {
+                // create multiple segments, the same keys must be merged across segments
+                iw.commit();
+            }
+        }
+        iw.commit();
+        indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+    }
+
+    private BatchIterator<Row> createBatchIterator(List<KeyColumn> keyColumns) {
+        return createBatchIterator(keyColumns, new SumLong("v"));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private BatchIterator<Row> createBatchIterator(List<KeyColumn> keyColumns, DocValueAggregator aggregator) {
+        return createBatchIterator(indexSearcher.getTopReaderContext().leaves(), keyColumns, aggregator);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private BatchIterator<Row> createBatchIterator(List<LeafReaderContext> leaves,
+                                                   List<KeyColumn> keyColumns,
+                                                   DocValueAggregator aggregator) {
+        return createBatchIterator(leaves, keyColumns, aggregator, RamAccounting.NO_ACCOUNTING);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private BatchIterator<Row> createBatchIterator(List<LeafReaderContext> leaves,
+                                                   List<KeyColumn> keyColumns,
+                                                   DocValueAggregator aggregator,
+                                                   RamAccounting ramAccounting) {
+        return DocValuesGroupByOptimizedIterator.getIterator(
+            indexSearcher,
+            leaves,
+            new MatchAllDocsQuery(),
+            // the filter symbol is a placeholder, filtered aggregations match v < 10
+            filter -> SortedNumericDocValuesField.newSlowRangeQuery("v", Long.MIN_VALUE, 9L),
+            keyColumns,
+            List.of(aggregator),
+            ramAccounting,
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT
+        );
+    }
+
+    @Test
+    public void test_group_by_single_numeric_key() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> createBatchIterator(List.of(new NumericKeyColumn("x", DataTypes.LONG))));
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            new Object[] { 0L, 0L + 3 + 6 + 9 + 12 + 15 + 18 },
+            new Object[] { 1L, 1L + 4 + 7 + 10 + 13 + 16 + 19 },
+            new Object[] { 2L, 2L + 5 + 8 + 11 + 14 + 17 }
+        ));
+    }
+
+    @Test
+    public void test_group_by_numeric_and_string_key_with_nulls() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> createBatchIterator(List.of(new NumericKeyColumn("x", DataTypes.INTEGER), new StringKeyColumn("y"))));
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            new Object[] { 0, "val_0", 0L + 12 },
+            new Object[] { 0, "val_2", 6L + 18 },
+            new Object[] { 0, null, 3L + 9 + 15 },
+            new Object[] { 1, "val_0", 4L + 16 },
+            new Object[] { 1, "val_2", 10L },
+            new Object[] { 1, null, 1L + 7 + 13 + 19 },
+            new Object[] { 2, "val_0", 8L },
+            new Object[] { 2, "val_2", 2L + 14 },
+            new Object[] { 2, null, 5L + 11 + 17 }
+        ));
+    }
+
+    @Test
+    public void test_group_by_with_filtered_aggregation() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> createBatchIterator(
+                List.of(new NumericKeyColumn("x", DataTypes.LONG)),
+                new FilteredDocValueAggregator<>(new SumLong("v"), Literal.BOOLEAN_TRUE)));
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            new Object[] { 0L, 0L + 3 + 6 + 9 },
+            new Object[] { 1L, 1L + 4 + 7 },
+            new Object[] { 2L, 2L + 5 + 8 }
+        ));
+    }
+
+    @Test
+    public void test_slices_emit_partial_states_which_merge_to_the_result_of_the_whole_shard() throws Exception {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        assertThat(leaves.size(), is(2));
+
+        Map<Object, Long> sumsByKey = new HashMap<>();
+        for (LeafReaderContext leaf : leaves) {
+            BatchIterator<Row> slice = createBatchIterator(
+                List.of(leaf), List.of(new NumericKeyColumn("x", DataTypes.LONG)), new SumLong("v"));
+            List<Object[]> rows = BatchIterators.collect(
+                slice, Collectors.mapping(Row::materialize, Collectors.toList())).get(5, TimeUnit.SECONDS);
+            for (Object[] row : rows) {
+                sumsByKey.merge(row[0], (Long) row[1], Long::sum);
+            }
+        }
+        assertThat(sumsByKey, is(Map.of(
+            0L, 0L + 3 + 6 + 9 + 12 + 15 + 18,
+            1L, 1L + 4 + 7 + 10 + 13 + 16 + 19,
+            2L, 2L + 5 + 8 + 11 + 14 + 17
+        )));
+    }
+
+    @Test
+    public void test_segment_local_maps_are_accounted_and_released_after_each_segment() throws Exception {
+        AtomicLong peakBytes = new AtomicLong();
+        AtomicLong usedBytes = new AtomicLong();
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(
+            bytes -> peakBytes.accumulateAndGet(usedBytes.addAndGet(bytes), Math::max),
+            bytes -> usedBytes.addAndGet(-bytes)
+        );
+        BatchIterator<Row> it = createBatchIterator(
+            indexSearcher.getTopReaderContext().leaves(),
+            List.of(new NumericKeyColumn("x", DataTypes.LONG), new StringKeyColumn("y")),
+            new SumLong("v"),
+            ramAccounting
+        );
+        List<Object[]> rows = BatchIterators.collect(
+            it, Collectors.mapping(Row::materialize, Collectors.toList())).get(5, TimeUnit.SECONDS);
+        assertThat(rows.size(), is(9));
+
+        long groupsBytes = ramAccounting.totalBytes();
+        assertThat(groupsBytes > 0, is(true));
+        assertThat(peakBytes.get() > groupsBytes, is(true));
+
+        ramAccounting.release();
+        assertThat(usedBytes.get(), is(0L));
+    }
+
+    private static class SumLong implements DocValueAggregator<long[]> {
+
+        private final String columnName;
+        private SortedNumericDocValues values;
+
+        SumLong(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public long[] initialState(RamAccounting ramAccounting, MemoryManager memoryManager, Version minNodeVersion) {
+            return new long[1];
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedNumeric(reader, columnName);
+        }
+
+        @Override
+        public void apply(long[] state, int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                state[0] += values.nextValue();
+            }
+        }
+
+        @Override
+        public Object partialResult(long[] state) {
+            return state[0];
+        }
+    }
+}
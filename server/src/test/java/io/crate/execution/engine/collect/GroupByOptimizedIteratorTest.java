@@ -102,6 +102,7 @@ public class GroupByOptimizedIteratorTest extends CrateDummyClusterServiceUnitTe
         return GroupByOptimizedIterator.getIterator(
             BigArrays.NON_RECYCLING_INSTANCE,
             indexSearcher,
+            indexSearcher.getTopReaderContext().leaves(),
             columnName,
             aggregationContexts,
             List.of(new LuceneCollectorExpression<Object>() {
@@ -0,0 +1,132 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class LeafSlicesTest extends CrateUnitTest {
+
+    private IndexSearcher indexSearcher;
+
+    @Before
+    public void prepareSearcher() throws Exception {
+        IndexWriterConfig conf = new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), conf);
+        // segments with 40, 30, 20 and 10 documents
+        long value = 0;
+        for (int segment = 4; segment > 0; segment--) {
+            for (int i = 0; i < segment * 10; i++) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("x", value++));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+        assertThat(indexSearcher.getTopReaderContext().leaves().size(), is(4));
+    }
+
+    @Test
+    public void test_leaves_are_distributed_onto_slices_with_similar_doc_count() {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        List<List<LeafReaderContext>> slices = LeafSlices.slice(leaves, 2, 1);
+
+        assertThat(slices.size(), is(2));
+        assertThat(numDocs(slices.get(0)), is(50));
+        assertThat(numDocs(slices.get(1)), is(50));
+        Set<LeafReaderContext> allLeaves = new HashSet<>(slices.get(0));
+        allLeaves.addAll(slices.get(1));
+        assertThat(allLeaves, containsInAnyOrder(leaves.toArray()));
+    }
+
+    @Test
+    public void test_no_split_if_slices_would_be_below_min_docs() {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        List<List<LeafReaderContext>> slices = LeafSlices.slice(leaves, 4, 60);
+
+        assertThat(slices.size(), is(1));
+        assertThat(slices.get(0), is(leaves));
+    }
+
+    @Test
+    public void test_number_of_slices_is_limited_by_number_of_leaves() {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        List<List<LeafReaderContext>> slices = LeafSlices.slice(leaves, 8, 1);
+
+        assertThat(slices.size(), is(4));
+    }
+
+    @Test
+    public void test_iterators_of_all_slices_return_all_documents() throws Exception {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        Set<Object> values = new HashSet<>();
+        for (List<LeafReaderContext> slice : LeafSlices.slice(leaves, 3, 1)) {
+            List<LongColumnReference> columnRefs = List.of(new LongColumnReference("x"));
+            LuceneBatchIterator it = new LuceneBatchIterator(
+                indexSearcher,
+                slice,
+                new MatchAllDocsQuery(),
+                null,
+                false,
+                new CollectorContext(),
+                columnRefs,
+                columnRefs
+            );
+            while (it.moveNext()) {
+                values.add(it.currentElement().get(0));
+            }
+        }
+        assertThat(values.size(), is(100));
+    }
+
+    private static int numDocs(List<LeafReaderContext> slice) {
+        int numDocs = 0;
+        for (LeafReaderContext leaf : slice) {
+            numDocs += leaf.reader().maxDoc();
+        }
+        return numDocs;
+    }
+}
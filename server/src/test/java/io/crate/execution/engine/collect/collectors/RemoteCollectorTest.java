@@ -36,6 +36,7 @@ import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.transport.JobRequest;
 import io.crate.execution.jobs.transport.JobResponse;
 import io.crate.execution.jobs.transport.TransportJobAction;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.SearchPath;
@@ -98,6 +99,7 @@ public class RemoteCollectorTest extends CrateDummyClusterServiceUnitTest {
         numBroadcastCalls = new AtomicInteger(0);
         transportKillJobsNodeAction = new TransportKillJobsNodeAction(
             tasksService,
+            mock(WorkloadClasses.class),
             clusterService,
             mock(TransportService.class)
         ) {
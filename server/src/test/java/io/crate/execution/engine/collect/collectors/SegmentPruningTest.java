@@ -0,0 +1,161 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class SegmentPruningTest extends CrateUnitTest {
+
+    private static IndexSearcher createSearcher(boolean withMissingValue) throws IOException {
+        IndexWriterConfig conf = new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), conf);
+        // 4 segments with the values 0-9, 10-19, 20-29 and 30-39
+        long value = 0;
+        for (int segment = 0; segment < 4; segment++) {
+            for (int i = 0; i < 10; i++) {
+                Document doc = new Document();
+                doc.add(new LongPoint("x", value));
+                doc.add(new SortedNumericDocValuesField("x", value));
+                iw.addDocument(doc);
+                value++;
+            }
+            if (withMissingValue) {
+                iw.addDocument(new Document());
+            }
+            iw.commit();
+        }
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(iw));
+        assertThat(searcher.getTopReaderContext().leaves().size(), is(4));
+        return searcher;
+    }
+
+    private static List<Long> values(TopFieldCollector collector) {
+        ArrayList<Long> values = new ArrayList<>();
+        for (ScoreDoc scoreDoc : collector.topDocs().scoreDocs) {
+            values.add((Long) ((FieldDoc) scoreDoc).fields[0]);
+        }
+        return values;
+    }
+
+    @Test
+    public void test_descending_sort_only_collects_segments_with_competitive_values() throws Exception {
+        IndexSearcher searcher = createSearcher(false);
+        Sort sort = new Sort(new SortedNumericSortField("x", SortField.Type.LONG, true));
+        TopFieldCollector topFieldCollector = TopFieldCollector.create(sort, 5, 0);
+        LeafRecordingCollector collector = new LeafRecordingCollector(topFieldCollector);
+
+        boolean pruned = SegmentPruning.search(searcher, new MatchAllDocsQuery(), sort, 5, null, collector);
+
+        assertThat(pruned, is(true));
+        assertThat(collector.leaves, contains(3));
+        assertThat(values(topFieldCollector), contains(39L, 38L, 37L, 36L, 35L));
+    }
+
+    @Test
+    public void test_ascending_sort_only_collects_segments_with_competitive_values() throws Exception {
+        IndexSearcher searcher = createSearcher(false);
+        Sort sort = new Sort(new SortedNumericSortField("x", SortField.Type.LONG, false));
+        TopFieldCollector topFieldCollector = TopFieldCollector.create(sort, 15, 0);
+        LeafRecordingCollector collector = new LeafRecordingCollector(topFieldCollector);
+
+        boolean pruned = SegmentPruning.search(searcher, new MatchAllDocsQuery(), sort, 15, null, collector);
+
+        assertThat(pruned, is(true));
+        assertThat(collector.leaves, contains(0, 1));
+        assertThat(values(topFieldCollector).get(14), is(14L));
+    }
+
+    @Test
+    public void test_segments_are_not_pruned_if_a_document_has_no_value() throws Exception {
+        IndexSearcher searcher = createSearcher(true);
+        Sort sort = new Sort(new SortedNumericSortField("x", SortField.Type.LONG, true));
+        LeafRecordingCollector collector = new LeafRecordingCollector(TopFieldCollector.create(sort, 5, 0));
+
+        boolean pruned = SegmentPruning.search(searcher, new MatchAllDocsQuery(), sort, 5, null, collector);
+
+        assertThat(pruned, is(false));
+        assertThat(collector.leaves.isEmpty(), is(true));
+    }
+
+    @Test
+    public void test_segments_are_not_pruned_if_there_are_less_hits_than_requested() throws Exception {
+        IndexSearcher searcher = createSearcher(false);
+        Sort sort = new Sort(new SortedNumericSortField("x", SortField.Type.LONG, true));
+        LeafRecordingCollector collector = new LeafRecordingCollector(TopFieldCollector.create(sort, 50, 0));
+
+        boolean pruned = SegmentPruning.search(searcher, new MatchAllDocsQuery(), sort, 50, null, collector);
+
+        assertThat(pruned, is(false));
+        assertThat(collector.leaves.isEmpty(), is(true));
+    }
+
+    private static class LeafRecordingCollector implements Collector {
+
+        private final Collector delegate;
+        private final List<Integer> leaves = new ArrayList<>();
+
+        LeafRecordingCollector(Collector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            leaves.add(context.ord);
+            return delegate.getLeafCollector(context);
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return delegate.scoreMode();
+        }
+    }
+}
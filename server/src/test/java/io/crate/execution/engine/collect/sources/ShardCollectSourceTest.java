@@ -0,0 +1,79 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.sources;
+
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.EvalProjection;
+import io.crate.execution.dsl.projection.FilterProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.TopNProjection;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.RowGranularity;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.List;
+
+import static io.crate.execution.engine.collect.sources.ShardCollectSource.canSplitShards;
+import static org.hamcrest.Matchers.is;
+
+public class ShardCollectSourceTest extends CrateUnitTest {
+
+    private static final InputColumn KEY = new InputColumn(0, DataTypes.INTEGER);
+
+    private static GroupProjection groupProjection(AggregateMode mode) {
+        return new GroupProjection(List.of(KEY), List.of(), mode, RowGranularity.SHARD);
+    }
+
+    private static AggregationProjection aggregationProjection(AggregateMode mode) {
+        return new AggregationProjection(List.of(), RowGranularity.SHARD, mode);
+    }
+
+    @Test
+    public void test_shards_are_split_if_partial_states_are_merged_later() {
+        assertThat(canSplitShards(List.of(groupProjection(AggregateMode.ITER_PARTIAL))), is(true));
+        assertThat(canSplitShards(List.of(aggregationProjection(AggregateMode.ITER_PARTIAL))), is(true));
+        assertThat(
+            canSplitShards(List.of(
+                new FilterProjection(Literal.BOOLEAN_TRUE, List.of(KEY)),
+                new EvalProjection(List.of(KEY)),
+                groupProjection(AggregateMode.ITER_PARTIAL))),
+            is(true));
+    }
+
+    @Test
+    public void test_shards_are_not_split_if_the_shard_projections_produce_final_results() {
+        assertThat(canSplitShards(List.of()), is(false));
+        assertThat(canSplitShards(List.of(new EvalProjection(List.of(KEY)))), is(false));
+        assertThat(canSplitShards(List.of(groupProjection(AggregateMode.ITER_FINAL))), is(false));
+        assertThat(canSplitShards(List.of(aggregationProjection(AggregateMode.ITER_FINAL))), is(false));
+        assertThat(
+            canSplitShards(List.of(
+                groupProjection(AggregateMode.ITER_PARTIAL),
+                new TopNProjection(10, 0, List.of(DataTypes.INTEGER)))),
+            is(false));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccounting;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+
+public class StreamBucketTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] {
+        DataTypes.LONG,
+        DataTypes.INTEGER,
+        DataTypes.DOUBLE,
+        DataTypes.FLOAT,
+        DataTypes.STRING,
+        DataTypes.TIMESTAMPZ,
+        DataTypes.BOOLEAN,
+        DataTypes.UNTYPED_OBJECT
+    };
+
+    private static List<Object[]> rows(int numRows, int numDistinctStrings) {
+        List<Object[]> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            if (i % 7 == 0) {
+                rows.add(new Object[STREAMERS.length]);
+            } else {
+                rows.add(new Object[] {
+                    (long) i * 1000,
+                    -i,
+                    i / 3.0,
+                    i / 2.0f,
+                    "value-" + (i % numDistinctStrings),
+                    1600000000000L + i,
+                    i % 2 == 0,
+                    Map.of("x", i)
+                });
+            }
+        }
+        return rows;
+    }
+
+    private static StreamBucket build(List<Object[]> rows, boolean columnar) {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, RamAccounting.NO_ACCOUNTING, columnar);
+        for (Object[] row : rows) {
+            builder.add(new RowN(row));
+        }
+        return builder.build();
+    }
+
+    private static StreamBucket serializeAndRead(StreamBucket bucket, Version version) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(version);
+        return new StreamBucket(in, STREAMERS);
+    }
+
+    private static void assertRows(StreamBucket bucket, List<Object[]> expectedRows) {
+        assertThat(bucket.size(), is(expectedRows.size()));
+        int idx = 0;
+        for (Row row : bucket) {
+            assertThat(row.materialize(), is(expectedRows.get(idx)));
+            idx++;
+        }
+        assertThat(idx, is(expectedRows.size()));
+    }
+
+    @Test
+    public void testColumnarBucketStreaming() throws Exception {
+        List<Object[]> rows = rows(100, 5);
+        StreamBucket bucket = serializeAndRead(build(rows, true), Version.CURRENT);
+
+        assertThat(bucket.isColumnar(), is(true));
+        assertRows(bucket, rows);
+        // the decoded columns are re-used when iterating again
+        assertRows(bucket, rows);
+    }
+
+    @Test
+    public void testColumnarBucketWithHighCardinalityTextIsCompressedAndSmallerThanRowFormat() throws Exception {
+        List<Object[]> rows = rows(10_000, ColumnarBucket.MAX_DICTIONARY_SIZE * 3);
+        StreamBucket rowBucket = build(rows, false);
+        StreamBucket columnarBucket = build(rows, true);
+
+        BytesStreamOutput rowOut = new BytesStreamOutput();
+        rowBucket.writeTo(rowOut);
+        BytesStreamOutput columnarOut = new BytesStreamOutput();
+        columnarBucket.writeTo(columnarOut);
+        assertThat(columnarOut.size() < rowOut.size(), is(true));
+
+        StreamInput in = columnarOut.bytes().streamInput();
+        assertRows(new StreamBucket(in, STREAMERS), rows);
+    }
+
+    @Test
+    public void testColumnarBucketIsConvertedToRowFormatForOlderNodes() throws Exception {
+        List<Object[]> rows = rows(20, 5);
+        StreamBucket bucket = serializeAndRead(build(rows, true), Version.V_4_2_1);
+
+        assertThat(bucket.isColumnar(), is(false));
+        assertRows(bucket, rows);
+    }
+
+    @Test
+    public void testEmptyColumnarBucketStreaming() throws Exception {
+        StreamBucket bucket = serializeAndRead(build(List.of(), true), Version.CURRENT);
+
+        assertThat(bucket.size(), is(0));
+        assertThat(bucket.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testInterleavedIterationsOverColumnarBucketHaveTheirOwnPosition() throws Exception {
+        List<Object[]> rows = rows(10, 5);
+        StreamBucket bucket = serializeAndRead(build(rows, true), Version.CURRENT);
+
+        Iterator<Row> it1 = bucket.iterator();
+        Iterator<Row> it2 = bucket.iterator();
+        Row row1 = it1.next();
+        it1.next();
+        Row row2 = it2.next();
+        assertThat(row1 == row2, is(false));
+        assertThat(row2.materialize(), is(rows.get(0)));
+        assertThat(row1.materialize(), is(rows.get(1)));
+    }
+}
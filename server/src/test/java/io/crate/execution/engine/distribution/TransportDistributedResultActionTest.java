@@ -30,6 +30,7 @@ import io.crate.execution.jobs.TasksService;
 import io.crate.execution.jobs.kill.KillJobsRequest;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.support.Transports;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BackoffPolicy;
@@ -55,6 +56,7 @@ public class TransportDistributedResultActionTest extends CrateDummyClusterServi
         AtomicInteger numBroadcasts = new AtomicInteger(0);
         TransportKillJobsNodeAction killJobsAction = new TransportKillJobsNodeAction(
             tasksService,
+            mock(WorkloadClasses.class),
             clusterService,
             mock(TransportService.class)
         ) {
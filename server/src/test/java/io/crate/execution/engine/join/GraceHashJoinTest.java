@@ -0,0 +1,222 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import io.crate.Streamer;
+import io.crate.breaker.BlockBasedRamAccounting;
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.RowCellsAccountingWithEstimators;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.join.CombinedRow;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class GraceHashJoinTest extends CrateUnitTest {
+
+    private static final List<Object[]> INNER_JOIN_RESULT = Arrays.asList(
+        new Object[] { 1, 1 }, new Object[] { 1, 1 },
+        new Object[] { 2, 2 }, new Object[] { 2, 2 },
+        new Object[] { 3, 3 },
+        new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }
+    );
+    private static final List<Object[]> UNMATCHED_LEFT_ROWS = Arrays.asList(
+        new Object[] { 0, null }, new Object[] { 0, null }
+    );
+    private static final List<Object[]> UNMATCHED_RIGHT_ROWS = Arrays.asList(
+        new Object[] { null, 5 }, new Object[] { null, 5 }, new Object[] { null, 6 }
+    );
+
+    private static BatchIterator<Row> left() {
+        return new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)), 2, 4, null);
+    }
+
+    private static BatchIterator<Row> right() {
+        return new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)), 2, 4, null);
+    }
+
+    private static GraceHashJoin createJoin(BatchIterator<Row> left,
+                                            BatchIterator<Row> right,
+                                            JoinType joinType,
+                                            long memoryBudgetInBytes,
+                                            @Nullable Path spillDirectory) {
+        RamAccounting ramAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER.streamer() };
+        return new GraceHashJoin(
+            left,
+            right,
+            joinType,
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hashCode(row.get(0)),
+            row -> Objects.hashCode(row.get(0)),
+            ramAccounting,
+            new RowCellsAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting, 0),
+            new RowCellsAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting, 0),
+            bytesInUse -> memoryBudgetInBytes,
+            streamers,
+            streamers,
+            spillDirectory
+        );
+    }
+
+    private static List<Object[]> concat(List<Object[]> first, List<Object[]> second) {
+        ArrayList<Object[]> result = new ArrayList<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private static void assertJoinResult(JoinType joinType, List<Object[]> expectedResult) throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> createJoin(left(), right(), joinType, Long.MAX_VALUE, null).batchIterator());
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        assertJoinResult(JoinType.INNER, INNER_JOIN_RESULT);
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        assertJoinResult(JoinType.LEFT, concat(INNER_JOIN_RESULT, UNMATCHED_LEFT_ROWS));
+    }
+
+    @Test
+    public void testRightJoin() throws Exception {
+        assertJoinResult(JoinType.RIGHT, concat(INNER_JOIN_RESULT, UNMATCHED_RIGHT_ROWS));
+    }
+
+    @Test
+    public void testFullJoin() throws Exception {
+        assertJoinResult(
+            JoinType.FULL,
+            concat(concat(INNER_JOIN_RESULT, UNMATCHED_LEFT_ROWS), UNMATCHED_RIGHT_ROWS));
+    }
+
+    @Test
+    public void testSemiJoinEmitsEachMatchingLeftRowOnce() throws Exception {
+        assertJoinResult(JoinType.SEMI, Arrays.asList(
+            new Object[] { 1, null },
+            new Object[] { 2, null }, new Object[] { 2, null },
+            new Object[] { 3, null },
+            new Object[] { 4, null }, new Object[] { 4, null }
+        ));
+    }
+
+    @Test
+    public void testAntiJoinEmitsLeftRowsWithoutMatch() throws Exception {
+        assertJoinResult(JoinType.ANTI, UNMATCHED_LEFT_ROWS);
+    }
+
+    @Test
+    public void testPartitionsAreSpilledToDiskIfMemoryBudgetIsExceeded() throws Exception {
+        Path spillDirectory = createTempDir();
+        List<Integer> leftValues = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<Integer> rightValues = IntStream.range(500, 1500).boxed().collect(Collectors.toList());
+        GraceHashJoin join = createJoin(
+            TestingBatchIterators.ofValues(leftValues),
+            TestingBatchIterators.ofValues(rightValues),
+            JoinType.FULL,
+            1000,
+            spillDirectory
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(join.batchIterator(), null);
+        List<Object[]> rows = consumer.getResult();
+
+        assertThat(join.numSpilledPartitions(), greaterThan(0));
+        List<Object[]> expectedRows = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            expectedRows.add(new Object[] { i < 1000 ? i : null, i >= 500 ? i : null });
+        }
+        assertThat(rows, containsInAnyOrder(expectedRows.toArray()));
+        try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+            assertThat("spill files must be removed once the join is closed", spillFiles.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void testResultIsTheSameAfterMoveToStartIfPartitionsWereSpilled() throws Exception {
+        Path spillDirectory = createTempDir();
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> createJoin(left(), right(), JoinType.FULL, 0, spillDirectory).batchIterator());
+        tester.verifyResultAndEdgeCaseBehaviour(
+            concat(concat(INNER_JOIN_RESULT, UNMATCHED_LEFT_ROWS), UNMATCHED_RIGHT_ROWS));
+    }
+
+    @Test
+    public void testRightSideIsStreamedIfLeftSideFitsIntoMemoryBudget() throws Exception {
+        RamAccounting leftRamAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        RamAccounting rightRamAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER.streamer() };
+        GraceHashJoin join = new GraceHashJoin(
+            left(),
+            right(),
+            JoinType.FULL,
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hashCode(row.get(0)),
+            row -> Objects.hashCode(row.get(0)),
+            leftRamAccounting,
+            new RowCellsAccountingWithEstimators(List.of(DataTypes.INTEGER), leftRamAccounting, 0),
+            new RowCellsAccountingWithEstimators(List.of(DataTypes.INTEGER), rightRamAccounting, 0),
+            bytesInUse -> Long.MAX_VALUE,
+            streamers,
+            streamers,
+            createTempDir()
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(join.batchIterator(), null);
+
+        assertThat(
+            consumer.getResult(),
+            containsInAnyOrder(concat(concat(INNER_JOIN_RESULT, UNMATCHED_LEFT_ROWS), UNMATCHED_RIGHT_ROWS).toArray()));
+        assertThat(join.numSpilledPartitions(), is(0));
+        assertThat("right rows must not be buffered", rightRamAccounting.totalBytes(), is(0L));
+    }
+}
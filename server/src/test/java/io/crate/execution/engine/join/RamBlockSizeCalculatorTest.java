@@ -123,4 +123,28 @@ public class RamBlockSizeCalculatorTest {
         );
         assertThat(blockSizeCalculator.getAsInt(), is(defaultBlockSize));
     }
+
+    @Test
+    public void testMemoryBudgetShrinksIfOtherOperationsUseTheBreaker() {
+        when(circuitBreaker.getLimit()).thenReturn(1000L);
+        when(circuitBreaker.getUsed()).thenReturn(0L);
+        RamBlockSizeCalculator blockSizeCalculator = new RamBlockSizeCalculator(defaultBlockSize, circuitBreaker, 10, 10);
+        assertThat(blockSizeCalculator.memoryBudgetInBytes(0), is(500L));
+
+        // The operation itself holds 300 bytes, another operation 400 bytes
+        when(circuitBreaker.getUsed()).thenReturn(700L);
+        assertThat(blockSizeCalculator.memoryBudgetInBytes(300), is(300L));
+    }
+
+    @Test
+    public void testLeftSideExceedsMemoryBudget() {
+        when(circuitBreaker.getLimit()).thenReturn(1000L);
+        when(circuitBreaker.getUsed()).thenReturn(0L);
+        RamBlockSizeCalculator leftFits = new RamBlockSizeCalculator(defaultBlockSize, circuitBreaker, 10, 10);
+        assertThat(leftFits.leftSideExceedsMemoryBudget(), is(false));
+        RamBlockSizeCalculator leftTooLarge = new RamBlockSizeCalculator(defaultBlockSize, circuitBreaker, 10, 100);
+        assertThat(leftTooLarge.leftSideExceedsMemoryBudget(), is(true));
+        RamBlockSizeCalculator noStats = new RamBlockSizeCalculator(defaultBlockSize, circuitBreaker, 10, -1);
+        assertThat(noStats.leftSideExceedsMemoryBudget(), is(false));
+    }
 }
@@ -32,6 +32,7 @@ import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.projection.FilterProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -47,10 +48,12 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.SearchPath;
 import io.crate.metadata.TransactionContext;
+import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.shard.ShardId;
 import org.junit.Before;
@@ -60,6 +63,7 @@ import org.mockito.Answers;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -78,6 +82,11 @@ public class ProjectingRowConsumerTest extends CrateDummyClusterServiceUnitTest
     private OnHeapMemoryManager memoryManager;
 
 
+    @Override
+    protected Collection<Setting<?>> additionalClusterSettings() {
+        return new SQLPlugin(Settings.EMPTY).getSettings();
+    }
+
     @Before
     public void prepare() {
         functions = getFunctions();
@@ -88,6 +97,7 @@ public class ProjectingRowConsumerTest extends CrateDummyClusterServiceUnitTest
             functions,
             THREAD_POOL,
             Settings.EMPTY,
+            new SpillThresholds(Settings.EMPTY, clusterService.getClusterSettings()),
             mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS),
             new InputFactory(functions),
             new EvaluatingNormalizer(
@@ -32,6 +32,7 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.EvalProjection;
 import io.crate.execution.dsl.projection.FilterProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.OrderedTopNProjection;
@@ -41,10 +42,13 @@ import io.crate.execution.engine.aggregation.GroupingProjector;
 import io.crate.execution.engine.aggregation.impl.CountAggregation;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.SortingTopNProjector;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Aggregation;
 import io.crate.expression.symbol.Function;
@@ -53,15 +57,18 @@ import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.memory.OnHeapMemoryManager;
 import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.SearchPath;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
+import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingBatchIterators;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Before;
 import org.junit.Test;
@@ -70,6 +77,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -92,6 +100,11 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
 
     private OnHeapMemoryManager memoryManager;
 
+    @Override
+    protected Collection<Setting<?>> additionalClusterSettings() {
+        return new SQLPlugin(Settings.EMPTY).getSettings();
+    }
+
     @Before
     public void prepare() {
         MockitoAnnotations.initMocks(this);
@@ -102,6 +115,7 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
             functions,
             THREAD_POOL,
             Settings.EMPTY,
+            new SpillThresholds(Settings.EMPTY, clusterService.getClusterSettings()),
             mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS),
             new InputFactory(functions),
             EvaluatingNormalizer.functionOnlyNormalizer(functions),
@@ -274,4 +288,91 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
         Bucket bucket = consumer.getBucket();
         assertThat(bucket.size(), is(1));
     }
+
+    @Test
+    public void testFilterProjectionOnPrimitiveInputsIsVectorized() throws Exception {
+        List<Symbol> arguments = List.of(new InputColumn(1, DataTypes.INTEGER), Literal.of(2));
+        FunctionImplementation op = functions.get(
+            null, GtOperator.NAME, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        Function function = new Function(op.signature(), arguments, DataTypes.BOOLEAN);
+        FilterProjection projection = new FilterProjection(function,
+            Arrays.asList(new InputColumn(0, DataTypes.LONG), new InputColumn(1, DataTypes.INTEGER)));
+
+        Projector projector = visitor.create(
+            projection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(projector, instanceOf(VectorizedFilterProjector.class));
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            rows.add($((long) i, i % 10 == 0 ? null : i % 5));
+        }
+        BatchIterator<Row> filteredBI = projector.apply(
+            InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true));
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(filteredBI, null);
+        Bucket bucket = consumer.getBucket();
+        assertThat(bucket.size(), is(1000));
+        for (Row row : bucket) {
+            assertThat((Integer) row.get(1) > 2, is(true));
+            assertThat(row.get(1), is((int) ((long) row.get(0) % 5)));
+        }
+    }
+
+    @Test
+    public void testFilterProjectionWithNonPrimitiveRowColumnIsNotVectorized() throws Exception {
+        List<Symbol> arguments = List.of(new InputColumn(1, DataTypes.INTEGER), Literal.of(2));
+        FunctionImplementation op = functions.get(
+            null, GtOperator.NAME, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        Function function = new Function(op.signature(), arguments, DataTypes.BOOLEAN);
+        FilterProjection projection = new FilterProjection(function,
+            Arrays.asList(new InputColumn(0, DataTypes.STRING), new InputColumn(1, DataTypes.INTEGER)));
+
+        Projector projector = visitor.create(
+            projection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(projector, instanceOf(FilterProjector.class));
+    }
+
+    @Test
+    public void testEvalProjectionOnPrimitiveInputsIsVectorized() throws Exception {
+        List<Symbol> arguments = List.of(new InputColumn(1, DataTypes.INTEGER), Literal.of(2));
+        FunctionImplementation multiply = functions.get(
+            null, ArithmeticFunctions.Names.MULTIPLY, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        EvalProjection projection = new EvalProjection(List.of(
+            new InputColumn(0, DataTypes.LONG),
+            new Function(multiply.signature(), arguments, DataTypes.INTEGER)
+        ));
+
+        Projector projector = visitor.create(
+            projection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(projector, instanceOf(VectorizedEvalProjector.class));
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add($(10L, 1));
+        rows.add($(20L, null));
+        rows.add($(30L, 21));
+        BatchIterator<Row> evalBI = projector.apply(
+            InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true));
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(evalBI, null);
+        assertThat(consumer.getBucket(), contains(
+            isRow(10L, 2),
+            isRow(20L, null),
+            isRow(30L, 42)
+        ));
+    }
+
+    @Test
+    public void testEvalProjectionWithNonPrimitiveInputIsNotVectorized() throws Exception {
+        List<Symbol> arguments = List.of(new InputColumn(1, DataTypes.INTEGER), Literal.of(2));
+        FunctionImplementation multiply = functions.get(
+            null, ArithmeticFunctions.Names.MULTIPLY, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        EvalProjection projection = new EvalProjection(List.of(
+            new InputColumn(0, DataTypes.STRING),
+            new Function(multiply.signature(), arguments, DataTypes.INTEGER)
+        ));
+
+        Projector projector = visitor.create(
+            projection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(projector, instanceOf(InputRowProjector.class));
+    }
 }
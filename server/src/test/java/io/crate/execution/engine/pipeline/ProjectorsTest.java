@@ -27,6 +27,7 @@ import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.projection.FilterProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.engine.aggregation.GroupingProjector;
+import io.crate.execution.engine.spill.SpillThresholds;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -37,8 +38,10 @@ import io.crate.memory.OnHeapMemoryManager;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
+import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.shard.ShardId;
 import org.junit.Before;
@@ -47,6 +50,7 @@ import org.mockito.Answers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -60,6 +64,11 @@ public class ProjectorsTest extends CrateDummyClusterServiceUnitTest {
     private ProjectionToProjectorVisitor projectorFactory;
     private OnHeapMemoryManager memoryManager;
 
+    @Override
+    protected Collection<Setting<?>> additionalClusterSettings() {
+        return new SQLPlugin(Settings.EMPTY).getSettings();
+    }
+
     @Before
     public void prepare() throws Exception {
         Functions functions = getFunctions();
@@ -70,6 +79,7 @@ public class ProjectorsTest extends CrateDummyClusterServiceUnitTest {
             functions,
             THREAD_POOL,
             Settings.EMPTY,
+            new SpillThresholds(Settings.EMPTY, clusterService.getClusterSettings()),
             mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS),
             new InputFactory(functions),
             new EvaluatingNormalizer(
@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.search.Sort;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.NullValueOrder;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class IndexSortTest extends CrateUnitTest {
+
+    private static final Map<String, MappedFieldType> FIELD_TYPES = Map.of(
+        "ts", new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG),
+        "name", keywordFieldType(true),
+        "no_docvalues", keywordFieldType(false)
+    );
+
+    private static MappedFieldType keywordFieldType(boolean hasDocValues) {
+        KeywordFieldMapper.KeywordFieldType fieldType = new KeywordFieldMapper.KeywordFieldType();
+        fieldType.setHasDocValues(hasDocValues);
+        return fieldType;
+    }
+
+    private static Sort build(String value) {
+        return IndexSort.build(Settings.builder().put(IndexSort.SETTING.getKey(), value).build(), FIELD_TYPES::get);
+    }
+
+    @Test
+    public void test_parse_columns_with_direction_and_null_ordering() {
+        List<IndexSort.Column> columns = IndexSort.parse("ts DESC, name asc nulls first, x");
+
+        assertThat(columns.size(), is(3));
+        assertThat(columns.get(0).name, is("ts"));
+        assertThat(columns.get(0).reverse, is(true));
+        assertThat(columns.get(0).nullValueOrder, is(NullValueOrder.FIRST));
+        assertThat(columns.get(1).name, is("name"));
+        assertThat(columns.get(1).reverse, is(false));
+        assertThat(columns.get(1).nullValueOrder, is(NullValueOrder.FIRST));
+        assertThat(columns.get(2).name, is("x"));
+        assertThat(columns.get(2).reverse, is(false));
+        assertThat(columns.get(2).nullValueOrder, is(NullValueOrder.LAST));
+    }
+
+    @Test
+    public void test_parse_invalid_value_raises_error() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid value for setting 'index.sort.columns': ts DESC NULLS");
+        IndexSort.parse("ts DESC NULLS");
+    }
+
+    @Test
+    public void test_no_index_sort_if_setting_is_not_set() {
+        assertThat(IndexSort.build(Settings.EMPTY, FIELD_TYPES::get), nullValue());
+    }
+
+    @Test
+    public void test_index_sort_matches_sort_fields_of_order_by() {
+        Sort sort = build("ts DESC, name");
+
+        assertThat(sort.getSort(), arrayContaining(
+            SortSymbolVisitor.mappedSortField("ts", DataTypes.LONG, true, NullValueOrder.FIRST),
+            SortSymbolVisitor.mappedSortField("name", DataTypes.STRING, false, NullValueOrder.LAST)
+        ));
+    }
+
+    @Test
+    public void test_unknown_column_raises_error() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Column 'unknown' used in setting 'index.sort.columns' does not exist");
+        build("unknown");
+    }
+
+    @Test
+    public void test_column_without_doc_values_raises_error() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+            "Column 'no_docvalues' of type 'keyword' used in setting 'index.sort.columns' must be a primitive type");
+        build("no_docvalues");
+    }
+}
@@ -23,7 +23,11 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.Streamer;
+import io.crate.breaker.BlockBasedRamAccounting;
+import io.crate.breaker.ChildRamAccounting;
 import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowAccounting;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.data.BatchIterator;
@@ -44,7 +48,14 @@ import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
@@ -124,4 +135,68 @@ public class SortingProjectorTest extends CrateUnitTest {
         expectedException.expect(CircuitBreakingException.class);
         consumer.getResult();
     }
+
+    @Test
+    public void testRowsAreSpilledToDiskIfThresholdIsExceeded() throws Exception {
+        Path spillDirectory = createTempDir();
+        RamAccounting ramAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        RowCellsAccountingWithEstimators rowAccounting = new RowCellsAccountingWithEstimators(
+            List.of(DataTypes.INTEGER, DataTypes.BOOLEAN), ramAccounting, 0);
+        Comparator<Object[]> ordering = OrderingByPosition.arrayOrdering(0, false, false);
+        InputCollectExpression input = new InputCollectExpression(0);
+        SortingProjector projector = new SortingProjector(
+            rowAccounting,
+            ImmutableList.of(input, Literal.of(true)),
+            ImmutableList.<CollectExpression<Row, ?>>of(input),
+            1,
+            ordering,
+            5,
+            () -> new ExternalSorter(
+                new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.BOOLEAN.streamer() },
+                ordering,
+                ramAccounting,
+                100,
+                spillDirectory
+            )
+        );
+        List<Integer> values = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        Collections.shuffle(values, random());
+
+        consumer.accept(projector.apply(TestingBatchIterators.ofValues(values)), null);
+        List<Object[]> rows = consumer.getResult();
+
+        assertThat(rows.size(), is(995));
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i), is(new Object[] { i + 5 }));
+        }
+        try (Stream<Path> runFiles = Files.list(spillDirectory)) {
+            assertThat("run files must be removed once the result is consumed", runFiles.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void testSpillOnlyReleasesTheMemoryOfTheSorterIfAccountingIsShared() throws Exception {
+        RamAccounting phaseRamAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        ChildRamAccounting sortRamAccounting = new ChildRamAccounting(phaseRamAccounting);
+        try (ExternalSorter sorter = new ExternalSorter(
+            new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.BOOLEAN.streamer() },
+            OrderingByPosition.arrayOrdering(0, false, false),
+            sortRamAccounting,
+            100,
+            createTempDir())) {
+
+            sortRamAccounting.addBytes(60);
+            // another operator of the same phase accounting for its own state
+            phaseRamAccounting.addBytes(1000);
+            assertThat(sorter.shouldSpill(), is(false));
+
+            sortRamAccounting.addBytes(60);
+            assertThat(sorter.shouldSpill(), is(true));
+
+            sorter.spill(List.<Object[]>of(new Object[] { 1, true }, new Object[] { 2, true }).iterator());
+            assertThat(sorter.shouldSpill(), is(false));
+            assertThat(sortRamAccounting.totalBytes(), is(0L));
+            assertThat(phaseRamAccounting.totalBytes(), is(1000L));
+        }
+    }
 }
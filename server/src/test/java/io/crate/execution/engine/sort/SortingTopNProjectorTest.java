@@ -23,7 +23,10 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.Streamer;
+import io.crate.breaker.BlockBasedRamAccounting;
 import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowAccounting;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.data.Bucket;
@@ -45,8 +48,14 @@ import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
@@ -191,4 +200,42 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
         int i = Integer.MAX_VALUE / 2 + 1;
         getProjector(2, i, i);
     }
+
+    @Test
+    public void testUnboundedCollectorSpillsRowsToDiskIfThresholdIsExceeded() throws Exception {
+        Path spillDirectory = createTempDir();
+        RamAccounting ramAccounting = new BlockBasedRamAccounting(bytes -> { }, 1024);
+        RowCellsAccountingWithEstimators rowAccounting = new RowCellsAccountingWithEstimators(
+            List.of(DataTypes.INTEGER, DataTypes.BOOLEAN), ramAccounting, 0);
+        Projector projector = new SortingTopNProjector(
+            rowAccounting,
+            INPUT_LITERAL_LIST,
+            COLLECT_EXPRESSIONS,
+            1,
+            FIRST_CELL_ORDERING,
+            500,
+            10,
+            1,
+            () -> new ExternalSorter(
+                new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.BOOLEAN.streamer() },
+                FIRST_CELL_ORDERING,
+                ramAccounting,
+                100,
+                spillDirectory
+            )
+        );
+        List<Integer> values = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        Collections.shuffle(values, random());
+
+        consumer.accept(projector.apply(TestingBatchIterators.ofValues(values)), null);
+        List<Object[]> rows = consumer.getResult();
+
+        assertThat(rows.size(), is(500));
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i), is(new Object[] { i + 10 }));
+        }
+        try (Stream<Path> runFiles = Files.list(spillDirectory)) {
+            assertThat(runFiles.count(), is(0L));
+        }
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.execution.engine.aggregation.GroupingCollector;
+import io.crate.execution.engine.sort.ExternalSorter;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+
+public class SpillThresholdsTest extends CrateUnitTest {
+
+    @Test
+    public void test_thresholds_follow_cluster_settings_updates() {
+        ClusterSettings clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Set.of(ExternalSorter.SPILL_THRESHOLD_SETTING.setting(), GroupingCollector.SPILL_THRESHOLD_SETTING.setting())
+        );
+        SpillThresholds spillThresholds = new SpillThresholds(
+            Settings.builder().put("sort.spill.threshold", "1mb").build(),
+            clusterSettings
+        );
+        assertThat(spillThresholds.sortThresholdInBytes(), is(1024L * 1024L));
+
+        clusterSettings.applySettings(Settings.builder()
+            .put("sort.spill.threshold", "2mb")
+            .put("group_by.spill.threshold", "3mb")
+            .build());
+        assertThat(spillThresholds.sortThresholdInBytes(), is(2L * 1024L * 1024L));
+        assertThat(spillThresholds.groupByThresholdInBytes(), is(3L * 1024L * 1024L));
+    }
+}
@@ -137,6 +137,7 @@ public class RootTaskTest extends CrateUnitTest {
             collectPhase,
             CoordinatorTxnCtx.systemTransactionContext(),
             mock(MapSideDataCollectOperation.class),
+            Runnable::run,
             RamAccounting.NO_ACCOUNTING,
             ramAccounting -> new OnHeapMemoryManager(ramAccounting::addBytes),
             new TestingRowConsumer(),
@@ -22,6 +22,7 @@
 package io.crate.execution.jobs.kill;
 
 import io.crate.execution.jobs.TasksService;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.settings.Settings;
@@ -43,6 +44,7 @@ public class TransportKillAllNodeActionTest extends CrateDummyClusterServiceUnit
 
         TransportKillAllNodeAction transportKillAllNodeAction = new TransportKillAllNodeAction(
             tasksService,
+            mock(WorkloadClasses.class),
             clusterService,
             MockTransportService.createNewService(
                 Settings.EMPTY, Version.CURRENT, THREAD_POOL, clusterService.getClusterSettings())
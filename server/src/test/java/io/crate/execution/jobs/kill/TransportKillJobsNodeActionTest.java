@@ -23,6 +23,7 @@ package io.crate.execution.jobs.kill;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.execution.jobs.TasksService;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.settings.Settings;
@@ -45,6 +46,7 @@ public class TransportKillJobsNodeActionTest extends CrateDummyClusterServiceUni
         TasksService tasksService = mock(TasksService.class, Answers.RETURNS_MOCKS);
         TransportKillJobsNodeAction transportKillJobsNodeAction = new TransportKillJobsNodeAction(
             tasksService,
+            mock(WorkloadClasses.class),
             clusterService,
             MockTransportService.createNewService(
                 Settings.EMPTY, Version.CURRENT, THREAD_POOL, clusterService.getClusterSettings())
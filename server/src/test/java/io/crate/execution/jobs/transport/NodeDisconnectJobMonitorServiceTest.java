@@ -29,6 +29,7 @@ import io.crate.execution.jobs.RootTask;
 import io.crate.execution.jobs.TasksService;
 import io.crate.execution.jobs.kill.KillJobsRequest;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
@@ -93,6 +94,7 @@ public class NodeDisconnectJobMonitorServiceTest extends CrateDummyClusterServic
         AtomicInteger broadcasts = new AtomicInteger(0);
         TransportKillJobsNodeAction killAction = new TransportKillJobsNodeAction(
             tasksService,
+            mock(WorkloadClasses.class),
             clusterService,
             mock(TransportService.class)
         ) {
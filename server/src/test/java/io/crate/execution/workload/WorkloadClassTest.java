@@ -0,0 +1,145 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.workload;
+
+import io.crate.exceptions.JobKilledException;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class WorkloadClassTest extends CrateUnitTest {
+
+    private static WorkloadClass workloadClass(int maxConcurrency, int maxQueued) {
+        return workloadClass(maxConcurrency, maxQueued, 0);
+    }
+
+    private static WorkloadClass workloadClass(int maxConcurrency, int maxQueued, long queueTimeoutInMs) {
+        return new WorkloadClass(
+            "reports",
+            maxConcurrency,
+            maxQueued,
+            queueTimeoutInMs,
+            0,
+            List.of(),
+            Runnable::run,
+            new NoopCircuitBreaker("workload_reports")
+        );
+    }
+
+    private static void admit(WorkloadClass workloadClass, Runnable job) {
+        workloadClass.admit(UUID.randomUUID(), "crate", job, e -> {});
+    }
+
+    @Test
+    public void test_jobs_exceeding_max_concurrency_are_queued_and_started_on_release() {
+        WorkloadClass workloadClass = workloadClass(1, 10);
+        List<Integer> started = new ArrayList<>();
+        admit(workloadClass, () -> started.add(1));
+        admit(workloadClass, () -> started.add(2));
+        admit(workloadClass, () -> started.add(3));
+
+        assertThat(started, contains(1));
+        assertThat(workloadClass.running(), is(1));
+        assertThat(workloadClass.queued(), is(2));
+
+        workloadClass.release();
+        assertThat(started, contains(1, 2));
+        assertThat(workloadClass.running(), is(1));
+        assertThat(workloadClass.queued(), is(1));
+
+        workloadClass.release();
+        workloadClass.release();
+        assertThat(started, contains(1, 2, 3));
+        assertThat(workloadClass.running(), is(0));
+        assertThat(workloadClass.queued(), is(0));
+    }
+
+    @Test
+    public void test_jobs_are_rejected_if_queue_is_full() {
+        WorkloadClass workloadClass = workloadClass(1, 0);
+        admit(workloadClass, () -> {});
+
+        expectedException.expect(EsRejectedExecutionException.class);
+        expectedException.expectMessage("Workload class [reports] is at capacity: 1 queries running, 0 queued");
+        admit(workloadClass, () -> {});
+    }
+
+    @Test
+    public void test_concurrency_is_unlimited_if_max_concurrency_is_zero() {
+        WorkloadClass workloadClass = workloadClass(0, 0);
+        List<Integer> started = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int job = i;
+            admit(workloadClass, () -> started.add(job));
+        }
+        assertThat(started.size(), is(5));
+        assertThat(workloadClass.running(), is(5));
+        assertThat(workloadClass.queued(), is(0));
+    }
+
+    @Test
+    public void test_queued_jobs_can_only_be_killed_by_their_user_or_a_superuser() {
+        WorkloadClass workloadClass = workloadClass(1, 10);
+        List<Exception> cancelled = new ArrayList<>();
+        UUID jobId = UUID.randomUUID();
+        admit(workloadClass, () -> {});
+        workloadClass.admit(jobId, "arthur", () -> fail("killed job must not run"), cancelled::add);
+
+        assertThat(workloadClass.kill(List.of(jobId), "trillian", false, null), is(0));
+        assertThat(workloadClass.queued(), is(1));
+
+        assertThat(workloadClass.kill(null, "arthur", false, "cancelled by user"), is(1));
+        assertThat(workloadClass.queued(), is(0));
+        assertThat(cancelled.size(), is(1));
+        assertThat(cancelled.get(0), instanceOf(JobKilledException.class));
+        assertThat(cancelled.get(0).getMessage(), is("Job killed. cancelled by user"));
+
+        workloadClass.release();
+        assertThat(workloadClass.running(), is(0));
+    }
+
+    @Test
+    public void test_queued_jobs_exceeding_the_queue_timeout_are_rejected_instead_of_started() throws Exception {
+        WorkloadClass workloadClass = workloadClass(1, 10, 1);
+        List<Exception> cancelled = new ArrayList<>();
+        admit(workloadClass, () -> {});
+        workloadClass.admit(UUID.randomUUID(), "crate", () -> fail("timed out job must not run"), cancelled::add);
+        Thread.sleep(10);
+
+        workloadClass.release();
+        assertThat(cancelled.size(), is(1));
+        assertThat(cancelled.get(0), instanceOf(EsRejectedExecutionException.class));
+        assertThat(workloadClass.running(), is(0));
+        assertThat(workloadClass.queued(), is(0));
+    }
+}
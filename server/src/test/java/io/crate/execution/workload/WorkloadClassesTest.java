@@ -0,0 +1,84 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.workload;
+
+import io.crate.auth.user.User;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class WorkloadClassesTest extends CrateUnitTest {
+
+    private WorkloadClasses workloadClasses;
+
+    @Before
+    public void setupWorkloadClasses() {
+        Settings settings = Settings.builder()
+            .put("node.name", "n1")
+            .put("workload.classes.reports.max_concurrency", 2)
+            .putList("workload.classes.reports.users", "reporting")
+            .put("workload.classes.lookups.max_concurrency", 10)
+            .build();
+        workloadClasses = new WorkloadClasses(settings, mock(ThreadPool.class), new NoneCircuitBreakerService());
+    }
+
+    @Test
+    public void test_queries_belong_to_the_class_of_their_user() {
+        assertThat(workloadClasses.resolve("", "reporting").name(), is("reports"));
+        assertThat(workloadClasses.resolve("", "arthur").name(), is(WorkloadClasses.DEFAULT));
+        assertThat(workloadClasses.resolve("lookups", "crate").name(), is("lookups"));
+    }
+
+    @Test
+    public void test_superuser_can_use_any_workload_class() {
+        workloadClasses.ensureAllowed(User.CRATE_USER, "lookups");
+        workloadClasses.ensureAllowed(User.CRATE_USER, WorkloadClasses.DEFAULT);
+    }
+
+    @Test
+    public void test_user_can_use_their_own_workload_class() {
+        workloadClasses.ensureAllowed(User.of("reporting"), "reports");
+        workloadClasses.ensureAllowed(User.of("arthur"), WorkloadClasses.DEFAULT);
+    }
+
+    @Test
+    public void test_user_cannot_switch_to_the_default_workload_class() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("User [reporting] is not allowed to use the workload class [default]");
+        workloadClasses.ensureAllowed(User.of("reporting"), WorkloadClasses.DEFAULT);
+    }
+
+    @Test
+    public void test_user_cannot_switch_to_another_workload_class() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("User [arthur] is not allowed to use the workload class [lookups]");
+        workloadClasses.ensureAllowed(User.of("arthur"), "lookups");
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.expression.reference.doc.lucene;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SourceParserTest {
+
+    private static final BytesReference SOURCE = new BytesArray(
+        "{" +
+        "  \"payload\": {\"a\": {\"b\": 1, \"c\": 2}, \"d\": [1, 2]}," +
+        "  \"other\": {\"x\": \"y\", \"z\": [{\"x\": 1}]}," +
+        "  \"arr\": [{\"a\": 1, \"b\": 2}, {\"a\": 3}, 4, null]," +
+        "  \"s\": \"foo\"" +
+        "}");
+
+    @Test
+    public void testOnlyRegisteredPathsAreParsed() {
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("payload", "a", "b"));
+        parser.register(List.of("arr", "a"));
+        parser.register(List.of("s"));
+
+        Map<String, Object> result = parser.parse(SOURCE);
+        assertThat(result, is(Map.of(
+            "payload", Map.of("a", Map.of("b", 1)),
+            "arr", Arrays.asList(Map.of("a", 1), Map.of("a", 3), 4, null),
+            "s", "foo"
+        )));
+        assertThat(SourceLookup.extractValue(result, List.of("payload", "a", "b"), 0), is(1));
+        assertThat(SourceLookup.extractValue(result, List.of("arr", "a"), 0), is(Arrays.asList(1, 3, 4, null)));
+    }
+
+    @Test
+    public void testParentPathIncludesChildren() {
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("payload", "a", "b"));
+        parser.register(List.of("payload"));
+
+        Map<String, Object> result = parser.parse(SOURCE);
+        assertThat(result, is(Map.of("payload", Map.of("a", Map.of("b", 1, "c", 2), "d", List.of(1, 2)))));
+        assertThat(parser.contains(List.of("payload", "d")), is(true));
+        assertThat(parser.contains(List.of("other")), is(false));
+    }
+
+    @Test
+    public void testCompleteSourceIsParsedWithoutRegisteredPaths() {
+        SourceParser parser = new SourceParser();
+        assertThat(parser.parse(SOURCE).keySet().size(), is(4));
+        assertThat(parser.contains(List.of("other", "x")), is(true));
+
+        parser.register(List.of("s"));
+        parser.registerAll();
+        assertThat(parser.parse(SOURCE).keySet().size(), is(4));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.expression.scalar.AbstractScalarFunctionsTest;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.RefReplacer;
+import io.crate.expression.symbol.RefVisitor;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class VectorExpressionTest extends AbstractScalarFunctionsTest {
+
+    /**
+     * Evaluates the expression vectorized using the rows as input values for the columns, in order of appearance,
+     * and asserts that the results match the results of the row by row evaluation.
+     */
+    private void assertVectorizedEvaluation(String expression, Object[]... rows) {
+        Symbol symbol = sqlExpressions.normalize(sqlExpressions.asSymbol(expression));
+        List<Reference> refs = new ArrayList<>();
+        RefVisitor.visitRefs(symbol, ref -> {
+            if (!refs.contains(ref)) {
+                refs.add(ref);
+            }
+        });
+        VectorExpression vectorExpression = VectorExpression.compile(
+            symbol,
+            functions,
+            txnCtx,
+            rows.length,
+            s -> refs.indexOf(s)
+        );
+        assertThat(vectorExpression, notNullValue());
+
+        ColumnVector[] inputs = new ColumnVector[refs.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = ColumnVector.forType(refs.get(i).valueType(), rows.length);
+            for (int row = 0; row < rows.length; row++) {
+                inputs[i].set(row, rows[row][i]);
+            }
+        }
+        ColumnVector result = vectorExpression.evaluate(txnCtx, inputs, rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            Object[] cells = rows[row];
+            Symbol rowSymbol = RefReplacer.replaceRefs(
+                symbol,
+                ref -> Literal.ofUnchecked(ref.valueType(), cells[refs.indexOf(ref)])
+            );
+            Object expected = ((Literal<?>) sqlExpressions.normalize(rowSymbol)).value();
+            assertThat("row " + row, result.get(row), is(expected));
+        }
+    }
+
+    private static Object[] row(Object... cells) {
+        return cells;
+    }
+
+    @Test
+    public void test_arithmetic_and_comparison_on_bigint() {
+        assertVectorizedEvaluation(
+            "x * 2 + 1 > 10",
+            row(1L), row(5L), row(6L), row((Object) null), row(-20L)
+        );
+    }
+
+    @Test
+    public void test_integer_arithmetic_keeps_integer_semantics() {
+        assertVectorizedEvaluation(
+            "a / 2 - a % 3",
+            row(7), row(-7), row(Integer.MAX_VALUE), row((Object) null)
+        );
+    }
+
+    @Test
+    public void test_real_arithmetic_keeps_real_precision() {
+        assertVectorizedEvaluation(
+            "float_val * float_val / 3",
+            row(0.1f), row(1.3f), row((Object) null), row(-2.7f)
+        );
+    }
+
+    @Test
+    public void test_three_valued_logic() {
+        assertVectorizedEvaluation(
+            "a = 2 and not is_awesome or a > 10",
+            row(2, false),
+            row(2, true),
+            row(2, null),
+            row(null, false),
+            row(null, true),
+            row(11, null),
+            row(null, null)
+        );
+    }
+
+    @Test
+    public void test_implicit_cast_of_mixed_types() {
+        assertVectorizedEvaluation(
+            "double_val * 1.5 <= float_val",
+            row(1.0, 1.5f),
+            row(0.1, 0.1f),
+            row(2.0, null),
+            row(null, 0.0f)
+        );
+    }
+
+    @Test
+    public void test_explicit_casts() {
+        assertVectorizedEvaluation(
+            "cast(a as bigint) * 3000000000 + cast(x as integer)",
+            row(1, 2L),
+            row(null, 3L),
+            row(-1, null)
+        );
+    }
+
+    @Test
+    public void test_date_trunc() {
+        assertVectorizedEvaluation(
+            "date_trunc('day', timestamp_tz)",
+            row(1401777485000L), row((Object) null), row(0L)
+        );
+        assertVectorizedEvaluation(
+            "date_trunc('hour', 'Europe/Vienna', timestamp_tz)",
+            row(1401777485000L), row((Object) null)
+        );
+    }
+
+    @Test
+    public void test_string_functions() {
+        assertVectorizedEvaluation(
+            "length(upper(name)) > 3",
+            row("foo"), row("crate"), row((Object) null)
+        );
+    }
+
+    @Test
+    public void test_compile_returns_null_if_a_function_does_not_support_vectorization() {
+        Symbol symbol = sqlExpressions.normalize(sqlExpressions.asSymbol("x > random()"));
+        VectorExpression vectorExpression = VectorExpression.compile(symbol, functions, txnCtx, 10, s -> 0);
+        assertThat(vectorExpression, nullValue());
+    }
+
+    @Test
+    public void test_compile_returns_null_if_a_leaf_is_not_available_as_input() {
+        Symbol symbol = sqlExpressions.normalize(sqlExpressions.asSymbol("x + 1"));
+        VectorExpression vectorExpression = VectorExpression.compile(symbol, functions, txnCtx, 10, s -> -1);
+        assertThat(vectorExpression, nullValue());
+    }
+}
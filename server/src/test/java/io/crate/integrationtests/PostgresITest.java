@@ -34,13 +34,19 @@ import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.postgresql.PGConnection;
 import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.geometric.PGpoint;
 import org.postgresql.jdbc.PreferQueryMode;
 import org.postgresql.util.PGobject;
 import org.postgresql.util.PSQLException;
 import org.postgresql.util.PSQLState;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.Array;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -202,6 +208,72 @@ public class PostgresITest extends SQLTransportIntegrationTest {
         }
     }
 
+    @Test
+    public void test_copy_from_stdin_and_copy_to_stdout() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().executeUpdate(
+                "create table t (id int primary key, name text) with (number_of_replicas = 0)");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+            long inserted = copyManager.copyIn(
+                "COPY t (id, name) FROM STDIN WITH (FORMAT csv, HEADER)",
+                new StringReader("id,name\n1,\"Arthur, Dent\"\n2,\n3,Trillian\n"));
+            assertThat(inserted, is(3L));
+            conn.createStatement().executeUpdate("refresh table t");
+
+            StringWriter text = new StringWriter();
+            long copied = copyManager.copyOut("COPY (select id, name from t order by id) TO STDOUT", text);
+            assertThat(copied, is(3L));
+            assertThat(text.toString(), is("1\tArthur, Dent\n2\t\\N\n3\tTrillian\n"));
+
+            StringWriter csv = new StringWriter();
+            copyManager.copyOut("COPY t (name) WHERE id = 1 TO STDOUT WITH (FORMAT csv)", csv);
+            assertThat(csv.toString(), is("\"Arthur, Dent\"\n"));
+        }
+    }
+
+    @Test
+    public void test_copy_from_stdin_inserts_rows_in_chunks_and_binary_round_trip() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().executeUpdate(
+                "create table t1 (id int, name text, ts timestamp with time zone) with (number_of_replicas = 0)");
+            conn.createStatement().executeUpdate(
+                "create table t2 (id int, name text, ts timestamp with time zone) with (number_of_replicas = 0)");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < 2500; i++) {
+                data.append(i).append("\tname\\t").append(i).append("\t2020-01-01 00:00:00+00:00\n");
+            }
+            assertThat(copyManager.copyIn("COPY t1 FROM STDIN", new StringReader(data.toString())), is(2500L));
+            conn.createStatement().executeUpdate("refresh table t1");
+
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            assertThat(copyManager.copyOut("COPY t1 TO STDOUT (FORMAT binary)", binary), is(2500L));
+            assertThat(
+                copyManager.copyIn("COPY t2 FROM STDIN (FORMAT binary)", new ByteArrayInputStream(binary.toByteArray())),
+                is(2500L));
+            conn.createStatement().executeUpdate("refresh table t2");
+
+            ResultSet result = conn.createStatement().executeQuery(
+                "select count(*), min(name) from t2 where name like 'name\t%'");
+            assertThat(result.next(), is(true));
+            assertThat(result.getLong(1), is(2500L));
+            assertThat(result.getString(2), is("name\t0"));
+        }
+    }
+
+    @Test
+    public void test_copy_from_stdin_with_malformed_data_fails() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().executeUpdate("create table t (x int) with (number_of_replicas = 0)");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+            expectedException.expectMessage("Invalid COPY data in row 2: extra data after last expected column");
+            copyManager.copyIn("COPY t FROM STDIN", new StringReader("1\n2\t3\n"));
+        }
+    }
+
     @Test
     public void testPreparedStatementHandling() throws Exception {
         Properties properties = new Properties();
@@ -28,7 +28,10 @@ import org.apache.lucene.search.ScoreMode;
 import org.elasticsearch.Version;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 
 
@@ -70,4 +73,28 @@ public class GenericFunctionQueryTest extends CrateDummyClusterServiceUnitTest {
             assertThat(tester.runQuery("x", "abs(x) = 1"), contains(1));
         }
     }
+
+    @Test
+    public void test_generic_function_query_on_numeric_doc_values_uses_vectorized_evaluation() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            createTempDir(),
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            "create table t (x int)"
+        );
+        Object[] values = new Object[3000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 100 == 0 ? null : i;
+        }
+        builder.indexValues("x", values);
+        try (QueryTester tester = builder.build()) {
+            List<Object> result = tester.runQuery("x", "x % 1000 * 2 < 7");
+            assertThat(result, containsInAnyOrder(1, 2, 3, 1001, 1002, 1003, 2001, 2002, 2003));
+
+            // the range on x is a separate query, so the approximation skips most documents
+            result = tester.runQuery("x", "x >= 2500 and x % 1000 * 2 < 1010");
+            assertThat(result.size(), is(4));
+        }
+    }
 }
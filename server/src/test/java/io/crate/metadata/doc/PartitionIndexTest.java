@@ -0,0 +1,96 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class PartitionIndexTest extends CrateUnitTest {
+
+    private PartitionIndex index;
+
+    @Before
+    public void setUpIndex() {
+        RelationName relationName = new RelationName("doc", "parted");
+        List<Reference> partitionColumns = List.of(
+            new Reference(new ReferenceIdent(relationName, "p"), RowGranularity.PARTITION, DataTypes.INTEGER, null, null),
+            new Reference(new ReferenceIdent(relationName, "s"), RowGranularity.PARTITION, DataTypes.STRING, null, null)
+        );
+        List<PartitionName> partitions = List.of(
+            new PartitionName(relationName, Arrays.asList("3", "c")),
+            new PartitionName(relationName, Arrays.asList("1", "a")),
+            new PartitionName(relationName, Arrays.asList(null, "b")),
+            new PartitionName(relationName, Arrays.asList("2", null)),
+            new PartitionName(relationName, Arrays.asList("1", "b"))
+        );
+        index = new PartitionIndex(partitionColumns, partitions);
+    }
+
+    private static BitSet positions(int... positions) {
+        BitSet bitSet = new BitSet();
+        for (int position : positions) {
+            bitSet.set(position);
+        }
+        return bitSet;
+    }
+
+    @Test
+    public void test_equal_to_returns_positions_of_all_partitions_with_value() {
+        assertThat(index.equalTo(0, 1), is(positions(1, 4)));
+        assertThat(index.equalTo(0, 5), is(positions()));
+        assertThat(index.equalTo(1, "b"), is(positions(2, 4)));
+    }
+
+    @Test
+    public void test_null_never_matches() {
+        assertThat(index.equalTo(0, null), is(positions()));
+        assertThat(index.range(1, null, false, null, false), is(positions(0, 1, 2, 4)));
+    }
+
+    @Test
+    public void test_range_respects_inclusive_and_exclusive_bounds() {
+        assertThat(index.range(0, 1, false, null, false), is(positions(0, 3)));
+        assertThat(index.range(0, 1, true, 2, false), is(positions(1, 3, 4)));
+        assertThat(index.range(0, null, false, 2, true), is(positions(1, 3, 4)));
+        assertThat(index.range(0, 3, false, 1, false), is(positions()));
+        assertThat(index.range(1, "a", false, "c", false), is(positions(2, 4)));
+    }
+
+    @Test
+    public void test_all_contains_every_partition() {
+        assertThat(index.all(), is(positions(0, 1, 2, 3, 4)));
+    }
+}
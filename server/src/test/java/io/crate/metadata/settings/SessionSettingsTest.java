@@ -24,7 +24,9 @@ package io.crate.metadata.settings;
 
 
 import io.crate.metadata.SearchPath;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -35,11 +37,25 @@ public class SessionSettingsTest {
 
     @Test
     public void testSessionSettingsStreaming() throws IOException {
-        SessionSettings s1 = new SessionSettings("user", SearchPath.createSearchPathFrom("crate"), true);
+        SessionSettings s1 = new SessionSettings("user", SearchPath.createSearchPathFrom("crate"), true, "reports");
         BytesStreamOutput out = new BytesStreamOutput();
         s1.writeTo(out);
 
         SessionSettings s2 = new SessionSettings(out.bytes().streamInput());
         assertEquals(s1, s2);
     }
+
+    @Test
+    public void test_workload_class_is_not_streamed_to_nodes_before_4_3_0() throws IOException {
+        SessionSettings s1 = new SessionSettings("user", SearchPath.createSearchPathFrom("crate"), true, "reports");
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_4_2_0);
+        s1.writeTo(out);
+
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(Version.V_4_2_0);
+        SessionSettings s2 = new SessionSettings(in);
+        assertEquals("", s2.workloadClass());
+        assertEquals(s1.userName(), s2.userName());
+    }
 }
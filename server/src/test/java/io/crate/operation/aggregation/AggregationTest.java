@@ -28,12 +28,14 @@ import io.crate.common.collections.Lists2;
 import io.crate.data.ArrayBucket;
 import io.crate.data.Row;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.collect.InputCollectExpression;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
 import io.crate.memory.MemoryManager;
 import io.crate.memory.OnHeapMemoryManager;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -41,14 +43,24 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.SearchPath;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataType;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.elasticsearch.Version;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.junit.Before;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.notNullValue;
 
 public abstract class AggregationTest extends CrateUnitTest {
 
@@ -115,6 +127,73 @@ public abstract class AggregationTest extends CrateUnitTest {
         return impl.terminatePartial(RAM_ACCOUNTING, state);
     }
 
+    /**
+     * Index the documents and aggregate them using the {@link DocValueAggregator} of the aggregation.
+     *
+     * @param argumentType the type of the column argument or null if the aggregation has no column argument
+     * @param fieldType the field type of the column argument or null if the aggregation has no column argument
+     * @return the result of {@link AggregationFunction#terminatePartial(RamAccounting, Object)}
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Object executeDocValueAggregation(String name,
+                                             @Nullable DataType<?> argumentType,
+                                             @Nullable MappedFieldType fieldType,
+                                             List<Literal<?>> literalArguments,
+                                             List<Document> docs) throws Exception {
+        List<Symbol> arguments = new ArrayList<>();
+        if (argumentType != null) {
+            arguments.add(new InputColumn(0, argumentType));
+        }
+        arguments.addAll(literalArguments);
+        AggregationFunction impl = (AggregationFunction) functions.get(
+            null,
+            name,
+            arguments,
+            SearchPath.pathWithPGCatalogAndDoc()
+        );
+        DocValueAggregator aggregator = impl.getDocValueAggregator(
+            Symbols.typeView(arguments),
+            fieldType == null ? List.of() : List.of(fieldType),
+            literalArguments
+        );
+        assertThat(aggregator, notNullValue());
+
+        try (IndexWriter writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig())) {
+            for (int i = 0; i < docs.size(); i++) {
+                writer.addDocument(docs.get(i));
+                if (i == docs.size() / 2) {
+                    // multiple segments
+                    writer.commit();
+                }
+            }
+            writer.commit();
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                Object state = aggregator.initialState(RAM_ACCOUNTING, memoryManager, Version.CURRENT);
+                for (LeafReaderContext leaf : reader.leaves()) {
+                    aggregator.loadDocValues(leaf);
+                    for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                        aggregator.apply(state, doc);
+                    }
+                }
+                return impl.terminatePartial(RAM_ACCOUNTING, aggregator.partialResult(state));
+            }
+        }
+    }
+
+    /**
+     * Create a document per value with the value stored as numeric doc value and one document without value.
+     */
+    protected static List<Document> numericDocs(String column, long... sortableValues) {
+        List<Document> docs = new ArrayList<>(sortableValues.length + 1);
+        for (long value : sortableValues) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField(column, value));
+            docs.add(doc);
+        }
+        docs.add(new Document());
+        return docs;
+    }
+
     protected Symbol normalize(String functionName, Object value, DataType type) {
         return normalize(functionName, Literal.of(type, value));
     }
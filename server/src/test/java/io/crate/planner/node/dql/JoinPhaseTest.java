@@ -143,10 +143,12 @@ public class JoinPhaseTest extends CrateUnitTest {
             2,
             3,
             Sets.newHashSet("node1", "node2"),
+            JoinType.LEFT,
             joinCondition,
             List.of(Literal.of("testLeft"), Literal.of(10)),
             List.of(Literal.of("testRight"), Literal.of(20)),
             List.of(DataTypes.STRING, DataTypes.INTEGER),
+            List.of(DataTypes.LONG, DataTypes.STRING, DataTypes.INTEGER),
             111,
             222);
 
@@ -171,6 +173,7 @@ public class JoinPhaseTest extends CrateUnitTest {
         assertThat(node.numLeftOutputs(), is(node2.numLeftOutputs()));
         assertThat(node.numRightOutputs(), is(node2.numRightOutputs()));
         assertThat(node.leftOutputTypes(), is(node2.leftOutputTypes()));
+        assertThat(node.rightOutputTypes(), is(node2.rightOutputTypes()));
         assertThat(node.estimatedRowSizeForLeft(), is(node2.estimatedRowSizeForLeft()));
         assertThat(node.numberOfRowsForLeft(), is(node2.numberOfRowsForLeft()));
     }
@@ -28,6 +28,7 @@ import io.crate.execution.jobs.kill.KillAllRequest;
 import io.crate.execution.jobs.kill.KillResponse;
 import io.crate.execution.jobs.kill.TransportKillAllNodeAction;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
+import io.crate.execution.workload.WorkloadClasses;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingRowConsumer;
 import org.elasticsearch.action.ActionListener;
@@ -48,6 +49,7 @@ public class KillPlanTest extends CrateDummyClusterServiceUnitTest {
         AtomicInteger nodeOperationCalls = new AtomicInteger(0);
         TransportKillAllNodeAction killAllNodeAction = new TransportKillAllNodeAction(
             new TasksService(clusterService, new JobsLogs(() -> false)),
+            mock(WorkloadClasses.class),
             clusterService,
             mock(TransportService.class)
         ) {
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.node.management;
+
+import io.crate.execution.dsl.phases.ExecutionPhase;
+import io.crate.execution.dsl.phases.NodeOperation;
+import io.crate.execution.dsl.phases.NodeOperationTree;
+import io.crate.profile.ProfilingContext;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OperatorStatsPrinterTest extends CrateUnitTest {
+
+    private static ExecutionPhase phase(int phaseId, String name) {
+        ExecutionPhase phase = mock(ExecutionPhase.class);
+        when(phase.phaseId()).thenReturn(phaseId);
+        when(phase.name()).thenReturn(name);
+        return phase;
+    }
+
+    private static Map<String, Object> operator(String name, long rowsOut, long batches, long timeNanos, long networkBytes) {
+        return Map.of(
+            "Name", name,
+            "RowsOut", rowsOut,
+            "Batches", batches,
+            "TimeNanos", timeNanos,
+            "CpuTimeNanos", 0L,
+            "Bytes", 0L,
+            "NetworkBytes", networkBytes
+        );
+    }
+
+    @Test
+    public void testOperatorsAreSummedUpAcrossNodesAndPrintedAsTree() {
+        ExecutionPhase collectPhase = phase(0, "collect");
+        ExecutionPhase mergePhase = phase(1, "mergeOnHandler");
+        NodeOperationTree operationTree = new NodeOperationTree(
+            List.of(new NodeOperation(collectPhase, List.of("n1"), 1, (byte) 0)),
+            mergePhase
+        );
+        Map<String, Map<String, Object>> timingsByNodeId = Map.of(
+            "n1", Map.of(ProfilingContext.OPERATORS, Map.of(
+                "0-collect", List.of(
+                    operator("collect", 10, 1, 1_000_000, 0),
+                    operator("Distribution", 10, 1, 3_000_000, 100)),
+                "1-mergeOnHandler", List.of(
+                    operator("mergeOnHandler", 15, 2, 500_000, 0),
+                    operator("TopNProjection", 10, 1, 800_000, 0))
+            )),
+            "n2", Map.of(ProfilingContext.OPERATORS, Map.of(
+                "0-collect", List.of(
+                    operator("collect", 5, 1, 2_000_000, 0),
+                    operator("Distribution", 5, 1, 2_500_000, 200))
+            ))
+        );
+
+        assertThat(
+            OperatorStatsPrinter.print(operationTree, timingsByNodeId),
+            is("TopNProjection [1-mergeOnHandler] rows_in=15 rows_out=10 batches=1 time=0.300ms max_node_time=0.300ms nodes=1\n" +
+               "  └ mergeOnHandler [1-mergeOnHandler] rows_in=15 rows_out=15 batches=2 time=0.500ms max_node_time=0.500ms nodes=1\n" +
+               "    └ Distribution [0-collect] rows_in=15 rows_out=15 batches=2 time=2.500ms max_node_time=2.000ms network_bytes=300 nodes=2\n" +
+               "      └ collect [0-collect] rows_out=15 batches=2 time=3.000ms max_node_time=2.000ms nodes=2")
+        );
+    }
+
+    @Test
+    public void testOperatorsAreMatchedByNameIfNodesRunDifferentOperators() {
+        ExecutionPhase collectPhase = phase(0, "collect");
+        NodeOperationTree operationTree = new NodeOperationTree(List.of(), collectPhase);
+        Map<String, Map<String, Object>> timingsByNodeId = Map.of(
+            "n1", Map.of(ProfilingContext.OPERATORS, Map.of(
+                "0-collect", List.of(
+                    operator("collect", 10, 1, 1_000_000, 0),
+                    operator("FilterProjection", 5, 1, 1_500_000, 0),
+                    operator("Distribution", 5, 1, 2_000_000, 100))
+            )),
+            "n2", Map.of(ProfilingContext.OPERATORS, Map.of(
+                "0-collect", List.of(
+                    operator("collect", 4, 1, 1_000_000, 0),
+                    operator("Distribution", 4, 1, 1_500_000, 50))
+            ))
+        );
+
+        assertThat(
+            OperatorStatsPrinter.print(operationTree, timingsByNodeId),
+            is("Distribution [0-collect] rows_in=5 rows_out=9 batches=2 time=1.000ms max_node_time=0.500ms network_bytes=150 nodes=2\n" +
+               "  └ FilterProjection [0-collect] rows_in=14 rows_out=5 batches=1 time=0.500ms max_node_time=0.500ms nodes=1\n" +
+               "    └ collect [0-collect] rows_out=14 batches=2 time=2.000ms max_node_time=1.000ms nodes=2")
+        );
+    }
+
+    @Test
+    public void testNothingIsPrintedWithoutOperatorStats() {
+        NodeOperationTree operationTree = new NodeOperationTree(List.of(), phase(1, "mergeOnHandler"));
+        assertThat(OperatorStatsPrinter.print(operationTree, Map.of("n1", Map.of("1-mergeOnHandler", 1.2))), nullValue());
+    }
+}
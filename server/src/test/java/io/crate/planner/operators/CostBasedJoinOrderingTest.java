@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.planner.operators;
+
+import io.crate.metadata.RelationName;
+import io.crate.planner.operators.CostBasedJoinOrdering.Edge;
+import io.crate.testing.T3;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CostBasedJoinOrderingTest {
+
+    private static Edge edge(int left, int right, double selectivity) {
+        return new Edge((1L << left) | (1L << right), selectivity);
+    }
+
+    @Test
+    public void test_smallest_join_is_executed_first() {
+        // SELECT * FROM t1, t2, t3 WHERE t1.id = t2.id AND t2.id = t3.id
+        CostBasedJoinOrdering ordering = new CostBasedJoinOrdering(
+            List.of(T3.T1, T3.T2, T3.T3),
+            new double[] { 1_000_000, 10, 100 },
+            List.of(edge(0, 1, 0.1), edge(1, 2, 0.1))
+        );
+        assertThat(ordering.order(), contains(T3.T2, T3.T3, T3.T1));
+        assertThat(ordering.estimateRows(Set.of(T3.T2, T3.T3)), is(100L));
+        assertThat(ordering.estimateRows(Set.of(T3.T1, T3.T2, T3.T3)), is(10_000_000L));
+    }
+
+    @Test
+    public void test_star_schema_joins_most_selective_dimension_first() {
+        RelationName fact = new RelationName("doc", "fact");
+        RelationName d1 = new RelationName("doc", "d1");
+        RelationName d2 = new RelationName("doc", "d2");
+        RelationName d3 = new RelationName("doc", "d3");
+        CostBasedJoinOrdering ordering = new CostBasedJoinOrdering(
+            List.of(fact, d1, d2, d3),
+            new double[] { 1_000_000, 10, 1000, 50 },
+            List.of(edge(0, 1, 1.0 / 100), edge(0, 2, 1.0 / 1000), edge(0, 3, 1.0 / 100))
+        );
+        assertThat(ordering.order(), contains(fact, d1, d3, d2));
+    }
+
+    @Test
+    public void test_cross_join_is_avoided_if_a_join_condition_is_available() {
+        // SELECT * FROM t1, t2, t3 WHERE t1.id = t2.id AND t2.id = t3.id
+        // Joining t1 and t3 first would be cheaper, but needs a cross join
+        CostBasedJoinOrdering ordering = new CostBasedJoinOrdering(
+            List.of(T3.T1, T3.T2, T3.T3),
+            new double[] { 2, 1_000_000, 2 },
+            List.of(edge(0, 1, 1.0 / 1000), edge(1, 2, 1.0 / 1000))
+        );
+        assertThat(ordering.order(), contains(T3.T1, T3.T2, T3.T3));
+    }
+
+    @Test
+    public void test_greedy_ordering_is_used_for_many_relations() {
+        // r0 - r1 - ... - r9, where the join of r8 and r9 is the smallest
+        List<RelationName> relations = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        double[] rows = new double[10];
+        for (int i = 0; i < 10; i++) {
+            relations.add(new RelationName("doc", "r" + i));
+            rows[i] = 100;
+            if (i > 0) {
+                edges.add(edge(i - 1, i, i == 9 ? 1.0 / 1000 : 1.0 / 100));
+            }
+        }
+        assertThat(relations.size() > CostBasedJoinOrdering.MAX_RELATIONS_FOR_DP, is(true));
+
+        CostBasedJoinOrdering ordering = new CostBasedJoinOrdering(relations, rows, edges);
+        List<RelationName> expected = new ArrayList<>();
+        expected.add(relations.get(8));
+        expected.add(relations.get(9));
+        for (int i = 7; i >= 0; i--) {
+            expected.add(relations.get(i));
+        }
+        assertThat(ordering.order(), is(expected));
+    }
+
+    @Test
+    public void test_greedy_ordering_without_connected_pair_starts_with_cheapest_cross_join() {
+        // r0, r1, ..., r9 WHERE r0.a + r1.b = r2.c, the only join condition spans 3 relations
+        List<RelationName> relations = new ArrayList<>();
+        double[] rows = new double[10];
+        for (int i = 0; i < 10; i++) {
+            relations.add(new RelationName("doc", "r" + i));
+            rows[i] = 100 + i;
+        }
+        rows[3] = 1;
+        rows[5] = 2;
+        List<Edge> edges = List.of(new Edge(0b111L, 1.0 / 100));
+        assertThat(relations.size() > CostBasedJoinOrdering.MAX_RELATIONS_FOR_DP, is(true));
+
+        CostBasedJoinOrdering ordering = new CostBasedJoinOrdering(relations, rows, edges);
+        List<RelationName> expected = new ArrayList<>();
+        for (int i : new int[] { 3, 5, 0, 1, 2, 4, 6, 7, 8, 9 }) {
+            expected.add(relations.get(i));
+        }
+        assertThat(ordering.order(), is(expected));
+    }
+}
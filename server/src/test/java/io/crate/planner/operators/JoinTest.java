@@ -112,7 +112,8 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             mss.where(),
             mss.joinPairs(),
             rel -> logicalPlanner.normalizeAndPlan(rel, plannerCtx, subqueryPlanner, Set.of()),
-            txnCtx.sessionContext().isHashJoinEnabled()
+            txnCtx.sessionContext().isHashJoinEnabled(),
+            tableStats
         );
     }
 
@@ -156,6 +157,8 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         RelationName leftName = new RelationName("j", "left_table");
         RelationName rightName = new RelationName("j", "right_table");
 
+        // outer joins with an equi-join condition would be executed using a hash join
+        plannerCtx.transactionContext().sessionContext().setHashJoinEnabled(false);
         QueriedSelectRelation mss = e.analyze("select * from j.left_table as l left join j.right_table as r on l.id = r.id");
 
         TableStats tableStats = new TableStats();
@@ -203,7 +206,8 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             mss.where(),
             mss.joinPairs(),
             rel -> logicalPlanner.normalizeAndPlan(rel, plannerCtx, subqueryPlanner, Set.of()),
-            false
+            false,
+            tableStats
         );
         Join nl = (Join) operator.build(
             context, projectionBuilder, -1, 0, null, null, Row.EMPTY, SubQueryResults.EMPTY);
@@ -294,6 +298,27 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         assertThat(((Join)join.left()).joinPhase(), instanceOf(HashJoinPhase.class));
     }
 
+    @Test
+    public void test_joins_of_more_than_two_tables_are_ordered_by_estimated_rows() {
+        QueriedSelectRelation mss = e.analyze("select * " +
+                                              "from t1 inner join t2 on t1.i = t2.i " +
+                                              "inner join t3 on t3.z = t2.y");
+
+        TableStats tableStats = new TableStats();
+        Map<RelationName, Stats> rowCountByTable = new HashMap<>();
+        rowCountByTable.put(T3.T1, new Stats(1_000_000, 0, Map.of()));
+        rowCountByTable.put(T3.T2, new Stats(10, 0, Map.of()));
+        rowCountByTable.put(T3.T3, new Stats(100, 0, Map.of()));
+        tableStats.updateTableStats(rowCountByTable);
+
+        LogicalPlan operator = createLogicalPlan(mss, tableStats);
+        assertThat(operator, instanceOf(HashJoin.class));
+        HashJoin hashJoin = (HashJoin) operator;
+        assertThat(hashJoin.rhs.getRelationNames(), is(Set.of(T3.T1)));
+        assertThat(hashJoin.lhs.getRelationNames(), is(Set.of(T3.T2, T3.T3)));
+        assertThat(hashJoin.lhs.numExpectedRows(), is(100L));
+    }
+
     @Test
     public void testMixedHashJoinNestedLoop() {
         QueriedSelectRelation mss = e.analyze("select * " +
@@ -305,12 +330,32 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         LogicalPlan leftPlan = ((NestedLoopJoin) operator).lhs;
         assertThat(leftPlan, instanceOf(HashJoin.class));
 
+        // The left join has an equi-join condition, so it's executed using a hash join
         Join join = buildJoin(operator);
-        assertThat(join.joinPhase(), instanceOf(NestedLoopPhase.class));
+        assertThat(join.joinPhase(), instanceOf(HashJoinPhase.class));
+        assertThat(join.joinPhase().joinType(), is(JoinType.LEFT));
         assertThat(join.left(), instanceOf(Join.class));
         assertThat(((Join)join.left()).joinPhase(), instanceOf(HashJoinPhase.class));
     }
 
+    @Test
+    public void testOuterJoinWithEquiJoinConditionIsExecutedAsNestedLoopIfHashJoinIsDisabled() {
+        plannerCtx.transactionContext().sessionContext().setHashJoinEnabled(false);
+        QueriedSelectRelation mss = e.analyze("select * from t1 left join t2 on t1.a = t2.b");
+
+        Join join = plan(mss, new TableStats());
+        assertThat(join.joinPhase(), instanceOf(NestedLoopPhase.class));
+    }
+
+    @Test
+    public void testFullJoinWithNonEquiJoinConditionIsExecutedAsNestedLoop() {
+        QueriedSelectRelation mss = e.analyze("select * from t1 full join t2 on t1.a > t2.b");
+
+        Join join = plan(mss, new TableStats());
+        assertThat(join.joinPhase(), instanceOf(NestedLoopPhase.class));
+        assertThat(join.joinPhase().joinType(), is(JoinType.FULL));
+    }
+
     @Test
     public void testBlockNestedLoopWhenTableSizeUnknownAndOneExecutionNode() throws IOException {
         // rebuild executor + cluster state with 1 node
@@ -399,4 +399,83 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
             "      └ Get[doc.users | id, name | DocKeys{1::bigint}]";
         assertThat(plan, isPlan(expectedPlan));
     }
+
+    @Test
+    public void test_limit_on_left_join_is_pushed_to_the_left_side() {
+        var plan = plan("SELECT * FROM t1 LEFT JOIN t2 ON t1.a = t2.b LIMIT 3");
+        var expectedPlan =
+            "Fetch[a, x, i, b, y, i]\n" +
+            "  └ Limit[3::bigint;0]\n" +
+            "    └ NestedLoopJoin[LEFT | (a = b)]\n" +
+            "      ├ Limit[3::bigint;0::bigint]\n" +
+            "      │  └ Collect[doc.t1 | [_fetchid, a] | true]\n" +
+            "      └ Collect[doc.t2 | [_fetchid, b] | true]";
+        assertThat(plan, isPlan(expectedPlan));
+    }
+
+    @Test
+    public void test_limit_and_offset_on_right_join_is_pushed_to_the_right_side() {
+        var plan = plan("SELECT * FROM t1 RIGHT JOIN t2 ON t1.a = t2.b LIMIT 3 OFFSET 2");
+        var expectedPlan =
+            "Fetch[a, x, i, b, y, i]\n" +
+            "  └ Limit[3::bigint;2::bigint]\n" +
+            "    └ NestedLoopJoin[RIGHT | (a = b)]\n" +
+            "      ├ Collect[doc.t1 | [_fetchid, a] | true]\n" +
+            "      └ Limit[5::bigint;0::bigint]\n" +
+            "        └ Collect[doc.t2 | [_fetchid, b] | true]";
+        assertThat(plan, isPlan(expectedPlan));
+    }
+
+    @Test
+    public void test_limit_on_sub_select_is_moved_beneath_rename_into_left_join() {
+        var plan = plan(
+            "SELECT * FROM (" +
+            "   SELECT sys.nodes.name, t1.a FROM sys.nodes LEFT JOIN t1 ON sys.nodes.name = t1.a" +
+            ") tjoin LIMIT 3");
+        var expectedPlan =
+            "Rename[name, a] AS tjoin\n" +
+            "  └ Limit[3::bigint;0]\n" +
+            "    └ NestedLoopJoin[LEFT | (name = a)]\n" +
+            "      ├ Limit[3::bigint;0::bigint]\n" +
+            "      │  └ Collect[sys.nodes | [name] | true]\n" +
+            "      └ Collect[doc.t1 | [a] | true]";
+        assertThat(plan, isPlan(expectedPlan));
+    }
+
+    @Test
+    public void test_limit_on_sub_select_is_moved_beneath_eval_into_left_join() {
+        var plan = plan(
+            "SELECT * FROM (" +
+            "   SELECT t1.a, sys.nodes.name FROM sys.nodes LEFT JOIN t1 ON sys.nodes.name = t1.a" +
+            ") tjoin LIMIT 3");
+        var expectedPlan =
+            "Rename[a, name] AS tjoin\n" +
+            "  └ Eval[a, name]\n" +
+            "    └ Limit[3::bigint;0]\n" +
+            "      └ NestedLoopJoin[LEFT | (name = a)]\n" +
+            "        ├ Limit[3::bigint;0::bigint]\n" +
+            "        │  └ Collect[sys.nodes | [name] | true]\n" +
+            "        └ Collect[doc.t1 | [a] | true]";
+        assertThat(plan, isPlan(expectedPlan));
+    }
+
+    @Test
+    public void test_limit_on_union_all_is_copied_beneath_the_union_into_left_join() {
+        var plan = plan(
+            "SELECT sys.nodes.name FROM sys.nodes LEFT JOIN t1 ON sys.nodes.name = t1.a " +
+            "UNION ALL " +
+            "SELECT name FROM sys.cluster " +
+            "LIMIT 3");
+        var expectedPlan =
+            "Limit[3::bigint;0]\n" +
+            "  └ Union[name]\n" +
+            "    ├ Eval[name]\n" +
+            "    │  └ Limit[3::bigint;0::bigint]\n" +
+            "    │    └ NestedLoopJoin[LEFT | (name = a)]\n" +
+            "    │      ├ Limit[3::bigint;0::bigint]\n" +
+            "    │      │  └ Collect[sys.nodes | [name] | true]\n" +
+            "    │      └ Collect[doc.t1 | [a] | true]\n" +
+            "    └ Collect[sys.cluster | [name] | true]";
+        assertThat(plan, isPlan(expectedPlan));
+    }
 }
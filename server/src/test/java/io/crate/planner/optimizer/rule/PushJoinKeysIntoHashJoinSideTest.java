@@ -0,0 +1,119 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.Functions;
+import io.crate.metadata.RelationName;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Match;
+import io.crate.statistics.TableStats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.testing.T3;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static io.crate.testing.TestingHelpers.isSQL;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PushJoinKeysIntoHashJoinSideTest extends CrateDummyClusterServiceUnitTest {
+
+    private SqlExpressions e;
+    private AbstractTableRelation<?> tr1;
+    private AbstractTableRelation<?> tr2;
+    private Functions functions = getFunctions();
+    private PushJoinKeysIntoHashJoinSide rule = new PushJoinKeysIntoHashJoinSide();
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        Map<RelationName, AnalyzedRelation> sources = T3.sources(clusterService);
+        e = new SqlExpressions(sources);
+        tr1 = (AbstractTableRelation<?>) sources.get(T3.T1);
+        tr2 = (AbstractTableRelation<?>) sources.get(T3.T2);
+    }
+
+    private LogicalPlan apply(HashJoin join) {
+        Match<HashJoin> match = rule.pattern().accept(join, Captures.empty());
+        assertThat(match.isPresent(), is(true));
+        return rule.apply(
+            match.value(), match.captures(), new TableStats(), CoordinatorTxnCtx.systemTransactionContext(), functions);
+    }
+
+    private HashJoin join(long t1Rows, long t2Rows, WhereClause t2Where) {
+        Symbol x = e.asSymbol("t1.x");
+        Symbol y = e.asSymbol("t2.y");
+        Collect lhs = new Collect(false, tr1, List.of(x), WhereClause.MATCH_ALL, t1Rows, 10);
+        Collect rhs = new Collect(false, tr2, List.of(y), t2Where, t2Rows, 10);
+        return new HashJoin(lhs, rhs, e.asSymbol("t1.x = t2.y"), tr1);
+    }
+
+    @Test
+    public void test_keys_of_small_filtered_side_are_pushed_into_the_other_side() {
+        LogicalPlan plan = apply(join(1_000_000, 10, new WhereClause(e.asSymbol("t2.b = 'EU'"))));
+
+        assertThat(plan, instanceOf(MultiPhase.class));
+        assertThat(plan.dependencies().size(), is(1));
+        HashJoin join = (HashJoin) ((MultiPhase) plan).source();
+        assertThat(
+            ((Collect) join.lhs()).where().queryOrFallback(),
+            isSQL("(doc.t1.x = ANY((SELECT y FROM (doc.t2))))"));
+        assertThat(((Collect) join.rhs()).where().queryOrFallback(), isSQL("(doc.t2.b = 'EU')"));
+
+        Collect keys = (Collect) plan.dependencies().keySet().iterator().next();
+        assertThat(keys.outputs(), is(List.of(e.asSymbol("t2.y"))));
+        assertThat(keys.where().queryOrFallback(), isSQL("(doc.t2.b = 'EU')"));
+    }
+
+    @Test
+    public void test_keys_are_not_pushed_if_no_side_is_filtered() {
+        assertThat(apply(join(1_000_000, 10, WhereClause.MATCH_ALL)), nullValue());
+    }
+
+    @Test
+    public void test_keys_are_not_pushed_if_the_filtered_side_is_large() {
+        WhereClause where = new WhereClause(e.asSymbol("t2.b = 'EU'"));
+        assertThat(apply(join(1_000_000, PushJoinKeysIntoHashJoinSide.MAX_KEYS + 1, where)), nullValue());
+    }
+
+    @Test
+    public void test_keys_are_not_pushed_if_the_number_of_rows_is_unknown() {
+        WhereClause where = new WhereClause(e.asSymbol("t2.b = 'EU'"));
+        assertThat(apply(join(-1, -1, where)), nullValue());
+    }
+}
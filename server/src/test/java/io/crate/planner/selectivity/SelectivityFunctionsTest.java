@@ -104,4 +104,54 @@ public class SelectivityFunctionsTest extends CrateDummyClusterServiceUnitTest {
         Stats stats = new Stats(100, 16, Map.of(new ColumnIdent("x"), columnStats));
         assertThat(SelectivityFunctions.estimateNumRows(stats, query, null), Matchers.is(50L));
     }
+
+    private static Stats uniformStats(int numRows) {
+        var numbers = IntStream.range(1, numRows + 1)
+            .boxed()
+            .collect(Collectors.toList());
+        var columnStats = ColumnStats.fromSortedValues(numbers, DataTypes.INTEGER, 0, numRows);
+        return new Stats(numRows, 16, Map.of(new ColumnIdent("x"), columnStats));
+    }
+
+    @Test
+    public void test_range_selectivity_is_based_on_histogram() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Stats stats = uniformStats(20_000);
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("x > 15000"), null), Matchers.is(4999L));
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("15000 < x"), null), Matchers.is(4999L));
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("x <= 15000"), null), Matchers.is(15000L));
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("x < 0"), null), Matchers.is(0L));
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("x < 50000"), null), Matchers.is(20_000L));
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("x > ?"), new Row1(15000)), Matchers.is(4999L));
+    }
+
+    @Test
+    public void test_lower_and_upper_bound_on_same_column_are_combined_to_a_range() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Stats stats = uniformStats(20_000);
+        Symbol query = expressions.asSymbol("x >= 1000 and x < 2000");
+        assertThat(SelectivityFunctions.estimateNumRows(stats, query, null), Matchers.is(1000L));
+
+        query = expressions.asSymbol("x between 1000 and 2000");
+        assertThat(SelectivityFunctions.estimateNumRows(stats, query, null), Matchers.is(1000L));
+    }
+
+    @Test
+    public void test_in_list_selectivity_is_the_sum_of_the_eq_selectivities() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Stats stats = uniformStats(20_000);
+        Symbol query = expressions.asSymbol("x in (1, 2, 3)");
+        assertThat(SelectivityFunctions.estimateNumRows(stats, query, null), Matchers.is(3L));
+    }
+
+    @Test
+    public void test_column_eq_column_uses_the_larger_number_of_distinct_values() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        var x = ColumnStats.fromSortedValues(
+            IntStream.range(1, 20_001).boxed().collect(Collectors.toList()), DataTypes.INTEGER, 0, 20_000L);
+        var i = ColumnStats.fromSortedValues(
+            IntStream.range(1, 101).boxed().collect(Collectors.toList()), DataTypes.INTEGER, 0, 100L);
+        Stats stats = new Stats(20_000, 16, Map.of(new ColumnIdent("x"), x, new ColumnIdent("i"), i));
+        assertThat(SelectivityFunctions.estimateNumRows(stats, expressions.asSymbol("i = x"), null), Matchers.is(1L));
+    }
 }
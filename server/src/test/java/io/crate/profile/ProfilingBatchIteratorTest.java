@@ -0,0 +1,52 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ProfilingBatchIteratorTest {
+
+    @Test
+    public void testAllRowsAndBatchesAreCountedAlthoughOnlySomeRowsAreTimed() throws Exception {
+        OperatorStats stats = new OperatorStats("collect");
+        int numRows = ProfilingBatchIterator.SAMPLE_INTERVAL * 3 + 5;
+        BatchIterator<Row> source = new BatchSimulatingIterator<>(
+            TestingBatchIterators.range(0, numRows), 50, 10, null);
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(new ProfilingBatchIterator<>(source, stats), null);
+
+        assertThat(consumer.getResult().size(), is(numRows));
+        assertThat(stats.rowsOut(), is((long) numRows));
+        assertThat(stats.batches(), is(3L));
+    }
+}
@@ -22,8 +22,15 @@
 
 package io.crate.profile;
 
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -40,4 +47,30 @@ public class ProfilingContextTest {
         String key = ProfilingContext.generateProfilingKey(1, null);
         assertThat(key, is("1-null"));
     }
+
+    @Test
+    public void testOperatorsOfPhaseAreReportedInPipelineOrder() throws Exception {
+        ProfilingContext profilingContext = new ProfilingContext(List::of);
+        PhaseProfiler profiler = profilingContext.phaseProfiler(1, "collect");
+        profiler.sink("Distribution");
+        profiler.projector("FilterProjection");
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        profiler.instrumentSource(consumer).accept(TestingBatchIterators.range(0, 5), null);
+        assertThat(consumer.getResult().size(), is(5));
+
+        @SuppressWarnings("unchecked")
+        var operators = (Map<String, List<Map<String, Object>>>) profilingContext.getDurationInMSByTimer()
+            .get(ProfilingContext.OPERATORS);
+        List<Map<String, Object>> operatorsOfPhase = operators.get("1-collect");
+        assertThat(operatorsOfPhase.stream().map(x -> x.get("Name")).collect(Collectors.toList()),
+                   contains("collect", "FilterProjection", "Distribution"));
+        assertThat(operatorsOfPhase.get(0).get("RowsOut"), is(5L));
+    }
+
+    @Test
+    public void testNoOperatorsAreReportedIfNoPhaseIsProfiled() {
+        ProfilingContext profilingContext = new ProfilingContext(List::of);
+        assertThat(profilingContext.getDurationInMSByTimer().containsKey(ProfilingContext.OPERATORS), is(false));
+    }
 }
@@ -25,6 +25,7 @@ package io.crate.protocols.postgres;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.Session;
 import io.crate.action.sql.SessionContext;
+import io.crate.action.sql.StatementCache;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.auth.user.AccessControl;
 import io.crate.data.InMemoryBatchIterator;
@@ -42,6 +43,7 @@ import io.crate.planner.operators.SubQueryResults;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.user.StubUserManager;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
 import org.mockito.Answers;
@@ -103,11 +105,13 @@ public class BatchPortalTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             planner,
+            StatementCache.DISABLED,
             new JobsLogs(() -> false),
             false,
             executor,
             AccessControl.DISABLED,
-            SessionContext.systemSessionContext());
+            SessionContext.systemSessionContext(),
+            new NoopCircuitBreaker("dummy"));
 
         session.parse("S_1", "insert into t1(x) values(1)", Collections.emptyList());
         session.bind("Portal", "S_1", Collections.emptyList(), null);
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.Session;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class CopyInTest extends CrateUnitTest {
+
+    @Test
+    public void test_copy_is_aborted_if_a_row_exceeds_the_max_pending_bytes() {
+        CopyRowDecoder decoder = new CopyRowDecoder(
+            CopyOptions.of(Map.of()),
+            List.of("id", "name"),
+            List.of(PGTypes.get(DataTypes.INTEGER), PGTypes.get(DataTypes.STRING))
+        );
+        CopyIn copyIn = new CopyIn(mock(Session.class), "", mock(Channel.class), decoder, 16);
+
+        copyIn.handleData(Unpooled.copiedBuffer("1\tfoo\n2\t", StandardCharsets.UTF_8));
+        assertThat(copyIn.isDone(), is(false));
+
+        copyIn.handleData(Unpooled.copiedBuffer("a line which is longer than 16 bytes", StandardCharsets.UTF_8));
+        assertThat(copyIn.isDone(), is(true));
+        assertThat(copyIn.result().isCompletedExceptionally(), is(true));
+        Throwable failure = copyIn.result().handle((r, t) -> t).join();
+        assertThat(failure, instanceOf(IllegalArgumentException.class));
+        assertThat(failure.getMessage(), containsString("exceeds the maximum size of 16 bytes"));
+    }
+}
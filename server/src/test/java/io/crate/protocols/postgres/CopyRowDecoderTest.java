@@ -0,0 +1,152 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class CopyRowDecoderTest extends CrateUnitTest {
+
+    private static final List<String> COLUMN_NAMES = List.of("id", "name");
+    private static final List<PGType<?>> COLUMN_TYPES = List.of(
+        PGTypes.get(DataTypes.INTEGER),
+        PGTypes.get(DataTypes.STRING)
+    );
+
+    private static List<Object[]> decode(Map<String, String> options, String... chunks) {
+        CopyRowDecoder decoder = new CopyRowDecoder(CopyOptions.of(options), COLUMN_NAMES, COLUMN_TYPES);
+        ByteBuf buffer = Unpooled.buffer();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < chunks.length; i++) {
+            buffer.writeBytes(chunks[i].getBytes(StandardCharsets.UTF_8));
+            Object[] row;
+            while ((row = decoder.decodeNext(buffer, i == chunks.length - 1)) != null) {
+                rows.add(row);
+            }
+            buffer.discardReadBytes();
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_decode_text_format_with_escapes_and_nulls() {
+        List<Object[]> rows = decode(
+            Map.of(),
+            "1\tfoo\\tbar\n2\t\\N\n3\ta\\\\b\\",
+            "nc\\101\\x42\n4\tlast line without terminator"
+        );
+        assertThat(rows, contains(
+            new Object[] {1, "foo\tbar"},
+            new Object[] {2, null},
+            new Object[] {3, "a\\b\ncAB"},
+            new Object[] {4, "last line without terminator"}
+        ));
+    }
+
+    @Test
+    public void test_decode_text_format_stops_at_end_of_data_marker() {
+        List<Object[]> rows = decode(Map.of("delimiter", "|"), "1|a\\|b\r\n\\.\n2|ignored\n");
+        assertThat(rows.size(), is(1));
+        assertThat(rows.get(0), is(new Object[] {1, "a|b"}));
+    }
+
+    @Test
+    public void test_decode_csv_format_with_quotes_and_header() {
+        List<Object[]> rows = decode(
+            Map.of("format", "csv", "header", "true"),
+            "id,name\n1,\"Hello, \"\"World\"\"\"\n2,\n3,\"\"\n4,\"multi",
+            "\nline\"\n"
+        );
+        assertThat(rows, contains(
+            new Object[] {1, "Hello, \"World\""},
+            new Object[] {2, null},
+            new Object[] {3, ""},
+            new Object[] {4, "multi\nline"}
+        ));
+    }
+
+    @Test
+    public void test_decode_fails_on_missing_column() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid COPY data in row 2: missing data for column \"name\"");
+        decode(Map.of("format", "csv"), "1,a\n2\n");
+    }
+
+    @Test
+    public void test_decode_fails_on_invalid_value() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid COPY data in row 1: invalid value for column \"id\" of type int4");
+        decode(Map.of(), "x\ta\n");
+    }
+
+    @Test
+    public void test_unknown_option_is_rejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("COPY option \"freeze\" not recognized");
+        CopyOptions.of(Map.of("freeze", "true"));
+    }
+
+    @Test
+    public void test_encoded_rows_can_be_decoded_in_all_formats() {
+        for (String format : List.of("text", "csv", "binary")) {
+            CopyOptions options = CopyOptions.of(Map.of("format", format));
+            CopyRowEncoder encoder = new CopyRowEncoder(options, COLUMN_TYPES);
+            ByteBuf buffer = Unpooled.buffer();
+            encoder.writeHeader(buffer, COLUMN_NAMES);
+            encoder.writeRow(buffer, new RowN(1, "tab\t, \"quote\" and \\ backslash\nnewline"));
+            encoder.writeRow(buffer, new RowN(2, null));
+            encoder.writeRow(buffer, new RowN(3, ""));
+            encoder.writeRow(buffer, new RowN(null, "\\."));
+            encoder.writeTrailer(buffer);
+
+            CopyRowDecoder decoder = new CopyRowDecoder(options, COLUMN_NAMES, COLUMN_TYPES);
+            List<Object[]> rows = new ArrayList<>();
+            Object[] row;
+            while ((row = decoder.decodeNext(buffer, true)) != null) {
+                rows.add(row);
+            }
+            assertThat(format, rows, contains(
+                new Object[] {1, "tab\t, \"quote\" and \\ backslash\nnewline"},
+                new Object[] {2, null},
+                new Object[] {3, ""},
+                new Object[] {null, "\\."}
+            ));
+            assertThat(buffer.isReadable(), is(false));
+        }
+    }
+}
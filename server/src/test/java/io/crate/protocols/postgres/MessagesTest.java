@@ -28,33 +28,27 @@ import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
-import io.netty.channel.Channel;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
 import static org.hamcrest.core.Is.is;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 public class MessagesTest extends CrateUnitTest {
 
     @Test
-    public void testBufferInSendDataRowIsReleasedIfGetValueFromRowFails() {
-        Channel channel = mock(Channel.class);
-        ByteBufAllocator byteBufAllocator = mock(ByteBufAllocator.class);
-        ByteBuf buf = Unpooled.buffer();
-        when(byteBufAllocator.buffer()).thenReturn(buf);
-        when(channel.alloc()).thenReturn(byteBufAllocator);
+    public void testBufferIsResetInWriteDataRowIfGetValueFromRowFails() {
+        ByteBuf buffer = Unpooled.buffer();
+        buffer.writeByte(1);
         try {
-            Messages.sendDataRow(
-                channel,
+            Messages.writeDataRow(
+                buffer,
                 new Row() {
                     @Override
                     public int numColumns() {
@@ -69,22 +63,21 @@ public class MessagesTest extends CrateUnitTest {
                 Collections.singletonList(PGTypes.get(DataTypes.INTEGER)),
                 null
             );
-            fail("sendDataRow should raise an exception");
+            fail("writeDataRow should raise an exception");
         } catch (Exception ignored) {
         }
-        assertThat(buf.refCnt(), is(0));
+        assertThat(buffer.writerIndex(), is(1));
+        buffer.release();
     }
 
     @Test
     public void testNullValuesAddToLength() throws Exception {
-        EmbeddedChannel channel = new EmbeddedChannel();
-        Messages.sendDataRow(
-            channel,
+        ByteBuf buffer = Unpooled.buffer();
+        Messages.writeDataRow(
+            buffer,
             new RowN($(10, null)),
             Arrays.asList(PGTypes.get(DataTypes.INTEGER), PGTypes.get(DataTypes.STRING)), null
         );
-        channel.flush();
-        ByteBuf buffer = channel.readOutbound();
 
         try {
             // message type
@@ -95,7 +88,26 @@ public class MessagesTest extends CrateUnitTest {
             assertThat(buffer.readableBytes(), is(12)); // 16 - INT4 because the size was already read
         } finally {
             buffer.release();
-            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testMultipleDataRowsAreWrittenIntoOneBuffer() throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            Messages.writeDataRow(buffer, new RowN($(1)), List.of(PGTypes.get(DataTypes.INTEGER)), null);
+            Messages.writeDataRow(buffer, new RowN($(2)), List.of(PGTypes.get(DataTypes.INTEGER)), null);
+
+            for (int i = 1; i <= 2; i++) {
+                assertThat((char) buffer.readByte(), is('D'));
+                assertThat(buffer.readInt(), is(11));
+                assertThat(buffer.readShort(), is((short) 1));
+                assertThat(buffer.readInt(), is(1));
+                assertThat((char) buffer.readByte(), is(Character.forDigit(i, 10)));
+            }
+            assertThat(buffer.readableBytes(), is(0));
+        } finally {
+            buffer.release();
         }
     }
 
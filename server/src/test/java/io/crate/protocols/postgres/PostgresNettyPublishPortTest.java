@@ -31,6 +31,7 @@ import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.http.BindHttpException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BindTransportException;
 import org.junit.Test;
 
@@ -83,7 +84,8 @@ public class PostgresNettyPublishPortTest extends CrateUnitTest {
             new StubUserManager(),
             networkService,
             new AlwaysOKNullAuthentication(),
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            mock(ThreadPool.class));
         try {
             psql.doStart();
         } finally {
@@ -102,7 +104,8 @@ public class PostgresNettyPublishPortTest extends CrateUnitTest {
             new StubUserManager(),
             networkService,
             new AlwaysOKNullAuthentication(),
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            mock(ThreadPool.class));
         try {
             psql.doStart();
             fail("Should have failed due to custom hostname");
@@ -125,7 +128,8 @@ public class PostgresNettyPublishPortTest extends CrateUnitTest {
             new StubUserManager(),
             networkService,
             new AlwaysOKNullAuthentication(),
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            mock(ThreadPool.class));
         try {
             psql.doStart();
             fail("Should have failed due to custom hostname");
@@ -148,7 +152,8 @@ public class PostgresNettyPublishPortTest extends CrateUnitTest {
             new StubUserManager(),
             networkService,
             new AlwaysOKNullAuthentication(),
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            mock(ThreadPool.class));
         try {
             psql.doStart();
             fail("Should have failed due to custom hostname");
@@ -26,6 +26,7 @@ import io.crate.action.sql.DescribeResult;
 import io.crate.action.sql.SQLOperations;
 import io.crate.action.sql.Session;
 import io.crate.action.sql.SessionContext;
+import io.crate.action.sql.StatementCache;
 import io.crate.auth.AlwaysOKNullAuthentication;
 import io.crate.auth.Authentication;
 import io.crate.auth.AuthenticationMethod;
@@ -49,6 +50,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.settings.SecureString;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -90,11 +92,13 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         sqlOperations = new SQLOperations(
             e.analyzer,
             e.planner,
+            StatementCache.DISABLED,
             () -> mock(DependencyCarrier.class),
             new JobsLogs(() -> true),
             Settings.EMPTY,
             clusterService,
-            USER_MANAGER_PROVIDER
+            USER_MANAGER_PROVIDER,
+            new NoneCircuitBreakerService()
         ) {
             @Override
             public Session createSession(@Nullable String defaultSchema, @Nullable User user) {
@@ -121,7 +125,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 mock(SQLOperations.class),
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buffer = Unpooled.buffer();
@@ -163,7 +168,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 sqlOperations,
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
         AtomicBoolean flushed = new AtomicBoolean(false);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler) {
             @Override
@@ -191,7 +197,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 sqlOperations,
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buffer = Unpooled.buffer();
@@ -216,7 +223,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 sqlOperations,
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
 
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
         {
@@ -274,7 +282,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 sqlOperations,
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
 
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
         {
@@ -336,7 +345,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 mock(SQLOperations.class),
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
 
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
@@ -362,7 +372,7 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
     @Test
     public void testCrateServerVersionIsReceivedOnStartup() throws Exception {
         PostgresWireProtocol ctx = new PostgresWireProtocol(
-            sqlOperations, sessionContext -> AccessControl.DISABLED, new AlwaysOKNullAuthentication(), null);
+            sqlOperations, sessionContext -> AccessControl.DISABLED, new AlwaysOKNullAuthentication(), null, Runnable::run);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buf = Unpooled.buffer();
@@ -416,7 +426,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                         };
                     }
                 },
-                null);
+                null,
+                Runnable::run);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf respBuf;
@@ -453,7 +464,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 sqlOperations,
                 sessionContext -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buffer = Unpooled.buffer();
@@ -503,7 +515,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
                 sqlOperations,
                 sessionCtx -> AccessControl.DISABLED,
                 new AlwaysOKNullAuthentication(),
-                null);
+                null,
+                Runnable::run);
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         if (failure != null) {
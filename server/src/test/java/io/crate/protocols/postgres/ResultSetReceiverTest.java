@@ -25,33 +25,129 @@ package io.crate.protocols.postgres;
 import io.crate.data.Row1;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.types.DataTypes;
-import io.netty.channel.Channel;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Answers;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 
 public class ResultSetReceiverTest {
 
-    @Test
-    public void testChannelIsPeriodicallyFlushedToAvoidConsumingTooMuchMemory() {
-        Channel channel = mock(Channel.class, Answers.RETURNS_DEEP_STUBS);
-        ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
+    // 'D' + length + number of columns + length of the value + '1'
+    private static final int DATA_ROW_SIZE = 1 + 4 + 2 + 4 + 1;
+
+    private EmbeddedChannel channel;
+    private ResultSetReceiver resultSetReceiver;
+    private List<Runnable> resumeTasks;
+
+    @Before
+    public void setUpReceiver() {
+        channel = new EmbeddedChannel();
+        resumeTasks = new ArrayList<>();
+        resultSetReceiver = new ResultSetReceiver(
             "select * from t",
             channel,
             TransactionState.IDLE,
             RuntimeException::new,
             Collections.singletonList(PGTypes.get(DataTypes.INTEGER)),
-            null
+            null,
+            resumeTasks::add
         );
+    }
+
+    @After
+    public void releaseChannel() {
+        channel.finishAndReleaseAll();
+    }
+
+    private void runResumeTasks() {
+        for (Runnable task : resumeTasks) {
+            task.run();
+        }
+        resumeTasks.clear();
+    }
+
+    private void setRows(int numRows) {
         Row1 row1 = new Row1(1);
-        for (int i = 0; i < 1500; i++) {
+        for (int i = 0; i < numRows; i++) {
             resultSetReceiver.setNextRow(row1);
         }
-        verify(channel, times(1)).flush();
+    }
+
+    @Test
+    public void testRowsAreWrittenInBatchesToAvoidConsumingTooMuchMemory() {
+        setRows(1500);
+        assertThat(channel.outboundMessages().size(), is(1));
+        ByteBuf rows = channel.readOutbound();
+        assertThat(rows.readableBytes(), is(ResultSetReceiver.MAX_ROWS_PER_WRITE * DATA_ROW_SIZE));
+        rows.release();
+
+        resultSetReceiver.allFinished(false);
+        ByteBuf remainingRows = channel.readOutbound();
+        assertThat(remainingRows.readableBytes(), is(500 * DATA_ROW_SIZE));
+        remainingRows.release();
+        ByteBuf commandComplete = channel.readOutbound();
+        assertThat((char) commandComplete.readByte(), is('C'));
+        commandComplete.release();
+    }
+
+    @Test
+    public void testConsumptionIsPausedWhileChannelIsNotWritable() {
+        setRows(ResultSetReceiver.MAX_ROWS_PER_WRITE);
+        assertThat(resultSetReceiver.pauseConsumption(), nullValue());
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        CompletableFuture<?> paused = resultSetReceiver.pauseConsumption();
+        assertThat(paused, notNullValue());
+        channel.runPendingTasks();
+        assertThat(paused.isDone(), is(false));
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        resultSetReceiver.channelWritabilityChanged();
+        channel.runPendingTasks();
+        assertThat("consumption must not be resumed on the event loop", paused.isDone(), is(false));
+
+        runResumeTasks();
+        assertThat(paused.isDone(), is(true));
+        assertThat(paused.isCompletedExceptionally(), is(false));
+    }
+
+    @Test
+    public void testConsumptionIsNotPausedWhileRowsAreBuffered() {
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        setRows(10);
+        assertThat(resultSetReceiver.pauseConsumption(), nullValue());
+    }
+
+    @Test
+    public void testPausedConsumptionFailsIfChannelIsClosed() throws Exception {
+        setRows(ResultSetReceiver.MAX_ROWS_PER_WRITE);
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        CompletableFuture<?> paused = resultSetReceiver.pauseConsumption();
+        assertThat(paused, notNullValue());
+
+        channel.close();
+        resultSetReceiver.channelWritabilityChanged();
+        assertThat(paused.isDone(), is(false));
+        runResumeTasks();
+        try {
+            paused.get();
+            fail("paused consumption must fail if the channel is closed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ClientInterrupted.class));
+        }
     }
 }
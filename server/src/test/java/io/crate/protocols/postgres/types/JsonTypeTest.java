@@ -23,10 +23,16 @@
 package io.crate.protocols.postgres.types;
 
 import io.crate.common.collections.MapBuilder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.is;
+
 public class JsonTypeTest extends BasePGTypeTest<Map<String, Object>> {
 
     private Map<String, Object> map = MapBuilder.<String, Object>newMapBuilder()
@@ -53,4 +59,20 @@ public class JsonTypeTest extends BasePGTypeTest<Map<String, Object>> {
         };
         assertBytesReadBinary(bytes, map, 20);
     }
+
+    @Test
+    public void test_text_write_and_read_of_array_value() throws Exception {
+        List<Object> values = List.of(Map.of("x", 10), "foo");
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            int written = pgType.writeAsText(buffer, values);
+            int length = buffer.readInt();
+            assertThat(written, is(4 + length));
+            assertThat(buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8), is("[{\"x\":10},\"foo\"]"));
+            assertThat(pgType.readTextValue(buffer, length), is(values));
+            assertThat(buffer.readableBytes(), is(0));
+        } finally {
+            buffer.release();
+        }
+    }
 }
@@ -141,10 +141,10 @@ public class PGArrayTest extends BasePGTypeTest<PGArray> {
         byte[] bytes = new byte[] {
             0, 0, 0, 44, // length as 4 byte int (not including the length itself)
             0, 0, 0, 1,  // dimensions as 4 byte int
-            0, 0, 0, 1,  // possible nulls flag as 4 byte int
+            0, 0, 0, 0,  // possible nulls flag as 4 byte int
             0, 0, 0, 23, // oid of inner type (here is integer) as 4 byte int
             0, 0, 0, 3,  // dimension max elements as 4 byte int
-            0, 0, 0, 3,  // dimension max elements as 4 byte int
+            0, 0, 0, 1,  // dimension lower bound as 4 byte int
             0, 0, 0, 4,  // length of inner type (here is integer) as 4 type int
             0, 0, 0, 1,  // value
             0, 0, 0, 4,  // length of inner type (here is integer) as 4 type int
@@ -163,6 +163,33 @@ public class PGArrayTest extends BasePGTypeTest<PGArray> {
         assertThat(targetArray, is(source));
     }
 
+    @Test
+    public void test_binary_encoding_sets_has_nulls_flag() {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            pgArray.writeAsBinary(buffer, Arrays.asList(1, null, 3));
+            assertThat(buffer.getInt(8), is(1));
+            int length = buffer.readInt();
+            assertThat(pgArray.readBinaryValue(buffer, length), is(Arrays.asList(1, null, 3)));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void test_json_array_binary_round_trip() {
+        List<Object> source = List.of(Map.of("x", 10), Map.of("y", List.of(1, 2)));
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            PGArray.JSON_ARRAY.writeAsBinary(buffer, source);
+            int length = buffer.readInt();
+            assertThat(PGArray.JSON_ARRAY.readBinaryValue(buffer, length), is(source));
+            assertThat(buffer.readableBytes(), is(0));
+        } finally {
+            buffer.release();
+        }
+    }
+
     @Test
     @Ignore // For multi-dimensions -1 is used both for "padding" until the max length of the dimension,
             // but also for null handling, therefore we cannot distinguish between the two
@@ -30,6 +30,8 @@ import org.junit.Test;
 
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 public class RecordTypeTest extends BasePGTypeTest<RecordType> {
 
@@ -60,4 +62,35 @@ public class RecordTypeTest extends BasePGTypeTest<RecordType> {
         var str = new String(bytes, StandardCharsets.UTF_8);
         assertThat(str, Matchers.is("(10,\"\",,foo)"));
     }
+
+    @Test
+    public void test_record_binary_round_trip_with_null_value() throws Exception {
+        Row record = new RowN(10, "", null, "foo", "foo bar");
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            int written = pgType.writeAsBinary(buffer, record);
+            int length = buffer.readInt();
+            assertThat(written, Matchers.is(4 + length));
+            assertThat(buffer.readableBytes(), Matchers.is(length));
+
+            Row readRecord = (Row) pgType.readBinaryValue(buffer, length);
+            assertThat(readRecord.materialize(), Matchers.is(record.materialize()));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void test_anonymous_record_binary_decoding_uses_field_oids() throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            new RecordType(List.of(IntegerType.INSTANCE, VarCharType.INSTANCE))
+                .writeAsBinary(buffer, new RowN(1, "foo"));
+            int length = buffer.readInt();
+            Row readRecord = RecordType.EMPTY_RECORD.readBinaryValue(buffer, length);
+            assertThat(readRecord.materialize(), Matchers.arrayContaining(1, "foo"));
+        } finally {
+            buffer.release();
+        }
+    }
 }
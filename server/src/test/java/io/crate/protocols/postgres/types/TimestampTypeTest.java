@@ -61,6 +61,21 @@ public class TimestampTypeTest extends BasePGTypeTest<Long> {
             is("1000-12-22 00:00:00.000+00 BC"));
     }
 
+    @Test
+    public void test_write_as_text_matches_utf8_text_encoding() {
+        for (long value : new long[] { 1467072000123L, -1L, -93661920000000L, 253402300800000L }) {
+            ByteBuf buffer = Unpooled.buffer();
+            try {
+                pgType.writeAsText(buffer, value);
+                buffer.readInt();
+                assertThat(buffer.toString(StandardCharsets.UTF_8),
+                    is(new String(TimestampType.INSTANCE.encodeAsUTF8Text(value), StandardCharsets.UTF_8)));
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
     @Test
     public void testDecodeUTF8TextWithUnexpectedNumberOfFractionDigits() {
         expectedException.expect(DateTimeParseException.class);
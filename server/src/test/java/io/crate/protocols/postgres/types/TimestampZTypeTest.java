@@ -60,6 +60,25 @@ public class TimestampZTypeTest extends BasePGTypeTest<Long> {
             is("1000-12-22 00:00:00.000+00 BC"));
     }
 
+    @Test
+    public void test_write_as_text_matches_utf8_text_encoding() {
+        long[] values = new long[] {
+            1467072000000L, 1467072000001L, -1L, 0L, -93661920000000L, -62135596800000L, 253402300799999L, 253402300800000L
+        };
+        for (long value : values) {
+            ByteBuf buffer = Unpooled.buffer();
+            try {
+                int written = pgType.writeAsText(buffer, value);
+                int length = buffer.readInt();
+                assertThat(written, is(4 + length));
+                assertThat(buffer.toString(StandardCharsets.UTF_8),
+                    is(new String(TimestampZType.INSTANCE.encodeAsUTF8Text(value), StandardCharsets.UTF_8)));
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
     @Test
     public void testDecodeUTF8TextWithUnexpectedNumberOfFractionDigits() {
         expectedException.expect(IllegalArgumentException.class);
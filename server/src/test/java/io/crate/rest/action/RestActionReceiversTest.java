@@ -23,6 +23,7 @@
 package io.crate.rest.action;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.action.sql.SQLActionException;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowAccountingWithEstimators;
 import io.crate.data.Row;
@@ -35,14 +36,27 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class RestActionReceiversTest extends CrateUnitTest {
 
@@ -113,6 +127,108 @@ public class RestActionReceiversTest extends CrateUnitTest {
         assertXContentBuilder(actualBuilder, builder.build());
     }
 
+    @Test
+    public void testRestResultSetStreamingReceiverWritesBatchesAsChunks() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        AtomicInteger fetchNextBatchCalls = new AtomicInteger(0);
+        RestResultSetStreamingReceiver receiver = new RestResultSetStreamingReceiver(
+            channel,
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            fields,
+            0L,
+            new RowAccountingWithEstimators(Symbols.typeView(fields), RamAccounting.NO_ACCOUNTING),
+            true,
+            t -> new SQLActionException(t.getMessage(), 5000, HttpResponseStatus.INTERNAL_SERVER_ERROR),
+            false,
+            r -> fetchNextBatchCalls.incrementAndGet()
+        );
+        receiver.setNextRow(rows.get(0));
+        receiver.batchFinished();
+        assertThat(channel.readOutbound(), instanceOf(HttpResponse.class));
+        HttpContent firstChunk = channel.readOutbound();
+        assertThat(firstChunk, not(instanceOf(LastHttpContent.class)));
+
+        channel.runPendingTasks();
+        assertThat(fetchNextBatchCalls.get(), is(1));
+
+        receiver.setNextRow(rows.get(1));
+        receiver.setNextRow(rows.get(2));
+        receiver.allFinished(false);
+        HttpContent lastChunk = channel.readOutbound();
+        assertThat(lastChunk, instanceOf(LastHttpContent.class));
+        assertThat(receiver.completionFuture().isDone(), is(true));
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(JsonXContent.contentBuilder());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+        assertEquals(
+            stripDuration(Strings.toString(builder.build())),
+            stripDuration(firstChunk.content().toString(StandardCharsets.UTF_8) +
+                          lastChunk.content().toString(StandardCharsets.UTF_8))
+        );
+    }
+
+    @Test
+    public void testRestResultSetStreamingReceiverWritesErrorAfterFirstChunk() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestResultSetStreamingReceiver receiver = new RestResultSetStreamingReceiver(
+            channel,
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            fields,
+            0L,
+            new RowAccountingWithEstimators(Symbols.typeView(fields), RamAccounting.NO_ACCOUNTING),
+            false,
+            t -> new SQLActionException(t.getMessage(), 5000, HttpResponseStatus.INTERNAL_SERVER_ERROR),
+            false,
+            r -> {}
+        );
+        receiver.setNextRow(rows.get(0));
+        receiver.batchFinished();
+        receiver.fail(new IllegalStateException("bad things happened"));
+
+        assertThat(channel.readOutbound(), instanceOf(HttpResponse.class));
+        HttpContent firstChunk = channel.readOutbound();
+        HttpContent lastChunk = channel.readOutbound();
+        assertThat(lastChunk, instanceOf(LastHttpContent.class));
+        assertThat(
+            firstChunk.content().toString(StandardCharsets.UTF_8) + lastChunk.content().toString(StandardCharsets.UTF_8),
+            is("{\"cols\":[\"doc.col_a\",\"doc.col_b\",\"doc.col_c\"],\"rows\":[[\"foo\",1,true]]," +
+               "\"error\":{\"message\":\"SQLActionException[bad things happened]\",\"code\":5000}}")
+        );
+        assertThat(channel.isOpen(), is(false));
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(false));
+    }
+
+    @Test
+    public void testRestResultSetStreamingReceiverFailsFutureIfNothingWasSent() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestResultSetStreamingReceiver receiver = new RestResultSetStreamingReceiver(
+            channel,
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            fields,
+            0L,
+            new RowAccountingWithEstimators(Symbols.typeView(fields), RamAccounting.NO_ACCOUNTING),
+            false,
+            t -> new SQLActionException(t.getMessage(), 5000, HttpResponseStatus.INTERNAL_SERVER_ERROR),
+            false,
+            r -> {}
+        );
+        receiver.setNextRow(rows.get(0));
+        receiver.fail(new IllegalStateException("bad things happened"));
+
+        assertThat(channel.outboundMessages().isEmpty(), is(true));
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(true));
+    }
+
     @Test
     public void testRestBulkRowCountReceiver() throws Exception {
         RestBulkRowCountReceiver.Result[] results = new RestBulkRowCountReceiver.Result[] {
@@ -0,0 +1,141 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.xcontent.support;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class RecordingXContentGeneratorTests extends ESTestCase {
+
+    private static RecordingXContentGenerator newGenerator(BytesStreamOutput out) throws IOException {
+        return new RecordingXContentGenerator(
+            JsonXContent.JSON_XCONTENT.createGenerator(out, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    public void testReplayedTokensMatchJsonParser() throws IOException {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("s", "foo");
+        nested.put("b", true);
+        nested.put("n", null);
+        nested.put("empty", Collections.emptyMap());
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("int", 10);
+        source.put("short", (short) 3);
+        source.put("long_small", 20L);
+        source.put("long", Long.MAX_VALUE);
+        source.put("big", new BigInteger("123456789012345678901234567890"));
+        source.put("float", 1.1f);
+        source.put("double", 2.2d);
+        source.put("nan", Double.NaN);
+        source.put("string", "bar");
+        source.put("binary", new byte[] {1, 2, 3});
+        source.put("list", List.of(1, "two", List.of(3.0d), Map.of("x", 4)));
+        source.put("obj", nested);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        RecordingXContentGenerator generator = newGenerator(out);
+        try (XContentBuilder builder = new XContentBuilder(generator, out)) {
+            builder.map(source);
+        }
+        XContentTokens tokens = generator.tokens();
+        assertThat(tokens, notNullValue());
+
+        try (XContentParser expected = JsonXContent.JSON_XCONTENT.createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, out.bytes().streamInput());
+             XContentParser actual = tokens.createParser(
+                 NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION)) {
+            XContentParser.Token token;
+            while ((token = expected.nextToken()) != null) {
+                assertThat(actual.nextToken(), is(token));
+                assertThat(actual.currentName(), is(expected.currentName()));
+                if (token == XContentParser.Token.VALUE_NUMBER) {
+                    if ("big".equals(expected.currentName())) {
+                        assertThat(actual.numberValue(), is(expected.numberValue()));
+                    } else {
+                        assertThat(actual.numberType(), is(expected.numberType()));
+                        assertThat(actual.numberValue(), is(expected.numberValue()));
+                        assertThat(actual.floatValue(), is(expected.floatValue()));
+                        assertThat(actual.text(), is(expected.text()));
+                    }
+                } else if (token.isValue()) {
+                    assertThat(actual.objectText(), is(expected.objectText()));
+                }
+                if ("binary".equals(expected.currentName())) {
+                    assertThat(actual.binaryValue(), is(expected.binaryValue()));
+                }
+                if ("empty".equals(expected.currentName()) && token == XContentParser.Token.START_OBJECT) {
+                    expected.skipChildren();
+                    actual.skipChildren();
+                    assertThat(actual.currentToken(), is(expected.currentToken()));
+                }
+            }
+            assertThat(actual.nextToken(), nullValue());
+        }
+    }
+
+    public void testRawValuesAreNotRecorded() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        RecordingXContentGenerator generator = newGenerator(out);
+        try (XContentBuilder builder = new XContentBuilder(generator, out)) {
+            builder.startObject();
+            try (InputStream raw = new BytesArray("{\"x\": 1}").streamInput()) {
+                generator.writeRawField("raw", raw, XContentType.JSON);
+            }
+            builder.endObject();
+        }
+        assertThat(generator.tokens(), nullValue());
+        assertThat(out.bytes().utf8ToString(), startsWith("{\"raw\":"));
+    }
+
+    public void testReadMapFromTokens() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        RecordingXContentGenerator generator = newGenerator(out);
+        Map<String, Object> source = Map.of("a", Arrays.asList(1, 2, null), "b", Map.of("c", "d"));
+        try (XContentBuilder builder = new XContentBuilder(generator, out)) {
+            builder.map(source);
+        }
+        try (XContentParser parser = generator.tokens().createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION)) {
+            assertThat(parser.map(), is(source));
+        }
+    }
+}
@@ -3138,6 +3138,82 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    @Test
+    public void testIndexBatchOfAppendOnlyOperationsOnPrimary() throws IOException {
+        List<Engine.Index> operations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ParsedDocument doc = testParsedDocument(Integer.toString(i), null, testDocumentWithTextField(),
+                                                    new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+            operations.add(appendOnlyPrimary(doc, false, 1));
+        }
+        List<Engine.IndexResult> results = engine.indexBatch(operations);
+
+        assertThat(results, hasSize(5));
+        assertLuceneOperations(engine, 5, 0, 0);
+        assertThatIfAssertionEnabled(engine.getNumVersionLookups(), is(0L));
+        for (int i = 0; i < results.size(); i++) {
+            Engine.IndexResult result = results.get(i);
+            assertThat(result.getResultType(), is(Engine.Result.Type.SUCCESS));
+            assertThat(result.getSeqNo(), is((long) i));
+            assertThat(result.getVersion(), is(1L));
+            assertNotNull(result.getTranslogLocation());
+            if (i > 0) {
+                assertTrue(result.getTranslogLocation().compareTo(results.get(i - 1).getTranslogLocation()) > 0);
+            }
+        }
+        assertThat(engine.getLocalCheckpointTracker().getProcessedCheckpoint(), is(4L));
+        try (Translog.Snapshot snapshot = getTranslog(engine).newSnapshot()) {
+            assertThat(snapshot.totalOperations(), is(5));
+        }
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            TopDocs topDocs = searcher.searcher().search(new MatchAllDocsQuery(), 10);
+            assertEquals(5, topDocs.totalHits.value);
+        }
+    }
+
+    @Test
+    public void testIndexBatchWithRetriedOperationUpdatesOnlyTheRetriedDocument() throws IOException {
+        ParsedDocument doc1 = testParsedDocument("1", null, testDocumentWithTextField(),
+                                                 new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+        ParsedDocument doc2 = testParsedDocument("2", null, testDocumentWithTextField(),
+                                                 new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+        engine.index(appendOnlyPrimary(doc1, false, 1));
+        assertLuceneOperations(engine, 1, 0, 0);
+
+        List<Engine.IndexResult> results = engine.indexBatch(List.of(
+            appendOnlyPrimary(doc1, true, 1),
+            appendOnlyPrimary(doc2, false, 2)
+        ));
+
+        assertThat(results.get(0).getResultType(), is(Engine.Result.Type.SUCCESS));
+        assertThat(results.get(1).getResultType(), is(Engine.Result.Type.SUCCESS));
+        assertLuceneOperations(engine, 2, 1, 0);
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            TopDocs topDocs = searcher.searcher().search(new MatchAllDocsQuery(), 10);
+            assertEquals(2, topDocs.totalHits.value);
+        }
+    }
+
+    @Test
+    public void testIndexBatchOfAppendOnlyOperationsOnReplica() throws IOException {
+        List<Engine.Index> operations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ParsedDocument doc = testParsedDocument(Integer.toString(i), null, testDocumentWithTextField(),
+                                                    new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+            operations.add(appendOnlyReplica(doc, false, 1, i));
+        }
+        List<Engine.IndexResult> results = engine.indexBatch(operations);
+
+        assertLuceneOperations(engine, 3, 0, 0);
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).getResultType(), is(Engine.Result.Type.SUCCESS));
+            assertThat(results.get(i).getSeqNo(), is((long) i));
+        }
+        assertThat(engine.getLocalCheckpointTracker().getProcessedCheckpoint(), is(2L));
+    }
+
     @Test
     public void testDoubleDeliveryReplicaAppendingAndDeleteOnly() throws IOException {
         final ParsedDocument doc = testParsedDocument("1", null, testDocumentWithTextField(),